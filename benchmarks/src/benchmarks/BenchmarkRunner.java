@@ -0,0 +1,120 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and gates performance regressions against a baseline.<br/>
+ * Usage: {@code BenchmarkRunner [--save file] [--baseline file] [--tolerance fraction] [regexp...]}
+ * <ul>
+ * <li>{@code regexp} - runs only the benchmarks that match one of the expressions (all by default)</li>
+ * <li>{@code --save} - saves the scores as the baseline of the next runs</li>
+ * <li>{@code --baseline} - compares the scores with a saved baseline, and exits with status 1
+ * if any benchmark is slower than its baseline by more than the tolerance (10% by default),
+ * beyond the error margin of its score</li>
+ * </ul>
+ * All the benchmarks measure the time of an operation, so a higher score is always worse.
+ * Only baselines saved on the same machine and JVM are comparable.
+ */
+public final class BenchmarkRunner {
+    /** Don't let anyone instantiate this class. */
+    private BenchmarkRunner() {}
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the command line arguments, see the class documentation
+     * @throws RunnerException if the benchmarks fail to run
+     * @throws IOException     if the baseline cannot be read or saved
+     */
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path save = null;
+        Path baseline = null;
+        double tolerance = 0.1;
+        List<String> includes = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--save" -> save = Path.of(args[++i]);
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                default -> includes.add(args[i]);
+            }
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        for (String include : includes) options.include(include);
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        Properties scores = new Properties();
+        for (RunResult result : results)
+            scores.setProperty(label(result.getParams()), Double.toString(result.getPrimaryResult().getScore()));
+        if (save != null)
+            try (Writer writer = Files.newBufferedWriter(save)) {
+                scores.store(writer, "Benchmark scores (time per operation, lower is better)");
+            }
+
+        if (baseline != null && regressions(results, baseline, tolerance) > 0)
+            System.exit(1);
+    }
+
+    /**
+     * Compares the scores of the benchmarks with their baseline and prints the regressions.
+     *
+     * @param results   the results of the benchmarks
+     * @param baseline  the file of the baseline scores
+     * @param tolerance the fraction of the baseline score that a benchmark may be slower by
+     * @return the amount of regressions
+     * @throws IOException if the baseline cannot be read
+     */
+    private static int regressions(Collection<RunResult> results, Path baseline, double tolerance) throws IOException {
+        Properties expected = new Properties();
+        try (Reader reader = Files.newBufferedReader(baseline)) {
+            expected.load(reader);
+        }
+
+        int regressions = 0;
+        for (RunResult result : results) {
+            String label = label(result.getParams());
+            String value = expected.getProperty(label);
+            if (value == null) continue;
+
+            Result<?> score = result.getPrimaryResult();
+            double base = Double.parseDouble(value);
+            double error = Double.isNaN(score.getScoreError()) ? 0 : score.getScoreError();
+            if (score.getScore() - error > base * (1 + tolerance)) {
+                regressions++;
+                System.out.printf("REGRESSION %s: %.3f %s, baseline %.3f%n",
+                        label, score.getScore(), score.getScoreUnit(), base);
+            }
+        }
+        System.out.printf("%d regression(s) of %d benchmark(s)%n", regressions, results.size());
+        return regressions;
+    }
+
+    /**
+     * Builds a label that identifies a benchmark together with its parameters.
+     *
+     * @param params the parameters of the benchmark run
+     * @return the label
+     */
+    private static String label(BenchmarkParams params) {
+        StringBuilder label = new StringBuilder(params.getBenchmark());
+        for (String key : params.getParamsKeys())
+            label.append(':').append(key).append('=').append(params.getParam(key));
+        return label.toString();
+    }
+}
@@ -0,0 +1,188 @@
+package benchmarks;
+
+import static java.awt.Color.*;
+
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+import renderer.WavefrontRayTracer;
+import scene.Scene;
+import special.TeapotTest;
+
+import java.util.Random;
+
+/**
+ * Builds the scenes of the existing rendering tests for the benchmarks. Each scene is built
+ * with the camera placement of its test, so a benchmark traces the same rays as the test does.
+ * The images are never written, the rendered pixels stay in memory.
+ */
+final class BenchmarkScenes {
+    /** The names of the scenes, to be used as values of a benchmark parameter */
+    static final String TEAPOT = "teapot";
+    static final String FINAL_PRESENTATION = "finalPresentation";
+    static final String GLOSS = "gloss";
+    static final String DIFFUSE = "diffuse";
+
+    /** The names of the ray tracers, to be used as values of a benchmark parameter */
+    static final String SIMPLE = "simple";
+    static final String WAVEFRONT = "wavefront";
+
+    /** The seed of all the random data of the benchmarks, so every run measures the same work */
+    static final long SEED = 19824491L;
+
+    /** Don't let anyone instantiate this class. */
+    private BenchmarkScenes() {}
+
+    /**
+     * Builds the scene and the camera of a test, for an image of the given resolution.
+     * The camera renders on a single thread, so the results do not depend on the scheduling,
+     * and casts a single ray through each pixel - the super sampling of the test is left to the caller.
+     *
+     * @param name       the name of the scene
+     * @param resolution the amount of pixels in a row and in a column of the image
+     * @return the camera builder, with a ray tracer of the scene
+     * @throws IllegalArgumentException if there is no scene of the given name
+     */
+    static Camera.Builder camera(String name, int resolution) {
+        return camera(name, resolution, SIMPLE);
+    }
+
+    /**
+     * Builds the scene and the camera of a test, for an image of the given resolution,
+     * with the given ray tracer.
+     *
+     * @param name       the name of the scene
+     * @param resolution the amount of pixels in a row and in a column of the image
+     * @param tracer     the name of the ray tracer
+     * @return the camera builder, with a ray tracer of the scene
+     * @throws IllegalArgumentException if there is no scene or ray tracer of the given name
+     */
+    static Camera.Builder camera(String name, int resolution, String tracer) {
+        Scene scene = new Scene(name);
+        Camera.Builder builder = Camera.getBuilder()
+                .setRayTracer(switch (tracer) {
+                    case SIMPLE -> new SimpleRayTracer(scene);
+                    case WAVEFRONT -> new WavefrontRayTracer(scene);
+                    default -> throw new IllegalArgumentException("Unknown ray tracer: " + tracer);
+                })
+                .setImageWriter(new ImageWriter(name, resolution, resolution));
+
+        switch (name) {
+            case TEAPOT -> {
+                // TeapotTest
+                scene.geometries.add(TeapotTest.triangles());
+                scene.geometries.setBVH(true);
+                scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(100, 0, -100)).setKq(0.000001));
+                builder.setLocation(new Point(0, 0, -1000))
+                        .setDirection(new Vector(0, 0, 1), new Vector(0, 1, 0))
+                        .setVpDistance(1000).setVpSize(200, 200);
+            }
+            case FINAL_PRESENTATION -> {
+                // FinalPresentation
+                scene.geometries.add(
+                        new Triangle(new Point(30, -35, 300), new Point(-30, -35, 300), new Point(30, 40, 300))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.05).setKt(0.95).setDiff(250)),
+                        new Triangle(new Point(-30, 40, 300), new Point(30, 40, 300), new Point(-30, -35, 300))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.05).setKt(0.95).setDiff(250)),
+                        new Sphere(25d, new Point(0, 0, 250))
+                                .setEmission(new Color(RED))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.15).setKr(0.5).setShininess(30)),
+                        new Sphere(10d, new Point(0, -30, 350))
+                                .setEmission(new Color(BLACK))
+                                .setMaterial(new Material().setKd(0.05).setKs(0.15).setKr(0.85).setGloss(225)),
+                        new Plane(new Point(0, -40, 0), new Vector(0, 1, 0))
+                                .setEmission(new Color(45, 100, 210))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.15)));
+                scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.1));
+                scene.lights.add(new SpotLight(new Color(WHITE), new Point(0, -30, 370), new Vector(0, 0, -1)).setKl(4E-5).setKq(2E-7));
+                scene.lights.add(new DirectionalLight(new Color(100, 100, 100), new Vector(1, 0, 0)));
+                scene.lights.add(new PointLight(new Color(GREEN), new Point(0, 0, 360)).setKl(0.001).setKq(0.0005));
+                builder.setLocation(new Point(0, 0, 1000)).setDirection(Point.ZERO, Vector.Y)
+                        .setVpSize(200, 200).setVpDistance(1000);
+            }
+            case GLOSS -> {
+                // GlossDiffuseTests.GlossTest
+                scene.geometries.add(
+                        new Sphere(50d, new Point(0, 0, 0))
+                                .setEmission(new Color(RED))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30).setKr(0.85).setGloss(225)),
+                        new Triangle(new Point(-150, 100, 400), new Point(150, 100, 400), new Point(0, 0, -750))
+                                .setEmission(new Color(0, 100, 0))
+                                .setMaterial(new Material().setKd(0.05).setKs(0.15)),
+                        new Triangle(new Point(-150, -100, 400), new Point(150, -100, 400), new Point(0, 0, -750))
+                                .setEmission(new Color(0, 0, 100))
+                                .setMaterial(new Material().setKd(0.05).setKs(0.15).setKr(0.85).setGloss(225)));
+                scene.lights.add(new DirectionalLight(new Color(200, 200, 200), new Vector(0, 0, -1)));
+                builder.setLocation(new Point(0, 0, 1000)).setDirection(Point.ZERO, Vector.Y)
+                        .setVpDistance(7500).setVpSize(2500, 2500);
+            }
+            case DIFFUSE -> {
+                // GlossDiffuseTests.DiffuseTest2
+                scene.geometries.add(
+                        new Sphere(50d, new Point(0, 0, 100))
+                                .setEmission(new Color(BLUE))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30).setKt(0.75).setDiff(250)),
+                        new Sphere(25d, new Point(-25, 0, 0))
+                                .setEmission(new Color(RED))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)),
+                        new Triangle(new Point(0, 0, 0), new Point(150, -100, 0), new Point(0, 100, 0))
+                                .setMaterial(new Material().setKd(0.05).setKs(0.15).setKt(0.95).setDiff(250)),
+                        new Sphere(25d, new Point(50, 0, -100))
+                                .setEmission(new Color(RED))
+                                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)));
+                scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.05));
+                scene.lights.add(new SpotLight(new Color(255, 255, 255), new Point(0, 0, 200), new Vector(-1, -1, -4))
+                        .setKl(4E-4).setKq(2E-5));
+                builder.setLocation(new Point(0, 0, 1000)).setDirection(Point.ZERO, Vector.Y)
+                        .setVpDistance(7500).setVpSize(2500, 2500);
+            }
+            default -> throw new IllegalArgumentException("Unknown scene: " + name);
+        }
+        return builder;
+    }
+
+    /**
+     * Generates random rays, with heads on a sphere around the origin, aimed at random points
+     * of a cube around the origin - about half of them are expected to hit a geometry of the cube.
+     *
+     * @param random the random generator
+     * @param count  the amount of rays
+     * @param size   the half edge of the cube
+     * @return the rays
+     */
+    static Ray[] rays(Random random, int count, double size) {
+        Ray[] rays = new Ray[count];
+        for (int i = 0; i < count; i++) {
+            Vector toHead = new Vector(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            Point head = Point.ZERO.add(toHead.normalize().scale(size * 4));
+            Point target = randomPoint(random, size);
+            rays[i] = new Ray(head, target.subtract(head));
+        }
+        return rays;
+    }
+
+    /**
+     * Generates a random point in a cube around the origin.
+     *
+     * @param random the random generator
+     * @param size   the half edge of the cube
+     * @return the point
+     */
+    static Point randomPoint(Random random, double size) {
+        return new Point((random.nextDouble() * 2 - 1) * size,
+                (random.nextDouble() * 2 - 1) * size,
+                (random.nextDouble() * 2 - 1) * size);
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Blackboard;
+
+/**
+ * Benchmarks of the point generation of the {@link Blackboard}, for the amounts of rays of the
+ * super sampling and of the gloss and diffuse effects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class BlackboardBenchmark {
+    /** The amount of points to generate */
+    @Param({"9", "81", "289"})
+    public int numberOfRays;
+
+    private final Point center = new Point(0, 0, -100);
+    private final Ray ray = new Ray(Point.ZERO, new Vector(0.1, 0.2, -1));
+
+    @Benchmark
+    public List<Point> generatePointsSquare() {
+        return Blackboard.generatePointsSquare(center, 2, Vector.Y, new Vector(1, 0, 0), numberOfRays);
+    }
+
+    @Benchmark
+    public List<Point> generatePointsCircle() {
+        return Blackboard.generatePointsCircle(ray, center, 2, numberOfRays);
+    }
+}
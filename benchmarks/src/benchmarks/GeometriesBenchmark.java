@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Intersectable.GeoPoint;
+import geometries.Sphere;
+import geometries.Triangle;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * Benchmarks of the intersection of a collection of N random spheres and triangles with a ray,
+ * with and without the bounding volume hierarchy, for the three kinds of queries of the ray tracer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class GeometriesBenchmark {
+    /** The amount of rays in the pool, a power of two */
+    private static final int POOL = 1024;
+    /** The half edge of the cube that contains the geometries */
+    private static final double SIZE = 100;
+
+    /** The amount of geometries in the collection */
+    @Param({"10", "100", "1000", "10000"})
+    public int n;
+
+    /** Whether the collection is accelerated by a bounding volume hierarchy */
+    @Param({"false", "true"})
+    public boolean bvh;
+
+    private Geometries geometries;
+    private Ray[] rays;
+    private int next = 0;
+
+    /**
+     * Creates the collection and the pool of rays. Half of the geometries are spheres and half are
+     * triangles, all of them sized so the density of the collection does not depend on N.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkScenes.SEED);
+        double radius = SIZE / Math.cbrt(n);
+        Intersectable[] items = new Intersectable[n];
+        for (int i = 0; i < n; i++) {
+            Point center = BenchmarkScenes.randomPoint(random, SIZE);
+            if (i % 2 == 0)
+                items[i] = new Sphere(radius / 2, center);
+            else
+                items[i] = new Triangle(center,
+                        center.add(new Vector(radius, random.nextDouble(), random.nextDouble())),
+                        center.add(new Vector(random.nextDouble(), radius, random.nextDouble())));
+        }
+        geometries = new Geometries(items);
+        if (bvh) geometries.buildBVH();
+        rays = BenchmarkScenes.rays(random, POOL, SIZE);
+    }
+
+    /**
+     * Advances to the next ray of the pool.
+     *
+     * @return the ray
+     */
+    private Ray next() {
+        return rays[next = (next + 1) & (POOL - 1)];
+    }
+
+    @Benchmark
+    public List<GeoPoint> findGeoIntersections() {
+        return geometries.findGeoIntersections(next());
+    }
+
+    @Benchmark
+    public GeoPoint findClosestGeoIntersection() {
+        return geometries.findClosestGeoIntersection(next());
+    }
+
+    @Benchmark
+    public Double3 findTransparency() {
+        return geometries.findTransparency(next(), Double.POSITIVE_INFINITY);
+    }
+}
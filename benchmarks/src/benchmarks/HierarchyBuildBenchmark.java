@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import geometries.BVHConstruction;
+import geometries.Intersectable.GeoPoint;
+import geometries.TriangleMesh;
+import primitives.Point;
+import primitives.Ray;
+
+/**
+ * Benchmarks of the construction of the bounding volume hierarchy of a mesh of N random small
+ * triangles, by each construction algorithm, and of the closest intersection of a ray with the
+ * mesh through the hierarchy each of them builds - the time of the build against the quality of
+ * the tree. The linear constructions build in parallel, so their time depends on the cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class HierarchyBuildBenchmark {
+    /** The amount of rays in the pool, a power of two */
+    private static final int POOL = 1024;
+    /** The half edge of the cube that contains the triangles */
+    private static final double SIZE = 100;
+
+    /** The amount of triangles of the mesh */
+    @Param({"10000", "100000", "1000000"})
+    public int n;
+
+    /** The construction algorithm of the hierarchy */
+    @Param({"SAH", "LINEAR", "LINEAR_TREELETS"})
+    public BVHConstruction construction;
+
+    private double[] vertices;
+    private int[] indices;
+    private TriangleMesh mesh;
+    private Ray[] rays;
+    private int next = 0;
+
+    /**
+     * Creates the triangles, sized so the density of the mesh does not depend on N, the mesh, and
+     * the pool of rays.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkScenes.SEED);
+        double edge = 2 * SIZE / Math.cbrt(n);
+        vertices = new double[9 * n];
+        indices = new int[3 * n];
+        for (int i = 0; i < n; i++) {
+            Point p = BenchmarkScenes.randomPoint(random, SIZE);
+            for (int v = 0; v < 3; v++) {
+                vertices[9 * i + 3 * v] = p.getX() + (v == 1 ? edge : 0) + random.nextDouble() * edge / 4;
+                vertices[9 * i + 3 * v + 1] = p.getY() + (v == 2 ? edge : 0) + random.nextDouble() * edge / 4;
+                vertices[9 * i + 3 * v + 2] = p.getZ() + random.nextDouble() * edge / 4;
+                indices[3 * i + v] = 3 * i + v;
+            }
+        }
+        mesh = new TriangleMesh(vertices, indices, construction);
+        rays = BenchmarkScenes.rays(random, POOL, SIZE);
+    }
+
+    @Benchmark
+    public TriangleMesh build() {
+        return new TriangleMesh(vertices, indices, construction);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public GeoPoint findClosestGeoIntersection() {
+        return mesh.findClosestGeoIntersection(rays[next = (next + 1) & (POOL - 1)]);
+    }
+}
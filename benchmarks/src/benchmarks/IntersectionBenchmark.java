@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import geometries.Intersectable;
+import geometries.Intersectable.GeoPoint;
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Sphere;
+import geometries.Triangle;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * Benchmarks of the intersection of a single geometry with a ray, both of all the intersections
+ * and of the closest one. The rays are a fixed pool of random rays, about half of which hit the geometry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class IntersectionBenchmark {
+    /** The amount of rays in the pool, a power of two */
+    private static final int POOL = 1024;
+
+    /** The geometry to intersect */
+    @Param({"sphere", "plane", "triangle", "polygon"})
+    public String geometry;
+
+    private Intersectable intersectable;
+    private Ray[] rays;
+    private int next = 0;
+
+    /**
+     * Creates the geometry and the pool of rays.
+     */
+    @Setup
+    public void setup() {
+        intersectable = switch (geometry) {
+            case "sphere" -> new Sphere(1, Point.ZERO);
+            case "plane" -> new Plane(Point.ZERO, new Vector(0, 0, 1));
+            case "triangle" -> new Triangle(new Point(-1, -1, 0), new Point(1, -1, 0), new Point(0, 1, 0));
+            case "polygon" -> new Polygon(new Point(-1, -1, 0), new Point(1, -1, 0), new Point(1, 1, 0),
+                    new Point(-1, 1, 0));
+            default -> throw new IllegalArgumentException("Unknown geometry: " + geometry);
+        };
+        rays = BenchmarkScenes.rays(new Random(BenchmarkScenes.SEED), POOL, 1);
+    }
+
+    /**
+     * Advances to the next ray of the pool.
+     *
+     * @return the ray
+     */
+    private Ray next() {
+        return rays[next = (next + 1) & (POOL - 1)];
+    }
+
+    @Benchmark
+    public List<GeoPoint> findGeoIntersections() {
+        return intersectable.findGeoIntersections(next());
+    }
+
+    @Benchmark
+    public GeoPoint findClosestGeoIntersection() {
+        return intersectable.findClosestGeoIntersection(next());
+    }
+}
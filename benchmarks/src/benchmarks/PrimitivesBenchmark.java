@@ -0,0 +1,102 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import primitives.Point;
+import primitives.Vector;
+
+/**
+ * Benchmarks of the {@link Vector} and {@link Point} arithmetic. Every invocation takes the next
+ * operands of a fixed pool of random vectors, so the JIT cannot fold the operations into constants.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class PrimitivesBenchmark {
+    /** The amount of operands in the pool, a power of two */
+    private static final int POOL = 1024;
+
+    private final Vector[] vectors = new Vector[POOL];
+    private final Point[] points = new Point[POOL];
+    private int next = 0;
+
+    /**
+     * Generates the pool of operands.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkScenes.SEED);
+        for (int i = 0; i < POOL; i++) {
+            points[i] = BenchmarkScenes.randomPoint(random, 100);
+            vectors[i] = points[i].subtract(BenchmarkScenes.randomPoint(random, 100));
+        }
+    }
+
+    /**
+     * Advances to the next pair of operands.
+     *
+     * @return the index of the first operand, the second one follows it
+     */
+    private int next() {
+        return next = (next + 2) & (POOL - 1);
+    }
+
+    @Benchmark
+    public Vector vectorAdd() {
+        int i = next();
+        return vectors[i].add(vectors[i + 1]);
+    }
+
+    @Benchmark
+    public Vector vectorSubtract() {
+        int i = next();
+        return vectors[i].subtract(vectors[i + 1]);
+    }
+
+    @Benchmark
+    public Vector vectorScale() {
+        int i = next();
+        return vectors[i].scale(1.5);
+    }
+
+    @Benchmark
+    public double vectorDotProduct() {
+        int i = next();
+        return vectors[i].dotProduct(vectors[i + 1]);
+    }
+
+    @Benchmark
+    public Vector vectorCrossProduct() {
+        int i = next();
+        return vectors[i].crossProduct(vectors[i + 1]);
+    }
+
+    @Benchmark
+    public Vector vectorNormalize() {
+        return vectors[next()].normalize();
+    }
+
+    @Benchmark
+    public Point pointAdd() {
+        int i = next();
+        return points[i].add(vectors[i + 1]);
+    }
+
+    @Benchmark
+    public Vector pointSubtract() {
+        int i = next();
+        return points[i].subtract(points[i + 1]);
+    }
+
+    @Benchmark
+    public double pointDistance() {
+        int i = next();
+        return points[i].distance(points[i + 1]);
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import renderer.Camera;
+
+/**
+ * Benchmarks of rendering the whole image of the scenes of the rendering tests at fixed resolutions,
+ * on a single thread. A single render of the glossy scenes takes seconds, so every iteration measures
+ * a single render. The adaptive super sampling is off by default, since even a depth of 1 multiplies
+ * the time several times - it may be turned on by {@code -p adaptiveDepth=1}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class RenderBenchmark {
+    /** The scene to render */
+    @Param({BenchmarkScenes.TEAPOT, BenchmarkScenes.FINAL_PRESENTATION, BenchmarkScenes.GLOSS, BenchmarkScenes.DIFFUSE})
+    public String scene;
+
+    /** The amount of pixels in a row and in a column of the image */
+    @Param({"32", "64"})
+    public int resolution;
+
+    /** The depth of the adaptive super sampling, 0 for a single ray per pixel */
+    @Param({"0"})
+    public int adaptiveDepth;
+
+    private Camera camera;
+
+    /**
+     * Builds the scene and the camera.
+     */
+    @Setup
+    public void setup() {
+        camera = BenchmarkScenes.camera(scene, resolution).setAdaptiveDepth(adaptiveDepth).build();
+    }
+
+    @Benchmark
+    public Camera renderImage() {
+        return camera.renderImage();
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import primitives.Color;
+import primitives.Ray;
+import renderer.Camera;
+import renderer.RayTracerBase;
+
+/**
+ * Benchmarks of tracing a primary ray through the scenes of the rendering tests. Every invocation
+ * traces the primary rays of all the pixels of a 16X16 image of the scene, so every invocation does
+ * exactly the same work, and the score is the average time per ray. The rays are traced either one
+ * by one, or all together as a batch - which is where the wavefront ray tracer differs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class TraceRayBenchmark {
+    /** The resolution of the image whose primary rays are traced */
+    private static final int RESOLUTION = 16;
+
+    /** The scene to trace */
+    @Param({BenchmarkScenes.TEAPOT, BenchmarkScenes.FINAL_PRESENTATION, BenchmarkScenes.GLOSS, BenchmarkScenes.DIFFUSE})
+    public String scene;
+
+    /** The ray tracer */
+    @Param({BenchmarkScenes.SIMPLE, BenchmarkScenes.WAVEFRONT})
+    public String tracer;
+
+    private RayTracerBase rayTracer;
+    private final Ray[] rays = new Ray[RESOLUTION * RESOLUTION];
+    private final Color[] colors = new Color[RESOLUTION * RESOLUTION];
+
+    /**
+     * Builds the scene and constructs the primary rays.
+     */
+    @Setup
+    public void setup() {
+        Camera camera = BenchmarkScenes.camera(scene, RESOLUTION, tracer).build();
+        rayTracer = camera.getRayTracer();
+        for (int i = 0; i < RESOLUTION; i++)
+            for (int j = 0; j < RESOLUTION; j++)
+                rays[i * RESOLUTION + j] = camera.constructRay(RESOLUTION, RESOLUTION, j, i);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESOLUTION * RESOLUTION)
+    public void traceRay(Blackhole blackhole) {
+        for (Ray ray : rays)
+            blackhole.consume(rayTracer.traceRay(ray));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESOLUTION * RESOLUTION)
+    public Color[] traceRays() {
+        rayTracer.traceRays(rays, colors);
+        return colors;
+    }
+}
@@ -0,0 +1,81 @@
+package renderer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Contention benchmark of the pixel manager - the time of a pass over a whole image when all the
+ * threads do nothing but allocate pixels and count their progress, compared with the former fully
+ * synchronized manager. It is in the package of the renderer to reach the package-private manager.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class PixelManagerBenchmark {
+    /** Amount of rows of the benchmark image */
+    private static final int ROWS = 2048;
+    /** Amount of columns of the benchmark image */
+    private static final int COLS = 2048;
+
+    /** The amount of threads that compete on the pixel manager */
+    @Param({"1", "4", "16", "64"})
+    public int threads;
+
+    /**
+     * Reference pixel manager that allocates and counts pixels inside synchronized blocks, the way
+     * the pixel manager did before it became lock-free
+     */
+    private static class SynchronizedPixelManager {
+        private final Object mutexNext = new Object();
+        private final Object mutexPixels = new Object();
+        private int cPixel = 0;
+        private long pixels = 0;
+
+        boolean nextPixel() {
+            synchronized (mutexNext) {
+                return cPixel++ < ROWS * COLS;
+            }
+        }
+
+        void pixelDone() {
+            synchronized (mutexPixels) {
+                ++pixels;
+            }
+        }
+    }
+
+    /**
+     * Runs the given work on the benchmark amount of threads and waits for them
+     *
+     * @param work the work of each thread
+     * @throws InterruptedException if the benchmark is interrupted while waiting for the threads
+     */
+    private void run(Runnable work) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) workers[t] = new Thread(work);
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+    }
+
+    @Benchmark
+    public long lockFree() throws InterruptedException {
+        PixelManager pixelManager = new PixelManager(ROWS, COLS, 0);
+        run(() -> {
+            while (pixelManager.nextPixel() != null) pixelManager.pixelDone();
+        });
+        return pixelManager.getPixelsDone();
+    }
+
+    @Benchmark
+    public long synchronizedManager() throws InterruptedException {
+        SynchronizedPixelManager pixelManager = new SynchronizedPixelManager();
+        run(() -> {
+            while (pixelManager.nextPixel()) pixelManager.pixelDone();
+        });
+        return pixelManager.pixels;
+    }
+}
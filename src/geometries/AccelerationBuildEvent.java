@@ -0,0 +1,25 @@
+package geometries;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event of the build of a bounding volume hierarchy, of a collection of
+ * geometries or of a triangle mesh.
+ */
+@Name("raytracer.AccelerationBuild")
+@Label("Acceleration Build")
+@Category("Ray Tracer")
+@Description("The build of a bounding volume hierarchy")
+final class AccelerationBuildEvent extends Event {
+    /** The amount of primitives of the hierarchy */
+    @Label("Primitives")
+    int primitives;
+
+    /** The amount of nodes of the hierarchy */
+    @Label("Nodes")
+    int nodes;
+}
@@ -0,0 +1,27 @@
+package geometries;
+
+/**
+ * The construction algorithms of a bounding volume hierarchy. They build the same kind of tree, so
+ * the traversal is the same, and differ in the time of the build against the quality of the tree.
+ */
+public enum BVHConstruction {
+    /**
+     * A top-down build with the binned surface area heuristic, on a single thread - the slowest
+     * build and the best tree.
+     */
+    SAH,
+    /**
+     * A linear build: the primitives are sorted along a Morton curve by a parallel radix sort and
+     * the tree is split at the bits of their codes, in parallel - a build that scales with the
+     * cores, of a tree that costs more to traverse.
+     */
+    LINEAR,
+    /**
+     * A linear build whose tree is refined by one pass of restructuring treelets of up to 5 leaves
+     * to their optimal topology by the surface area heuristic, in parallel - a tree of a lower
+     * surface area cost than the linear one and a few times its build time. The lower cost saves
+     * some intersection tests, but it does not make the tree trace measurably faster than the linear
+     * one, and the SAH tree stays the one of the best quality.
+     */
+    LINEAR_TREELETS
+}
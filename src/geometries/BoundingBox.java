@@ -0,0 +1,179 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * Represents an axis-aligned bounding box (AABB) in a three-dimensional (3D) space.
+ * The box is defined by its minimal and maximal coordinates on each axis and is used
+ * to quickly reject rays that cannot hit the geometry it encloses.
+ */
+public class BoundingBox {
+    private final double minX, minY, minZ; // The minimal corner of the box
+    private final double maxX, maxY, maxZ; // The maximal corner of the box
+
+    /**
+     * Constructs a bounding box from its minimal and maximal coordinates.
+     *
+     * @param minX The minimal x-coordinate.
+     * @param minY The minimal y-coordinate.
+     * @param minZ The minimal z-coordinate.
+     * @param maxX The maximal x-coordinate.
+     * @param maxY The maximal y-coordinate.
+     * @param maxZ The maximal z-coordinate.
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest bounding box that contains all the given points.
+     *
+     * @param points The points to be enclosed by the box.
+     * @throws IllegalArgumentException if no points are given.
+     */
+    public BoundingBox(Point... points) {
+        if (points.length == 0)
+            throw new IllegalArgumentException("A bounding box needs at least one point");
+
+        double x1 = Double.POSITIVE_INFINITY, y1 = Double.POSITIVE_INFINITY, z1 = Double.POSITIVE_INFINITY;
+        double x2 = Double.NEGATIVE_INFINITY, y2 = Double.NEGATIVE_INFINITY, z2 = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            x1 = Math.min(x1, p.getX());
+            y1 = Math.min(y1, p.getY());
+            z1 = Math.min(z1, p.getZ());
+            x2 = Math.max(x2, p.getX());
+            y2 = Math.max(y2, p.getY());
+            z2 = Math.max(z2, p.getZ());
+        }
+        this.minX = x1;
+        this.minY = y1;
+        this.minZ = z1;
+        this.maxX = x2;
+        this.maxY = y2;
+        this.maxZ = z2;
+    }
+
+    /**
+     * Gets the minimal coordinate of the box on the given axis.
+     *
+     * @param axis The axis index (0 for x, 1 for y, 2 for z).
+     * @return The minimal coordinate on the axis.
+     */
+    public double getMin(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    /**
+     * Gets the maximal coordinate of the box on the given axis.
+     *
+     * @param axis The axis index (0 for x, 1 for y, 2 for z).
+     * @return The maximal coordinate on the axis.
+     */
+    public double getMax(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    /**
+     * Gets the center of the box on the given axis.
+     *
+     * @param axis The axis index (0 for x, 1 for y, 2 for z).
+     * @return The center coordinate on the axis.
+     */
+    public double getCenter(int axis) {
+        return (getMin(axis) + getMax(axis)) / 2;
+    }
+
+    /**
+     * Calculates the smallest bounding box that contains both this box and another one.
+     *
+     * @param other The other bounding box.
+     * @return The union of the two boxes.
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Calculates the surface area of the box, used by the surface area heuristic.
+     *
+     * @return The surface area of the box.
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX;
+        double dy = maxY - minY;
+        double dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Finds the distance along the ray at which it enters the box, using the slab method.
+     *
+     * @param ray         The ray to check.
+     * @param maxDistance The maximal distance along the ray to look for the box.
+     * @return The entry distance (0 if the ray starts inside the box),
+     * or {@link Double#POSITIVE_INFINITY} if the ray misses the box within the given distance.
+     */
+    public double intersect(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        return intersect(minX, minY, minZ, maxX, maxY, maxZ,
+                head.getX(), head.getY(), head.getZ(),
+                1 / direction.getX(), 1 / direction.getY(), 1 / direction.getZ(), maxDistance);
+    }
+
+    /**
+     * Slab test of a ray against a box given by its raw coordinates.
+     * The inverse direction of the ray is passed in so it can be computed once per ray.
+     *
+     * @param minX        The minimal x-coordinate of the box.
+     * @param minY        The minimal y-coordinate of the box.
+     * @param minZ        The minimal z-coordinate of the box.
+     * @param maxX        The maximal x-coordinate of the box.
+     * @param maxY        The maximal y-coordinate of the box.
+     * @param maxZ        The maximal z-coordinate of the box.
+     * @param ox          The x-coordinate of the ray head.
+     * @param oy          The y-coordinate of the ray head.
+     * @param oz          The z-coordinate of the ray head.
+     * @param invX        The inverse of the x-component of the ray direction.
+     * @param invY        The inverse of the y-component of the ray direction.
+     * @param invZ        The inverse of the z-component of the ray direction.
+     * @param maxDistance The maximal distance along the ray.
+     * @return The entry distance, or {@link Double#POSITIVE_INFINITY} if the box is missed.
+     */
+    static double intersect(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                            double ox, double oy, double oz, double invX, double invY, double invZ,
+                            double maxDistance) {
+        double t1 = (minX - ox) * invX;
+        double t2 = (maxX - ox) * invX;
+        double tNear = Math.min(t1, t2);
+        double tFar = Math.max(t1, t2);
+
+        t1 = (minY - oy) * invY;
+        t2 = (maxY - oy) * invY;
+        tNear = Math.max(tNear, Math.min(t1, t2));
+        tFar = Math.min(tFar, Math.max(t1, t2));
+
+        t1 = (minZ - oz) * invZ;
+        t2 = (maxZ - oz) * invZ;
+        tNear = Math.max(tNear, Math.min(t1, t2));
+        tFar = Math.min(tFar, Math.max(t1, t2));
+
+        // NaN (0 * infinity on a slab plane) fails all comparisons, so it is treated as a hit at
+        // the ray head rather than risking a missed intersection
+        if (tFar < 0 || tNear > tFar || tNear > maxDistance) return Double.POSITIVE_INFINITY;
+        return tNear > 0 ? tNear : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{(" + minX + "," + minY + "," + minZ + ")-(" + maxX + "," + maxY + "," + maxZ + ")}";
+    }
+}
@@ -0,0 +1,601 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A bounding volume hierarchy (BVH) over a set of bounded primitives, built with the binned
+ * surface area heuristic (SAH), or in parallel by a {@link LinearHierarchyBuilder}.<br/>
+ * The hierarchy knows nothing about the primitives themselves - it works with primitive indices
+ * and their bounding boxes only, and reports the primitives a ray may hit to a
+ * {@link PrimitiveVisitor} in front-to-back order of their nodes.<br/>
+ * The tree is stored in flat arrays in depth-first order, so the left child of a node is always
+ * the node right after it:
+ * <ul>
+ * <li>{@code bounds[6n..6n+5]} - minX, minY, minZ, maxX, maxY, maxZ of node n</li>
+ * <li>{@code nodes[2n]} - amount of primitives in node n (0 for an inner node)</li>
+ * <li>{@code nodes[2n+1]} - offset of the first primitive in {@code primitives} for a leaf,
+ * or index of the right child for an inner node</li>
+ * </ul>
+ */
+final class BoundingVolumeHierarchy {
+
+    /**
+     * Visitor of the primitives found by a traversal of the hierarchy.
+     */
+    @FunctionalInterface
+    interface PrimitiveVisitor {
+        /**
+         * Visits a primitive whose bounding box is hit by the ray.
+         *
+         * @param primitive   The index of the primitive.
+         * @param maxDistance The current maximal distance along the ray.
+         * @return The new maximal distance along the ray (it may only shrink),
+         * or a negative value to stop the traversal.
+         */
+        double visit(int primitive, double maxDistance);
+    }
+
+    /** Name of the phase of the builds of the hierarchies, in the render statistics */
+    static final String BUILD_PHASE = "bvh build";
+    /** Amount of bins along an axis evaluated by the surface area heuristic */
+    private static final int BINS = 12;
+    /** Amount of primitives in a node that may always be stored as a leaf */
+    static final int MAX_LEAF_SIZE = 4;
+    /** Cost of traversing an inner node relatively to intersecting a primitive */
+    static final double TRAVERSAL_COST = 0.125;
+    /** Maximal depth of the tree, also the size of the traversal stack */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * Traversal stacks of the threads, reused by all the traversals of a thread instead of
+     * allocating a stack per ray. Nested traversals (a visitor that traverses another
+     * hierarchy) take the frames above the frame of the outer traversal.
+     */
+    private static final ThreadLocal<TraversalStack> STACKS = ThreadLocal.withInitial(TraversalStack::new);
+
+    /**
+     * Traversal stack of a thread: the pending nodes with their entry distances.
+     */
+    private static final class TraversalStack {
+        /** Pending nodes */
+        private int[] nodes = new int[MAX_DEPTH];
+        /** Entry distances of the pending nodes */
+        private double[] distances = new double[MAX_DEPTH];
+        /** First free entry, the bottom of the frame of the next traversal */
+        private int top = 0;
+
+        /**
+         * Makes sure that the stack has room for a frame above its top. The arrays of a grown
+         * stack are new, but an outer traversal keeps using its own frame in the old arrays.
+         *
+         * @param size The size of the frame.
+         */
+        private void ensureCapacity(int size) {
+            if (top + size <= nodes.length) return;
+            int length = Math.max(2 * nodes.length, top + size);
+            nodes = Arrays.copyOf(nodes, length);
+            distances = Arrays.copyOf(distances, length);
+        }
+    }
+
+    /** Bounding boxes of the nodes, 6 values per node */
+    double[] bounds;
+    /** Primitive count and child/offset of the nodes, 2 values per node */
+    int[] nodes;
+    /** Primitive indices in leaf order */
+    final int[] primitives;
+    /** Depth of the tree (the amount of levels), the traversal stack never holds more nodes */
+    int depth = 0;
+
+    /** Bounding boxes of the primitives while building, 6 values per primitive */
+    private double[] primBounds;
+    /** Centroids of the primitives while building, 3 values per primitive */
+    private double[] centroids;
+    /** Amount of nodes allocated while building */
+    private int nodeCount = 0;
+
+    /**
+     * Builds a hierarchy over primitives given by their bounding boxes.
+     *
+     * @param boxes The bounding boxes of the primitives, the index in the array is the primitive index.
+     * @throws IllegalArgumentException if there are no primitives.
+     */
+    BoundingVolumeHierarchy(BoundingBox[] boxes) {
+        this(toBounds(boxes));
+    }
+
+    /**
+     * Builds a hierarchy over primitives given by the raw coordinates of their bounding boxes, so
+     * large primitive sets (e.g. triangle meshes) need no bounding box objects. The array is used
+     * while building and is not kept.
+     *
+     * @param primBounds minX, minY, minZ, maxX, maxY, maxZ of every primitive, 6 values per primitive.
+     * @throws IllegalArgumentException if there are no primitives.
+     */
+    BoundingVolumeHierarchy(double[] primBounds) {
+        int n = primBounds.length / 6;
+        if (n == 0)
+            throw new IllegalArgumentException("A bounding volume hierarchy needs at least one primitive");
+        AccelerationBuildEvent event = new AccelerationBuildEvent();
+        event.begin();
+
+        this.primBounds = primBounds;
+        centroids = new double[3 * n];
+        primitives = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int axis = 0; axis < 3; axis++)
+                centroids[3 * i + axis] = (primBounds[6 * i + axis] + primBounds[6 * i + 3 + axis]) / 2;
+            primitives[i] = i;
+        }
+
+        int maxNodes = 2 * n - 1;
+        bounds = new double[6 * maxNodes];
+        nodes = new int[2 * maxNodes];
+        build(nodeCount++, 0, n, 0);
+
+        // leaves hold several primitives, so fewer nodes than the maximum are usually used
+        if (nodeCount < maxNodes) {
+            bounds = Arrays.copyOf(bounds, 6 * nodeCount);
+            nodes = Arrays.copyOf(nodes, 2 * nodeCount);
+        }
+
+        // the building data is not needed for traversal
+        this.primBounds = null;
+        centroids = null;
+
+        if (event.shouldCommit()) {
+            event.primitives = n;
+            event.nodes = nodeCount;
+            event.commit();
+        }
+    }
+
+    /**
+     * Restores a hierarchy from its arrays, e.g. a hierarchy read from a scene cache, without
+     * building it again. The arrays are used as they are (not copied).
+     *
+     * @param bounds     The bounding boxes of the nodes, 6 values per node.
+     * @param nodes      The primitive count and child/offset of the nodes, 2 values per node.
+     * @param primitives The primitive indices in leaf order.
+     * @param depth      The depth of the tree.
+     */
+    BoundingVolumeHierarchy(double[] bounds, int[] nodes, int[] primitives, int depth) {
+        this.bounds = bounds;
+        this.nodes = nodes;
+        this.primitives = primitives;
+        this.depth = depth;
+    }
+
+    /**
+     * Builds a hierarchy over primitives given by their bounding boxes, by a construction algorithm.
+     *
+     * @param boxes        The bounding boxes of the primitives, the index in the array is the primitive index.
+     * @param construction The construction algorithm.
+     * @return The hierarchy.
+     * @throws IllegalArgumentException if there are no primitives.
+     */
+    static BoundingVolumeHierarchy build(BoundingBox[] boxes, BVHConstruction construction) {
+        return build(toBounds(boxes), construction);
+    }
+
+    /**
+     * Builds a hierarchy over primitives given by the raw coordinates of their bounding boxes, by a
+     * construction algorithm.
+     *
+     * @param primBounds   minX, minY, minZ, maxX, maxY, maxZ of every primitive, 6 values per primitive.
+     * @param construction The construction algorithm.
+     * @return The hierarchy.
+     * @throws IllegalArgumentException if there are no primitives.
+     */
+    static BoundingVolumeHierarchy build(double[] primBounds, BVHConstruction construction) {
+        return switch (construction) {
+            case SAH -> new BoundingVolumeHierarchy(primBounds);
+            case LINEAR -> new LinearHierarchyBuilder(primBounds, false).build();
+            case LINEAR_TREELETS -> new LinearHierarchyBuilder(primBounds, true).build();
+        };
+    }
+
+    /**
+     * Converts bounding boxes to their raw coordinates.
+     *
+     * @param boxes The bounding boxes.
+     * @return minX, minY, minZ, maxX, maxY, maxZ of every box, 6 values per box.
+     */
+    private static double[] toBounds(BoundingBox[] boxes) {
+        double[] primBounds = new double[6 * boxes.length];
+        for (int i = 0; i < boxes.length; i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                primBounds[6 * i + axis] = boxes[i].getMin(axis);
+                primBounds[6 * i + 3 + axis] = boxes[i].getMax(axis);
+            }
+        }
+        return primBounds;
+    }
+
+    /**
+     * Gets the bounding box of the whole hierarchy.
+     *
+     * @return The bounding box of the root node.
+     */
+    BoundingBox getBoundingBox() {
+        return new BoundingBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+    }
+
+    /**
+     * Recursively builds the subtree of a node over a range of the primitives array.
+     *
+     * @param node  The index of the node.
+     * @param start The first primitive (inclusive) in the range.
+     * @param end   The last primitive (exclusive) in the range.
+     * @param depth The depth of the node in the tree.
+     */
+    private void build(int node, int start, int end, int depth) {
+        this.depth = Math.max(this.depth, depth + 1);
+        // bounds of the node and of the centroids of its primitives
+        double[] cMin = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] cMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        int b = 6 * node;
+        for (int axis = 0; axis < 3; axis++) {
+            bounds[b + axis] = Double.POSITIVE_INFINITY;
+            bounds[b + 3 + axis] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = start; i < end; i++) {
+            int p = primitives[i];
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[b + axis] = Math.min(bounds[b + axis], primBounds[6 * p + axis]);
+                bounds[b + 3 + axis] = Math.max(bounds[b + 3 + axis], primBounds[6 * p + 3 + axis]);
+                cMin[axis] = Math.min(cMin[axis], centroids[3 * p + axis]);
+                cMax[axis] = Math.max(cMax[axis], centroids[3 * p + axis]);
+            }
+        }
+
+        int count = end - start;
+        if (count == 1 || depth == MAX_DEPTH - 1) {
+            makeLeaf(node, start, count);
+            return;
+        }
+
+        // find the cheapest split according to the surface area heuristic
+        int bestAxis = -1;
+        int bestBin = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        double nodeArea = area(bounds, b);
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = cMax[axis] - cMin[axis];
+            if (extent <= 0) continue;
+
+            int[] binCount = new int[BINS];
+            double[] binBounds = new double[6 * BINS];
+            for (int i = 0; i < BINS; i++) emptyBox(binBounds, 6 * i);
+            for (int i = start; i < end; i++) {
+                int p = primitives[i];
+                int bin = binOf(centroids[3 * p + axis], cMin[axis], extent);
+                binCount[bin]++;
+                growBox(binBounds, 6 * bin, primBounds, 6 * p);
+            }
+
+            // sweep from the right to get the area and count of every right side
+            double[] rightArea = new double[BINS];
+            int[] rightCount = new int[BINS];
+            double[] box = new double[6];
+            emptyBox(box, 0);
+            int sum = 0;
+            for (int i = BINS - 1; i > 0; i--) {
+                growBox(box, 0, binBounds, 6 * i);
+                sum += binCount[i];
+                rightArea[i] = area(box, 0);
+                rightCount[i] = sum;
+            }
+
+            // sweep from the left and evaluate every split plane between bins
+            emptyBox(box, 0);
+            sum = 0;
+            for (int i = 1; i < BINS; i++) {
+                growBox(box, 0, binBounds, 6 * (i - 1));
+                sum += binCount[i - 1];
+                if (sum == 0 || rightCount[i] == 0) continue;
+                double cost = TRAVERSAL_COST + (area(box, 0) * sum + rightArea[i] * rightCount[i]) / nodeArea;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = i;
+                }
+            }
+        }
+
+        int mid;
+        if (bestAxis == -1) {
+            // all the centroids are at the same point - split the range arbitrarily in the middle
+            if (count <= MAX_LEAF_SIZE) {
+                makeLeaf(node, start, count);
+                return;
+            }
+            mid = start + count / 2;
+        } else {
+            if (bestCost >= count && count <= MAX_LEAF_SIZE) {
+                makeLeaf(node, start, count);
+                return;
+            }
+            mid = partition(start, end, bestAxis, bestBin, cMin[bestAxis], cMax[bestAxis] - cMin[bestAxis]);
+        }
+
+        nodes[2 * node] = 0;
+        build(nodeCount++, start, mid, depth + 1);
+        int right = nodeCount++;
+        nodes[2 * node + 1] = right;
+        build(right, mid, end, depth + 1);
+    }
+
+    /**
+     * Turns a node into a leaf holding a range of the primitives.
+     *
+     * @param node  The index of the node.
+     * @param start The first primitive in the range.
+     * @param count The amount of primitives in the range.
+     */
+    private void makeLeaf(int node, int start, int count) {
+        nodes[2 * node] = count;
+        nodes[2 * node + 1] = start;
+    }
+
+    /**
+     * Partitions a range of the primitives so that the primitives with centroids in bins lower than
+     * the split bin come first.
+     *
+     * @param start  The first primitive (inclusive) in the range.
+     * @param end    The last primitive (exclusive) in the range.
+     * @param axis   The axis of the split.
+     * @param split  The first bin of the right side.
+     * @param min    The minimal centroid coordinate on the axis.
+     * @param extent The extent of the centroids on the axis.
+     * @return The index of the first primitive of the right side.
+     */
+    private int partition(int start, int end, int axis, int split, double min, double extent) {
+        int i = start;
+        int j = end - 1;
+        while (i <= j) {
+            if (binOf(centroids[3 * primitives[i] + axis], min, extent) < split)
+                i++;
+            else {
+                int tmp = primitives[i];
+                primitives[i] = primitives[j];
+                primitives[j--] = tmp;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Finds the bin of a centroid coordinate.
+     *
+     * @param c      The centroid coordinate.
+     * @param min    The minimal centroid coordinate.
+     * @param extent The extent of the centroids.
+     * @return The bin index.
+     */
+    private static int binOf(double c, double min, double extent) {
+        int bin = (int) (BINS * (c - min) / extent);
+        return Math.min(bin, BINS - 1);
+    }
+
+    /**
+     * Resets a box in an array to an empty (inverted) box.
+     *
+     * @param box    The array of boxes.
+     * @param offset The offset of the box in the array.
+     */
+    static void emptyBox(double[] box, int offset) {
+        for (int axis = 0; axis < 3; axis++) {
+            box[offset + axis] = Double.POSITIVE_INFINITY;
+            box[offset + 3 + axis] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Grows a box in an array to contain another box.
+     *
+     * @param box         The array of the box to grow.
+     * @param offset      The offset of the box to grow.
+     * @param other       The array of the box to contain.
+     * @param otherOffset The offset of the box to contain.
+     */
+    static void growBox(double[] box, int offset, double[] other, int otherOffset) {
+        for (int axis = 0; axis < 3; axis++) {
+            box[offset + axis] = Math.min(box[offset + axis], other[otherOffset + axis]);
+            box[offset + 3 + axis] = Math.max(box[offset + 3 + axis], other[otherOffset + 3 + axis]);
+        }
+    }
+
+    /**
+     * Calculates the surface area of a box in an array.
+     *
+     * @param box    The array of boxes.
+     * @param offset The offset of the box in the array.
+     * @return The surface area of the box, 0 for an empty box.
+     */
+    static double area(double[] box, int offset) {
+        double dx = box[offset + 3] - box[offset];
+        double dy = box[offset + 4] - box[offset + 1];
+        double dz = box[offset + 5] - box[offset + 2];
+        if (dx < 0 || dy < 0 || dz < 0) return 0;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Traverses the hierarchy along a ray and visits every primitive whose leaf is hit within the
+     * maximal distance. Nearer nodes are visited first, and nodes beyond the maximal distance
+     * returned by the visitor are skipped.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance along the ray.
+     * @param visitor     The visitor of the primitives.
+     * @return The last maximal distance returned by the visitor, negative if the traversal was stopped.
+     */
+    double traverse(Ray ray, double maxDistance, PrimitiveVisitor visitor) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double invX = 1 / direction.getX(), invY = 1 / direction.getY(), invZ = 1 / direction.getZ();
+
+        if (distance(0, ox, oy, oz, invX, invY, invZ, maxDistance) == Double.POSITIVE_INFINITY)
+            return maxDistance;
+
+        TraversalStack stack = STACKS.get();
+        int base = stack.top;
+        stack.ensureCapacity(depth);
+        stack.top = base + depth;
+        try {
+            return traverse(stack.nodes, stack.distances, base, ox, oy, oz, invX, invY, invZ, maxDistance, visitor);
+        } finally {
+            stack.top = base;
+        }
+    }
+
+    /**
+     * Traverses the hierarchy from the root, using a frame of the traversal stack of the thread.
+     *
+     * @param stack         The pending nodes of the stack.
+     * @param stackDistance The entry distances of the pending nodes.
+     * @param sp            The bottom of the frame of this traversal in the stack.
+     * @param ox            The x-coordinate of the ray head.
+     * @param oy            The y-coordinate of the ray head.
+     * @param oz            The z-coordinate of the ray head.
+     * @param invX          The inverse of the x-component of the ray direction.
+     * @param invY          The inverse of the y-component of the ray direction.
+     * @param invZ          The inverse of the z-component of the ray direction.
+     * @param maxDistance   The maximal distance along the ray.
+     * @param visitor       The visitor of the primitives.
+     * @return The last maximal distance returned by the visitor, negative if the traversal was stopped.
+     */
+    private double traverse(int[] stack, double[] stackDistance, int sp,
+                            double ox, double oy, double oz, double invX, double invY, double invZ,
+                            double maxDistance, PrimitiveVisitor visitor) {
+        int base = sp;
+        int node = 0;
+        while (true) {
+            int count = nodes[2 * node];
+            if (count > 0) {
+                int first = nodes[2 * node + 1];
+                for (int i = first; i < first + count; i++) {
+                    maxDistance = visitor.visit(primitives[i], maxDistance);
+                    if (maxDistance < 0) return maxDistance;
+                }
+                node = -1;
+            } else {
+                int left = node + 1;
+                int right = nodes[2 * node + 1];
+                double tLeft = distance(left, ox, oy, oz, invX, invY, invZ, maxDistance);
+                double tRight = distance(right, ox, oy, oz, invX, invY, invZ, maxDistance);
+                // continue with the nearer child and keep the farther one for later
+                if (tRight < tLeft) {
+                    int tmp = left;
+                    left = right;
+                    right = tmp;
+                    double t = tLeft;
+                    tLeft = tRight;
+                    tRight = t;
+                }
+                if (tRight != Double.POSITIVE_INFINITY) {
+                    stack[sp] = right;
+                    stackDistance[sp++] = tRight;
+                }
+                node = tLeft != Double.POSITIVE_INFINITY ? left : -1;
+            }
+
+            // pop the next node that is still within the maximal distance
+            while (node == -1) {
+                if (sp == base) return maxDistance;
+                --sp;
+                if (stackDistance[sp] <= maxDistance) node = stack[sp];
+            }
+        }
+    }
+
+    /**
+     * Finds the primitive nearest to a point, by a depth-first search that visits the nearer child
+     * first and skips the nodes whose box is farther than the nearest primitive found so far.
+     *
+     * @param x        The x-coordinate of the point.
+     * @param y        The y-coordinate of the point.
+     * @param z        The z-coordinate of the point.
+     * @param distance The squared distance of a primitive from the point.
+     * @return The index of the nearest primitive.
+     */
+    int nearest(double x, double y, double z, IntToDoubleFunction distance) {
+        int[] stack = new int[depth];
+        int sp = 0;
+        int node = 0;
+        int nearest = -1;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        while (true) {
+            if (boxDistance(node, x, y, z) < nearestDistance) {
+                int count = nodes[2 * node];
+                if (count > 0) {
+                    int first = nodes[2 * node + 1];
+                    for (int i = first; i < first + count; i++) {
+                        double d = distance.applyAsDouble(primitives[i]);
+                        if (nearest == -1 || d < nearestDistance) {
+                            nearest = primitives[i];
+                            nearestDistance = d;
+                        }
+                    }
+                } else {
+                    int left = node + 1;
+                    int right = nodes[2 * node + 1];
+                    if (boxDistance(right, x, y, z) < boxDistance(left, x, y, z)) {
+                        stack[sp++] = left;
+                        node = right;
+                    } else {
+                        stack[sp++] = right;
+                        node = left;
+                    }
+                    continue;
+                }
+            }
+            if (sp == 0) return nearest;
+            node = stack[--sp];
+        }
+    }
+
+    /**
+     * Calculates the squared distance of a point from the box of a node.
+     *
+     * @param node The index of the node.
+     * @param x    The x-coordinate of the point.
+     * @param y    The y-coordinate of the point.
+     * @param z    The z-coordinate of the point.
+     * @return The squared distance, zero if the point is in the box.
+     */
+    private double boxDistance(int node, double x, double y, double z) {
+        int b = 6 * node;
+        double dx = Math.max(0, Math.max(bounds[b] - x, x - bounds[b + 3]));
+        double dy = Math.max(0, Math.max(bounds[b + 1] - y, y - bounds[b + 4]));
+        double dz = Math.max(0, Math.max(bounds[b + 2] - z, z - bounds[b + 5]));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Finds the entry distance of a ray into the box of a node.
+     *
+     * @param node        The index of the node.
+     * @param ox          The x-coordinate of the ray head.
+     * @param oy          The y-coordinate of the ray head.
+     * @param oz          The z-coordinate of the ray head.
+     * @param invX        The inverse of the x-component of the ray direction.
+     * @param invY        The inverse of the y-component of the ray direction.
+     * @param invZ        The inverse of the z-component of the ray direction.
+     * @param maxDistance The maximal distance along the ray.
+     * @return The entry distance, or {@link Double#POSITIVE_INFINITY} if the box is missed.
+     */
+    private double distance(int node, double ox, double oy, double oz,
+                            double invX, double invY, double invZ, double maxDistance) {
+        int b = 6 * node;
+        return BoundingBox.intersect(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5],
+                ox, oy, oz, invX, invY, invZ, maxDistance);
+    }
+}
@@ -1,6 +1,8 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Ray;
+import primitives.RenderStatistics;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -8,13 +10,42 @@ import java.util.List;
 /**
  * The {@code Geometries} class represents a collection of intersectable geometries.
  * It implements the {@code Intersectable} interface, allowing it to find intersections
- * with a given ray.
+ * with a given ray.<br/>
+ * Optionally the collection may be accelerated by a bounding volume hierarchy (BVH) built
+ * over its bounded geometries, so a ray is tested only against geometries whose bounding
+ * boxes it hits. Unbounded geometries (e.g. planes) are kept aside and always tested.
  */
 public class Geometries extends Intersectable {
 
     // List to store intersectable geometries
     private final List<Intersectable> lst = new LinkedList<>();
 
+    /**
+     * Whether the collection should be accelerated by a bounding volume hierarchy
+     */
+    private boolean bvh = false;
+
+    /**
+     * The construction algorithm of the bounding volume hierarchy
+     */
+    private BVHConstruction construction = BVHConstruction.SAH;
+
+    /**
+     * The acceleration data, built lazily on the first intersection query (or explicitly)
+     * and discarded whenever the collection changes
+     */
+    private volatile Hierarchy hierarchy = null;
+
+    /**
+     * The acceleration data of the collection.
+     *
+     * @param tree      The hierarchy over the bounded geometries, {@code null} if there are none.
+     * @param bounded   The bounded geometries, indexed by the primitive indices of the tree.
+     * @param unbounded The unbounded geometries that are tested against every ray.
+     */
+    record Hierarchy(BoundingVolumeHierarchy tree, Intersectable[] bounded, Intersectable[] unbounded) {
+    }
+
     /**
      * Default constructor for the Geometries class.
      */
@@ -29,6 +60,21 @@ public class Geometries extends Intersectable {
         this.add(geometries);
     }
 
+    /**
+     * Creates an accelerated collection with its acceleration data already built, e.g. a collection
+     * restored from a scene cache.
+     *
+     * @param geometries The geometries of the collection.
+     * @param hierarchy  The acceleration data over the geometries.
+     * @return The collection.
+     */
+    static Geometries withHierarchy(Intersectable[] geometries, Hierarchy hierarchy) {
+        Geometries collection = new Geometries(geometries);
+        collection.bvh = true;
+        collection.hierarchy = hierarchy;
+        return collection;
+    }
+
     /**
      * Adds intersectable geometries to the collection.
      *
@@ -36,20 +82,95 @@ public class Geometries extends Intersectable {
      */
     public void add(Intersectable... geometries) {
         Collections.addAll(lst, geometries);
+        hierarchy = null;
+    }
+
+    /**
+     * Turns the bounding volume hierarchy acceleration on or off.
+     * When turned on, the hierarchy is built on the first intersection query.
+     *
+     * @param bvh {@code true} to accelerate the collection with a bounding volume hierarchy.
+     * @return The Geometries object itself.
+     */
+    public Geometries setBVH(boolean bvh) {
+        this.bvh = bvh;
+        hierarchy = null;
+        return this;
+    }
+
+    /**
+     * Turns the bounding volume hierarchy acceleration on, built by a construction algorithm.
+     * The hierarchy is built on the first intersection query.
+     *
+     * @param construction The construction algorithm of the hierarchy.
+     * @return The Geometries object itself.
+     */
+    public Geometries setBVH(BVHConstruction construction) {
+        this.construction = construction;
+        return setBVH(true);
+    }
+
+    /**
+     * Checks whether the collection is accelerated by a bounding volume hierarchy.
+     *
+     * @return {@code true} if the collection is accelerated.
+     */
+    boolean isBVH() {
+        return bvh;
+    }
+
+    /**
+     * Gets the geometries of the collection.
+     *
+     * @return An unmodifiable view of the geometries, in the order they were added.
+     */
+    List<Intersectable> getGeometries() {
+        return Collections.unmodifiableList(lst);
+    }
+
+    /**
+     * Turns the bounding volume hierarchy acceleration on and builds the hierarchy immediately,
+     * instead of on the first intersection query.
+     *
+     * @return The Geometries object itself.
+     */
+    public Geometries buildBVH() {
+        bvh = true;
+        hierarchy = buildHierarchy();
+        return this;
+    }
+
+    /**
+     * Gets the bounding box of the whole collection.
+     *
+     * @return The bounding box, or {@code null} if the collection is empty or contains an unbounded geometry.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = null;
+        for (Intersectable in : lst) {
+            BoundingBox inBox = in.getBoundingBox();
+            if (inBox == null) return null;
+            box = box == null ? inBox : box.union(inBox);
+        }
+        return box;
     }
 
     /**
      * Finds intersections of a given ray with the collection of geometries.
      *
-     * @param ray The ray for which intersections are to be found.
+     * @param ray         The ray for which intersections are to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
      * @return A list of intersection points, or {@code null} if no intersections occur.
      */
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        if (bvh) return findGeoIntersectionsBVH(ray, maxDistance);
+
         List<GeoPoint> res = null;
 
         for (Intersectable in : lst) {
-            var geoPoints = in.findGeoIntersections(ray);
+            var geoPoints = in.findGeoIntersections(ray, maxDistance);
             if (geoPoints != null) {
                 if (res == null) res = new LinkedList<>();
                 res.addAll(geoPoints);
@@ -57,4 +178,186 @@ public class Geometries extends Intersectable {
         }
         return res;
     }
+
+    /**
+     * Finds intersections of a given ray with the collection using the bounding volume hierarchy.
+     *
+     * @param ray         The ray for which intersections are to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return A list of intersection points, or {@code null} if no intersections occur.
+     */
+    private List<GeoPoint> findGeoIntersectionsBVH(Ray ray, double maxDistance) {
+        Hierarchy h = getHierarchy();
+        List<GeoPoint> res = new LinkedList<>();
+
+        for (Intersectable in : h.unbounded) {
+            var geoPoints = in.findGeoIntersections(ray, maxDistance);
+            if (geoPoints != null) res.addAll(geoPoints);
+        }
+
+        if (h.tree != null)
+            h.tree.traverse(ray, maxDistance, (i, distance) -> {
+                var geoPoints = h.bounded[i].findGeoIntersections(ray, distance);
+                if (geoPoints != null) res.addAll(geoPoints);
+                return distance;
+            });
+
+        return res.isEmpty() ? null : res;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the collection of geometries. The maximal
+     * distance shrinks to the closest intersection found so far, so farther geometries are
+     * searched with a tighter bound (and pruned entirely by the bounding volume hierarchy).
+     *
+     * @param ray         The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point, or {@code null} if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        if (bvh) return findClosestGeoIntersectionBVH(ray, maxDistance);
+
+        GeoPoint closest = null;
+        for (Intersectable in : lst) {
+            GeoPoint gp = in.findClosestGeoIntersection(ray, maxDistance);
+            if (gp != null && (closest == null || gp.t < maxDistance)) {
+                closest = gp;
+                maxDistance = gp.t;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the collection using the bounding volume hierarchy.
+     *
+     * @param ray         The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point, or {@code null} if there is none.
+     */
+    private GeoPoint findClosestGeoIntersectionBVH(Ray ray, double maxDistance) {
+        Hierarchy h = getHierarchy();
+
+        GeoPoint[] closest = {null};
+        for (Intersectable in : h.unbounded) {
+            GeoPoint gp = in.findClosestGeoIntersection(ray, maxDistance);
+            if (gp != null && (closest[0] == null || gp.t < maxDistance)) {
+                closest[0] = gp;
+                maxDistance = gp.t;
+            }
+        }
+
+        if (h.tree != null)
+            h.tree.traverse(ray, maxDistance, (i, distance) -> {
+                GeoPoint gp = h.bounded[i].findClosestGeoIntersection(ray, distance);
+                if (gp == null || (closest[0] != null && gp.t >= distance)) return distance;
+                closest[0] = gp;
+                return gp.t;
+            });
+        return closest[0];
+    }
+
+    /**
+     * Calculates the transparency of the collection along a ray segment. The geometries are
+     * queried one by one and the search stops as soon as the segment is fully blocked.
+     *
+     * @param ray         The ray from the shaded point towards the light source.
+     * @param maxDistance The distance to the light source.
+     * @return The transparency factor along the segment, {@link Double3#ZERO} if it is fully blocked.
+     */
+    @Override
+    public Double3 findTransparency(Ray ray, double maxDistance) {
+        RenderStatistics.countIntersection(getClass());
+        if (bvh) return findTransparencyBVH(ray, maxDistance);
+
+        Double3 ktr = Double3.ONE;
+        for (Intersectable in : lst) {
+            ktr = product(ktr, in.findTransparency(ray, maxDistance));
+            if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+        }
+        return ktr;
+    }
+
+    /**
+     * Multiplies transparency factors, without creating a new factor when one of them is
+     * {@link Double3#ONE} (a geometry that is not hit), which is the common case.
+     *
+     * @param k1 The first factor.
+     * @param k2 The second factor.
+     * @return The product of the factors.
+     */
+    private static Double3 product(Double3 k1, Double3 k2) {
+        return k2 == Double3.ONE ? k1 : k1 == Double3.ONE ? k2 : k1.product(k2);
+    }
+
+    /**
+     * Calculates the transparency of the collection along a ray segment using the bounding volume hierarchy.
+     *
+     * @param ray         The ray from the shaded point towards the light source.
+     * @param maxDistance The distance to the light source.
+     * @return The transparency factor along the segment, {@link Double3#ZERO} if it is fully blocked.
+     */
+    private Double3 findTransparencyBVH(Ray ray, double maxDistance) {
+        Hierarchy h = getHierarchy();
+
+        Double3 ktr = Double3.ONE;
+        for (Intersectable in : h.unbounded) {
+            ktr = product(ktr, in.findTransparency(ray, maxDistance));
+            if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+        }
+        if (h.tree == null) return ktr;
+
+        // the visitor stops the traversal with a negative distance once the segment is blocked
+        Double3[] total = {ktr};
+        double result = h.tree.traverse(ray, maxDistance, (i, distance) -> {
+            total[0] = product(total[0], h.bounded[i].findTransparency(ray, distance));
+            return total[0].equals(Double3.ZERO) ? -1 : distance;
+        });
+        return result < 0 ? Double3.ZERO : total[0];
+    }
+
+    /**
+     * Gets the acceleration data of the collection, building it if it is missing.
+     * The build is synchronized, so concurrent render threads build it only once.
+     *
+     * @return The acceleration data.
+     */
+    Hierarchy getHierarchy() {
+        Hierarchy h = hierarchy;
+        if (h == null) {
+            synchronized (this) {
+                h = hierarchy;
+                if (h == null) hierarchy = h = buildHierarchy();
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Builds the acceleration data of the collection: splits the geometries into bounded and
+     * unbounded ones and builds a hierarchy over the bounded ones.
+     *
+     * @return The acceleration data.
+     */
+    private Hierarchy buildHierarchy() {
+        long start = RenderStatistics.start();
+        List<Intersectable> bounded = new LinkedList<>();
+        List<BoundingBox> boxes = new LinkedList<>();
+        List<Intersectable> unbounded = new LinkedList<>();
+        for (Intersectable in : lst) {
+            BoundingBox box = in.getBoundingBox();
+            if (box == null)
+                unbounded.add(in);
+            else {
+                bounded.add(in);
+                boxes.add(box);
+            }
+        }
+
+        BoundingVolumeHierarchy tree = bounded.isEmpty() ? null
+                : BoundingVolumeHierarchy.build(boxes.toArray(new BoundingBox[0]), construction);
+        RenderStatistics.end(BoundingVolumeHierarchy.BUILD_PHASE, start);
+        return new Hierarchy(tree, bounded.toArray(new Intersectable[0]), unbounded.toArray(new Intersectable[0]));
+    }
 }
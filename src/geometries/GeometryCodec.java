@@ -0,0 +1,396 @@
+package geometries;
+
+import primitives.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Binary encoding of geometries for the scene cache. A geometry is written with all the data that
+ * was derived from it at construction (plane normals, the bounding volume hierarchies of meshes and
+ * of accelerated collections), so reading it back creates the objects directly, without the
+ * validations of the public constructors and without building the hierarchies again.<br/>
+ * The encoding is a tag byte followed by the data of the geometry; a {@link Geometry} also has its
+ * emission and the index of its material in a table kept by the caller. Arrays are written as their
+ * length followed by their elements, in the byte order of {@link DataOutputStream} - the default
+ * order of a {@link ByteBuffer}.<br/>
+ * Only the geometries of this package are supported: {@link Geometries}, {@link Sphere},
+ * {@link Plane}, {@link Polygon}, {@link Triangle} and {@link TriangleMesh}.
+ */
+public final class GeometryCodec {
+    /** Tags of the geometry types */
+    private static final byte GEOMETRIES = 0;
+    private static final byte SPHERE = 1;
+    private static final byte PLANE = 2;
+    private static final byte POLYGON = 3;
+    private static final byte TRIANGLE = 4;
+    private static final byte MESH = 5;
+
+    /** Don't let anyone instantiate this class. */
+    private GeometryCodec() {}
+
+    /**
+     * Writes a geometry.
+     *
+     * @param geometry  the geometry
+     * @param out       the output
+     * @param materials gives the index of a material in the table of materials of the caller
+     * @throws IOException              if the output fails
+     * @throws IllegalArgumentException if the geometry is of an unsupported type
+     */
+    public static void write(Intersectable geometry, DataOutputStream out, ToIntFunction<Material> materials)
+            throws IOException {
+        switch (geometry) {
+            case Geometries g -> writeGeometries(g, out, materials);
+            case Sphere s -> {
+                writeHeader(SPHERE, s, out, materials);
+                out.writeDouble(s.radius);
+                writePoint(s.center, out);
+            }
+            case Plane p -> {
+                writeHeader(PLANE, p, out, materials);
+                writePoint(p.q, out);
+                writeVector(p.getNormal(), out);
+            }
+            case Triangle t -> {
+                writeHeader(TRIANGLE, t, out, materials);
+                writePolygon(t, out);
+                out.writeBoolean(t.watertight);
+            }
+            case Polygon p when p.getClass() == Polygon.class -> {
+                writeHeader(POLYGON, p, out, materials);
+                writePolygon(p, out);
+            }
+            case TriangleMesh m -> {
+                writeHeader(MESH, m, out, materials);
+                writeArray(m.vertices, out);
+                writeArray(m.indices, out);
+                out.writeBoolean(m.watertight);
+                writeHierarchy(m.hierarchy, out);
+            }
+            default -> throw new IllegalArgumentException(
+                    "Geometry of type " + geometry.getClass().getName() + " can't be cached");
+        }
+    }
+
+    /**
+     * Reads a geometry.
+     *
+     * @param in        the input, positioned at the geometry, and positioned after it on return
+     * @param materials gives the material of an index in the table of materials of the caller
+     * @return the geometry
+     * @throws IllegalArgumentException if the input is not a valid encoding
+     */
+    public static Intersectable read(ByteBuffer in, IntFunction<Material> materials) {
+        byte tag = in.get();
+        if (tag == GEOMETRIES) return readGeometries(in, materials);
+
+        Color emission = new Color(readDouble3(in));
+        Material material = materials.apply(in.getInt());
+        Geometry geometry = switch (tag) {
+            case SPHERE -> new Sphere(in.getDouble(), readPoint(in));
+            case PLANE -> Plane.trusted(readPoint(in), readVector(in));
+            case POLYGON -> {
+                Point[] vertices = readPoints(in);
+                yield new Polygon(Plane.trusted(vertices[0], readVector(in)), vertices);
+            }
+            case TRIANGLE -> {
+                Point[] vertices = readPoints(in);
+                Triangle triangle = new Triangle(Plane.trusted(vertices[0], readVector(in)),
+                        vertices[0], vertices[1], vertices[2]);
+                triangle.watertight = in.get() != 0;
+                yield triangle;
+            }
+            case MESH -> {
+                double[] vertices = readDoubles(in);
+                int[] indices = readInts(in);
+                boolean watertight = in.get() != 0;
+                TriangleMesh mesh = new TriangleMesh(vertices, indices, readHierarchy(in));
+                mesh.watertight = watertight;
+                yield mesh;
+            }
+            default -> throw new IllegalArgumentException("Unknown geometry tag " + tag);
+        };
+        return geometry.setEmission(emission).setMaterial(material);
+    }
+
+    /**
+     * Writes a collection of geometries, with its hierarchy if it is accelerated.
+     *
+     * @param geometries the collection
+     * @param out        the output
+     * @param materials  gives the index of a material in the table of materials of the caller
+     * @throws IOException if the output fails
+     */
+    private static void writeGeometries(Geometries geometries, DataOutputStream out, ToIntFunction<Material> materials)
+            throws IOException {
+        out.writeByte(GEOMETRIES);
+        List<Intersectable> items = geometries.getGeometries();
+        out.writeInt(items.size());
+        Map<Intersectable, Integer> indices = new IdentityHashMap<>();
+        for (Intersectable in : items) {
+            indices.put(in, indices.size());
+            write(in, out, materials);
+        }
+
+        out.writeBoolean(geometries.isBVH());
+        if (!geometries.isBVH()) return;
+        // the hierarchy refers to the geometries by their indices in the collection
+        Geometries.Hierarchy h = geometries.getHierarchy();
+        writeIndices(h.bounded(), indices, out);
+        writeIndices(h.unbounded(), indices, out);
+        out.writeBoolean(h.tree() != null);
+        if (h.tree() != null) writeHierarchy(h.tree(), out);
+    }
+
+    /**
+     * Reads a collection of geometries, with its hierarchy if it is accelerated.
+     *
+     * @param in        the input
+     * @param materials gives the material of an index in the table of materials of the caller
+     * @return the collection
+     */
+    private static Geometries readGeometries(ByteBuffer in, IntFunction<Material> materials) {
+        Intersectable[] items = new Intersectable[length(in, 1)];
+        for (int i = 0; i < items.length; i++) items[i] = read(in, materials);
+        if (in.get() == 0) return new Geometries(items);
+
+        Intersectable[] bounded = readIndices(in, items);
+        Intersectable[] unbounded = readIndices(in, items);
+        BoundingVolumeHierarchy tree = in.get() != 0 ? readHierarchy(in) : null;
+        return Geometries.withHierarchy(items, new Geometries.Hierarchy(tree, bounded, unbounded));
+    }
+
+    /**
+     * Writes the tag, the emission and the material of a geometry.
+     *
+     * @param tag       the tag of the geometry type
+     * @param geometry  the geometry
+     * @param out       the output
+     * @param materials gives the index of a material in the table of materials of the caller
+     * @throws IOException if the output fails
+     */
+    private static void writeHeader(byte tag, Geometry geometry, DataOutputStream out, ToIntFunction<Material> materials)
+            throws IOException {
+        out.writeByte(tag);
+        writeDouble3(geometry.getEmission().getRgb(), out);
+        out.writeInt(materials.applyAsInt(geometry.getMaterial()));
+    }
+
+    /**
+     * Writes the vertices and the normal of a polygon.
+     *
+     * @param polygon the polygon
+     * @param out     the output
+     * @throws IOException if the output fails
+     */
+    private static void writePolygon(Polygon polygon, DataOutputStream out) throws IOException {
+        out.writeInt(polygon.vertices.size());
+        for (Point vertex : polygon.vertices) writePoint(vertex, out);
+        writeVector(polygon.plane.getNormal(), out);
+    }
+
+    /**
+     * Writes the arrays of a hierarchy.
+     *
+     * @param tree the hierarchy
+     * @param out  the output
+     * @throws IOException if the output fails
+     */
+    private static void writeHierarchy(BoundingVolumeHierarchy tree, DataOutputStream out) throws IOException {
+        writeArray(tree.bounds, out);
+        writeArray(tree.nodes, out);
+        writeArray(tree.primitives, out);
+        out.writeInt(tree.depth);
+    }
+
+    /**
+     * Reads the arrays of a hierarchy.
+     *
+     * @param in the input
+     * @return the hierarchy
+     */
+    private static BoundingVolumeHierarchy readHierarchy(ByteBuffer in) {
+        return new BoundingVolumeHierarchy(readDoubles(in), readInts(in), readInts(in), in.getInt());
+    }
+
+    /**
+     * Writes geometries as their indices in their collection.
+     *
+     * @param items   the geometries
+     * @param indices the indices of the geometries of the collection
+     * @param out     the output
+     * @throws IOException if the output fails
+     */
+    private static void writeIndices(Intersectable[] items, Map<Intersectable, Integer> indices, DataOutputStream out)
+            throws IOException {
+        out.writeInt(items.length);
+        for (Intersectable item : items) out.writeInt(indices.get(item));
+    }
+
+    /**
+     * Reads geometries given by their indices in their collection.
+     *
+     * @param in    the input
+     * @param items the geometries of the collection
+     * @return the geometries
+     */
+    private static Intersectable[] readIndices(ByteBuffer in, Intersectable[] items) {
+        Intersectable[] result = new Intersectable[length(in, Integer.BYTES)];
+        for (int i = 0; i < result.length; i++) result[i] = items[in.getInt()];
+        return result;
+    }
+
+    /**
+     * Writes a point.
+     *
+     * @param point the point
+     * @param out   the output
+     * @throws IOException if the output fails
+     */
+    private static void writePoint(Point point, DataOutputStream out) throws IOException {
+        out.writeDouble(point.getX());
+        out.writeDouble(point.getY());
+        out.writeDouble(point.getZ());
+    }
+
+    /**
+     * Writes a vector.
+     *
+     * @param vector the vector
+     * @param out    the output
+     * @throws IOException if the output fails
+     */
+    private static void writeVector(Vector vector, DataOutputStream out) throws IOException {
+        out.writeDouble(vector.getX());
+        out.writeDouble(vector.getY());
+        out.writeDouble(vector.getZ());
+    }
+
+    /**
+     * Writes a triad of numbers (e.g. a color or a material coefficient).
+     *
+     * @param d   the triad
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    public static void writeDouble3(Double3 d, DataOutputStream out) throws IOException {
+        out.writeDouble(d.getD1());
+        out.writeDouble(d.getD2());
+        out.writeDouble(d.getD3());
+    }
+
+    /**
+     * Reads a point.
+     *
+     * @param in the input
+     * @return the point
+     */
+    public static Point readPoint(ByteBuffer in) {
+        return new Point(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    /**
+     * Reads a vector.
+     *
+     * @param in the input
+     * @return the vector
+     */
+    public static Vector readVector(ByteBuffer in) {
+        return new Vector(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    /**
+     * Reads a triad of numbers (e.g. a color or a material coefficient).
+     *
+     * @param in the input
+     * @return the triad
+     */
+    public static Double3 readDouble3(ByteBuffer in) {
+        return new Double3(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    /**
+     * Reads an array of points.
+     *
+     * @param in the input
+     * @return the points
+     */
+    private static Point[] readPoints(ByteBuffer in) {
+        Point[] points = new Point[length(in, 3 * Double.BYTES)];
+        for (int i = 0; i < points.length; i++) points[i] = readPoint(in);
+        return points;
+    }
+
+    /**
+     * Reads the length of an array, checking that the input has enough bytes left for it,
+     * so a broken input can't make a huge array.
+     *
+     * @param in    the input
+     * @param bytes the least amount of bytes of an element of the array
+     * @return the length
+     * @throws IllegalArgumentException if the input is too short for the length
+     */
+    public static int length(ByteBuffer in, int bytes) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining() / bytes)
+            throw new IllegalArgumentException("Invalid array length " + length);
+        return length;
+    }
+
+    /**
+     * Writes an array of numbers.
+     *
+     * @param array the array
+     * @param out   the output
+     * @throws IOException if the output fails
+     */
+    private static void writeArray(double[] array, DataOutputStream out) throws IOException {
+        out.writeInt(array.length);
+        for (double d : array) out.writeDouble(d);
+    }
+
+    /**
+     * Writes an array of integers.
+     *
+     * @param array the array
+     * @param out   the output
+     * @throws IOException if the output fails
+     */
+    private static void writeArray(int[] array, DataOutputStream out) throws IOException {
+        out.writeInt(array.length);
+        for (int i : array) out.writeInt(i);
+    }
+
+    /**
+     * Reads an array of numbers in bulk.
+     *
+     * @param in the input
+     * @return the array
+     */
+    private static double[] readDoubles(ByteBuffer in) {
+        double[] array = new double[length(in, Double.BYTES)];
+        in.asDoubleBuffer().get(array);
+        in.position(in.position() + Double.BYTES * array.length);
+        return array;
+    }
+
+    /**
+     * Reads an array of integers in bulk.
+     *
+     * @param in the input
+     * @return the array
+     */
+    private static int[] readInts(ByteBuffer in) {
+        int[] array = new int[length(in, Integer.BYTES)];
+        in.asIntBuffer().get(array);
+        in.position(in.position() + Integer.BYTES * array.length);
+        return array;
+    }
+}
@@ -0,0 +1,270 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents an instance of a shared object - a geometry, a mesh or a whole collection of
+ * geometries - placed in the scene by an affine transform. Any amount of instances may share one
+ * object, so the memory of a scene is proportional to its unique geometry: a forest of a thousand
+ * trees holds the triangles of a single tree.<br/>
+ * A ray is transformed into the space of the object, intersected with the object there (through
+ * the object's own acceleration, such as the hierarchy of a {@link TriangleMesh}), and the hits are
+ * transformed back. A hit is reported as a {@link GeoPoint} whose geometry is a {@link Part} - a
+ * lightweight view of the hit geometry of the object that gives its transformed normal and its
+ * emission and material.<br/>
+ * An instance is bounded by the transformed bounding box of its object, so the instances of a
+ * {@link Geometries} with a bounding volume hierarchy make a two level acceleration structure: the
+ * hierarchy of the scene over the instances, and the hierarchy of each object over its geometry.
+ */
+public class Instance extends Intersectable {
+    /** The shared object, in its own space */
+    private final Intersectable object;
+    /** The transform from the space of the object to the scene */
+    private final Transform toWorld;
+    /** The transform from the scene to the space of the object */
+    private final Transform toObject;
+
+    /**
+     * A geometry of the object of an instance, as reported in the intersections of a ray with the
+     * instance. It has the emission and the material of the geometry, and its normal is transformed
+     * by the instance.
+     */
+    public static final class Part extends Geometry {
+        /** The instance */
+        private final Instance instance;
+        /** The hit geometry of the object */
+        private final Geometry geometry;
+        /** The hit point in the space of the object */
+        private final Point local;
+
+        /**
+         * Constructs a view of a hit geometry of the object of an instance.
+         *
+         * @param instance The instance.
+         * @param geometry The hit geometry of the object.
+         * @param local    The hit point in the space of the object.
+         */
+        private Part(Instance instance, Geometry geometry, Point local) {
+            this.instance = instance;
+            this.geometry = geometry;
+            this.local = local;
+        }
+
+        /**
+         * Gets the instance of the geometry.
+         *
+         * @return The instance.
+         */
+        public Instance getInstance() {
+            return instance;
+        }
+
+        /**
+         * Gets the hit geometry of the object, in the space of the object.
+         *
+         * @return The geometry.
+         */
+        public Geometry getGeometry() {
+            return geometry;
+        }
+
+        @Override
+        public Color getEmission() {
+            return geometry.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return geometry.getMaterial();
+        }
+
+        /**
+         * Sets the emission of the geometry of the object - all the instances of the object share it.
+         *
+         * @param emission The emission.
+         * @return The part itself.
+         */
+        @Override
+        public Geometry setEmission(Color emission) {
+            geometry.setEmission(emission);
+            return this;
+        }
+
+        /**
+         * Sets the material of the geometry of the object - all the instances of the object share it.
+         *
+         * @param material The material.
+         * @return The part itself.
+         */
+        @Override
+        public Geometry setMaterial(Material material) {
+            geometry.setMaterial(material);
+            return this;
+        }
+
+        /**
+         * Gets the normal of the geometry at the hit point, transformed by the instance.
+         *
+         * @param p The hit point, in the scene.
+         * @return The normal in the scene.
+         */
+        @Override
+        public Vector getNormal(Point p) {
+            return instance.toWorld.applyToNormal(geometry.getNormal(local));
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+            return instance.findGeoIntersections(geometry, ray, maxDistance);
+        }
+
+        @Override
+        protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+            return instance.findClosestGeoIntersection(geometry, ray, maxDistance);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            return obj instanceof Part other && instance == other.instance && geometry.equals(other.geometry);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(instance) + geometry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "Part{" + geometry + "}";
+        }
+    }
+
+    /**
+     * Constructs an instance of an object.
+     *
+     * @param object    The shared object, in its own space.
+     * @param transform The transform from the space of the object to the scene.
+     */
+    public Instance(Intersectable object, Transform transform) {
+        this.object = object;
+        this.toWorld = transform;
+        this.toObject = transform.inverse();
+    }
+
+    /**
+     * Gets the shared object of the instance.
+     *
+     * @return The object.
+     */
+    public Intersectable getObject() {
+        return object;
+    }
+
+    /**
+     * Gets the transform of the instance.
+     *
+     * @return The transform from the space of the object to the scene.
+     */
+    public Transform getTransform() {
+        return toWorld;
+    }
+
+    /**
+     * Gets the bounding box of the instance - the box of the transformed corners of the box of its
+     * object.
+     *
+     * @return The bounding box, or {@code null} if the object is unbounded.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = object.getBoundingBox();
+        if (box == null) return null;
+        Point[] corners = new Point[8];
+        for (int c = 0; c < 8; c++)
+            corners[c] = toWorld.applyToPoint(new Point(
+                    (c & 1) == 0 ? box.getMin(0) : box.getMax(0),
+                    (c & 2) == 0 ? box.getMin(1) : box.getMax(1),
+                    (c & 4) == 0 ? box.getMin(2) : box.getMax(2)));
+        return new BoundingBox(corners);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        return findGeoIntersections(object, ray, maxDistance);
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        return findClosestGeoIntersection(object, ray, maxDistance);
+    }
+
+    /**
+     * Calculates the transparency of the instance along a ray segment, which is the transparency
+     * of its object along the transformed segment.
+     *
+     * @param ray         The ray from the shaded point towards the light source.
+     * @param maxDistance The distance to the light source.
+     * @return The transparency factor along the segment, {@link Double3#ZERO} if it is fully blocked.
+     */
+    @Override
+    public Double3 findTransparency(Ray ray, double maxDistance) {
+        RenderStatistics.countIntersection(getClass());
+        Vector direction = toObject.applyToVector(ray.getDirection());
+        return object.findTransparency(new Ray(toObject.applyToPoint(ray.getHead()), direction),
+                maxDistance * direction.length());
+    }
+
+    /**
+     * Finds the intersections of a ray with a part of the object. The distances along the ray in
+     * the space of the object are scaled by the length of the transformed direction of the ray, so
+     * the maximal distance is scaled into the space of the object and the distances of the hits are
+     * scaled back.
+     *
+     * @param part        The object or a geometry of it.
+     * @param ray         The ray, in the scene.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return A list of intersection points in the scene, or {@code null} if there are none.
+     */
+    private List<GeoPoint> findGeoIntersections(Intersectable part, Ray ray, double maxDistance) {
+        Vector direction = toObject.applyToVector(ray.getDirection());
+        double scale = direction.length();
+        List<GeoPoint> intersections = part.findGeoIntersections(
+                new Ray(toObject.applyToPoint(ray.getHead()), direction), maxDistance * scale);
+        if (intersections == null) return null;
+
+        List<GeoPoint> res = new ArrayList<>(intersections.size());
+        for (GeoPoint gp : intersections) res.add(toWorld(gp, scale));
+        return res;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with a part of the object.
+     *
+     * @param part        The object or a geometry of it.
+     * @param ray         The ray, in the scene.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point in the scene, or {@code null} if there is none.
+     */
+    private GeoPoint findClosestGeoIntersection(Intersectable part, Ray ray, double maxDistance) {
+        Vector direction = toObject.applyToVector(ray.getDirection());
+        double scale = direction.length();
+        GeoPoint gp = part.findClosestGeoIntersection(
+                new Ray(toObject.applyToPoint(ray.getHead()), direction), maxDistance * scale);
+        return gp == null ? null : toWorld(gp, scale);
+    }
+
+    /**
+     * Transforms an intersection in the space of the object into the scene.
+     *
+     * @param gp    The intersection in the space of the object.
+     * @param scale The length of the transformed direction of the ray.
+     * @return The intersection in the scene.
+     */
+    private GeoPoint toWorld(GeoPoint gp, double scale) {
+        return new GeoPoint(new Part(this, gp.geometry, gp.point), toWorld.applyToPoint(gp.point), gp.t / scale);
+    }
+}
@@ -1,7 +1,9 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
+import primitives.RenderStatistics;
 
 import java.util.List;
 
@@ -29,10 +31,104 @@ public abstract class Intersectable {
      * @return A list of intersection points, or an empty list if no intersections occur.
      */
     public final List<GeoPoint> findGeoIntersections(Ray ray) {
-        return findGeoIntersectionsHelper(ray);
+        RenderStatistics.countIntersection(getClass());
+        return findGeoIntersectionsHelper(ray, Double.POSITIVE_INFINITY);
     }
 
-    protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray);
+    /**
+     * Uses the helper function to return the intersections for an array and a geometry
+     * that are not farther than a given distance from the head of the ray
+     *
+     * @param ray         The ray for which intersections are to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return A list of intersection points, or {@code null} if no intersections occur.
+     */
+    public final List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+        RenderStatistics.countIntersection(getClass());
+        return findGeoIntersectionsHelper(ray, maxDistance);
+    }
+
+    /**
+     * Finds the intersections of the object with a ray up to a maximal distance.
+     *
+     * @param ray         The ray for which intersections are to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return A list of intersection points, or {@code null} if no intersections occur.
+     */
+    protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance);
+
+    /**
+     * Finds the closest intersection of the object with a ray.
+     *
+     * @param ray The ray for which the intersection is to be found.
+     * @return The closest intersection point (with its distance along the ray), or {@code null} if there is none.
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        RenderStatistics.countIntersection(getClass());
+        return findClosestGeoIntersectionHelper(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the closest intersection of the object with a ray that is not farther than a given
+     * distance from the head of the ray.
+     *
+     * @param ray         The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point (with its distance along the ray), or {@code null} if there is none.
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        RenderStatistics.countIntersection(getClass());
+        return findClosestGeoIntersectionHelper(ray, maxDistance);
+    }
+
+    /**
+     * Finds the closest intersection of the object with a ray up to a maximal distance.
+     * The default implementation picks the closest of all the intersections; geometries
+     * override it to find the closest one directly without building a list.
+     *
+     * @param ray         The ray for which the intersection is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point (with its distance along the ray), or {@code null} if there is none.
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections == null) return null;
+
+        GeoPoint closest = ray.findClosestGeoPoint(intersections);
+        if (Double.isNaN(closest.t)) closest.t = closest.point.distance(ray.getHead());
+        return closest;
+    }
+
+    /**
+     * Calculates how much light passes through the object along a ray segment (an occlusion query
+     * for shadow rays). The transparency coefficients of all the intersections up to the maximal
+     * distance are multiplied, and the search stops at the first fully opaque intersection.
+     *
+     * @param ray         The ray from the shaded point towards the light source.
+     * @param maxDistance The distance to the light source.
+     * @return The transparency factor along the segment, {@link Double3#ZERO} if it is fully blocked.
+     */
+    public Double3 findTransparency(Ray ray, double maxDistance) {
+        RenderStatistics.countIntersection(getClass());
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections == null) return Double3.ONE;
+
+        Double3 ktr = Double3.ONE;
+        for (GeoPoint gp : intersections) {
+            ktr = ktr.product(gp.geometry.getMaterial().kT);
+            if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+        }
+        return ktr;
+    }
+
+    /**
+     * Gets the axis-aligned bounding box of the object, used by acceleration structures.
+     *
+     * @return The bounding box of the object, or {@code null} if the object is unbounded (e.g. a plane).
+     */
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
 
     /**
      * A class to represent a point in a 3D space.
@@ -42,6 +138,11 @@ public abstract class Intersectable {
     public static class GeoPoint {
         public Geometry geometry;
         public Point point;
+        /**
+         * The distance of the point along the intersecting ray (the ray parameter t),
+         * or {@code NaN} if it is unknown
+         */
+        public double t = Double.NaN;
 
         /**
          * Constructor that initializes the {@code Geometry} and the {@code Point} of intersection.
@@ -54,6 +155,20 @@ public abstract class Intersectable {
             this.point = point;
         }
 
+        /**
+         * Constructor that initializes the {@code Geometry}, the {@code Point} of intersection
+         * and its distance along the intersecting ray.
+         *
+         * @param geometry The geometry of intersection.
+         * @param point    The point of intersection.
+         * @param t        The distance of the point along the ray.
+         */
+        public GeoPoint(Geometry geometry, Point point, double t) {
+            this.geometry = geometry;
+            this.point = point;
+            this.t = t;
+        }
+
         /**
          * Equals method to compare between two {@code GeoPoint} objects.
          *
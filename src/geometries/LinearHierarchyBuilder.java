@@ -0,0 +1,478 @@
+package geometries;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+import static geometries.BoundingVolumeHierarchy.*;
+
+/**
+ * A parallel builder of a linear bounding volume hierarchy (LBVH), an alternative to the single
+ * threaded surface area heuristic build of {@link BoundingVolumeHierarchy} for large primitive sets.
+ * The build has three passes, each of them parallel:
+ * <ol>
+ * <li>The centroids of the primitives are quantized to a 3D Morton code of 21 bits per axis, and
+ * sorted by a parallel radix sort, so the primitives that are near in space are near in the order.</li>
+ * <li>The sorted range is split recursively at the highest bit in which the codes of its ends differ,
+ * building a radix tree with a leaf per primitive. The two halves of a large range are built by
+ * parallel tasks. The tree is held with explicit children while it's built: the subtree of a range
+ * of k primitives takes exactly 2k-1 nodes, so the node of every range is known in advance and the
+ * tasks never share a node. Every node is costed bottom-up by the surface area heuristic, and a
+ * small subtree that is cheaper as a single leaf is marked to be collapsed into one.</li>
+ * <li>The tree is written into the flat depth-first arrays of a {@link BoundingVolumeHierarchy}, the
+ * subtrees of a large node by parallel tasks.</li>
+ * </ol>
+ * The radix tree ignores the sizes of the primitives, so optionally every node is refined on its way
+ * up by treelet restructuring: the treelet of its 5 largest descendants is rebuilt to the topology of
+ * the least cost by the surface area heuristic, found by dynamic programming over the subsets of the
+ * treelet's leaves.
+ */
+final class LinearHierarchyBuilder {
+    /** Bits of a Morton code along each axis */
+    private static final int MORTON_BITS = 21;
+    /** Bits of a digit of the radix sort */
+    private static final int RADIX_BITS = 11;
+    /** Amount of values of a digit of the radix sort */
+    private static final int RADIX = 1 << RADIX_BITS;
+    /** Amount of primitives in a chunk of the parallel passes over the primitives */
+    private static final int CHUNK = 1 << 15;
+    /** Amount of primitives in the smallest subtree that is split into parallel tasks */
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
+    /** Maximal amount of leaves of a restructured treelet */
+    private static final int TREELET_LEAVES = 5;
+
+    /**
+     * The working data of the treelets of a thread, reused by all its treelets.
+     */
+    private static final class Treelet {
+        /** The leaves of the treelet - subtrees that are kept as they are */
+        private final int[] leaves = new int[TREELET_LEAVES];
+        /** The inner nodes of the treelet, the root first, reused by the restructured treelet */
+        private final int[] inner = new int[TREELET_LEAVES - 1];
+        /** The least cost of a subtree over every subset of the leaves */
+        private final double[] costs = new double[1 << TREELET_LEAVES];
+        /** The split of every subset of the leaves of the least cost, the subset of its left child */
+        private final int[] splits = new int[1 << TREELET_LEAVES];
+        /** The bounding box of a subset of the leaves */
+        private final double[] box = new double[6];
+        /** The amount of inner nodes reused so far by the restructured treelet */
+        private int used;
+    }
+
+    /** The treelet data of the threads */
+    private static final ThreadLocal<Treelet> TREELETS = ThreadLocal.withInitial(Treelet::new);
+
+    /** Bounding boxes of the primitives, 6 values per primitive */
+    private final double[] primBounds;
+    /** Amount of primitives */
+    private final int n;
+    /** Whether the treelets of the tree are restructured */
+    private final boolean treelets;
+    /** The Morton codes of the primitives, in sorted order */
+    private long[] codes;
+    /** The primitives, sorted by their Morton codes */
+    private int[] order;
+
+    /** The children of the nodes of the tree, 2 per node: for a leaf, the complement of its primitive and -1 */
+    private final int[] children;
+    /** Bounding boxes of the nodes of the tree, 6 values per node */
+    private final double[] boxes;
+    /** Amount of primitives of the subtree of each node */
+    private final int[] counts;
+    /** The cost of the subtree of each node by the surface area heuristic, unnormalized by its area */
+    private final double[] costs;
+    /** Whether the subtree of each node is written as a single leaf */
+    private final boolean[] collapsed;
+    /** Amount of nodes of the flat hierarchy of the subtree of each node */
+    private final int[] emitted;
+
+    /** Bounding boxes of the nodes of the flat hierarchy */
+    private double[] bounds;
+    /** Primitive count and child/offset of the nodes of the flat hierarchy */
+    private int[] nodes;
+    /** Primitive indices of the flat hierarchy, in leaf order */
+    private int[] primitives;
+
+    /**
+     * Prepares the build of a hierarchy over primitives given by the raw coordinates of their
+     * bounding boxes.
+     *
+     * @param primBounds minX, minY, minZ, maxX, maxY, maxZ of every primitive, 6 values per primitive.
+     * @param treelets   Whether the treelets of the tree are restructured.
+     * @throws IllegalArgumentException if there are no primitives.
+     */
+    LinearHierarchyBuilder(double[] primBounds, boolean treelets) {
+        n = primBounds.length / 6;
+        if (n == 0)
+            throw new IllegalArgumentException("A bounding volume hierarchy needs at least one primitive");
+        this.primBounds = primBounds;
+        this.treelets = treelets;
+        int treeNodes = 2 * n - 1;
+        children = new int[2 * treeNodes];
+        boxes = new double[6 * treeNodes];
+        counts = new int[treeNodes];
+        costs = new double[treeNodes];
+        collapsed = new boolean[treeNodes];
+        emitted = new int[treeNodes];
+    }
+
+    /**
+     * Builds the hierarchy.
+     *
+     * @return The hierarchy.
+     */
+    BoundingVolumeHierarchy build() {
+        AccelerationBuildEvent event = new AccelerationBuildEvent();
+        event.begin();
+
+        sortByMortonCodes();
+        split(0, 0, n);
+        codes = null;
+
+        bounds = new double[6 * emitted[0]];
+        nodes = new int[2 * emitted[0]];
+        primitives = new int[n];
+        int depth = emit(0, 0, 0);
+
+        if (event.shouldCommit()) {
+            event.primitives = n;
+            event.nodes = emitted[0];
+            event.commit();
+        }
+        return new BoundingVolumeHierarchy(bounds, nodes, primitives, depth);
+    }
+
+    /**
+     * Calculates the Morton codes of the centroids of the primitives within the bounds of the
+     * centroids, and sorts the primitives by their codes.
+     */
+    private void sortByMortonCodes() {
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        double[] chunkBounds = new double[6 * chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            emptyBox(chunkBounds, 6 * c);
+            for (int i = c * CHUNK, end = Math.min(n, i + CHUNK); i < end; i++)
+                for (int axis = 0; axis < 3; axis++) {
+                    double centroid = (primBounds[6 * i + axis] + primBounds[6 * i + 3 + axis]) / 2;
+                    chunkBounds[6 * c + axis] = Math.min(chunkBounds[6 * c + axis], centroid);
+                    chunkBounds[6 * c + 3 + axis] = Math.max(chunkBounds[6 * c + 3 + axis], centroid);
+                }
+        });
+        double[] centroidBounds = new double[6];
+        emptyBox(centroidBounds, 0);
+        for (int c = 0; c < chunks; c++) growBox(centroidBounds, 0, chunkBounds, 6 * c);
+        double[] scale = new double[3];
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = centroidBounds[3 + axis] - centroidBounds[axis];
+            scale[axis] = extent > 0 ? ((1 << MORTON_BITS) - 1) / extent : 0;
+        }
+
+        codes = new long[n];
+        order = new int[n];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            for (int i = c * CHUNK, end = Math.min(n, i + CHUNK); i < end; i++) {
+                long code = 0;
+                for (int axis = 0; axis < 3; axis++) {
+                    double centroid = (primBounds[6 * i + axis] + primBounds[6 * i + 3 + axis]) / 2;
+                    long cell = (long) ((centroid - centroidBounds[axis]) * scale[axis]);
+                    code |= spread(Math.min(Math.max(cell, 0), (1 << MORTON_BITS) - 1)) << (2 - axis);
+                }
+                codes[i] = code;
+                order[i] = i;
+            }
+        });
+        radixSort(chunks);
+    }
+
+    /**
+     * Spreads the bits of a coordinate of a Morton code, so that two zero bits separate them.
+     *
+     * @param x The coordinate, of 21 bits.
+     * @return The spread bits.
+     */
+    static long spread(long x) {
+        x = (x | x << 32) & 0x1F00000000FFFFL;
+        x = (x | x << 16) & 0x1F0000FF0000FFL;
+        x = (x | x << 8) & 0x100F00F00F00F00FL;
+        x = (x | x << 4) & 0x10C30C30C30C30C3L;
+        return (x | x << 2) & 0x1249249249249249L;
+    }
+
+    /**
+     * Sorts the primitives by their Morton codes with a parallel least significant digit radix sort.
+     * Each pass counts the digits of every chunk of the codes in parallel, and then moves every chunk
+     * to the offsets of its digits in parallel. The chunks of a digit follow their order, so every
+     * pass is stable. A pass of a digit that is the same in all the codes is skipped.
+     *
+     * @param chunks The amount of chunks of the primitives.
+     */
+    private void radixSort(int chunks) {
+        long[] keys = codes, keyBuffer = new long[n];
+        int[] values = order, valueBuffer = new int[n];
+        int[][] offsets = new int[chunks][RADIX];
+        for (int shift = 0; shift < 3 * MORTON_BITS; shift += RADIX_BITS) {
+            final int digitShift = shift;
+            final long[] fromKeys = keys, toKeys = keyBuffer;
+            final int[] fromValues = values, toValues = valueBuffer;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] count = offsets[c];
+                Arrays.fill(count, 0);
+                for (int i = c * CHUNK, end = Math.min(n, i + CHUNK); i < end; i++)
+                    count[(int) (fromKeys[i] >>> digitShift) & (RADIX - 1)]++;
+            });
+
+            int sum = 0;
+            boolean constant = false;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int digitCount = 0;
+                for (int c = 0; c < chunks; c++) {
+                    int count = offsets[c][digit];
+                    offsets[c][digit] = sum;
+                    sum += count;
+                    digitCount += count;
+                }
+                if (digitCount == n) constant = true;
+            }
+            if (constant) continue;
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] offset = offsets[c];
+                for (int i = c * CHUNK, end = Math.min(n, i + CHUNK); i < end; i++) {
+                    int to = offset[(int) (fromKeys[i] >>> digitShift) & (RADIX - 1)]++;
+                    toKeys[to] = fromKeys[i];
+                    toValues[to] = fromValues[i];
+                }
+            });
+            keyBuffer = keys;
+            keys = toKeys;
+            valueBuffer = values;
+            values = toValues;
+        }
+        codes = keys;
+        order = values;
+    }
+
+    /**
+     * Builds the subtree of a node over a range of the sorted primitives, and costs it.
+     *
+     * @param node  The index of the node.
+     * @param start The first primitive (inclusive) in the range.
+     * @param end   The last primitive (exclusive) in the range.
+     */
+    private void split(int node, int start, int end) {
+        if (end - start == 1) {
+            leaf(node, order[start]);
+            return;
+        }
+
+        int mid = splitPoint(start, end);
+        int left = node + 1, right = node + 2 * (mid - start);
+        children[2 * node] = left;
+        children[2 * node + 1] = right;
+        if (end - start >= PARALLEL_THRESHOLD)
+            ForkJoinTask.invokeAll(ForkJoinTask.adapt(() -> split(left, start, mid)),
+                    ForkJoinTask.adapt(() -> split(right, mid, end)));
+        else {
+            split(left, start, mid);
+            split(right, mid, end);
+        }
+        update(node);
+        if (treelets) restructure(node);
+    }
+
+    /**
+     * Finds the split of a range of the sorted primitives: the first primitive whose code has the
+     * highest bit in which the codes of the ends of the range differ, or the middle of the range if
+     * all the codes are the same.
+     *
+     * @param start The first primitive (inclusive) in the range.
+     * @param end   The last primitive (exclusive) in the range.
+     * @return The index of the first primitive of the right side.
+     */
+    private int splitPoint(int start, int end) {
+        long first = codes[start], last = codes[end - 1];
+        if (first == last) return (start + end) >>> 1;
+
+        // the codes share the bits above the bit, so the codes with the bit clear come first
+        long bit = Long.highestOneBit(first ^ last);
+        int low = start + 1, high = end - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if ((codes[middle] & bit) != 0)
+                high = middle;
+            else
+                low = middle + 1;
+        }
+        return low;
+    }
+
+    /**
+     * Makes a node a leaf of a single primitive.
+     *
+     * @param node      The index of the node.
+     * @param primitive The primitive.
+     */
+    private void leaf(int node, int primitive) {
+        children[2 * node] = ~primitive;
+        children[2 * node + 1] = -1;
+        System.arraycopy(primBounds, 6 * primitive, boxes, 6 * node, 6);
+        counts[node] = 1;
+        costs[node] = area(boxes, 6 * node);
+        collapsed[node] = true;
+        emitted[node] = 1;
+    }
+
+    /**
+     * Calculates the bounding box, the amount of primitives and the cost of an inner node from its
+     * children, and decides whether its subtree is cheaper as a single leaf.
+     *
+     * @param node The index of the node.
+     */
+    private void update(int node) {
+        int left = children[2 * node], right = children[2 * node + 1];
+        System.arraycopy(boxes, 6 * left, boxes, 6 * node, 6);
+        growBox(boxes, 6 * node, boxes, 6 * right);
+        int count = counts[node] = counts[left] + counts[right];
+
+        double area = area(boxes, 6 * node);
+        double splitCost = TRAVERSAL_COST * area + costs[left] + costs[right];
+        double leafCost = count <= MAX_LEAF_SIZE ? area * count : Double.POSITIVE_INFINITY;
+        collapsed[node] = leafCost <= splitCost;
+        costs[node] = Math.min(leafCost, splitCost);
+        emitted[node] = collapsed[node] ? 1 : 1 + emitted[left] + emitted[right];
+    }
+
+    /**
+     * Restructures the treelet of a node to the topology of the least cost. The treelet grows from
+     * the children of the node by replacing its inner leaf of the largest area by the children of
+     * that leaf, and the least cost of every subset of its leaves is found from the subsets of the
+     * subset, the smaller subsets first. The subtrees below the leaves are restructured already.
+     *
+     * @param root The index of the root node of the treelet.
+     */
+    private void restructure(int root) {
+        Treelet t = TREELETS.get();
+        t.inner[0] = root;
+        t.leaves[0] = children[2 * root];
+        t.leaves[1] = children[2 * root + 1];
+        int size = 2;
+        while (size < TREELET_LEAVES) {
+            int largest = -1;
+            double largestArea = -1;
+            for (int i = 0; i < size; i++) {
+                if (children[2 * t.leaves[i]] < 0) continue;
+                double area = area(boxes, 6 * t.leaves[i]);
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            if (largest == -1) break;
+            int opened = t.leaves[largest];
+            t.inner[size - 1] = opened;
+            t.leaves[largest] = children[2 * opened];
+            t.leaves[size++] = children[2 * opened + 1];
+        }
+        if (size < 3) return;
+
+        int full = (1 << size) - 1;
+        for (int subset = 1; subset <= full; subset++) {
+            if (Integer.bitCount(subset) == 1) {
+                t.costs[subset] = costs[t.leaves[Integer.numberOfTrailingZeros(subset)]];
+                continue;
+            }
+            emptyBox(t.box, 0);
+            int count = 0;
+            for (int i = 0; i < size; i++)
+                if ((subset & 1 << i) != 0) {
+                    growBox(t.box, 0, boxes, 6 * t.leaves[i]);
+                    count += counts[t.leaves[i]];
+                }
+
+            // every split once, by the side that holds the lowest leaf of the subset
+            int lowest = subset & -subset;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int side = (subset - 1) & subset; side != 0; side = (side - 1) & subset) {
+                if ((side & lowest) == 0) continue;
+                double cost = t.costs[side] + t.costs[subset ^ side];
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    t.splits[subset] = side;
+                }
+            }
+            double area = area(t.box, 0);
+            double leafCost = count <= MAX_LEAF_SIZE ? area * count : Double.POSITIVE_INFINITY;
+            t.costs[subset] = Math.min(leafCost, TRAVERSAL_COST * area + bestCost);
+        }
+
+        if (t.costs[full] >= costs[root]) return;
+        t.used = 0;
+        rebuild(t, full);
+    }
+
+    /**
+     * Rebuilds the subtree of a subset of the leaves of a treelet by its split of the least cost,
+     * reusing the inner nodes of the treelet.
+     *
+     * @param t      The treelet.
+     * @param subset The subset of the leaves.
+     * @return The index of the root node of the subtree.
+     */
+    private int rebuild(Treelet t, int subset) {
+        if (Integer.bitCount(subset) == 1) return t.leaves[Integer.numberOfTrailingZeros(subset)];
+        int node = t.inner[t.used++];
+        int side = t.splits[subset];
+        int left = rebuild(t, side);
+        int right = rebuild(t, subset ^ side);
+        children[2 * node] = left;
+        children[2 * node + 1] = right;
+        update(node);
+        return node;
+    }
+
+    /**
+     * Writes the subtree of a node into the flat arrays of the hierarchy, in depth-first order.
+     *
+     * @param node  The index of the node.
+     * @param out   The index of the node in the flat arrays.
+     * @param first The offset of the first primitive of the subtree in the primitives of the flat arrays.
+     * @return The depth of the subtree.
+     */
+    private int emit(int node, int out, int first) {
+        System.arraycopy(boxes, 6 * node, bounds, 6 * out, 6);
+        if (collapsed[node]) {
+            nodes[2 * out] = counts[node];
+            nodes[2 * out + 1] = first;
+            gather(node, first);
+            return 1;
+        }
+
+        int left = children[2 * node], right = children[2 * node + 1];
+        int rightOut = out + 1 + emitted[left], rightFirst = first + counts[left];
+        nodes[2 * out] = 0;
+        nodes[2 * out + 1] = rightOut;
+        if (counts[node] < PARALLEL_THRESHOLD)
+            return 1 + Math.max(emit(left, out + 1, first), emit(right, rightOut, rightFirst));
+
+        ForkJoinTask<Integer> leftTask = ForkJoinTask.adapt(() -> emit(left, out + 1, first));
+        ForkJoinTask<Integer> rightTask = ForkJoinTask.adapt(() -> emit(right, rightOut, rightFirst));
+        ForkJoinTask.invokeAll(leftTask, rightTask);
+        return 1 + Math.max(leftTask.join(), rightTask.join());
+    }
+
+    /**
+     * Writes the primitives of the subtree of a node in leaf order.
+     *
+     * @param node  The index of the node.
+     * @param first The offset of the first primitive.
+     * @return The offset after the last primitive.
+     */
+    private int gather(int node, int first) {
+        int left = children[2 * node];
+        if (left < 0) {
+            primitives[first] = ~left;
+            return first + 1;
+        }
+        return gather(children[2 * node + 1], gather(left, first));
+    }
+}
@@ -2,7 +2,6 @@ package geometries;
 
 import primitives.*;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import static primitives.Util.alignZero;
@@ -12,7 +11,7 @@ import static primitives.Util.alignZero;
  * The plane implements the Geometry interface.
  */
 public class Plane extends Geometry {
-    private final Point q; // A point on the plane
+    final Point q; // A point on the plane
     private final Vector normal; // The normal vector to the plane
 
     /**
@@ -51,7 +50,33 @@ public class Plane extends Geometry {
      */
     public Plane(Point p, Vector normal) {
         this.q = p; // Initializes the point 'q' on the plane
-        this.normal = normal.normalize(); // Normalizes the provided normal vector
+        this.normal = normal.normalize();
+    }
+
+    /**
+     * Constructs a Plane object with the coordinates of a normal vector that is already normalized,
+     * for {@link #trusted(Point, Vector)}.
+     *
+     * @param p  A point on the plane.
+     * @param nx The x-coordinate of the unit normal vector to the plane.
+     * @param ny The y-coordinate of the unit normal vector to the plane.
+     * @param nz The z-coordinate of the unit normal vector to the plane.
+     */
+    private Plane(Point p, double nx, double ny, double nz) {
+        this.q = p; // Initializes the point 'q' on the plane
+        this.normal = new Vector(nx, ny, nz);
+    }
+
+    /**
+     * Creates a plane with a specified point and a normal vector that is trusted to be normalized
+     * already, e.g. a plane restored from a scene cache, so its normal stays bit for bit the same.
+     *
+     * @param p      A point on the plane.
+     * @param normal The unit normal vector to the plane.
+     * @return The plane.
+     */
+    static Plane trusted(Point p, Vector normal) {
+        return new Plane(p, normal.getX(), normal.getY(), normal.getZ());
     }
 
     /**
@@ -72,32 +97,56 @@ public class Plane extends Geometry {
     /**
      * Finds the intersection point of a ray with a plane using the parametric equation.
      *
-     * @param ray The ray for which the intersection point with the plane is to be found.
+     * @param ray         The ray for which the intersection point with the plane is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
      * @return A list containing the intersection point, or {@code null} if there is no intersection.
      */
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        Vector normal = getNormal();
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray, maxDistance);
+        if (t == Double.POSITIVE_INFINITY) return null;
+
+        return List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
 
-        //for top part of equation
-        Vector qMinusP0 = q.subtract(ray.getHead());
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray, maxDistance);
+        return t == Double.POSITIVE_INFINITY ? null : new GeoPoint(this, ray.getPoint(t), t);
+    }
+
+    /**
+     * Finds the distance along a ray to its intersection with the plane using the parametric equation.
+     *
+     * @param ray         The ray for which the intersection with the plane is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The distance along the ray, or {@link Double#POSITIVE_INFINITY} if there is no intersection
+     * up to the maximal distance.
+     */
+    double findIntersectionDistance(Ray ray, double maxDistance) {
+        Vector normal = getNormal();
 
         //for bottom of equation
         Vector rayDirection = ray.getDirection();
+        double nv = normal.dotProduct(rayDirection);
 
         //if the ray is parallel
-        if (normal.dotProduct(ray.getDirection()) == 0) return null;
+        if (nv == 0) return Double.POSITIVE_INFINITY;
 
         //if the ray is orthogonal
-        if (normal.dotProduct(rayDirection) == 1) return null;
+        if (nv == 1) return Double.POSITIVE_INFINITY;
 
-        double t = alignZero((normal.dotProduct(qMinusP0)) / (normal.dotProduct(rayDirection)));
+        //for top part of equation (the head of the ray on the plane's reference point means no intersection)
+        Point head = ray.getHead();
+        double qx = q.getX() - head.getX();
+        double qy = q.getY() - head.getY();
+        double qz = q.getZ() - head.getZ();
+        if (VectorMath.isZero(qx, qy, qz)) return Double.POSITIVE_INFINITY;
 
-        //if t <= 0 then no points intersect
-        if (t <= 0) return null;
+        double t = alignZero(VectorMath.dot(normal, qx, qy, qz) / nv);
 
-        List<GeoPoint> res = new LinkedList<>();
-        res.add(new GeoPoint(this, ray.getPoint(t)));
-        return res;
+        //if t <= 0 then no points intersect, and points beyond the maximal distance are ignored
+        if (t <= 0 || alignZero(t - maxDistance) > 0) return Double.POSITIVE_INFINITY;
+        return t;
     }
 }
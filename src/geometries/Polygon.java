@@ -3,6 +3,7 @@ package geometries;
 import java.util.List;
 
 import static primitives.Util.isZero;
+import static primitives.VectorMath.triple;
 
 import primitives.Point;
 import primitives.Ray;
@@ -80,28 +81,56 @@ public class Polygon extends Geometry {
       }
    }
 
+   /**
+    * Polygon constructor of vertices that are already known to form a valid convex
+    * polygon in the given plane, e.g. a polygon restored from a scene cache. None of
+    * the checks of the public constructor is repeated.
+    * @param plane    the plane of the polygon
+    * @param vertices the vertices of the polygon according to their order by edge path
+    */
+   Polygon(Plane plane, Point... vertices) {
+      this.vertices = List.of(vertices);
+      this.size     = vertices.length;
+      this.plane    = plane;
+   }
+
    public Vector getNormal(Point point) { return plane.getNormal(); }
 
    @Override
-   protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray){
-      List<Point> intersections = plane.findIntersections(ray);
-      if (intersections == null) return null;
+   public BoundingBox getBoundingBox() { return new BoundingBox(vertices.toArray(new Point[0])); }
 
-      Point p0 = ray.getHead();
-      Vector v = ray.getDirection();
-      Vector v1 = vertices.get(0).subtract(p0);
-      Vector v2 = vertices.get(1).subtract(p0);
-      Vector n = v1.crossProduct(v2).normalize();
+   @Override
+   protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance){
+      GeoPoint intersection = findClosestGeoIntersectionHelper(ray, maxDistance);
+      return intersection == null ? null : List.of(intersection);
+   }
 
-      if (v.dotProduct(n) == 0) return null;
+   @Override
+   protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance){
+      double t = plane.findIntersectionDistance(ray, maxDistance);
+      if (t == Double.POSITIVE_INFINITY) return null;
 
-      for (int i = 2; i < size; i++) {
-         v2 = vertices.get(i).subtract(p0);
-         n = v1.crossProduct(v2).normalize();
-         if (v.dotProduct(n) == 0) return null;
-         v1 = v2;
+      // the ray is inside if it passes on the same side of all the edges - the sign of
+      // v·(vi×vi+1) for vi the vectors from the ray head to the vertices, in raw
+      // coordinates so no temporary vectors are created
+      Point p0 = ray.getHead();
+      Vector v = ray.getDirection();
+      double vx = v.getX(), vy = v.getY(), vz = v.getZ();
+      Point last = vertices.get(size - 1);
+      double x1 = last.getX() - p0.getX(), y1 = last.getY() - p0.getY(), z1 = last.getZ() - p0.getZ();
+      boolean positive = false;
+      for (int i = 0; i < size; i++) {
+         Point vertex = vertices.get(i);
+         double x2 = vertex.getX() - p0.getX(), y2 = vertex.getY() - p0.getY(), z2 = vertex.getZ() - p0.getZ();
+         double side = triple(vx, vy, vz, x1, y1, z1, x2, y2, z2);
+         if (side == 0) return null;
+         if (i == 0) positive = side > 0;
+         else if (positive != side > 0) return null;
+         x1 = x2;
+         y1 = y2;
+         z1 = z2;
       }
 
-      return List.of(new GeoPoint(this, intersections.getFirst()));
+      return new GeoPoint(this, ray.getPoint(t), t);
    }
 }
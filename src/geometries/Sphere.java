@@ -2,15 +2,17 @@ package geometries;
 
 import primitives.*;
 
-import java.util.LinkedList;
 import java.util.List;
 
+import static primitives.Util.alignZero;
+import static primitives.VectorMath.*;
+
 /**
  * Represents a sphere in a three-dimensional (3D) space, a type of radial geometry defined by a radius and a center point.
  * The sphere extends the RadialGeometry abstract class.
  */
 public class Sphere extends RadialGeometry {
-    private final Point center; // The center point of the sphere
+    final Point center; // The center point of the sphere
 
     public Sphere(double radius, Point center) {
         super(radius);
@@ -24,30 +26,35 @@ public class Sphere extends RadialGeometry {
         return p.subtract(center).normalize();
     }
 
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
     /**
      * Finds intersections of a ray with a sphere using the formulas provided from the slides.
      *
-     * @param ray The ray for which intersections with the sphere are to be found.
+     * @param ray         The ray for which intersections with the sphere are to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
      * @return A list of intersection points, or {@code null} if there are no intersections.
      */
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
         //following the formulas given on the slides
 
-        List<GeoPoint> res = new LinkedList<>();
+        //the vector from the head of the ray to the center, kept in raw coordinates
+        Point head = ray.getHead();
+        double lx = center.getX() - head.getX();
+        double ly = center.getY() - head.getY();
+        double lz = center.getZ() - head.getZ();
 
         //if ray starts at the center point to avoid zero vector
-        if (ray.getHead().equals(this.center)) {
-            res.add(new GeoPoint(this, ray.getPoint(radius)));
-            return res;
-        }
+        if (isZero(lx, ly, lz))
+            return alignZero(radius - maxDistance) > 0 ? null : List.of(new GeoPoint(this, ray.getPoint(radius), radius));
 
-        //a normalized version of the ray
-        Vector rayDirection = ray.getDirection();
-
-        Vector headOfRayToOrigin = this.center.subtract(ray.getHead());
-        double tm = rayDirection.dotProduct(headOfRayToOrigin);
-        double d = Math.sqrt(headOfRayToOrigin.lengthSquared() - (tm * tm));
+        double tm = dot(ray.getDirection(), lx, ly, lz);
+        double d = Math.sqrt(lengthSquared(lx, ly, lz) - (tm * tm));
 
         if (d >= radius) return null;       //if (d >= r) then there are no intersections
 
@@ -55,22 +62,47 @@ public class Sphere extends RadialGeometry {
         double t1 = tm + th;
         double t2 = tm - th;
 
-        //take only if t > 0
-        if (t1 > 0)
-            res.add(new GeoPoint(this, ray.getPoint(t1)));
-
-        if (t2 > 0) {
-            //puts the closer point to the head of the ray first in the list
-            double distance1 = ray.getPoint(t1).distance(ray.getHead());
-            double distance2 = ray.getPoint(t2).distance(ray.getHead());
-            if (distance1 > distance2 && t1 > 0)
-                res.addFirst(new GeoPoint(this, ray.getPoint(t2)));
-            else
-                res.add(new GeoPoint(this, ray.getPoint(t2)));
-        }
-
-        if (!res.isEmpty())
-            return res;
+        //take only if 0 < t <= maxDistance
+        boolean take1 = t1 > 0 && alignZero(t1 - maxDistance) <= 0;
+        boolean take2 = t2 > 0 && alignZero(t2 - maxDistance) <= 0;
+
+        //puts the closer point to the head of the ray first in the list (t2 < t1 always)
+        if (take1 && take2)
+            return List.of(new GeoPoint(this, ray.getPoint(t2), t2), new GeoPoint(this, ray.getPoint(t1), t1));
+        if (take1)
+            return List.of(new GeoPoint(this, ray.getPoint(t1), t1));
+        if (take2)
+            return List.of(new GeoPoint(this, ray.getPoint(t2), t2));
         return null;
     }
+
+    /**
+     * Finds the closest intersection of a ray with a sphere - the nearer of the two formula
+     * solutions that lies in front of the ray head and within the maximal distance.
+     *
+     * @param ray         The ray for which the intersection with the sphere is to be found.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point, or {@code null} if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        double lx = center.getX() - head.getX();
+        double ly = center.getY() - head.getY();
+        double lz = center.getZ() - head.getZ();
+
+        //if ray starts at the center point to avoid zero vector
+        if (isZero(lx, ly, lz))
+            return alignZero(radius - maxDistance) > 0 ? null : new GeoPoint(this, ray.getPoint(radius), radius);
+
+        double tm = dot(ray.getDirection(), lx, ly, lz);
+        double dSquared = lengthSquared(lx, ly, lz) - (tm * tm);
+        if (dSquared >= radius * radius) return null;
+
+        double th = Math.sqrt(radius * radius - dSquared);
+        //t2 < t1 so the nearer one is taken if it is in front of the ray head
+        double t = tm - th > 0 ? tm - th : tm + th;
+        if (t <= 0 || alignZero(t - maxDistance) > 0) return null;
+        return new GeoPoint(this, ray.getPoint(t), t);
+    }
 }
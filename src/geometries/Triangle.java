@@ -4,10 +4,25 @@ import primitives.*;
 
 import java.util.List;
 
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
 /**
- * Represents a Triangle, a type of Polygon, defined by three points.
+ * Represents a Triangle, a type of Polygon, defined by three points.<br/>
+ * The ray intersection uses the M&ouml;ller&ndash;Trumbore algorithm with edge vectors that are
+ * precomputed at construction. Optionally the watertight algorithm of Woop, Benthin and Wald
+ * may be used instead, so that rays passing exactly through an edge shared by adjacent triangles
+ * always hit one of them and no cracks appear between them.
  */
 public class Triangle extends Polygon {
+    /** Coordinates of the first vertex */
+    private final double ax, ay, az;
+    /** Coordinates of the second and third vertices, used by the watertight algorithm */
+    private final double bx, by, bz, cx, cy, cz;
+    /** Edge vectors from the first vertex to the second and to the third */
+    private final double e1x, e1y, e1z, e2x, e2y, e2z;
+    /** Whether the watertight intersection algorithm is used */
+    boolean watertight = false;
 
     /**
      * Constructs a Triangle object with three specified points.
@@ -17,7 +32,35 @@ public class Triangle extends Polygon {
      * @param c The third point of the triangle.
      */
     public Triangle(Point a, Point b, Point c) {
-        super(a, b, c);
+        this(new Plane(a, b, c), a, b, c);
+    }
+
+    /**
+     * Constructs a Triangle object with three points that are already known to form a valid
+     * triangle in the given plane, e.g. a triangle restored from a scene cache.
+     *
+     * @param plane The plane of the triangle.
+     * @param a     The first point of the triangle.
+     * @param b     The second point of the triangle.
+     * @param c     The third point of the triangle.
+     */
+    Triangle(Plane plane, Point a, Point b, Point c) {
+        super(plane, a, b, c);
+        ax = a.getX();
+        ay = a.getY();
+        az = a.getZ();
+        bx = b.getX();
+        by = b.getY();
+        bz = b.getZ();
+        cx = c.getX();
+        cy = c.getY();
+        cz = c.getZ();
+        e1x = bx - ax;
+        e1y = by - ay;
+        e1z = bz - az;
+        e2x = cx - ax;
+        e2y = cy - ay;
+        e2z = cz - az;
     }
 
     /**
@@ -31,45 +74,216 @@ public class Triangle extends Polygon {
         return this.plane.getNormal(point);
     }
 
+    /**
+     * Sets whether the watertight intersection algorithm is used. A watertight triangle counts
+     * a ray through its edge as a hit, and the test is exact enough that adjacent watertight
+     * triangles agree on it, so meshes have no cracks along their edges. A regular triangle
+     * counts a ray through its edge as a miss.
+     *
+     * @param watertight {@code true} for the watertight algorithm.
+     * @return The triangle itself.
+     */
+    public Triangle setWatertight(boolean watertight) {
+        this.watertight = watertight;
+        return this;
+    }
+
     /**
      * Finds intersections of a ray with a triangle.
      *
-     * @param ray The ray we're checking to see if it intersects with the triangle
+     * @param ray         The ray we're checking to see if it intersects with the triangle
+     * @param maxDistance The maximal distance from the head of the ray
      * @return A list of GeoPoints representing the intersections of the ray with the triangle
      */
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray){
-        List<Point> intersections = plane.findIntersections(ray);
-        // If there are no intersections with the plane, return null
-        if (intersections == null) return null;
-
-        // Extracting vectors for vertices and calculating normal vectors
-        Vector rayDirection = ray.getDirection();
-        Vector v1 = vertices.get(0).subtract(ray.getHead());
-        Vector v2 = vertices.get(1).subtract(ray.getHead());
-        Vector v3 = vertices.get(2).subtract(ray.getHead());
-
-        Vector n1 = (v1.crossProduct(v2)).normalize();
-        Vector n2 = (v2.crossProduct(v3)).normalize();
-        Vector n3 = (v3.crossProduct(v1)).normalize();
-
-        // Dot products to determine if the intersection point is inside the triangle
-        double res1 = rayDirection.dotProduct(n1);
-        double res2 = rayDirection.dotProduct(n2);
-        double res3 = rayDirection.dotProduct(n3);
-
-        // If any dot product is zero, return null
-        if (res1 == 0 || res2 == 0 || res3 == 0)
-            return null;
-
-        // If all dot products have the same sign, the point is inside the triangle
-        if ((res1 > 0 && res2 > 0 && res3 > 0) || (res1 < 0 && res2 < 0 && res3 < 0))
-            return List.of(new GeoPoint(this, intersections.getFirst()));
-        else
-            return null;
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance){
+        GeoPoint intersection = findClosestGeoIntersectionHelper(ray, maxDistance);
+        return intersection == null ? null : List.of(intersection);
+    }
 
+    /**
+     * Finds the intersection of a ray with a triangle (a triangle has at most one).
+     *
+     * @param ray         The ray we're checking to see if it intersects with the triangle
+     * @param maxDistance The maximal distance from the head of the ray
+     * @return The intersection point, or {@code null} if there is none
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance){
+        double t = intersect(ray, maxDistance, null);
+        return t == Double.POSITIVE_INFINITY ? null : new GeoPoint(this, ray.getPoint(t), t);
     }
 
-}
+    /**
+     * Finds the distance along a ray to its intersection with the triangle, and optionally the
+     * barycentric coordinates of the intersection.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param uv          An array to receive the barycentric coordinates (u, v) of the intersection
+     *                    relatively to the second and third vertices, or {@code null}.
+     * @return The distance along the ray, or {@link Double#POSITIVE_INFINITY} if there is no intersection.
+     */
+    double intersect(Ray ray, double maxDistance, double[] uv) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        return watertight
+                ? intersectWatertight(ax, ay, az, bx, by, bz, cx, cy, cz, ox, oy, oz, dx, dy, dz, maxDistance, uv)
+                : intersect(ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z, ox, oy, oz, dx, dy, dz, maxDistance, uv);
+    }
+
+    /**
+     * M&ouml;ller&ndash;Trumbore ray-triangle intersection of a ray and a triangle given by raw
+     * coordinates. A ray through an edge or a vertex of the triangle is not an intersection.
+     *
+     * @param ax          x-coordinate of the first vertex.
+     * @param ay          y-coordinate of the first vertex.
+     * @param az          z-coordinate of the first vertex.
+     * @param e1x         x-coordinate of the edge from the first vertex to the second.
+     * @param e1y         y-coordinate of the edge from the first vertex to the second.
+     * @param e1z         z-coordinate of the edge from the first vertex to the second.
+     * @param e2x         x-coordinate of the edge from the first vertex to the third.
+     * @param e2y         y-coordinate of the edge from the first vertex to the third.
+     * @param e2z         z-coordinate of the edge from the first vertex to the third.
+     * @param ox          x-coordinate of the ray head.
+     * @param oy          y-coordinate of the ray head.
+     * @param oz          z-coordinate of the ray head.
+     * @param dx          x-coordinate of the ray direction.
+     * @param dy          y-coordinate of the ray direction.
+     * @param dz          z-coordinate of the ray direction.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param uv          An array to receive the barycentric coordinates (u, v), or {@code null}.
+     * @return The distance along the ray, or {@link Double#POSITIVE_INFINITY} if there is no intersection.
+     */
+    static double intersect(double ax, double ay, double az,
+                            double e1x, double e1y, double e1z, double e2x, double e2y, double e2z,
+                            double ox, double oy, double oz, double dx, double dy, double dz,
+                            double maxDistance, double[] uv) {
+        // p = d x e2, the determinant is zero when the ray is parallel to the triangle
+        double px = dy * e2z - dz * e2y;
+        double py = dz * e2x - dx * e2z;
+        double pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (isZero(det)) return Double.POSITIVE_INFINITY;
+        double inv = 1 / det;
+
+        // barycentric u relatively to the second vertex - the barycentric coordinates are compared
+        // exactly, since rounding them to zero would drop rays near an edge from both adjacent triangles
+        double sx = ox - ax, sy = oy - ay, sz = oz - az;
+        double u = (sx * px + sy * py + sz * pz) * inv;
+        if (u <= 0 || u >= 1) return Double.POSITIVE_INFINITY;
+
+        // barycentric v relatively to the third vertex, q = s x e1
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inv;
+        if (v <= 0 || u + v >= 1) return Double.POSITIVE_INFINITY;
+
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inv);
+        if (t <= 0 || alignZero(t - maxDistance) > 0) return Double.POSITIVE_INFINITY;
+        if (uv != null) {
+            uv[0] = u;
+            uv[1] = v;
+        }
+        return t;
+    }
+
+    /**
+     * Watertight ray-triangle intersection (Woop, Benthin and Wald, 2013) of a ray and a triangle
+     * given by raw coordinates. The vertices are transformed into a space where the ray goes along
+     * the z-axis from the origin, and the edge functions are evaluated there in 2D. A ray through an
+     * edge (a zero edge function) is an intersection, and the triangles sharing the edge evaluate it
+     * exactly the same way, so a ray cannot slip between adjacent triangles.
+     *
+     * @param ax          x-coordinate of the first vertex.
+     * @param ay          y-coordinate of the first vertex.
+     * @param az          z-coordinate of the first vertex.
+     * @param bx          x-coordinate of the second vertex.
+     * @param by          y-coordinate of the second vertex.
+     * @param bz          z-coordinate of the second vertex.
+     * @param cx          x-coordinate of the third vertex.
+     * @param cy          y-coordinate of the third vertex.
+     * @param cz          z-coordinate of the third vertex.
+     * @param ox          x-coordinate of the ray head.
+     * @param oy          y-coordinate of the ray head.
+     * @param oz          z-coordinate of the ray head.
+     * @param dx          x-coordinate of the ray direction.
+     * @param dy          y-coordinate of the ray direction.
+     * @param dz          z-coordinate of the ray direction.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @param uv          An array to receive the barycentric coordinates (u, v), or {@code null}.
+     * @return The distance along the ray, or {@link Double#POSITIVE_INFINITY} if there is no intersection.
+     */
+    static double intersectWatertight(double ax, double ay, double az,
+                                      double bx, double by, double bz, double cx, double cy, double cz,
+                                      double ox, double oy, double oz, double dx, double dy, double dz,
+                                      double maxDistance, double[] uv) {
+        // the dominant axis of the direction becomes z, and x, y are swapped if needed to keep the winding
+        double adx = Math.abs(dx), ady = Math.abs(dy), adz = Math.abs(dz);
+        int kz = adx > ady ? (adx > adz ? 0 : 2) : (ady > adz ? 1 : 2);
+        int kx = kz == 2 ? 0 : kz + 1;
+        int ky = kx == 2 ? 0 : kx + 1;
+        double dirZ = component(kz, dx, dy, dz);
+        if (dirZ < 0) {
+            int tmp = kx;
+            kx = ky;
+            ky = tmp;
+        }
 
+        // shear constants that turn the direction into (0, 0, 1)
+        double shX = component(kx, dx, dy, dz) / dirZ;
+        double shY = component(ky, dx, dy, dz) / dirZ;
+        double shZ = 1 / dirZ;
 
+        // vertices relative to the ray head
+        double rAx = ax - ox, rAy = ay - oy, rAz = az - oz;
+        double rBx = bx - ox, rBy = by - oy, rBz = bz - oz;
+        double rCx = cx - ox, rCy = cy - oy, rCz = cz - oz;
+        double aKz = component(kz, rAx, rAy, rAz);
+        double bKz = component(kz, rBx, rBy, rBz);
+        double cKz = component(kz, rCx, rCy, rCz);
+
+        // sheared and scaled vertices in the 2D space of the ray
+        double sAx = component(kx, rAx, rAy, rAz) - shX * aKz;
+        double sAy = component(ky, rAx, rAy, rAz) - shY * aKz;
+        double sBx = component(kx, rBx, rBy, rBz) - shX * bKz;
+        double sBy = component(ky, rBx, rBy, rBz) - shY * bKz;
+        double sCx = component(kx, rCx, rCy, rCz) - shX * cKz;
+        double sCy = component(ky, rCx, rCy, rCz) - shY * cKz;
+
+        // edge functions - the ray is inside when none of them has a sign different from the others
+        double eu = sCx * sBy - sCy * sBx;
+        double ev = sAx * sCy - sAy * sCx;
+        double ew = sBx * sAy - sBy * sAx;
+        if ((eu < 0 || ev < 0 || ew < 0) && (eu > 0 || ev > 0 || ew > 0)) return Double.POSITIVE_INFINITY;
+        double det = eu + ev + ew;
+        if (det == 0) return Double.POSITIVE_INFINITY;
+
+        // distance scaled by the determinant, divided by it before it is compared to the range of the ray
+        double tScaled = shZ * (eu * aKz + ev * bKz + ew * cKz);
+        double t = alignZero(tScaled / det);
+        if (t <= 0 || alignZero(t - maxDistance) > 0) return Double.POSITIVE_INFINITY;
+        if (uv != null) {
+            uv[0] = ev / det;
+            uv[1] = ew / det;
+        }
+        return t;
+    }
+
+    /**
+     * Selects a coordinate by the axis index.
+     *
+     * @param axis The axis index (0 for x, 1 for y, 2 for z).
+     * @param x    The x-coordinate.
+     * @param y    The y-coordinate.
+     * @param z    The z-coordinate.
+     * @return The coordinate on the axis.
+     */
+    private static double component(int axis, double x, double y, double z) {
+        return axis == 0 ? x : axis == 1 ? y : z;
+    }
+
+}
@@ -0,0 +1,451 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Represents an indexed triangle mesh - a large set of triangles sharing their vertices, one
+ * emission and one material.<br/>
+ * The mesh is stored in flat primitive arrays (structure of arrays) instead of a {@link Triangle}
+ * object per triangle, so it costs a few dozen bytes per triangle and meshes of millions of
+ * triangles fit in the heap:
+ * <ul>
+ * <li>{@code vertices[3v..3v+2]} - x, y, z of vertex v</li>
+ * <li>{@code indices[3t..3t+2]} - the vertices of triangle t</li>
+ * </ul>
+ * The mesh builds its own bounding volume hierarchy over its triangles at construction. A ray hit
+ * is reported as a {@link GeoPoint} whose geometry is a {@link Face} - a lightweight view of the
+ * hit triangle that gives its normal and the shared emission and material.<br/>
+ * Degenerate triangles (with vertices on one line) are never hit.
+ */
+public class TriangleMesh extends Geometry {
+    /** Vertex coordinates, 3 values per vertex */
+    final double[] vertices;
+    /** Vertex indices of the triangles, 3 values per triangle */
+    final int[] indices;
+    /** The hierarchy over the triangles */
+    final BoundingVolumeHierarchy hierarchy;
+    /** Whether the watertight triangle intersection algorithm is used */
+    boolean watertight = false;
+
+    /**
+     * A triangle of a mesh, as reported in the intersections of a ray with the mesh.
+     * It shares the emission and the material of its mesh.
+     */
+    public static final class Face extends Geometry {
+        /** The mesh of the triangle */
+        private final TriangleMesh mesh;
+        /** The index of the triangle in the mesh */
+        private final int index;
+
+        /**
+         * Constructs a view of a triangle of a mesh.
+         *
+         * @param mesh  The mesh.
+         * @param index The index of the triangle in the mesh.
+         */
+        private Face(TriangleMesh mesh, int index) {
+            this.mesh = mesh;
+            this.index = index;
+        }
+
+        /**
+         * Gets the mesh of the triangle.
+         *
+         * @return The mesh.
+         */
+        public TriangleMesh getMesh() {
+            return mesh;
+        }
+
+        /**
+         * Gets the index of the triangle in its mesh.
+         *
+         * @return The index of the triangle.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public Color getEmission() {
+            return mesh.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return mesh.getMaterial();
+        }
+
+        /**
+         * Sets the emission of the mesh of the face - all the faces of a mesh share its emission.
+         *
+         * @param emission The emission.
+         * @return The face itself.
+         */
+        @Override
+        public Geometry setEmission(Color emission) {
+            mesh.setEmission(emission);
+            return this;
+        }
+
+        /**
+         * Sets the material of the mesh of the face - all the faces of a mesh share its material.
+         *
+         * @param material The material.
+         * @return The face itself.
+         */
+        @Override
+        public Geometry setMaterial(Material material) {
+            mesh.setMaterial(material);
+            return this;
+        }
+
+        @Override
+        public Vector getNormal(Point p) {
+            return mesh.getNormal(index);
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+            GeoPoint intersection = findClosestGeoIntersectionHelper(ray, maxDistance);
+            return intersection == null ? null : List.of(intersection);
+        }
+
+        @Override
+        protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+            Point head = ray.getHead();
+            Vector direction = ray.getDirection();
+            double t = mesh.intersect(index, head.getX(), head.getY(), head.getZ(),
+                    direction.getX(), direction.getY(), direction.getZ(), maxDistance);
+            return t == Double.POSITIVE_INFINITY ? null : new GeoPoint(this, ray.getPoint(t), t);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            return obj instanceof Face other && mesh == other.mesh && index == other.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(mesh) + index;
+        }
+
+        @Override
+        public String toString() {
+            return "Face{" + index + "}";
+        }
+    }
+
+    /**
+     * Constructs a mesh from flat arrays of vertex coordinates and triangle vertex indices.
+     * The arrays are used as they are (not copied) and must not be changed afterwards.
+     *
+     * @param vertices The vertex coordinates, x, y, z of every vertex.
+     * @param indices  The vertex indices of the triangles, 3 indices per triangle.
+     * @throws IllegalArgumentException if the arrays are not made of triples, the mesh has no
+     *                                  triangles or an index is not of a vertex.
+     */
+    public TriangleMesh(double[] vertices, int[] indices) {
+        this(vertices, indices, BVHConstruction.SAH);
+    }
+
+    /**
+     * Constructs a mesh from flat arrays of vertex coordinates and triangle vertex indices, with its
+     * hierarchy built by a construction algorithm. The arrays are used as they are (not copied) and
+     * must not be changed afterwards.
+     *
+     * @param vertices     The vertex coordinates, x, y, z of every vertex.
+     * @param indices      The vertex indices of the triangles, 3 indices per triangle.
+     * @param construction The construction algorithm of the hierarchy over the triangles.
+     * @throws IllegalArgumentException if the arrays are not made of triples, the mesh has no
+     *                                  triangles or an index is not of a vertex.
+     */
+    public TriangleMesh(double[] vertices, int[] indices, BVHConstruction construction) {
+        if (vertices.length % 3 != 0)
+            throw new IllegalArgumentException("Vertex coordinates must be given in triples");
+        if (indices.length % 3 != 0)
+            throw new IllegalArgumentException("Triangle indices must be given in triples");
+        if (indices.length == 0)
+            throw new IllegalArgumentException("A mesh needs at least one triangle");
+        int vertexCount = vertices.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("Triangle index " + index + " is not of a vertex");
+
+        this.vertices = vertices;
+        this.indices = indices;
+
+        long start = RenderStatistics.start();
+        int n = indices.length / 3;
+        double[] bounds = new double[6 * n];
+        for (int i = 0; i < n; i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                double a = vertices[3 * indices[3 * i] + axis];
+                double b = vertices[3 * indices[3 * i + 1] + axis];
+                double c = vertices[3 * indices[3 * i + 2] + axis];
+                bounds[6 * i + axis] = Math.min(a, Math.min(b, c));
+                bounds[6 * i + 3 + axis] = Math.max(a, Math.max(b, c));
+            }
+        }
+        hierarchy = BoundingVolumeHierarchy.build(bounds, construction);
+        RenderStatistics.end(BoundingVolumeHierarchy.BUILD_PHASE, start);
+    }
+
+    /**
+     * Constructs a mesh from arrays and a hierarchy that are already known to be valid, e.g. a mesh
+     * restored from a scene cache, without checking the indices or building the hierarchy.
+     *
+     * @param vertices  The vertex coordinates, x, y, z of every vertex.
+     * @param indices   The vertex indices of the triangles, 3 indices per triangle.
+     * @param hierarchy The hierarchy over the triangles.
+     */
+    TriangleMesh(double[] vertices, int[] indices, BoundingVolumeHierarchy hierarchy) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * Constructs a mesh from vertex points and triangle vertex indices.
+     *
+     * @param vertices The vertices.
+     * @param indices  The vertex indices of the triangles, 3 indices per triangle.
+     * @throws IllegalArgumentException if the indices are not made of triples, the mesh has no
+     *                                  triangles or an index is not of a vertex.
+     */
+    public TriangleMesh(Point[] vertices, int[] indices) {
+        this(toCoordinates(vertices), indices);
+    }
+
+    /**
+     * Converts points to a flat array of their coordinates.
+     *
+     * @param points The points.
+     * @return x, y, z of every point.
+     */
+    private static double[] toCoordinates(Point[] points) {
+        double[] coordinates = new double[3 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            coordinates[3 * i] = points[i].getX();
+            coordinates[3 * i + 1] = points[i].getY();
+            coordinates[3 * i + 2] = points[i].getZ();
+        }
+        return coordinates;
+    }
+
+    /**
+     * Sets whether the watertight intersection algorithm is used, so that rays never slip between
+     * adjacent triangles of the mesh (see {@link Triangle#setWatertight(boolean)}).
+     *
+     * @param watertight {@code true} for the watertight algorithm.
+     * @return The mesh itself.
+     */
+    public TriangleMesh setWatertight(boolean watertight) {
+        this.watertight = watertight;
+        return this;
+    }
+
+    /**
+     * Gets the amount of triangles in the mesh.
+     *
+     * @return The amount of triangles.
+     */
+    public int size() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Gets a triangle of the mesh.
+     *
+     * @param index The index of the triangle.
+     * @return The triangle.
+     */
+    public Face getFace(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Triangle index " + index + " is out of the mesh");
+        return new Face(this, index);
+    }
+
+    /**
+     * Calculates the normal of a triangle of the mesh, the same way as the normal of a
+     * {@link Triangle} with the same vertices.
+     *
+     * @param index The index of the triangle.
+     * @return The normalized normal of the triangle.
+     */
+    Vector getNormal(int index) {
+        int a = 3 * indices[3 * index], b = 3 * indices[3 * index + 1], c = 3 * indices[3 * index + 2];
+        double e1x = vertices[b] - vertices[a], e1y = vertices[b + 1] - vertices[a + 1], e1z = vertices[b + 2] - vertices[a + 2];
+        double e2x = vertices[c] - vertices[a], e2y = vertices[c + 1] - vertices[a + 1], e2z = vertices[c + 2] - vertices[a + 2];
+        return new Vector(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z, e1x * e2y - e1y * e2x).normalize();
+    }
+
+    /**
+     * Calculates the normal of the mesh at a point - the normal of the triangle nearest to the
+     * point, which for a point on the mesh is the triangle that contains it. The normal of the
+     * {@link Face} of an intersection is cheaper, as it needs no search.
+     *
+     * @param p A point on the mesh.
+     * @return The normalized normal of the triangle at the point.
+     */
+    @Override
+    public Vector getNormal(Point p) {
+        double x = p.getX(), y = p.getY(), z = p.getZ();
+        return getNormal(hierarchy.nearest(x, y, z, i -> distanceSquared(i, x, y, z)));
+    }
+
+    /**
+     * Calculates the squared distance of a point from a triangle of the mesh.
+     *
+     * @param index The index of the triangle.
+     * @param x     The x-coordinate of the point.
+     * @param y     The y-coordinate of the point.
+     * @param z     The z-coordinate of the point.
+     * @return The squared distance.
+     */
+    private double distanceSquared(int index, double x, double y, double z) {
+        int a = 3 * indices[3 * index], b = 3 * indices[3 * index + 1], c = 3 * indices[3 * index + 2];
+        double abx = vertices[b] - vertices[a], aby = vertices[b + 1] - vertices[a + 1], abz = vertices[b + 2] - vertices[a + 2];
+        double bcx = vertices[c] - vertices[b], bcy = vertices[c + 1] - vertices[b + 1], bcz = vertices[c + 2] - vertices[b + 2];
+        double cax = vertices[a] - vertices[c], cay = vertices[a + 1] - vertices[c + 1], caz = vertices[a + 2] - vertices[c + 2];
+        double nx = aby * bcz - abz * bcy, ny = abz * bcx - abx * bcz, nz = abx * bcy - aby * bcx;
+        double apx = x - vertices[a], apy = y - vertices[a + 1], apz = z - vertices[a + 2];
+        double normal = VectorMath.lengthSquared(nx, ny, nz);
+        // the projection of the point is in the triangle if it is on the inner side of every edge
+        if (normal > 0
+                && VectorMath.triple(nx, ny, nz, abx, aby, abz, apx, apy, apz) >= 0
+                && VectorMath.triple(nx, ny, nz, bcx, bcy, bcz, x - vertices[b], y - vertices[b + 1], z - vertices[b + 2]) >= 0
+                && VectorMath.triple(nx, ny, nz, cax, cay, caz, x - vertices[c], y - vertices[c + 1], z - vertices[c + 2]) >= 0) {
+            double height = VectorMath.dot(nx, ny, nz, apx, apy, apz);
+            return height * height / normal;
+        }
+        return Math.min(segmentDistanceSquared(a, b, x, y, z),
+                Math.min(segmentDistanceSquared(b, c, x, y, z), segmentDistanceSquared(c, a, x, y, z)));
+    }
+
+    /**
+     * Calculates the squared distance of a point from an edge between two vertices of the mesh.
+     *
+     * @param a The offset of the first vertex in the coordinates.
+     * @param b The offset of the second vertex in the coordinates.
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @param z The z-coordinate of the point.
+     * @return The squared distance.
+     */
+    private double segmentDistanceSquared(int a, int b, double x, double y, double z) {
+        double ex = vertices[b] - vertices[a], ey = vertices[b + 1] - vertices[a + 1], ez = vertices[b + 2] - vertices[a + 2];
+        double px = x - vertices[a], py = y - vertices[a + 1], pz = z - vertices[a + 2];
+        double length = VectorMath.lengthSquared(ex, ey, ez);
+        double t = length == 0 ? 0 : Math.max(0, Math.min(1, VectorMath.dot(px, py, pz, ex, ey, ez) / length));
+        return VectorMath.lengthSquared(px - t * ex, py - t * ey, pz - t * ez);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return hierarchy.getBoundingBox();
+    }
+
+    /**
+     * Finds the distance along a ray to its intersection with a triangle of the mesh.
+     *
+     * @param index       The index of the triangle.
+     * @param ox          x-coordinate of the ray head.
+     * @param oy          y-coordinate of the ray head.
+     * @param oz          z-coordinate of the ray head.
+     * @param dx          x-coordinate of the ray direction.
+     * @param dy          y-coordinate of the ray direction.
+     * @param dz          z-coordinate of the ray direction.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The distance along the ray, or {@link Double#POSITIVE_INFINITY} if there is no intersection.
+     */
+    private double intersect(int index, double ox, double oy, double oz, double dx, double dy, double dz,
+                             double maxDistance) {
+        RenderStatistics.countIntersection(Face.class);
+        int a = 3 * indices[3 * index], b = 3 * indices[3 * index + 1], c = 3 * indices[3 * index + 2];
+        double ax = vertices[a], ay = vertices[a + 1], az = vertices[a + 2];
+        if (watertight)
+            return Triangle.intersectWatertight(ax, ay, az,
+                    vertices[b], vertices[b + 1], vertices[b + 2], vertices[c], vertices[c + 1], vertices[c + 2],
+                    ox, oy, oz, dx, dy, dz, maxDistance, null);
+        return Triangle.intersect(ax, ay, az,
+                vertices[b] - ax, vertices[b + 1] - ay, vertices[b + 2] - az,
+                vertices[c] - ax, vertices[c + 1] - ay, vertices[c + 2] - az,
+                ox, oy, oz, dx, dy, dz, maxDistance, null);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+
+        List<GeoPoint> res = new LinkedList<>();
+        hierarchy.traverse(ray, maxDistance, (i, distance) -> {
+            double t = intersect(i, ox, oy, oz, dx, dy, dz, distance);
+            if (t != Double.POSITIVE_INFINITY) res.add(new GeoPoint(new Face(this, i), ray.getPoint(t), t));
+            return distance;
+        });
+        return res.isEmpty() ? null : res;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the mesh. The maximal distance shrinks to the
+     * closest triangle found so far, and only the closest one is turned into a {@link GeoPoint}.
+     *
+     * @param ray         The ray.
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest intersection point, or {@code null} if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+
+        int[] closest = {-1};
+        double[] closestT = {Double.POSITIVE_INFINITY};
+        hierarchy.traverse(ray, maxDistance, (i, distance) -> {
+            double t = intersect(i, ox, oy, oz, dx, dy, dz, distance);
+            if (t == Double.POSITIVE_INFINITY || (closest[0] != -1 && t >= closestT[0])) return distance;
+            closest[0] = i;
+            closestT[0] = t;
+            return t;
+        });
+        if (closest[0] == -1) return null;
+        return new GeoPoint(new Face(this, closest[0]), ray.getPoint(closestT[0]), closestT[0]);
+    }
+
+    /**
+     * Calculates the transparency of the mesh along a ray segment. All the triangles share the
+     * material, so an opaque mesh stops at its first hit triangle, and a transparent mesh
+     * multiplies the transparency of the material once for every hit triangle.
+     *
+     * @param ray         The ray from the shaded point towards the light source.
+     * @param maxDistance The distance to the light source.
+     * @return The transparency factor along the segment, {@link Double3#ZERO} if it is fully blocked.
+     */
+    @Override
+    public Double3 findTransparency(Ray ray, double maxDistance) {
+        RenderStatistics.countIntersection(getClass());
+        Double3 kT = getMaterial().kT;
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double ox = head.getX(), oy = head.getY(), oz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+
+        Double3[] ktr = {Double3.ONE};
+        double result = hierarchy.traverse(ray, maxDistance, (i, distance) -> {
+            if (intersect(i, ox, oy, oz, dx, dy, dz, distance) == Double.POSITIVE_INFINITY) return distance;
+            ktr[0] = ktr[0].product(kT);
+            return ktr[0].equals(Double3.ZERO) ? -1 : distance;
+        });
+        return result < 0 ? Double3.ZERO : ktr[0];
+    }
+}
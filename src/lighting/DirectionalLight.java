@@ -44,6 +44,15 @@ public class DirectionalLight extends Light implements LightSource {
         return this.direction;
     }
 
+    /**
+     * Returns the direction of the light.
+     *
+     * @return The normalized direction of the light.
+     */
+    public Vector getDirection() {
+        return direction;
+    }
+
     public double getDistance(Point point) {
         return Double.POSITIVE_INFINITY;
     }
@@ -74,6 +74,24 @@ public class SpotLight extends PointLight {
         return this;
     }
 
+    /**
+     * Returns the direction of the spotlight.
+     *
+     * @return The normalized direction of the spotlight.
+     */
+    public Vector getDirection() {
+        return spotDirection;
+    }
+
+    /**
+     * Returns the narrowness factor of the spotlight beam.
+     *
+     * @return The narrowness factor.
+     */
+    public int getNarrowBeam() {
+        return narrowBeam;
+    }
+
     /**
      * Returns the direction of the spotlight at the specified point.
      *
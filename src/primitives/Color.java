@@ -51,6 +51,12 @@ public class Color {
     */
    public Color(java.awt.Color other) { rgb = new Double3(other.getRed(), other.getGreen(), other.getBlue()); }
 
+   /**
+    * RGB components getter - returns the components without the upper limit of 255
+    * @return triad of Red/Green/Blue components
+    */
+   public Double3 getRgb() { return rgb; }
+
    /**
     * Color getter - returns the color after converting it into java.awt.Color
     * object During the conversion any component bigger than 255 is set to 255
@@ -129,15 +135,15 @@ public class Color {
    }
 
    /**
-    * Check if two colors are similar
+    * Check if two colors are similar - if no component differs by a whole level
     * @param color1
     * @param color2
     * @return true if the colors are similar, false otherwise
     */
    public static boolean isColorSimilar(Color color1, Color color2) {
-      Color res = color1.subtract(color2);
-
-      return res.getColor().getBlue() == 0 && res.getColor().getGreen() == 0 && res.getColor().getRed() == 0;
+      return Math.abs(color1.rgb.d1 - color2.rgb.d1) < 1
+              && Math.abs(color1.rgb.d2 - color2.rgb.d2) < 1
+              && Math.abs(color1.rgb.d3 - color2.rgb.d3) < 1;
    }
 
 
@@ -39,6 +39,33 @@ public class Point {
         return xyz;
     }
 
+    /**
+     * Gets the x-coordinate of the point.
+     *
+     * @return The x-coordinate.
+     */
+    public double getX() {
+        return xyz.d1;
+    }
+
+    /**
+     * Gets the y-coordinate of the point.
+     *
+     * @return The y-coordinate.
+     */
+    public double getY() {
+        return xyz.d2;
+    }
+
+    /**
+     * Gets the z-coordinate of the point.
+     *
+     * @return The z-coordinate.
+     */
+    public double getZ() {
+        return xyz.d3;
+    }
+
     /**
      * Calculates the vector resulting from subtracting another point.
      *
@@ -25,7 +25,7 @@ public class Ray {
      */
     public Ray(Point startingPoint, Vector directionVector) {
         this.head = startingPoint;
-        this.direction = directionVector.normalize(); // Normalizes the direction vector
+        this.direction = normalized(directionVector); // Normalizes the direction vector
     }
 
     /**
@@ -37,12 +37,23 @@ public class Ray {
      * @param normal   The normal vector of the geometry
      */
     public Ray(Point head, Vector direction, Vector normal) {
-        this.direction = direction.normalize();
+        this.direction = normalized(direction);
         double nv = normal.dotProduct(direction);
         Vector normalDelta = normal.scale(nv > 0 ? DELTA : -DELTA);
         this.head = head.add(normalDelta);
     }
 
+    /**
+     * Normalizes a direction vector, reusing it if it is already a unit vector
+     * (normalizing it would create an identical copy).
+     *
+     * @param vector The direction vector.
+     * @return The normalized direction vector.
+     */
+    private static Vector normalized(Vector vector) {
+        return vector.lengthSquared() == 1 ? vector : vector.normalize();
+    }
+
     /**
      * Finds the closest intersection point of the ray with a list of intersection points.
      *
@@ -54,11 +65,15 @@ public class Ray {
         if (intersections.isEmpty())
             return null;
 
-        GeoPoint closestPoint = intersections.getFirst();
-        for (GeoPoint p : intersections)
-            if (p.point.distance(getHead()) < closestPoint.point.distance(getHead())) {
+        GeoPoint closestPoint = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (GeoPoint p : intersections) {
+            double distance = p.point.distanceSquared(head);
+            if (closestPoint == null || distance < closestDistance) {
                 closestPoint = p;
+                closestDistance = distance;
             }
+        }
 
         return closestPoint;
     }
@@ -115,7 +130,10 @@ public class Ray {
      */
     public Point getPoint(double t) {
         if (t == 0) return getHead();
-        return getHead().add(this.getDirection().scale(t));
+        // head + direction * t, computed in place without the temporary scaled vector
+        return new Point(head.xyz.d1 + direction.xyz.d1 * t,
+                head.xyz.d2 + direction.xyz.d2 * t,
+                head.xyz.d3 + direction.xyz.d3 * t);
     }
 
 }
@@ -0,0 +1,323 @@
+package primitives;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The instrumentation of the rendering: the counts of the traced rays by their kind, of the rays
+ * culled by their transparency factor, of the recursion depths reached and of the intersection tests
+ * by the type of the geometry, and the timing of the phases of the rendering.
+ * Every thread counts into its own collector, without any synchronization, and {@link #collect()}
+ * merges the collectors of all the threads once the threads are done.
+ * The statistics are turned on by the system property {@code raytracer.statistics=true};
+ * otherwise {@link #ENABLED} is a constant false, the just in time compiler drops the counting code
+ * entirely, and the instrumentation costs nothing.
+ */
+public final class RenderStatistics {
+    /** Whether the statistics are collected, by the system property {@code raytracer.statistics}. */
+    public static final boolean ENABLED = Boolean.getBoolean("raytracer.statistics");
+    /** The name of the phase of the rendering of the whole image, by which the rays per second are calculated. */
+    public static final String RENDER_PHASE = "render";
+
+    /**
+     * The kinds of the counted events.
+     */
+    public enum Counter {
+        /** Rays cast from the camera. */
+        PRIMARY_RAYS,
+        /** Rays from a hit towards a light source. */
+        SHADOW_RAYS,
+        /** Reflected rays, each ray of a glossy reflection counted. */
+        REFLECTED_RAYS,
+        /** Refracted rays, each ray of a diffuse refraction counted. */
+        REFRACTED_RAYS,
+        /** Reflections and refractions that were not traced, as their transparency factor fell below the minimum. */
+        CULLED_RAYS
+    }
+
+    /** The collectors of all the threads since the last collection. */
+    private static final Queue<RenderStatistics> COLLECTORS = new ConcurrentLinkedQueue<>();
+    /** The collector of each thread. */
+    private static final ThreadLocal<RenderStatistics> LOCAL = ThreadLocal.withInitial(() -> {
+        RenderStatistics collector = new RenderStatistics(Thread.currentThread());
+        COLLECTORS.add(collector);
+        return collector;
+    });
+    /** The types of the intersected geometries, by the index of their counts. */
+    private static final List<Class<?>> TYPES = new CopyOnWriteArrayList<>();
+    /** The index of the counts of each type of geometry. */
+    private static final ClassValue<Integer> TYPE_INDEX = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            synchronized (TYPES) {
+                TYPES.add(type);
+                return TYPES.size() - 1;
+            }
+        }
+    };
+    /** The total time of each phase since the last collection, in nanoseconds, in the order the phases first ended. */
+    private static final Map<String, Long> PHASES = new LinkedHashMap<>();
+
+    /** The thread of the collector, null for a merged collection. */
+    private final Thread owner;
+    /** The counts of the events, by their kind. */
+    final long[] counters = new long[Counter.values().length];
+    /** The amount of hits at each recursion depth, the hits of the camera rays at depth 0. */
+    long[] depths = new long[16];
+    /** The amount of intersection tests of each type of geometry, by its index. */
+    long[] intersections = new long[16];
+    /** The total time of each phase, in nanoseconds. */
+    final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * Constructs an empty collector.
+     *
+     * @param owner The thread of the collector, null for a merged collection.
+     */
+    RenderStatistics(Thread owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Counts an event in the collector of the current thread.
+     *
+     * @param counter The kind of the event.
+     */
+    public static void count(Counter counter) {
+        if (ENABLED) LOCAL.get().counters[counter.ordinal()]++;
+    }
+
+    /**
+     * Counts events in the collector of the current thread.
+     *
+     * @param counter The kind of the events.
+     * @param amount  The amount of events.
+     */
+    public static void count(Counter counter, int amount) {
+        if (ENABLED) LOCAL.get().counters[counter.ordinal()] += amount;
+    }
+
+    /**
+     * Counts a hit at a recursion depth in the collector of the current thread.
+     *
+     * @param depth The recursion depth, 0 for the hit of a camera ray.
+     */
+    public static void countDepth(int depth) {
+        if (ENABLED) LOCAL.get().addDepth(depth, 1);
+    }
+
+    /**
+     * Counts an intersection test in the collector of the current thread.
+     *
+     * @param type The type of the tested geometry.
+     */
+    public static void countIntersection(Class<?> type) {
+        if (ENABLED) LOCAL.get().addIntersections(TYPE_INDEX.get(type), 1);
+    }
+
+    /**
+     * Gets the amount of rays the current thread traced since the last collection.
+     *
+     * @return The amount of rays, 0 if the statistics are off.
+     */
+    public static long threadRays() {
+        return ENABLED ? LOCAL.get().getRays() : 0;
+    }
+
+    /**
+     * Starts the timing of a phase.
+     *
+     * @return The start time of the phase, 0 if the statistics are off.
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Ends the timing of a phase, adding its time to the time of the phases of the same name.
+     *
+     * @param name  The name of the phase.
+     * @param start The start time of the phase, by {@link #start()}.
+     */
+    public static void end(String name, long start) {
+        if (!ENABLED) return;
+        long time = System.nanoTime() - start;
+        synchronized (PHASES) {
+            PHASES.merge(name, time, Long::sum);
+        }
+    }
+
+    /**
+     * Merges the statistics of all the threads since the last collection, and starts the next collection.
+     * The threads must be done with the events of the collection, as the render threads are when the
+     * rendering of an image ends.
+     *
+     * @return The merged statistics, empty if the statistics are off.
+     */
+    public static RenderStatistics collect() {
+        RenderStatistics total = new RenderStatistics(null);
+        for (RenderStatistics collector : COLLECTORS) {
+            total.merge(collector);
+            collector.clear();
+            // the collectors of the threads that ended are not needed anymore
+            if (!collector.owner.isAlive()) COLLECTORS.remove(collector);
+        }
+        synchronized (PHASES) {
+            total.phases.putAll(PHASES);
+            PHASES.clear();
+        }
+        return total;
+    }
+
+    /**
+     * Adds hits at a recursion depth.
+     *
+     * @param depth  The recursion depth.
+     * @param amount The amount of hits.
+     */
+    void addDepth(int depth, long amount) {
+        if (depth >= depths.length) depths = Arrays.copyOf(depths, Math.max(2 * depths.length, depth + 1));
+        depths[depth] += amount;
+    }
+
+    /**
+     * Adds intersection tests of a type of geometry.
+     *
+     * @param index  The index of the type.
+     * @param amount The amount of tests.
+     */
+    void addIntersections(int index, long amount) {
+        if (index >= intersections.length)
+            intersections = Arrays.copyOf(intersections, Math.max(2 * intersections.length, index + 1));
+        intersections[index] += amount;
+    }
+
+    /**
+     * Adds the statistics of another collector to this one.
+     *
+     * @param other The other collector.
+     */
+    void merge(RenderStatistics other) {
+        for (int c = 0; c < counters.length; c++) counters[c] += other.counters[c];
+        for (int d = other.depths.length - 1; d >= 0; d--)
+            if (other.depths[d] != 0) addDepth(d, other.depths[d]);
+        for (int i = other.intersections.length - 1; i >= 0; i--)
+            if (other.intersections[i] != 0) addIntersections(i, other.intersections[i]);
+        other.phases.forEach((name, time) -> phases.merge(name, time, Long::sum));
+    }
+
+    /**
+     * Clears the counts of the collector.
+     */
+    private void clear() {
+        Arrays.fill(counters, 0);
+        Arrays.fill(depths, 0);
+        Arrays.fill(intersections, 0);
+    }
+
+    /**
+     * Gets the count of a kind of events.
+     *
+     * @param counter The kind of the events.
+     * @return The count.
+     */
+    public long get(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * Gets the total amount of traced rays, of all the kinds.
+     *
+     * @return The amount of rays.
+     */
+    public long getRays() {
+        return get(Counter.PRIMARY_RAYS) + get(Counter.SHADOW_RAYS)
+                + get(Counter.REFLECTED_RAYS) + get(Counter.REFRACTED_RAYS);
+    }
+
+    /**
+     * Gets the amount of hits at each recursion depth.
+     *
+     * @return The amounts, by the depth, up to the deepest depth reached.
+     */
+    public long[] getDepths() {
+        int deepest = depths.length;
+        while (deepest > 0 && depths[deepest - 1] == 0) deepest--;
+        return Arrays.copyOf(depths, deepest);
+    }
+
+    /**
+     * Gets the amount of intersection tests of each type of geometry.
+     *
+     * @return The amounts, by the simple name of the type, in the order the types were first tested.
+     */
+    public Map<String, Long> getIntersections() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < intersections.length; i++)
+            if (intersections[i] != 0) result.merge(TYPES.get(i).getSimpleName(), intersections[i], Long::sum);
+        return result;
+    }
+
+    /**
+     * Gets the total time of each phase.
+     *
+     * @return The times in nanoseconds, by the name of the phase.
+     */
+    public Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * Gets the rate of the traced rays during the rendering phase.
+     *
+     * @return The rays per second, 0 if the rendering phase was not timed.
+     */
+    public double getRaysPerSecond() {
+        Long time = phases.get(RENDER_PHASE);
+        return time == null || time == 0 ? 0 : getRays() * 1e9 / time;
+    }
+
+    /**
+     * Reports the statistics.
+     *
+     * @return The report, a line of each group of statistics.
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("Render statistics:");
+        report.append(String.format("%n  rays: %d (primary %d, shadow %d, reflected %d, refracted %d), %.0f rays/s",
+                getRays(), get(Counter.PRIMARY_RAYS), get(Counter.SHADOW_RAYS), get(Counter.REFLECTED_RAYS),
+                get(Counter.REFRACTED_RAYS), getRaysPerSecond()));
+        report.append(String.format("%n  culled by the transparency factor: %d", get(Counter.CULLED_RAYS)));
+
+        long[] reached = getDepths();
+        List<String> depthCounts = new ArrayList<>();
+        for (int d = 0; d < reached.length; d++) depthCounts.add(d + ": " + reached[d]);
+        report.append(String.format("%n  hits by recursion depth: %s", list(depthCounts)));
+
+        List<String> tests = new ArrayList<>();
+        getIntersections().forEach((type, count) -> tests.add(type + " " + count));
+        report.append(String.format("%n  intersection tests: %s", list(tests)));
+
+        List<String> times = new ArrayList<>();
+        phases.forEach((name, time) -> times.add(String.format("%s %.1f ms", name, time / 1e6)));
+        report.append(String.format("%n  phases: %s", list(times)));
+        return report.toString();
+    }
+
+    /**
+     * Joins the items of a line of the report.
+     *
+     * @param items The items.
+     * @return The items separated by commas, or "none".
+     */
+    private static String list(List<String> items) {
+        return items.isEmpty() ? "none" : String.join(", ", items);
+    }
+}
@@ -0,0 +1,189 @@
+package primitives;
+
+import java.util.Arrays;
+
+import static primitives.Util.isZero;
+
+/**
+ * Represents an affine transform of the three-dimensional space - a linear map followed by a
+ * translation - as a 3x4 matrix, together with the matrix of its inverse transform.<br/>
+ * Transforms are built from translations, scalings and rotations, whose inverses are known, and
+ * composed by {@link #then(Transform)}, so the inverse never has to be calculated by a general
+ * matrix inversion. A transform is immutable.
+ */
+public final class Transform {
+
+    /**
+     * The identity transform, which keeps every point in its place.
+     */
+    public static final Transform IDENTITY = new Transform(
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0},
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+    /**
+     * The matrix of the transform, row by row, each row being 3 coefficients and a translation
+     */
+    private final double[] matrix;
+
+    /**
+     * The matrix of the inverse transform, in the same layout
+     */
+    private final double[] inverse;
+
+    /**
+     * Constructs a transform from its matrix and the matrix of its inverse.
+     *
+     * @param matrix  The matrix of the transform.
+     * @param inverse The matrix of the inverse transform.
+     */
+    private Transform(double[] matrix, double[] inverse) {
+        this.matrix = matrix;
+        this.inverse = inverse;
+    }
+
+    /**
+     * Creates a translation.
+     *
+     * @param offset The offset of every point.
+     * @return The translation.
+     */
+    public static Transform translation(Vector offset) {
+        double x = offset.getX(), y = offset.getY(), z = offset.getZ();
+        return new Transform(new double[]{1, 0, 0, x, 0, 1, 0, y, 0, 0, 1, z},
+                new double[]{1, 0, 0, -x, 0, 1, 0, -y, 0, 0, 1, -z});
+    }
+
+    /**
+     * Creates a scaling about the origin.
+     *
+     * @param x The scale of the x-axis.
+     * @param y The scale of the y-axis.
+     * @param z The scale of the z-axis.
+     * @return The scaling.
+     * @throws IllegalArgumentException if a scale is zero, as the scaling can't be inverted.
+     */
+    public static Transform scaling(double x, double y, double z) {
+        if (isZero(x) || isZero(y) || isZero(z))
+            throw new IllegalArgumentException("A scaling can't have a zero scale");
+        return new Transform(new double[]{x, 0, 0, 0, 0, y, 0, 0, 0, 0, z, 0},
+                new double[]{1 / x, 0, 0, 0, 0, 1 / y, 0, 0, 0, 0, 1 / z, 0});
+    }
+
+    /**
+     * Creates a uniform scaling about the origin.
+     *
+     * @param scale The scale of all the axes.
+     * @return The scaling.
+     * @throws IllegalArgumentException if the scale is zero.
+     */
+    public static Transform scaling(double scale) {
+        return scaling(scale, scale, scale);
+    }
+
+    /**
+     * Creates a rotation about an axis through the origin, counterclockwise when the axis points
+     * towards the viewer.
+     *
+     * @param axis    The axis of the rotation.
+     * @param degrees The angle of the rotation, in degrees.
+     * @return The rotation.
+     */
+    public static Transform rotation(Vector axis, double degrees) {
+        Vector u = axis.normalize();
+        double x = u.getX(), y = u.getY(), z = u.getZ();
+        double angle = Math.toRadians(degrees), cos = Math.cos(angle), sin = Math.sin(angle), c = 1 - cos;
+        double[] matrix = {
+                cos + x * x * c, x * y * c - z * sin, x * z * c + y * sin, 0,
+                y * x * c + z * sin, cos + y * y * c, y * z * c - x * sin, 0,
+                z * x * c - y * sin, z * y * c + x * sin, cos + z * z * c, 0};
+        // the inverse of a rotation is its transpose
+        double[] inverse = {
+                matrix[0], matrix[4], matrix[8], 0,
+                matrix[1], matrix[5], matrix[9], 0,
+                matrix[2], matrix[6], matrix[10], 0};
+        return new Transform(matrix, inverse);
+    }
+
+    /**
+     * Composes the transform with another transform that is applied after it.
+     *
+     * @param next The transform that is applied after this one.
+     * @return The transform of applying this transform and then the other one.
+     */
+    public Transform then(Transform next) {
+        return new Transform(multiply(next.matrix, matrix), multiply(inverse, next.inverse));
+    }
+
+    /**
+     * Gets the inverse transform, which takes every point back to its place.
+     *
+     * @return The inverse transform.
+     */
+    public Transform inverse() {
+        return new Transform(inverse, matrix);
+    }
+
+    /**
+     * Multiplies two affine matrices.
+     *
+     * @param a The matrix applied second.
+     * @param b The matrix applied first.
+     * @return The matrix of applying b and then a.
+     */
+    private static double[] multiply(double[] a, double[] b) {
+        double[] result = new double[12];
+        for (int r = 0; r < 12; r += 4)
+            for (int c = 0; c < 4; c++)
+                result[r + c] = a[r] * b[c] + a[r + 1] * b[4 + c] + a[r + 2] * b[8 + c] + (c == 3 ? a[r + 3] : 0);
+        return result;
+    }
+
+    /**
+     * Transforms a point.
+     *
+     * @param p The point.
+     * @return The transformed point.
+     */
+    public Point applyToPoint(Point p) {
+        double x = p.getX(), y = p.getY(), z = p.getZ();
+        return new Point(
+                matrix[0] * x + matrix[1] * y + matrix[2] * z + matrix[3],
+                matrix[4] * x + matrix[5] * y + matrix[6] * z + matrix[7],
+                matrix[8] * x + matrix[9] * y + matrix[10] * z + matrix[11]);
+    }
+
+    /**
+     * Transforms a direction, which is not moved by the translation of the transform. The length of
+     * the direction is scaled as the transform scales it.
+     *
+     * @param v The direction.
+     * @return The transformed direction.
+     */
+    public Vector applyToVector(Vector v) {
+        double x = v.getX(), y = v.getY(), z = v.getZ();
+        return new Vector(
+                matrix[0] * x + matrix[1] * y + matrix[2] * z,
+                matrix[4] * x + matrix[5] * y + matrix[6] * z,
+                matrix[8] * x + matrix[9] * y + matrix[10] * z);
+    }
+
+    /**
+     * Transforms a normal of a surface to the normal of the transformed surface, by the transpose
+     * of the inverse transform, which keeps it orthogonal to the surface under a non-uniform scaling.
+     *
+     * @param n The normal.
+     * @return The normalized transformed normal.
+     */
+    public Vector applyToNormal(Vector n) {
+        double x = n.getX(), y = n.getY(), z = n.getZ();
+        return new Vector(
+                inverse[0] * x + inverse[4] * y + inverse[8] * z,
+                inverse[1] * x + inverse[5] * y + inverse[9] * z,
+                inverse[2] * x + inverse[6] * y + inverse[10] * z).normalize();
+    }
+
+    @Override
+    public String toString() {
+        return "Transform{" + Arrays.toString(matrix) + "}";
+    }
+}
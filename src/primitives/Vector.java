@@ -6,8 +6,7 @@ package primitives;
  */
 public class Vector extends Point {
 
-    final int ZERO = 0;
-    final int VECTOR_INVERTER_SCALE = -1;
+    static final int ZERO = 0;
     public static final Vector Y = new Vector(0, 1, 0);
 
     /**
@@ -43,7 +42,7 @@ public class Vector extends Point {
      * @throws IllegalArgumentException if the vector is initialized as a zero vector.
      */
     private void checkForZeroVector(double d1, double d2, double d3) {
-        if (new Double3(d1, d2, d3).equals(Double3.ZERO))
+        if (VectorMath.isZero(d1, d2, d3))
             throw new IllegalArgumentException("Vector Zero is not allowed");
     }
 
@@ -55,10 +54,11 @@ public class Vector extends Point {
      * @throws IllegalArgumentException if attempting to add the vector to itself.
      */
     public Vector add(Vector other) {
-        if (this.xyz.add(other.xyz).equals(Double3.ZERO))
+        Double3 sum = this.xyz.add(other.xyz);
+        if (sum.equals(Double3.ZERO))
             throw new IllegalArgumentException("Cannot add a vector + -itself!");
 
-        return new Vector(this.xyz.add(other.xyz));
+        return new Vector(sum);
     }
 
     /**
@@ -75,7 +75,7 @@ public class Vector extends Point {
     }
 
     public Vector subtract(Vector other) {
-        return new Vector(this.xyz.add(other.xyz.scale(this.VECTOR_INVERTER_SCALE)));
+        return new Vector(this.xyz.subtract(other.xyz));
     }
 
     /**
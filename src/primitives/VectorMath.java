@@ -0,0 +1,89 @@
+package primitives;
+
+/**
+ * A low-level, allocation-free counterpart of the {@link Vector} operations.
+ * The operations work on raw coordinates (e.g. taken by {@link Point#getX()}) and return
+ * primitive values, so hot paths such as ray-geometry intersection tests can use them without
+ * creating temporary {@link Point}, {@link Vector} and {@link Double3} objects.
+ * The dot product is computed in the same order as {@link Vector#dotProduct(Vector)},
+ * so its result is bit-identical.
+ */
+public final class VectorMath {
+    /** Don't let anyone instantiate this class. */
+    private VectorMath() {}
+
+    /**
+     * Calculates the dot product of two vectors given by their coordinates.
+     *
+     * @param ax The x-coordinate of the first vector.
+     * @param ay The y-coordinate of the first vector.
+     * @param az The z-coordinate of the first vector.
+     * @param bx The x-coordinate of the second vector.
+     * @param by The y-coordinate of the second vector.
+     * @param bz The z-coordinate of the second vector.
+     * @return The dot product a&#183;b.
+     */
+    public static double dot(double ax, double ay, double az, double bx, double by, double bz) {
+        return ax * bx + ay * by + az * bz;
+    }
+
+    /**
+     * Calculates the dot product of a vector and a vector given by its coordinates.
+     *
+     * @param a  The first vector.
+     * @param bx The x-coordinate of the second vector.
+     * @param by The y-coordinate of the second vector.
+     * @param bz The z-coordinate of the second vector.
+     * @return The dot product a&#183;b.
+     */
+    public static double dot(Vector a, double bx, double by, double bz) {
+        return a.xyz.d1 * bx + a.xyz.d2 * by + a.xyz.d3 * bz;
+    }
+
+    /**
+     * Calculates the squared length of a vector given by its coordinates.
+     *
+     * @param x The x-coordinate of the vector.
+     * @param y The y-coordinate of the vector.
+     * @param z The z-coordinate of the vector.
+     * @return The squared length of the vector.
+     */
+    public static double lengthSquared(double x, double y, double z) {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * Calculates the scalar triple product a&#183;(b&#215;c) of three vectors given by their
+     * coordinates, i.e. the signed volume of the parallelepiped they span.
+     * Its sign tells on which side of the plane spanned by b and c the vector a points.
+     *
+     * @param ax The x-coordinate of the first vector.
+     * @param ay The y-coordinate of the first vector.
+     * @param az The z-coordinate of the first vector.
+     * @param bx The x-coordinate of the second vector.
+     * @param by The y-coordinate of the second vector.
+     * @param bz The z-coordinate of the second vector.
+     * @param cx The x-coordinate of the third vector.
+     * @param cy The y-coordinate of the third vector.
+     * @param cz The z-coordinate of the third vector.
+     * @return The triple product a&#183;(b&#215;c).
+     */
+    public static double triple(double ax, double ay, double az,
+                                double bx, double by, double bz,
+                                double cx, double cy, double cz) {
+        return ax * (by * cz - bz * cy) + ay * (bz * cx - bx * cz) + az * (bx * cy - by * cx);
+    }
+
+    /**
+     * Checks whether the coordinates are [almost] all zero, the same way as the zero vector
+     * check of {@link Vector} does, without creating any object.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @param z The z-coordinate.
+     * @return True if all the coordinates are zero or almost zero.
+     */
+    public static boolean isZero(double x, double y, double z) {
+        return Util.isZero(x) && Util.isZero(y) && Util.isZero(z);
+    }
+}
@@ -21,12 +21,18 @@ public class Blackboard {
      * @param vRight       the right vector
      * @param numberOfRays the number of rays to generate
      * @return a list of points on the square
+     * @throws IllegalArgumentException if the number of rays is not positive
      */
     public static LinkedList<Point> generatePointsSquare(Point center, double size, Vector vUp, Vector vRight, int numberOfRays) {
         LinkedList<Point> points = new LinkedList<>();
 
         //2x2, 3x3, 9x9, 17x17, 33x33
-        int sqrt = (int) Math.sqrt(numberOfRays);
+        int sqrt = (int) Math.sqrt(Sampler.checkCount(numberOfRays));
+        //a grid of a single point is the center
+        if (sqrt == 1) {
+            points.add(center);
+            return points;
+        }
         double offset = 1d / ((double) sqrt - 1d);
 
         //starts at the top left point of the square
@@ -69,104 +75,75 @@ public class Blackboard {
 
 
     /**
-     * Calculate the right vector that is perpendicular to both vUp and direction
+     * Generate exactly the given number of points on a square, by a sampler
      *
-     * @param vUp       the up vector
-     * @param direction the direction vector
-     * @return the right vector
+     * @param center       the center of the square
+     * @param size         the size of the square
+     * @param vUp          the up vector
+     * @param vRight       the right vector
+     * @param numberOfRays the number of rays to generate
+     * @param sampler      the sampler of the points
+     * @return the points on the square
+     * @throws IllegalArgumentException if the number of rays is not positive
      */
-    private static Vector calcVRight(Vector vUp, Vector direction) {
-        //create third perpendicular vector
-        return direction.crossProduct(vUp).normalize();
+    public static Point[] generatePointsSquare(Point center, double size, Vector vUp, Vector vRight, int numberOfRays, Sampler sampler) {
+        double[] samples = sampler.square(numberOfRays);
+        // the samples are in [0,1)^2, the square is around its center, with up as the y axis
+        for (int i = 0; i < samples.length; i++) samples[i] = (samples[i] - 0.5) * size;
+        return toPoints(center, vUp, vRight, samples);
     }
 
-
     /**
-     * Adaptive super sampling
-     * @param points the 4 points of the square
-     * @param center the center of the square
-     * @param centerColor the color of the center
-     * @param size the size of the square
-     * @param vUp the up vector
-     * @param vRight    the right vector
-     * @param camera the camera
-     * @param depth the depth of the recursion
-     * @return the average color of the 4 quadrants
+     * Generate exactly the given number of points on a circle, by a sampler
+     *
+     * @param originalRay  the original ray, perpendicular to the circle
+     * @param center       the center of the circle
+     * @param radius       the radius of the circle
+     * @param numberOfRays the number of rays to generate
+     * @param sampler      the sampler of the points
+     * @return the points on the circle
+     * @throws IllegalArgumentException if the number of rays is not positive
      */
-    public static Color adaptiveSuperSampling(LinkedList<Point> points, Point center, Color centerColor, double size, Vector vUp, Vector vRight, Camera camera, int depth) {
+    public static Point[] generatePointsCircle(Ray originalRay, Point center, double radius, int numberOfRays, Sampler sampler) {
+        Vector vUp = originalRay.getDirection().findOrthogonal();
+        Vector vRight = calcVRight(vUp, originalRay.getDirection());
 
-        //stop the recursion
-        if (depth == 0) {
-            return centerColor;
-        }
+        double[] samples = sampler.disk(numberOfRays);
+        for (int i = 0; i < samples.length; i++) samples[i] *= radius;
+        return toPoints(center, vUp, vRight, samples);
+    }
 
-        Color avgColor = Color.BLACK;
-
-        //for each quadrant
-        for (int i=0; i<4; i++) {
-            LinkedList<Point> newPoints = new LinkedList<>();
-            Ray ray = new Ray(camera.getLocation(), points.get(i).subtract(camera.getLocation()));
-            Color color = camera.getRayTracer().traceRay(ray);
-
-            // if the color is not similar, we need to split the square into 4 smaller squares
-            if (!Color.isColorSimilar(centerColor, color) ) {
-            //if (!centerColor.equals(color)) {
-                // Quadrant 1
-                if (i == 0) {
-                    newPoints.add(points.get(0));
-                    newPoints.add(center.add(vUp.scale(size / 2)));
-                    newPoints.add(center.add(vRight.scale(-size / 2)));
-                    newPoints.add(center);
-
-                    Point newCenter = center.add(vUp.scale(size / 4).add(vRight.scale(-size / 4)));
-                    centerColor = camera.getRayTracer().traceRay(new Ray(camera.getLocation(), newCenter.subtract(camera.getLocation())));
-                    avgColor = avgColor.add(adaptiveSuperSampling(newPoints, newCenter, centerColor, size / 2, vUp, vRight, camera, depth - 1));
-                }
-
-                // Quadrant 2
-                else if (i == 1) {
-                    newPoints.add(center.add(vUp.scale(size / 2)));
-                    newPoints.add(points.get(1));
-                    newPoints.add(center);
-                    newPoints.add(center.add(vRight.scale(size / 2)));
-
-                    Point newCenter = center.add(vUp.scale(size / 4).add(vRight.scale(size / 4)));
-                    centerColor = camera.getRayTracer().traceRay(new Ray(camera.getLocation(), newCenter.subtract(camera.getLocation())));
-                    avgColor = avgColor.add(adaptiveSuperSampling(newPoints, newCenter, centerColor, size / 2, vUp, vRight, camera, depth - 1));
-                }
-
-                // Quadrant 3
-                else if (i == 2) {
-                    newPoints.add(center.add(vRight.scale(-size / 2)));
-                    newPoints.add(center);
-                    newPoints.add(points.get(2));
-                    newPoints.add(center.add(vUp.scale(-size / 2)));
-                    Point newCenter = center.add(vUp.scale(-size / 4).add(vRight.scale(-size / 4)));
-                    centerColor = camera.getRayTracer().traceRay(new Ray(camera.getLocation(), newCenter.subtract(camera.getLocation())));
-                    avgColor = avgColor.add(adaptiveSuperSampling(newPoints, newCenter, centerColor, size / 2, vUp, vRight, camera, depth - 1));
-
-                }
-
-                // Quadrant 4
-                else {
-                    newPoints.add(center);
-                    newPoints.add(center.add(vRight.scale(size / 2)));
-                    newPoints.add(center.add(vUp.scale(-size / 2)));
-                    newPoints.add(points.get(3));
-
-                    Point newCenter = center.add(vUp.scale(-size / 4).add(vRight.scale(size / 4)));
-                    centerColor = camera.getRayTracer().traceRay(new Ray(camera.getLocation(), newCenter.subtract(camera.getLocation())));
-                    avgColor = avgColor.add(adaptiveSuperSampling(newPoints, newCenter, centerColor, size / 2, vUp, vRight, camera, depth - 1));
-
-                }
-            }
-            // if the color is similar, we can just add the color to the average
-            else
-                avgColor = avgColor.add(color);
+    /**
+     * Convert the coordinates of samples on a plane to points
+     *
+     * @param center  the origin of the coordinates
+     * @param vUp     the y axis
+     * @param vRight  the x axis
+     * @param samples the coordinates of the samples, x and y of each
+     * @return the points
+     */
+    private static Point[] toPoints(Point center, Vector vUp, Vector vRight, double[] samples) {
+        Point[] points = new Point[samples.length / 2];
+        double cx = center.getX(), cy = center.getY(), cz = center.getZ();
+        for (int i = 0; i < points.length; i++) {
+            double x = samples[2 * i], y = samples[2 * i + 1];
+            points[i] = new Point(
+                    cx + vRight.getX() * x + vUp.getX() * y,
+                    cy + vRight.getY() * x + vUp.getY() * y,
+                    cz + vRight.getZ() * x + vUp.getZ() * y);
         }
-
-        // return the average color of the 4 quadrants
-        return avgColor.reduce(4);
+        return points;
     }
 
+    /**
+     * Calculate the right vector that is perpendicular to both vUp and direction
+     *
+     * @param vUp       the up vector
+     * @param direction the direction vector
+     * @return the right vector
+     */
+    private static Vector calcVRight(Vector vUp, Vector direction) {
+        //create third perpendicular vector
+        return direction.crossProduct(vUp).normalize();
+    }
 }
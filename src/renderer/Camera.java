@@ -5,15 +5,29 @@ import primitives.Color;
 import primitives.Point;
 import primitives.Vector;
 import primitives.Ray;
+import primitives.RenderStatistics;
 
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.MissingResourceException;
-import java.util.stream.*;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
 
 /**
  * Represents a camera used for rendering images.
  */
 public class Camera implements Cloneable {
+    /**
+     * The default maximum amount of samples of a pixel in variance driven adaptive sampling and in
+     * progressive rendering.
+     */
+    public static final int DEFAULT_MAX_SAMPLES = 256;
+
+    /** Logger for reporting the render statistics */
+    private static final Logger logger = Logger.getLogger("Camera");
+
     private ImageWriter imageWriter;
     private RayTracerBase rayTracer;
     private Point location;
@@ -26,9 +40,20 @@ public class Camera implements Cloneable {
     private Point ViewPlaneCenter;
     private int totalRays = 1;
     private int threads = 1;
+    private int tileSize = 16;
     private double printInterval = 0;
     private PixelManager pixelManager;
     private int adaptiveDepth = 0;
+    private Sampler sampler = null;
+    private double errorThreshold = 0;
+    private int maxSamples = DEFAULT_MAX_SAMPLES;
+    private long timeBudget = 0;
+    private long sampleBudget = 0;
+    private boolean streaming = false;
+    private RenderStatistics statistics = null;
+    private boolean costMap = false;
+    private PixelCosts pixelCosts = null;
+    private LongSupplier costClock = System::nanoTime;
 
     private Camera() {
     }
@@ -102,6 +127,14 @@ public class Camera implements Cloneable {
         return threads;
     }
 
+    /**
+     * Gets the size of the side of the square tiles the image is rendered in.
+     * @return The tile size in pixels.
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
     /**
      * Gets the print interval for debugging.
      * @return The print interval for debugging.
@@ -126,6 +159,82 @@ public class Camera implements Cloneable {
         return adaptiveDepth;
     }
 
+    /**
+     * Gets the sampler of the super sampling rays of a pixel.
+     * @return The sampler, or null for a regular grid.
+     */
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Gets the error threshold of variance driven adaptive sampling.
+     * @return The relative error threshold, 0 when it is off.
+     */
+    public double getErrorThreshold() {
+        return errorThreshold;
+    }
+
+    /**
+     * Gets the maximum amount of samples of a pixel in variance driven adaptive sampling and in
+     * progressive rendering.
+     * @return The maximum amount of samples.
+     */
+    public int getMaxSamples() {
+        return maxSamples;
+    }
+
+    /**
+     * Gets the wall clock budget of progressive rendering.
+     * @return The time budget in milliseconds, 0 for none.
+     */
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Gets the sample budget of progressive rendering.
+     * @return The amount of samples of the whole image, 0 for none.
+     */
+    public long getSampleBudget() {
+        return sampleBudget;
+    }
+
+    /**
+     * Gets the statistics of the last rendering of the image: the rays traced by their kind, the
+     * rays culled by their transparency factor, the recursion depths reached, the intersection
+     * tests by the type of the geometry and the timing of the phases, including everything the
+     * statistics counted between the rendering and the one before it, such as the build of the
+     * acceleration structures. The statistics are collected only with the system property
+     * {@code raytracer.statistics=true}, see {@link RenderStatistics}.
+     * @return The statistics, null before the image is rendered.
+     */
+    public RenderStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return Whether the cost of every pixel is recorded.
+     */
+    public boolean isCostMap() {
+        return costMap;
+    }
+
+    /**
+     * Gets the cost of every pixel of the last rendering of the image.
+     * @return The costs, null if they are not recorded or before the image is rendered.
+     */
+    PixelCosts getPixelCosts() {
+        return pixelCosts;
+    }
+
+    /**
+     * @return Whether the image file is streamed while the image is rendered.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     /**
      * Prints a grid on the image with the specified interval and color.
      * @param interval The interval between grid lines.
@@ -148,39 +257,236 @@ public class Camera implements Cloneable {
     }
 
     /**
-     * Writes the image to the output file.
+     * Writes the image to the output file, and the cost map of the image if it is recorded, see
+     * {@link Builder#setCostMap(boolean)}.
      */
     public void writeToImage() {
         imageWriter.writeToImage();
+        if (pixelCosts != null) imageWriter.writeCostMap(pixelCosts.nanos(), pixelCosts.rays());
     }
 
     /**
-     * Renders the image by casting rays through each pixel and tracing them in the scene.
+     * Renders the image by casting rays through each pixel and tracing them in the scene.<br/>
+     * The image is split into square tiles that are handed out in spiral order by the pixel
+     * manager. With multithreading, a dedicated pool of exactly the configured number of
+     * threads renders the tiles, each thread taking the next tile as soon as it is done, so
+     * expensive parts of the image do not leave the other threads idle.<br/>
+     * With a time budget or a sample budget the image is rendered progressively, see
+     * {@link Builder#setTimeBudget(long)}. Otherwise, with streaming, the image file is encoded
+     * while the image is rendered, see {@link Builder#setStreaming(boolean)}.<br/>
+     * With the render statistics on, they are logged when the image is rendered, see
+     * {@link #getStatistics()}.
+     *
+     * @throws RuntimeException If a rendering thread fails, or the rendering is interrupted while
+     *                          waiting for the threads - the image is then only partly rendered.
      */
     public Camera renderImage() {
         int nX = imageWriter.getNx();
         int nY = imageWriter.getNy();
+        long start = RenderStatistics.start();
+        pixelCosts = costMap ? new PixelCosts(nX, nY, costClock) : null;
+        if (timeBudget > 0 || sampleBudget > 0)
+            renderProgressive(nX, nY);
+        else {
+            if (streaming) imageWriter.streamToImage();
+            renderPass(nX, nY, () -> renderTiles(nX, nY));
+        }
+        RenderStatistics.end(RenderStatistics.RENDER_PHASE, start);
+
+        statistics = RenderStatistics.collect();
+        if (RenderStatistics.ENABLED) logger.info(statistics::toString);
+        return this;
+    }
+
+    /**
+     * Renders the image in progressive passes, each of them over the whole image, until a pass reaches
+     * the maximum amount of samples of a pixel or the budget is used up.
+     *
+     * @param nX The width of the image.
+     * @param nY The height of the image.
+     */
+    private void renderProgressive(int nX, int nY) {
+        ProgressiveRendering progressive = new ProgressiveRendering(this, nX, nY,
+                sampler == null ? new SobolSampler(0) : sampler, maxSamples, timeBudget, sampleBudget);
+        while (progressive.nextPass()) {
+            long start = RenderStatistics.start();
+            renderPass(nX, nY, () -> renderProgressiveTiles(progressive));
+            if (RenderStatistics.ENABLED) RenderStatistics.end("pass of " + progressive.samples() + " samples", start);
+        }
+    }
+
+    /**
+     * Renders a pass over all the tiles of the image, by a single thread or by a pool of threads.
+     *
+     * @param nX     The width of the image.
+     * @param nY     The height of the image.
+     * @param worker The rendering of the tiles by a thread, until the pixel manager has no more tiles.
+     */
+    private void renderPass(int nX, int nY, Runnable worker) {
+        pixelManager = new PixelManager(nY, nX, tileSize, printInterval);
+        try {
+            //single thread
+            if (threads == 1)
+                worker.run();
+            //multithreading
+            else
+                renderTilesParallel(worker);
+        } finally {
+            pixelManager.done();
+        }
+    }
+
+    /**
+     * Renders the tiles of the image on a dedicated pool of exactly the configured number of threads.
+     *
+     * @param tiles The rendering of the tiles by a thread.
+     */
+    private void renderTilesParallel(Runnable tiles) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Object>> workers = pool.invokeAll(
+                    Collections.nCopies(threads, Executors.callable(tiles)));
+            for (Future<Object> worker : workers) worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Rendering failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-        //single thread
-        if (threads == 1) {
-            for (int j = 0; j < nX; j++) {
-                for (int i = 0; i < nY; i++) {
-                    castRay(nX, nY, j, i);
+    /**
+     * Renders tiles of the image until the pixel manager has no more tiles to hand out.
+     *
+     * @param nX The width of the image.
+     * @param nY The height of the image.
+     */
+    private void renderTiles(int nX, int nY) {
+        VarianceSampling variance = errorThreshold == 0 ? null : new VarianceSampling(this, nX, nY,
+                sampler == null ? new SobolSampler(0) : sampler, errorThreshold, maxSamples);
+        for (PixelManager.Tile tile = pixelManager.nextTile(); tile != null; tile = pixelManager.nextTile()) {
+            TileEvent event = TileEvent.start();
+            long rays = 0;
+            //if totalRays is one then all the rays of the tile are traced together
+            //with the cost map every pixel is traced and measured on its own
+            if (variance != null)
+                rays = castVarianceTile(variance, tile);
+            else if (adaptiveDepth > 0)
+                rays = castAdaptiveTile(nX, nY, tile);
+            else if (totalRays == 1 && pixelCosts == null)
+                rays = castTile(nX, nY, tile);
+            else
+                for (int i = tile.row(); i < tile.row() + tile.height(); i++) {
+                    for (int j = tile.col(); j < tile.col() + tile.width(); j++) {
+                        long start = costClock.getAsLong(), traced = PixelCosts.tracedRays();
+                        int cast = castRay(nX, nY, j, i);
+                        if (pixelCosts != null) pixelCosts.add(j, i, start, cast, traced);
+                        rays += cast;
+                    }
                 }
-            }
+            event.commit(tile, rays, 0);
+            pixelManager.pixelsDone(tile.width() * tile.height());
         }
+    }
 
-        //multithreading
-        else{
-            pixelManager = new PixelManager(nX, nY, printInterval);
-            IntStream.range(0,nY).parallel().forEach(i ->{
-                IntStream.range(0,nX).forEach(j ->{
-                    castRay(nX, nY, j, i);
-                    pixelManager.pixelDone();
-                });
-            });
+    /**
+     * Renders the tiles of a progressive pass until the pixel manager has no more tiles to hand out.
+     * The tiles left when the budget is used up keep the colors of the previous passes.
+     *
+     * @param progressive The progressive rendering.
+     */
+    private void renderProgressiveTiles(ProgressiveRendering progressive) {
+        for (PixelManager.Tile tile = pixelManager.nextTile(); tile != null; tile = pixelManager.nextTile()) {
+            TileEvent event = TileEvent.start();
+            long start = costClock.getAsLong(), traced = PixelCosts.tracedRays();
+            Color[] colors = progressive.render(tile);
+            if (colors != null) {
+                event.commit(tile, (long) progressive.round() * colors.length, progressive.samples());
+                if (pixelCosts != null)
+                    pixelCosts.split(tile, start, (long) progressive.round() * colors.length, traced, null);
+                int n = 0;
+                for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+                    for (int j = tile.col(); j < tile.col() + tile.width(); j++)
+                        imageWriter.writePixel(j, i, colors[n++]);
+            }
+            pixelManager.pixelsDone(tile.width() * tile.height());
         }
-        return this;
+    }
+
+    /**
+     * Casts a single ray through each pixel of a tile, tracing all the rays of the tile as a batch.
+     *
+     * @param Nx   The width of the image.
+     * @param Ny   The height of the image.
+     * @param tile The tile.
+     * @return The amount of rays cast through the tile.
+     */
+    private int castTile(int Nx, int Ny, PixelManager.Tile tile) {
+        Ray[] rays = new Ray[tile.width() * tile.height()];
+        Color[] colors = new Color[rays.length];
+        int n = 0;
+        for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+            for (int j = tile.col(); j < tile.col() + tile.width(); j++)
+                rays[n++] = constructRay(Nx, Ny, j, i);
+
+        rayTracer.traceRays(rays, colors);
+        n = 0;
+        for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+            for (int j = tile.col(); j < tile.col() + tile.width(); j++)
+                imageWriter.writePixel(j, i, colors[n++]);
+        return rays.length;
+    }
+
+    /**
+     * Casts the pixels of a tile by adaptive super sampling, over a lattice of samples shared by all the
+     * pixels of the tile, so every sample is traced once.
+     *
+     * @param Nx   The width of the image.
+     * @param Ny   The height of the image.
+     * @param tile The tile.
+     * @return The amount of rays cast through the tile.
+     */
+    private int castAdaptiveTile(int Nx, int Ny, PixelManager.Tile tile) {
+        SampleLattice lattice = new SampleLattice(rayTracer, location, ViewPlaneCenter, vRight, vUp,
+                width, height, Nx, Ny, adaptiveDepth);
+        long start = costClock.getAsLong(), traced = PixelCosts.tracedRays();
+        lattice.trace(tile);
+        // the shared samples of the lattice are split evenly, the samples each pixel adds are its own
+        if (pixelCosts != null) pixelCosts.split(tile, start, lattice.traced(), traced, null);
+        for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+            for (int j = tile.col(); j < tile.col() + tile.width(); j++) {
+                start = costClock.getAsLong();
+                traced = PixelCosts.tracedRays();
+                int before = lattice.traced();
+                imageWriter.writePixel(j, i, lattice.pixel(j, i));
+                if (pixelCosts != null) pixelCosts.add(j, i, start, lattice.traced() - before, traced);
+            }
+        return lattice.traced();
+    }
+
+    /**
+     * Casts the pixels of a tile by variance driven adaptive sampling, each pixel until its error is
+     * within the threshold or it has the maximum amount of samples.
+     *
+     * @param variance The adaptive sampling of the image.
+     * @param tile     The tile.
+     * @return The amount of rays cast through the tile.
+     */
+    private long castVarianceTile(VarianceSampling variance, PixelManager.Tile tile) {
+        long start = costClock.getAsLong(), traced = PixelCosts.tracedRays();
+        int[] samples = new int[tile.width() * tile.height()];
+        Color[] colors = variance.render(tile, samples);
+        long cast = 0;
+        for (int count : samples) cast += count;
+        // the samples of the tile are traced together, so their cost is split by the samples of the pixels
+        if (pixelCosts != null) pixelCosts.split(tile, start, cast, traced, samples);
+        int n = 0;
+        for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+            for (int j = tile.col(); j < tile.col() + tile.width(); j++)
+                imageWriter.writePixel(j, i, colors[n++]);
+        return cast;
     }
 
     /**
@@ -190,14 +496,13 @@ public class Camera implements Cloneable {
      * @param Ny The height of the image.
      * @param j  The y-coordinate of the pixel.
      * @param i  The x-coordinate of the pixel.
+     * @return The amount of rays cast through the pixel.
      */
-    private void castRay(int Nx, int Ny, int j, int i) {
-        Ray r = constructRay(Nx, Ny, j, i);
-
+    private int castRay(int Nx, int Ny, int j, int i) {
         //if totalRays is one then don't do super Sampling
-        if (totalRays == 1 && adaptiveDepth == 0) {
-            imageWriter.writePixel(j, i, rayTracer.traceRay(r));
-            return;
+        if (totalRays == 1) {
+            imageWriter.writePixel(j, i, rayTracer.traceRay(constructRay(Nx, Ny, j, i)));
+            return 1;
         }
 
         // Calculate the pixel dimensions
@@ -217,21 +522,39 @@ public class Camera implements Cloneable {
         // Adjust the point based on the vertical position of the pixel
         if (yI != 0) pIJ = pIJ.add(vUp.scale(yI));
 
-        //if there is adaptive super sampling
-        if (adaptiveDepth > 0) {
-            imageWriter.writePixel(j, i, Blackboard.adaptiveSuperSampling(Blackboard.generatePointsSquare(pIJ, Rx, vUp, vRight, 4), pIJ, rayTracer.traceRay(r), Rx, vUp, vRight, this, adaptiveDepth));
-        }
-        //No adaptive super sampling
-        else {
-            Color avgColor = Color.BLACK;
-            LinkedList<Point> points = Blackboard.generatePointsSquare(pIJ, Rx, vUp, vRight, totalRays);
-            for (Point p : points) {
-                Ray ray = new Ray(location, p.subtract(location));
-                avgColor = avgColor.add(rayTracer.traceRay(ray));
-            }
-            imageWriter.writePixel(j, i, avgColor.reduce(points.size()));
-        }
+        Color avgColor = Color.BLACK;
+        Point[] points = sampler == null
+                ? Blackboard.generatePointsSquare(pIJ, Rx, vUp, vRight, totalRays).toArray(new Point[0])
+                : Blackboard.generatePointsSquare(pIJ, Rx, vUp, vRight, totalRays, sampler);
+        Ray[] rays = new Ray[points.length];
+        for (int n = 0; n < points.length; n++)
+            rays[n] = new Ray(location, points[n].subtract(location));
+        Color[] colors = new Color[rays.length];
+        rayTracer.traceRays(rays, colors);
+        for (Color color : colors)
+            avgColor = avgColor.add(color);
+        imageWriter.writePixel(j, i, avgColor.reduce(points.length));
+        return points.length;
+    }
 
+    /**
+     * Constructs a ray through a point in a given pixel of the image.
+     *
+     * @param Nx The width of the image.
+     * @param Ny The height of the image.
+     * @param j  The index by width.
+     * @param i  The index by height.
+     * @param u  The horizontal position of the point in the pixel, from its left side, in [0,1).
+     * @param v  The vertical position of the point in the pixel, from its top, in [0,1).
+     * @return The constructed ray.
+     */
+    Ray constructRay(int Nx, int Ny, int j, int i, double u, double v) {
+        double xJ = (j - (Nx - 1) / 2d + u - 0.5) * width / Nx;
+        double yI = -(i - (Ny - 1) / 2d + v - 0.5) * height / Ny;
+        return new Ray(location, new Vector(
+                ViewPlaneCenter.getX() + vRight.getX() * xJ + vUp.getX() * yI - location.getX(),
+                ViewPlaneCenter.getY() + vRight.getY() * xJ + vUp.getY() * yI - location.getY(),
+                ViewPlaneCenter.getZ() + vRight.getZ() * xJ + vUp.getZ() * yI - location.getZ()));
     }
 
     /**
@@ -253,17 +576,25 @@ public class Camera implements Cloneable {
         double xJ = (j - (Nx - 1) / 2d) * Rx;
         double yI = -(i - (Ny - 1) / 2d) * Ry;
 
-        // Initialize the point in 3D space corresponding to the pixel
-        Point pIJ = ViewPlaneCenter;
+        // Initialize the point in 3D space corresponding to the pixel, in raw coordinates
+        double x = ViewPlaneCenter.getX(), y = ViewPlaneCenter.getY(), z = ViewPlaneCenter.getZ();
 
         // Adjust the point based on the horizontal position of the pixel
-        if (xJ != 0) pIJ = pIJ.add(vRight.scale(xJ));
+        if (xJ != 0) {
+            x += vRight.getX() * xJ;
+            y += vRight.getY() * xJ;
+            z += vRight.getZ() * xJ;
+        }
 
         // Adjust the point based on the vertical position of the pixel
-        if (yI != 0) pIJ = pIJ.add(vUp.scale(yI));
+        if (yI != 0) {
+            x += vUp.getX() * yI;
+            y += vUp.getY() * yI;
+            z += vUp.getZ() * yI;
+        }
 
         // Return the constructed ray
-        return new Ray(location, pIJ.subtract(location));
+        return new Ray(location, new Vector(x - location.getX(), y - location.getY(), z - location.getZ()));
     }
 
     /**
@@ -416,6 +747,19 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the size of the side of the square tiles the image is rendered in.
+         * Smaller tiles balance the load between the threads better, larger tiles
+         * have less scheduling overhead and better cache locality.
+         *
+         * @param tileSize The tile size in pixels.
+         * @return The builder instance.
+         */
+        public Builder setTileSize(int tileSize) {
+            this.camera.tileSize = tileSize;
+            return this;
+        }
+
         /**
          * Sets the print interval for debugging.
          *
@@ -438,6 +782,117 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the sampler of the super sampling rays of a pixel. With a sampler, a pixel casts exactly
+         * the total amount of rays, instead of the largest square grid that fits in it.
+         *
+         * @param sampler The sampler, or null for a regular grid.
+         * @return The builder instance.
+         */
+        public Builder setSampler(Sampler sampler) {
+            this.camera.sampler = sampler;
+            return this;
+        }
+
+        /**
+         * Sets the error threshold of variance driven adaptive sampling. With a threshold, every pixel
+         * is sampled until the confidence interval of its luminance is within the threshold, relative to
+         * the luminance, or until it has the maximum amount of samples, instead of a fixed amount of rays
+         * or an adaptive depth. The positions of the samples are taken from the sampler, or from a Sobol
+         * sequence without one.
+         *
+         * @param errorThreshold The relative error threshold, e.g. 0.02 for 2%, or 0 to turn it off.
+         * @return The builder instance.
+         */
+        public Builder setErrorThreshold(double errorThreshold) {
+            this.camera.errorThreshold = errorThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of samples of a pixel in variance driven adaptive sampling and in progressive
+         * rendering.
+         *
+         * @param maxSamples The maximum amount of samples.
+         * @return The builder instance.
+         */
+        public Builder setMaxSamples(int maxSamples) {
+            this.camera.maxSamples = maxSamples;
+            return this;
+        }
+
+        /**
+         * Sets the wall clock budget of the rendering, which makes the rendering progressive: a first
+         * pass renders the whole image with a single sample per pixel, and every pass after it doubles
+         * the samples of every pixel, up to the maximum amount of samples. When the budget is used up
+         * the rendering stops between tiles, and the pixels of the tiles left keep the colors of the
+         * previous passes, so the image is always complete. The first pass is always completed.
+         * The positions of the samples are taken from the sampler, or from a Sobol sequence without one.
+         *
+         * @param millis The time budget in milliseconds, or 0 for none.
+         * @return The builder instance.
+         */
+        public Builder setTimeBudget(long millis) {
+            this.camera.timeBudget = millis;
+            return this;
+        }
+
+        /**
+         * Sets the budget of samples of the whole image, which makes the rendering progressive, as
+         * {@link #setTimeBudget(long)} does.
+         *
+         * @param samples The amount of samples, or 0 for none.
+         * @return The builder instance.
+         */
+        public Builder setSampleBudget(long samples) {
+            this.camera.sampleBudget = samples;
+            return this;
+        }
+
+        /**
+         * Sets whether the image file is streamed: each band of rows of the image is compressed as
+         * soon as all its pixels are rendered, in parallel to the rendering of the rest of the image,
+         * and written to the file in order, so the encoding of the file overlaps the rendering.
+         * The file is finished by {@link Camera#writeToImage()}, and nothing may be written to the
+         * image in between, such as a grid. Progressive rendering writes the pixels of every pass,
+         * so it is never streamed.
+         *
+         * @param streaming Whether the image file is streamed.
+         * @return The builder instance.
+         */
+        public Builder setStreaming(boolean streaming) {
+            this.camera.streaming = streaming;
+            return this;
+        }
+
+        /**
+         * Sets whether the cost of every pixel is recorded: the nanoseconds spent on it and the rays
+         * traced for it, all of them with the render statistics on and only the rays cast from the
+         * camera otherwise. With single rays every pixel is traced on its own instead of in tile
+         * batches, and the samples that adaptive and progressive sampling trace for a whole tile are
+         * split between its pixels. {@link Camera#writeToImage()} also writes the cost map, as a false
+         * color heatmap and a csv file, see {@link ImageWriter#writeCostMap(long[], long[])}.
+         *
+         * @param costMap Whether the cost of every pixel is recorded.
+         * @return The builder instance.
+         */
+        public Builder setCostMap(boolean costMap) {
+            this.camera.costMap = costMap;
+            return this;
+        }
+
+        /**
+         * Sets the clock the cost map measures the time of the pixels by, instead of
+         * {@link System#nanoTime()}, e.g. a deterministic clock of a test.
+         *
+         * @param clock The clock, in nanoseconds.
+         * @return The Builder instance.
+         */
+        Builder setCostClock(LongSupplier clock) {
+            this.camera.costClock = clock;
+            return this;
+        }
+
         /**
          * Builds the Camera object.
          *
@@ -471,6 +926,9 @@ public class Camera implements Cloneable {
             if (this.camera.threads < 1)
                 throw new MissingResourceException(renderDataMissing, cameraClass, "Number of threads is below zero");
 
+            if (this.camera.tileSize < 1)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Tile size is below one");
+
             if (this.camera.totalRays < 1)
                 throw new MissingResourceException(renderDataMissing, cameraClass, "Number of rays is below one");
 
@@ -480,6 +938,18 @@ public class Camera implements Cloneable {
             if (this.camera.adaptiveDepth < 0)
                 throw new MissingResourceException(renderDataMissing, cameraClass, "Adaptive depth is below zero");
 
+            if (!(this.camera.errorThreshold >= 0))
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Error threshold is below zero");
+
+            if (this.camera.maxSamples < 1)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Maximum samples is below one");
+
+            if (this.camera.timeBudget < 0)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Time budget is below zero");
+
+            if (this.camera.sampleBudget < 0)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Sample budget is below zero");
+
             try {
                 return (Camera) camera.clone();
             } catch (CloneNotSupportedException e) {
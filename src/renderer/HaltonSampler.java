@@ -0,0 +1,61 @@
+package renderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * A Halton sampler: the samples are the points of the low discrepancy Halton sequence of the bases 2
+ * and 3. The sequence is rotated by a random offset (Cranley-Patterson rotation), so its first point is
+ * not the corner of the square.
+ */
+public class HaltonSampler implements Sampler {
+    /** The random offset of the sequence */
+    private final double offsetX, offsetY;
+
+    /**
+     * Constructs a Halton sampler.
+     *
+     * @param seed the seed of the random offset of the sequence
+     */
+    public HaltonSampler(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        offsetX = random.nextDouble();
+        offsetY = random.nextDouble();
+    }
+
+    @Override
+    public double[] square(int n) {
+        Sampler.checkCount(n);
+        double[] samples = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            samples[2 * i] = rotate(radicalInverse(i, 2), offsetX);
+            samples[2 * i + 1] = rotate(radicalInverse(i, 3), offsetY);
+        }
+        return samples;
+    }
+
+    /**
+     * Calculates the radical inverse of an index: its digits in a base, mirrored around the point.
+     *
+     * @param i    the index
+     * @param base the base
+     * @return the radical inverse, in [0,1)
+     */
+    static double radicalInverse(int i, int base) {
+        double inverse = 0, digit = 1d / base;
+        for (; i > 0; i /= base, digit /= base)
+            inverse += (i % base) * digit;
+        return inverse;
+    }
+
+    /**
+     * Rotates a coordinate by an offset, around the unit interval.
+     *
+     * @param x      the coordinate
+     * @param offset the offset
+     * @return the rotated coordinate, in [0,1)
+     */
+    private static double rotate(double x, double offset) {
+        x += offset;
+        return x >= 1 ? x - 1 : x;
+    }
+}
@@ -0,0 +1,35 @@
+package renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event of the encoding of the png file of an image. The encoding of a streamed
+ * file overlaps the rendering, so the event covers only what is left when the rendering ends.
+ */
+@Name("raytracer.ImageEncode")
+@Label("Image Encode")
+@Category("Ray Tracer")
+@Description("The encoding of the png file of an image")
+final class ImageEncodeEvent extends Event {
+    /** The name of the image */
+    @Label("Image")
+    String image;
+
+    /** The amount of pixels of the image */
+    @Label("Pixels")
+    long pixels;
+
+    /** Whether the file was streamed while the image was rendered */
+    @Label("Streamed")
+    boolean streamed;
+
+    /** The size of the file */
+    @Label("File Size")
+    @DataAmount
+    long size;
+}
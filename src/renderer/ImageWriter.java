@@ -1,19 +1,42 @@
 package renderer;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.imageio.ImageIO;
-
 import primitives.Color;
 
 /** Image writer class combines accumulation of pixel color matrix and finally
  * producing a non-optimized jpeg image from this matrix. The class although is
  * responsible for holding image related parameters of View Plane - pixel matrix
- * size and resolution
+ * size and resolution<br/>
+ * The pixel color matrix is a high dynamic range frame buffer of a flat float
+ * array per channel, which keeps the colors unclamped, so they may be
+ * accumulated, and they are converted to 8 bits only when the png file is
+ * written. Different threads may write different pixels at the same time, as
+ * the threads of the tiles of an image do.<br/>
+ * The png file is encoded in bands of rows, compressed in parallel. The file
+ * may also be streamed: each band is encoded as soon as all its pixels are
+ * written, while the rest of the image is still rendered, and written to the
+ * file as soon as the bands above it are. A pixel written to a band that was
+ * encoded already, e.g. a grid printed over the rendered image, can't be added
+ * to the streamed file, so the file is then encoded again from the start.
  * @author Dan */
 public class ImageWriter {
    /** Horizontal resolution of the image - number of pixels in row */
@@ -25,13 +48,34 @@ public class ImageWriter {
     * directory */
    private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
 
-   /** Image generation buffer (the matrix of the pixels) */
-   private BufferedImage       image;
+   /** The highest level of a channel in the png file */
+   private static final int    MAX_LEVEL   = 255;
+   /** The amount of rows in a band of the png file */
+   private static final int    BAND_HEIGHT = 32;
+   /** The colors of the false color scale of a cost map, from the cheapest
+    * pixels to the most expensive ones, evenly spaced: black, purple, red,
+    * orange and pale yellow */
+   private static final int[][] HEAT       = {
+      { 0, 0, 0 }, { 80, 0, 160 }, { 220, 30, 60 }, { 255, 160, 0 }, { 255, 255, 200 } };
+
+   /** Image generation buffer (the matrix of the pixels), a channel per array,
+    * row by row */
+   private final float[]       red, green, blue;
    /** image file name, not including the file extension '.png' */
    private String              imageName;
    /** logger for reporting I/O failures */
    private Logger              logger      = Logger.getLogger("ImageWriter");
 
+   /** The encoder of the streamed png file, null when it is not streamed */
+   private PngEncoder          encoder;
+   /** The amount of pixels written in each band of the streamed png file */
+   private AtomicIntegerArray  written;
+   /** Whether a pixel was written to a band of the streamed png file after the
+    * band was encoded */
+   private volatile boolean    rewritten   = false;
+   /** The encoding of the bands of the streamed png file */
+   private final Queue<CompletableFuture<Void>> encodings = new ConcurrentLinkedQueue<>();
+
    // ***************** Constructors ********************** //
    /** Image Writer constructor accepting image name and View Plane parameters,
     * @param imageName the name of png file
@@ -42,7 +86,9 @@ public class ImageWriter {
       this.nX        = nX;
       this.nY        = nY;
 
-      image          = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+      red            = new float[nX * nY];
+      green          = new float[nX * nY];
+      blue           = new float[nX * nY];
    }
 
    // ***************** Getters/Setters ********************** //
@@ -58,24 +104,223 @@ public class ImageWriter {
 
    /** Function writeToImage produces unoptimized png file of the image according
     * to
-    * pixel color matrix in the directory of the project */
+    * pixel color matrix in the directory of the project. The channels are
+    * truncated to 8 bits, and the channels above 255 are set to 255. The bands
+    * of the image are encoded in parallel, and if the file is streamed, only the
+    * bands that are not encoded yet are - unless a pixel was written to an
+    * encoded band, and then the whole file is encoded again */
    public void writeToImage() {
+      ImageEncodeEvent event = new ImageEncodeEvent();
+      event.begin();
+      Path file = Path.of(FOLDER_PATH, imageName + ".png");
+      boolean streamed = encoder != null;
       try {
-         File file = new File(FOLDER_PATH + '/' + imageName + ".png");
-         ImageIO.write(image, "png", file);
+         if (encoder != null) {
+            for (CompletableFuture<Void> encoding : encodings) encoding.join();
+            // the bands in the file can't be replaced, so the file is encoded again from the start
+            if (rewritten) {
+               encoder.close();
+               encoder  = null;
+               streamed = false;
+            }
+         }
+         if (encoder == null) {
+            PngEncoder png = new PngEncoder(file, nX, nY, BAND_HEIGHT);
+            IntStream.range(0, png.bands()).parallel().forEach(band -> encode(png, band));
+            png.finish();
+         } else {
+            IntStream.range(0, encoder.bands()).parallel()
+                    .filter(band -> written.get(band) < encoder.rows(band) * nX)
+                    .forEach(band -> encode(encoder, band));
+            encoder.finish();
+         }
+         if (event.shouldCommit()) {
+            event.image = imageName;
+            event.pixels = (long) nX * nY;
+            event.streamed = streamed;
+            event.size = Files.size(file);
+            event.commit();
+         }
+      } catch (IOException | UncheckedIOException | CompletionException e) {
+         logger.log(Level.SEVERE, "I/O error", e);
+         throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
+      } finally {
+         encoder   = null;
+         rewritten = false;
+         encodings.clear();
+      }
+   }
+
+   /** Function streamToImage starts streaming the png file of the image: from
+    * now on, each band of rows of the image is encoded as soon as all its pixels
+    * are written, in parallel to the writing of the rest of the pixels, and
+    * written to the file as soon as the bands above it are. Every pixel must be
+    * written once after the streaming starts, as the tiles of a single rendering
+    * pass write them, and {@link #writeToImage()} finishes the file. A pixel
+    * written again after its band was encoded makes {@link #writeToImage()}
+    * encode the whole file again */
+   public void streamToImage() {
+      try {
+         encoder = new PngEncoder(Path.of(FOLDER_PATH, imageName + ".png"), nX, nY, BAND_HEIGHT);
+         written = new AtomicIntegerArray(encoder.bands());
+      } catch (IOException e) {
+         logger.log(Level.SEVERE, "I/O error", e);
+         throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
+      }
+   }
+
+   /** Encode a band of rows of the image
+    * @param png  the encoder of the png file
+    * @param band the index of the band */
+   private void encode(PngEncoder png, int band) {
+      int first = png.firstRow(band) * nX, count = png.rows(band) * nX;
+      byte[] pixels = new byte[3 * count];
+      for (int p = 0, b = 0; p < count; p++) {
+         pixels[b++] = (byte) level(red[first + p]);
+         pixels[b++] = (byte) level(green[first + p]);
+         pixels[b++] = (byte) level(blue[first + p]);
+      }
+      try {
+         png.encode(band, pixels);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /** Function writeToPfm produces a pfm file of the image - the unclamped float
+    * colors of the pixel color matrix, with no loss of precision or range - in
+    * the directory of the project. The colors are scaled so 1.0 is the level 255
+    * of the png file, and the rows are written from the bottom up, little endian,
+    * as the pfm format requires */
+   public void writeToPfm() {
+      Path file = Path.of(FOLDER_PATH, imageName + ".pfm");
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+         out.write(("PF\n" + nX + " " + nY + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII));
+         ByteBuffer row = ByteBuffer.allocate(12 * nX).order(ByteOrder.LITTLE_ENDIAN);
+         for (int y = nY - 1; y >= 0; y--) {
+            row.clear();
+            for (int x = 0, p = y * nX; x < nX; x++, p++)
+               row.putFloat(red[p] / MAX_LEVEL).putFloat(green[p] / MAX_LEVEL).putFloat(blue[p] / MAX_LEVEL);
+            out.write(row.array());
+         }
       } catch (IOException e) {
          logger.log(Level.SEVERE, "I/O error", e);
          throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
       }
    }
 
+   /** Function writeCostMap produces the cost map of the image in the directory
+    * of the project: a png file of the time of every pixel in false colors, on
+    * a logarithmic scale from black for the cheapest pixels to pale yellow for
+    * the most expensive ones, and a csv file of the time and the rays of every
+    * pixel, named after the image with the suffix "-cost"
+    * @param nanos the nanoseconds spent on each pixel, row by row
+    * @param rays  the rays traced for each pixel, row by row */
+   public void writeCostMap(long[] nanos, long[] rays) {
+      double min = Arrays.stream(nanos).filter(t -> t > 0).min().orElse(1);
+      double max = Arrays.stream(nanos).max().orElse(1);
+      double range = Math.log(max / min);
+      byte[] heat = new byte[3 * nX * nY];
+      for (int p = 0; p < nanos.length; p++) {
+         if (nanos[p] <= 0) continue;
+         double t = range == 0 ? 1 : Math.log(nanos[p] / min) / range * (HEAT.length - 1);
+         int stop = Math.min((int) t, HEAT.length - 2);
+         double f = t - stop;
+         for (int c = 0; c < 3; c++)
+            heat[3 * p + c] = (byte) Math.round(HEAT[stop][c] + f * (HEAT[stop + 1][c] - HEAT[stop][c]));
+      }
+
+      String name = imageName + "-cost";
+      try (BufferedWriter csv = Files.newBufferedWriter(Path.of(FOLDER_PATH, name + ".csv"))) {
+         PngEncoder png = new PngEncoder(Path.of(FOLDER_PATH, name + ".png"), nX, nY, BAND_HEIGHT);
+         IntStream.range(0, png.bands()).parallel().forEach(band -> {
+            try {
+               png.encode(band, Arrays.copyOfRange(heat, 3 * png.firstRow(band) * nX,
+                     3 * (png.firstRow(band) + png.rows(band)) * nX));
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         });
+         png.finish();
+
+         csv.write("x,y,nanoseconds,rays");
+         csv.newLine();
+         for (int p = 0; p < nanos.length; p++) {
+            csv.write(p % nX + "," + p / nX + "," + nanos[p] + "," + rays[p]);
+            csv.newLine();
+         }
+      } catch (IOException | UncheckedIOException e) {
+         logger.log(Level.SEVERE, "I/O error", e);
+         throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
+      }
+   }
+
+   /** Convert a channel of the pixel color matrix to the 8 bits of the png file
+    * @param  channel the channel
+    * @return         the level of the channel, truncated into [0,255] */
+   private static int level(float channel) {
+      return channel >= MAX_LEVEL ? MAX_LEVEL : channel <= 0 ? 0 : (int) channel;
+   }
+
    /** The function writePixel writes a color of a specific pixel into pixel color
     * matrix
     * @param xIndex X axis index of the pixel
     * @param yIndex Y axis index of the pixel
     * @param color  final color of the pixel */
    public void writePixel(int xIndex, int yIndex, Color color) {
-      image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+      int p = yIndex * nX + xIndex;
+      red[p]   = toFloat(color.getRgb().getD1());
+      green[p] = toFloat(color.getRgb().getD2());
+      blue[p]  = toFloat(color.getRgb().getD3());
+      stream(yIndex);
+   }
+
+   /** Counts a pixel written to a band of the streamed png file, if it is
+    * streamed: the band is encoded when all its pixels are written, and a pixel
+    * written to it after that marks the file to be encoded again
+    * @param yIndex Y axis index of the pixel */
+   private void stream(int yIndex) {
+      PngEncoder png = encoder;
+      if (png == null) return;
+      int band = yIndex / BAND_HEIGHT;
+      int count = written.incrementAndGet(band), pixels = png.rows(band) * nX;
+      if (count == pixels)
+         encodings.add(CompletableFuture.runAsync(() -> encode(png, band)));
+      else if (count > pixels)
+         rewritten = true;
+   }
+
+   /** Convert a channel to a float, rounding down, so a channel just below a
+    * level is not rounded up to it and truncated to the same level as in double
+    * @param  channel the channel
+    * @return         the greatest float not above the channel */
+   private static float toFloat(double channel) {
+      float f = (float) channel;
+      return f > channel ? Math.nextDown(f) : f;
+   }
+
+   /** The function addToPixel accumulates a color into a specific pixel of the
+    * pixel color matrix, with no clamping. The sum is rounded down to a float
+    * as {@link #writePixel(int, int, Color)} rounds a color
+    * @param xIndex X axis index of the pixel
+    * @param yIndex Y axis index of the pixel
+    * @param color  the color to add to the pixel */
+   public void addToPixel(int xIndex, int yIndex, Color color) {
+      int p = yIndex * nX + xIndex;
+      red[p]   = toFloat(red[p] + color.getRgb().getD1());
+      green[p] = toFloat(green[p] + color.getRgb().getD2());
+      blue[p]  = toFloat(blue[p] + color.getRgb().getD3());
+      stream(yIndex);
+   }
+
+   /** The function getPixel reads the color of a specific pixel from the pixel
+    * color matrix, unclamped
+    * @param  xIndex X axis index of the pixel
+    * @param  yIndex Y axis index of the pixel
+    * @return        the color of the pixel */
+   public Color getPixel(int xIndex, int yIndex) {
+      int p = yIndex * nX + xIndex;
+      return new Color(red[p], green[p], blue[p]);
    }
 
 }
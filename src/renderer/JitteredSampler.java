@@ -0,0 +1,39 @@
+package renderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * A jittered stratified sampler: the unit square is divided into cells, a sample in each, at a random
+ * place in its cell. For an amount of samples that is not a square, the rows are as long as the columns
+ * of the closest larger square, and the last row is divided into as many wider cells as samples are left.
+ */
+public class JitteredSampler implements Sampler {
+    /** The seed of the random places in the cells */
+    private final long seed;
+
+    /**
+     * Constructs a jittered sampler.
+     *
+     * @param seed the seed of the random places in the cells
+     */
+    public JitteredSampler(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public double[] square(int n) {
+        Sampler.checkCount(n);
+        SplittableRandom random = new SplittableRandom(seed);
+        int columns = (int) Math.ceil(Math.sqrt(n));
+        int rows = (n + columns - 1) / columns;
+        double[] samples = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            int row = i / columns;
+            // the last row may be shorter, its cells are wider
+            int width = row == rows - 1 ? n - row * columns : columns;
+            samples[2 * i] = (i - row * columns + random.nextDouble()) / width;
+            samples[2 * i + 1] = (row + random.nextDouble()) / rows;
+        }
+        return samples;
+    }
+}
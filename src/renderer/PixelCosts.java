@@ -0,0 +1,133 @@
+package renderer;
+
+import primitives.RenderStatistics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The cost of every pixel of an image: the nanoseconds spent on it and the rays traced for it. The
+ * rays are all the rays of the pixel, its reflected, refracted and shadow rays included, when the
+ * render statistics are on, and only the rays cast from the camera otherwise, as the rays spawned by
+ * the tracer are counted only by the statistics - and never fewer than the rays cast from the camera,
+ * for a tracer that the statistics don't count.<br/>
+ * A cost that is measured for a batch of pixels, such as the samples a tile of adaptive sampling
+ * traces together, is split between the pixels by their weight, e.g. their amount of samples. The
+ * pixels of a tile are measured by the single thread that renders it, so the tiles of different
+ * threads are measured at the same time without synchronization.<br/>
+ * The time is read from a clock, {@link System#nanoTime()} unless a test gives a clock of its own.
+ */
+final class PixelCosts {
+    /** The width of the image */
+    private final int nX;
+    /** The nanoseconds spent on each pixel, row by row */
+    private final long[] nanos;
+    /** The rays traced for each pixel, row by row */
+    private final long[] rays;
+    /** The clock of the time spent on the pixels, in nanoseconds */
+    private final LongSupplier clock;
+
+    /**
+     * Constructs the empty costs of an image, measured by the clock of the costs.
+     *
+     * @param nX the width of the image
+     * @param nY the height of the image
+     */
+    PixelCosts(int nX, int nY) {
+        this(nX, nY, System::nanoTime);
+    }
+
+    /**
+     * Constructs the empty costs of an image, measured by a clock.
+     *
+     * @param nX    the width of the image
+     * @param nY    the height of the image
+     * @param clock the clock of the time spent on the pixels, in nanoseconds
+     */
+    PixelCosts(int nX, int nY, LongSupplier clock) {
+        this.nX = nX;
+        this.clock = clock;
+        this.nanos = new long[nX * nY];
+        this.rays = new long[nX * nY];
+    }
+
+    /**
+     * Gets the amount of rays the current thread traced so far, to measure the rays of a pixel by.
+     *
+     * @return the amount of rays, 0 if the render statistics are off
+     */
+    static long tracedRays() {
+        return RenderStatistics.ENABLED ? RenderStatistics.threadRays() : 0;
+    }
+
+    /**
+     * Adds a cost to a pixel.
+     *
+     * @param j      the column of the pixel
+     * @param i      the row of the pixel
+     * @param start  the start time of the cost, by the clock of the costs
+     * @param cast   the amount of rays cast from the camera
+     * @param traced the amount of rays the current thread traced before, by {@link #tracedRays()}
+     */
+    void add(int j, int i, long start, long cast, long traced) {
+        int p = i * nX + j;
+        nanos[p] += clock.getAsLong() - start;
+        rays[p] += count(cast, traced);
+    }
+
+    /**
+     * Splits a cost between the pixels of a tile by their weights.
+     *
+     * @param tile    the tile
+     * @param start   the start time of the cost, by the clock of the costs
+     * @param cast    the amount of rays cast from the camera
+     * @param traced  the amount of rays the current thread traced before, by {@link #tracedRays()}
+     * @param weights the weights of the pixels of the tile, row by row, or null for equal weights
+     */
+    void split(PixelManager.Tile tile, long start, long cast, long traced, int[] weights) {
+        long time = clock.getAsLong() - start;
+        long count = count(cast, traced);
+        int pixels = tile.width() * tile.height();
+        long total = 0;
+        for (int n = 0; n < pixels; n++) total += weights == null ? 1 : weights[n];
+        if (total == 0) return;
+
+        // the shares of the pixels are cut at the running sums of the weights, so they add up exactly
+        long sum = 0;
+        for (int n = 0; n < pixels; n++) {
+            long from = sum;
+            sum += weights == null ? 1 : weights[n];
+            int p = (tile.row() + n / tile.width()) * nX + tile.col() + n % tile.width();
+            nanos[p] += time * sum / total - time * from / total;
+            rays[p] += count * sum / total - count * from / total;
+        }
+    }
+
+    /**
+     * Counts the rays of a cost.
+     *
+     * @param cast   the amount of rays cast from the camera
+     * @param traced the amount of rays the current thread traced before
+     * @return the amount of rays
+     */
+    private static long count(long cast, long traced) {
+        return RenderStatistics.ENABLED ? Math.max(cast, tracedRays() - traced) : cast;
+    }
+
+    /**
+     * Gets the nanoseconds spent on each pixel.
+     *
+     * @return the nanoseconds, row by row
+     */
+    long[] nanos() {
+        return nanos;
+    }
+
+    /**
+     * Gets the rays traced for each pixel.
+     *
+     * @return the rays, row by row
+     */
+    long[] rays() {
+        return rays;
+    }
+}
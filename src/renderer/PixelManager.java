@@ -1,10 +1,17 @@
 package renderer;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 /** PixelManager is a helper class. It is used for multi-threading in the
  * renderer and
  * for follow up its progress.<br/>
  * A Camera uses one pixel manager object and several Pixel objects - one in
- * each thread.
+ * each thread.<br/>
+ * The manager is lock-free: pixels and tiles are allocated by atomic counters,
+ * finished pixels are counted by a {@link LongAdder} and the progress is
+ * printed by a separate low-frequency reporter thread, so the render threads
+ * never wait for each other.
  * @author Dan Zilberstein */
 class PixelManager {
     /** Immutable class for object containing allocated pixel (with its row and
@@ -12,34 +19,39 @@ class PixelManager {
     record Pixel(int col, int row) {
     }
 
+    /** Immutable class for object containing allocated tile of pixels (with its
+     * first column and row numbers and its size) */
+    record Tile(int col, int row, int width, int height) {
+    }
+
     /** Maximum rows of pixels */
     private int                 maxRows       = 0;
     /** Maximum columns of pixels */
     private int                 maxCols       = 0;
+    /** Size (in pixels) of the side of a square tile */
+    private int                 tileSize      = 1;
+    /** Amount of tile columns */
+    private int                 tileCols      = 0;
+    /** Tile indices (row * tileCols + col) in the order of their allocation */
+    private int[]               tileOrder     = null;
     /** Total amount of pixels in the generated image */
     private long                totalPixels   = 0l;
 
-    /** Currently processed row of pixels */
-    private volatile int        cRow          = 0;
-    /** Currently processed column of pixels */
-    private volatile int        cCol          = -1;
+    /** Next pixel to be allocated (row * maxCols + col) */
+    private final AtomicInteger cPixel        = new AtomicInteger();
+    /** Next tile to be allocated (index into the tile order) */
+    private final AtomicInteger cTile         = new AtomicInteger();
     /** Amount of pixels that have been processed */
-    private volatile long       pixels        = 0l;
-    /** Last printed progress update percentage */
-    private volatile int        lastPrinted   = 0;
+    private final LongAdder     pixels        = new LongAdder();
 
-    /** Flag of debug printing of progress percentage */
-    private boolean             print         = false;
     /** Progress percentage printing interval */
     private long                printInterval = 100l;
     /** Printing format */
     private static final String PRINT_FORMAT  = "%5.1f%%\r";
-    /** Mutual exclusion object for synchronizing next pixel allocation between
-     * threads */
-    private Object              mutexNext     = new Object();
-    /** Mutual exclusion object for printing progress percentage in console window
-     * by different threads */
-    private Object              mutexPixels   = new Object();
+    /** Period of the progress reporter checks in milliseconds */
+    private static final long   REPORT_PERIOD = 100l;
+    /** Progress reporter thread, null if printing is not required */
+    private Thread              reporter      = null;
 
     /** Initialize pixel manager data for multi-threading
      * @param maxRows  the amount of pixel rows
@@ -47,49 +59,135 @@ class PixelManager {
      * @param interval print time interval in seconds, 0 if printing is not
      *                 required */
     PixelManager(int maxRows, int maxCols, double interval) {
+        this(maxRows, maxCols, 1, interval);
+    }
+
+    /** Initialize pixel manager data for multi-threading with allocation of
+     * square tiles of pixels
+     * @param maxRows  the amount of pixel rows
+     * @param maxCols  the amount of pixel columns
+     * @param tileSize the size of the side of a tile in pixels
+     * @param interval print time interval in seconds, 0 if printing is not
+     *                 required */
+    PixelManager(int maxRows, int maxCols, int tileSize, double interval) {
         this.maxRows  = maxRows;
         this.maxCols  = maxCols;
+        this.tileSize = tileSize;
+        tileCols      = (maxCols + tileSize - 1) / tileSize;
+        tileOrder     = spiralOrder(tileCols, (maxRows + tileSize - 1) / tileSize);
         totalPixels   = (long) maxRows * maxCols;
         printInterval = (int) (interval * 10);
-        if (print = printInterval != 0) System.out.printf(PRINT_FORMAT, 0d);
+        if (printInterval != 0) {
+            System.out.printf(PRINT_FORMAT, 0d);
+            reporter = new Thread(this::report, "PixelManager reporter");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+    }
+
+    /** Orders the tiles of a grid in a square spiral going out from the central
+     * tile. Consecutive tiles are neighbours, so the threads work on close parts
+     * of the scene at the same time, and the (usually interesting) center of the
+     * image is rendered first.
+     * @param  cols the amount of tile columns
+     * @param  rows the amount of tile rows
+     * @return      the tile indices (row * cols + col) in spiral order */
+    static int[] spiralOrder(int cols, int rows) {
+        int[] order = new int[cols * rows];
+        if (order.length == 0) return order;
+
+        int col = (cols - 1) / 2, row = (rows - 1) / 2;
+        int dCol = 1, dRow = 0;
+        int count = 0;
+        // the legs of the spiral grow by one every two turns: 1, 1, 2, 2, 3, 3, ...
+        for (int leg = 1; count < order.length; ++leg) {
+            for (int turn = 0; turn < 2; ++turn) {
+                for (int step = 0; step < leg; ++step) {
+                    if (col >= 0 && col < cols && row >= 0 && row < rows)
+                        order[count++] = row * cols + col;
+                    col += dCol;
+                    row += dRow;
+                }
+                int tmp = dCol;
+                dCol = -dRow;
+                dRow = tmp;
+            }
+        }
+        return order;
     }
 
-    /** Function for thread-safe manipulating of main follow up Pixel object - this
-     * function is critical section for all the threads, and the pixel manager data
-     * is the shared data of this critical section.<br/>
-     * The function provides next available pixel number each call.
-     * @return true if next pixel is allocated, false if there are no more pixels */
+    /** Function for thread-safe allocation of the next pixel - the pixels are
+     * allocated row by row by a single atomic increment.
+     * @return the next pixel, or null if there are no more pixels */
     Pixel nextPixel() {
-        synchronized (mutexNext) {
-            if (cRow == maxRows) return null;
+        int index = cPixel.getAndIncrement();
+        if (index >= totalPixels) return null;
+        return new Pixel(index % maxCols, index / maxCols);
+    }
+
+    /** Function for thread-safe allocation of the next tile of pixels to be
+     * rendered - the tiles are allocated one by one in spiral order, so a thread
+     * that finishes a cheap tile just takes the next one and no thread is left
+     * idle while others are busy with expensive parts of the image.
+     * @return the next tile, or null if there are no more tiles */
+    Tile nextTile() {
+        int next = cTile.getAndIncrement();
+        if (next >= tileOrder.length) return null;
+        int index = tileOrder[next];
+        int col = index % tileCols * tileSize;
+        int row = index / tileCols * tileSize;
+        return new Tile(col, row, Math.min(tileSize, maxCols - col), Math.min(tileSize, maxRows - row));
+    }
+
+    /** Finish pixel processing by updating the progress counter */
+    void pixelDone() {
+        pixels.increment();
+    }
+
+    /** Finish processing of several pixels (e.g. a whole tile) by updating the
+     * progress counter once
+     * @param count the amount of processed pixels */
+    void pixelsDone(int count) {
+        pixels.add(count);
+    }
 
-            ++cCol;
-            if (cCol < maxCols)
-                return new Pixel(cRow, cCol);
+    /** Get the amount of pixels that have been processed so far
+     * @return the amount of processed pixels */
+    long getPixelsDone() {
+        return pixels.sum();
+    }
 
-            cCol = 0;
-            ++cRow;
-            if (cRow < maxRows)
-                return new Pixel(cRow, cCol);
+    /** Finish the rendering - stop the progress reporter and print the final
+     * progress percentage */
+    void done() {
+        if (reporter == null) return;
+        reporter.interrupt();
+        try {
+            reporter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        return null;
     }
 
-    /** Finish pixel processing by updating and printing of progress percentage */
-    void pixelDone() {
-        boolean flag       = false;
-        int     percentage = 0;
-        synchronized (mutexPixels) {
-            ++pixels;
-            if (print) {
-                percentage = (int) (1000l * pixels / totalPixels);
-                if (percentage - lastPrinted >= printInterval) {
-                    lastPrinted = percentage;
-                    flag        = true;
-                }
+    /** Progress reporter thread body - periodically reads the progress counter
+     * and prints the percentage whenever it has advanced by the printing
+     * interval, until all the pixels are done or the reporter is stopped */
+    private void report() {
+        int lastPrinted = 0;
+        boolean running = true;
+        while (lastPrinted < 1000) {
+            try {
+                if (running) Thread.sleep(REPORT_PERIOD);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            int percentage = totalPixels == 0 ? 1000 : (int) (1000l * pixels.sum() / totalPixels);
+            if (percentage - lastPrinted >= printInterval || (!running && percentage != lastPrinted)) {
+                lastPrinted = percentage;
+                System.out.printf(PRINT_FORMAT, percentage / 10d);
             }
-            if (flag) System.out.printf(PRINT_FORMAT, percentage / 10d);
+            if (!running) return;
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,262 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An encoder of a png file from independent bands of rows, that may be encoded in any order and in
+ * parallel. The image data of a png file is a single zlib stream, and each band is compressed on its
+ * own into a part of it: a raw deflate stream with a fresh dictionary, ended by a sync flush on a
+ * byte boundary - or finished, for the last band - so the parts are simply concatenated, and the
+ * checksum of the stream is combined from the checksums of the bands. The first row of a band is
+ * filtered by the Sub filter and the other rows by the Paeth filter, so a band doesn't need the rows
+ * of the band above it either.<br/>
+ * The bands are written to the file through a file channel in their order, each as its own IDAT chunk,
+ * as soon as all the bands above it are written, so only the compressed bands that are ready early
+ * are held in memory.
+ */
+final class PngEncoder {
+    /** The signature of a png file */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    /** The header of the zlib stream: deflate with a 32K window and the default compression */
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9C};
+    /** The modulus of the Adler-32 checksum */
+    private static final int ADLER_BASE = 65521;
+    /** The bytes of a pixel, 8 bits RGB */
+    private static final int PIXEL_BYTES = 3;
+
+    /** The file channel */
+    private final FileChannel channel;
+    /** The resolution of the image */
+    private final int width, height;
+    /** The amount of rows in a band */
+    private final int bandHeight;
+    /** The compressed bands that are not written yet, by their index */
+    private final byte[][] ready;
+    /** The Adler-32 checksums and the lengths of the filtered rows of the bands */
+    private final long[] adlers, lengths;
+    /** The index of the next band to write */
+    private int next = 0;
+    /** The Adler-32 checksum of the filtered rows of the written bands */
+    private long adler = 1;
+
+    /**
+     * Constructs an encoder, creating the file and writing its header.
+     *
+     * @param file       the png file
+     * @param width      the width of the image
+     * @param height     the height of the image
+     * @param bandHeight the amount of rows in a band
+     * @throws IOException if the file can't be written
+     */
+    PngEncoder(Path file, int width, int height, int bandHeight) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.bandHeight = bandHeight;
+        int bands = bands();
+        this.ready = new byte[bands][];
+        this.adlers = new long[bands];
+        this.lengths = new long[bands];
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(13)
+                .putInt(width).putInt(height)
+                // 8 bits, RGB, deflate, adaptive filtering, no interlace
+                .put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        channel.write(ByteBuffer.wrap(SIGNATURE));
+        writeChunk("IHDR", header.array(), header.position());
+    }
+
+    /**
+     * Gets the amount of bands of the image.
+     *
+     * @return the amount of bands
+     */
+    int bands() {
+        return (height + bandHeight - 1) / bandHeight;
+    }
+
+    /**
+     * Gets the first row of a band.
+     *
+     * @param band the index of the band
+     * @return the row
+     */
+    int firstRow(int band) {
+        return band * bandHeight;
+    }
+
+    /**
+     * Gets the amount of rows of a band, which is less than the band height for the last band of an
+     * image whose height is not a multiple of it.
+     *
+     * @param band the index of the band
+     * @return the amount of rows
+     */
+    int rows(int band) {
+        return Math.min(bandHeight, height - firstRow(band));
+    }
+
+    /**
+     * Encodes a band, and writes it and the bands after it that are ready, if all the bands before it
+     * are written. Different bands may be encoded by different threads at the same time.
+     *
+     * @param band   the index of the band
+     * @param pixels the pixels of the rows of the band, 3 bytes of each, row by row
+     * @throws IOException if the file can't be written
+     */
+    void encode(int band, byte[] pixels) throws IOException {
+        int rows = rows(band), stride = width * PIXEL_BYTES;
+        byte[] filtered = new byte[rows * (stride + 1)];
+        for (int r = 0, in = 0, out = 0; r < rows; r++, in += stride, out += stride + 1) {
+            if (r == 0) {
+                filtered[out] = 1;
+                for (int x = 0; x < stride; x++)
+                    filtered[out + 1 + x] = (byte) (pixels[in + x] - (x < PIXEL_BYTES ? 0 : pixels[in + x - PIXEL_BYTES]));
+            } else {
+                filtered[out] = 4;
+                for (int x = 0; x < stride; x++) {
+                    int left = x < PIXEL_BYTES ? 0 : pixels[in + x - PIXEL_BYTES] & 0xFF;
+                    int up = pixels[in - stride + x] & 0xFF;
+                    int upLeft = x < PIXEL_BYTES ? 0 : pixels[in - stride + x - PIXEL_BYTES] & 0xFF;
+                    filtered[out + 1 + x] = (byte) (pixels[in + x] - paeth(left, up, upLeft));
+                }
+            }
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(filtered);
+        boolean last = band == ready.length - 1;
+        if (last) deflater.finish();
+        byte[] compressed = new byte[filtered.length / 2 + 64];
+        int length = 0;
+        while (true) {
+            length += deflater.deflate(compressed, length, compressed.length - length,
+                    last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+            if (last ? deflater.finished() : length < compressed.length) break;
+            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+        }
+        deflater.end();
+
+        Adler32 checksum = new Adler32();
+        checksum.update(filtered);
+        synchronized (this) {
+            ready[band] = Arrays.copyOf(compressed, length);
+            adlers[band] = checksum.getValue();
+            lengths[band] = filtered.length;
+            writeReady();
+        }
+    }
+
+    /**
+     * Writes the bands that are ready, in their order, from the next band to write.
+     *
+     * @throws IOException if the file can't be written
+     */
+    private void writeReady() throws IOException {
+        while (next < ready.length && ready[next] != null) {
+            byte[] data = ready[next];
+            if (next == 0) {
+                byte[] withHeader = new byte[ZLIB_HEADER.length + data.length];
+                System.arraycopy(ZLIB_HEADER, 0, withHeader, 0, ZLIB_HEADER.length);
+                System.arraycopy(data, 0, withHeader, ZLIB_HEADER.length, data.length);
+                data = withHeader;
+            }
+            adler = combine(adler, adlers[next], lengths[next]);
+            if (next == ready.length - 1) {
+                data = Arrays.copyOf(data, data.length + 4);
+                ByteBuffer.wrap(data, data.length - 4, 4).putInt((int) adler);
+            }
+            writeChunk("IDAT", data, data.length);
+            ready[next++] = null;
+        }
+    }
+
+    /**
+     * Closes the file without finishing it, e.g. to encode it again from the start.
+     *
+     * @throws IOException if the file can't be closed
+     */
+    synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Finishes the file, and closes it.
+     *
+     * @throws IOException           if the file can't be written
+     * @throws IllegalStateException if some of the bands were not encoded
+     */
+    synchronized void finish() throws IOException {
+        try {
+            if (next < ready.length)
+                throw new IllegalStateException("Band " + next + " of the image was not encoded");
+            writeChunk("IEND", new byte[0], 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a chunk of the file.
+     *
+     * @param type   the type of the chunk
+     * @param data   the data of the chunk
+     * @param length the length of the data
+     * @throws IOException if the file can't be written
+     */
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data, 0, length);
+        ByteBuffer head = ByteBuffer.allocate(8).putInt(length).put(name).flip();
+        ByteBuffer tail = ByteBuffer.allocate(4).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] chunk = {head, ByteBuffer.wrap(data, 0, length), tail};
+        while (tail.hasRemaining()) channel.write(chunk);
+    }
+
+    /**
+     * The Paeth predictor of a byte, by the bytes to its left, above it and above its left.
+     *
+     * @param a the byte to the left
+     * @param b the byte above
+     * @param c the byte above the left
+     * @return the one of them nearest to a + b - c
+     */
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c, pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+        return pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+    }
+
+    /**
+     * Combines the Adler-32 checksums of two consecutive sequences of bytes into the checksum of both,
+     * as zlib does.
+     *
+     * @param adler1  the checksum of the first sequence
+     * @param adler2  the checksum of the second sequence
+     * @param length2 the length of the second sequence
+     * @return the checksum of both sequences
+     */
+    static long combine(long adler1, long adler2, long length2) {
+        long rem = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = rem * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (adler1 >>> 16 & 0xFFFF) + (adler2 >>> 16 & 0xFFFF) + ADLER_BASE - rem;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum2 >= (long) ADLER_BASE << 1) sum2 -= (long) ADLER_BASE << 1;
+        if (sum2 >= ADLER_BASE) sum2 -= ADLER_BASE;
+        return sum1 | sum2 << 16;
+    }
+}
@@ -0,0 +1,54 @@
+package renderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * A Poisson disk sampler: the samples are random, but no two of them are close to each other.
+ * The samples are generated by Mitchell's best candidate algorithm - each sample is the one farthest
+ * from the samples before it among a few random candidates - which gives exactly the requested amount
+ * of samples, unlike dart throwing with a fixed radius.
+ */
+public class PoissonDiskSampler implements Sampler {
+    /** The amount of candidates of a sample, per sample before it */
+    private static final int CANDIDATES = 8;
+
+    /** The seed of the random candidates */
+    private final long seed;
+
+    /**
+     * Constructs a Poisson disk sampler.
+     *
+     * @param seed the seed of the random candidates
+     */
+    public PoissonDiskSampler(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public double[] square(int n) {
+        Sampler.checkCount(n);
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] samples = new double[2 * n];
+        samples[0] = random.nextDouble();
+        samples[1] = random.nextDouble();
+        for (int i = 1; i < n; i++) {
+            double bestX = 0, bestY = 0, bestDistance = -1;
+            for (int c = CANDIDATES * i; c > 0; c--) {
+                double x = random.nextDouble(), y = random.nextDouble();
+                double distance = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < i && distance > bestDistance; j++) {
+                    double dx = x - samples[2 * j], dy = y - samples[2 * j + 1];
+                    distance = Math.min(distance, dx * dx + dy * dy);
+                }
+                if (distance > bestDistance) {
+                    bestDistance = distance;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+            samples[2 * i] = bestX;
+            samples[2 * i + 1] = bestY;
+        }
+        return samples;
+    }
+}
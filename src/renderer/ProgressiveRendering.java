@@ -0,0 +1,147 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Ray;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progressive rendering of an image under a budget of wall clock time or of samples. The image is
+ * rendered in passes over all of it: the first pass takes a single sample per pixel, and every pass
+ * after it doubles the samples of every pixel, up to the maximum amount. The sums of the samples of
+ * every pixel are kept across the passes, and the pixels of a tile get the mean of all their samples
+ * as soon as the tile is done, so the image is complete after the first pass and only gets less noisy.
+ * When the budget is used up the tiles left are skipped, and the passes stop. The first pass is never
+ * cut short, so every pixel has a color.<br/>
+ * The samples of a pixel are the prefix of a single pattern of the maximum amount, so with a low
+ * discrepancy sampler the samples of every pass fill the gaps left by the passes before it.
+ */
+final class ProgressiveRendering {
+    /** The camera of the rays of the samples */
+    private final Camera camera;
+    /** The ray tracer of the samples */
+    private final RayTracerBase rayTracer;
+    /** The resolution of the image */
+    private final int nX, nY;
+    /** The maximum amount of samples of a pixel */
+    private final int maxSamples;
+    /** The positions of the samples in a pixel, x and y of each, in [0,1) */
+    private final double[] pattern;
+    /** The time the budget is used up, by {@link System#nanoTime()} */
+    private final long deadline;
+    /** The amount of samples of the whole image */
+    private final long sampleBudget;
+    /** The amount of samples traced so far */
+    private final AtomicLong traced = new AtomicLong();
+    /** The sums of the colors of the samples of the pixels, 3 channels of each, row by row */
+    private final double[] sums;
+    /** The amount of samples of each pixel, row by row */
+    private final int[] counts;
+    /** The samples of the current pass, from the first one up to the one before the last */
+    private int from = 0, to = 0;
+
+    /**
+     * Constructs the progressive rendering of an image, starting its time budget.
+     *
+     * @param camera       the camera of the rays of the samples
+     * @param nX           the width of the image, in pixels
+     * @param nY           the height of the image, in pixels
+     * @param sampler      the sampler of the positions of the samples in a pixel
+     * @param maxSamples   the maximum amount of samples of a pixel, positive
+     * @param timeBudget   the wall clock budget in milliseconds, 0 for none
+     * @param sampleBudget the amount of samples of the whole image, 0 for none
+     */
+    ProgressiveRendering(Camera camera, int nX, int nY, Sampler sampler, int maxSamples,
+                         long timeBudget, long sampleBudget) {
+        this.camera = camera;
+        this.rayTracer = camera.getRayTracer();
+        this.nX = nX;
+        this.nY = nY;
+        this.maxSamples = maxSamples;
+        this.pattern = sampler.square(maxSamples);
+        this.deadline = timeBudget == 0 ? Long.MAX_VALUE : System.nanoTime() + timeBudget * 1_000_000;
+        this.sampleBudget = sampleBudget == 0 ? Long.MAX_VALUE : sampleBudget;
+        this.sums = new double[3 * nX * nY];
+        this.counts = new int[nX * nY];
+    }
+
+    /**
+     * Starts the next pass, unless the last one had the maximum amount of samples or the budget is
+     * used up.
+     *
+     * @return true if there is a next pass
+     */
+    boolean nextPass() {
+        if (to == maxSamples || to > 0 && exhausted()) return false;
+        from = to;
+        to = Math.min(Math.max(2 * to, 1), maxSamples);
+        return true;
+    }
+
+    /**
+     * Gets the amount of samples of each pixel that the current pass completes.
+     *
+     * @return the amount of samples
+     */
+    int samples() {
+        return to;
+    }
+
+    /**
+     * Gets the amount of samples the current pass adds to each pixel.
+     *
+     * @return the amount of samples
+     */
+    int round() {
+        return to - from;
+    }
+
+    /**
+     * Checks whether the budget is used up.
+     *
+     * @return true if the budget is used up
+     */
+    private boolean exhausted() {
+        return traced.get() >= sampleBudget || System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Renders the samples of the current pass of the pixels of a tile, unless the budget is used up
+     * in a pass after the first one. The tiles of a pass are rendered by different threads, each tile
+     * by a single thread.
+     *
+     * @param tile the tile
+     * @return the colors of the pixels, the means of all their samples, row by row, or null if the tile
+     * is skipped
+     */
+    Color[] render(PixelManager.Tile tile) {
+        if (from > 0 && exhausted()) return null;
+
+        int round = to - from;
+        Ray[] rays = new Ray[tile.width() * tile.height() * round];
+        int n = 0;
+        for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+            for (int j = tile.col(); j < tile.col() + tile.width(); j++)
+                for (int s = from; s < to; s++)
+                    rays[n++] = camera.constructRay(nX, nY, j, i, pattern[2 * s], pattern[2 * s + 1]);
+        Color[] colors = new Color[rays.length];
+        rayTracer.traceRays(rays, colors);
+        traced.addAndGet(rays.length);
+
+        Color[] result = new Color[tile.width() * tile.height()];
+        n = 0;
+        int p = 0;
+        for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+            for (int j = tile.col(); j < tile.col() + tile.width(); j++) {
+                int pixel = i * nX + j;
+                for (int s = 0; s < round; s++, n++) {
+                    sums[3 * pixel] += colors[n].getRgb().getD1();
+                    sums[3 * pixel + 1] += colors[n].getRgb().getD2();
+                    sums[3 * pixel + 2] += colors[n].getRgb().getD3();
+                }
+                int count = counts[pixel] += round;
+                result[p++] = new Color(sums[3 * pixel] / count, sums[3 * pixel + 1] / count, sums[3 * pixel + 2] / count);
+            }
+        return result;
+    }
+}
@@ -9,8 +9,28 @@ import scene.Scene;
  */
 public abstract class RayTracerBase {
 
+    /**
+     * The default amount of rays a ray may spawn, a bound that only pathological ray trees reach.
+     */
+    public static final int DEFAULT_RAY_BUDGET = 100_000;
+
     protected Scene scene;
 
+    /**
+     * The amount of rays a traced ray may spawn, including itself.
+     */
+    int rayBudget = DEFAULT_RAY_BUDGET;
+
+    /**
+     * The sampler of the rays of the glossy and diffuse circles, null for a regular grid.
+     */
+    Sampler sampler = null;
+
+    /**
+     * The cached patterns of the rays of the glossy and diffuse circles.
+     */
+    SamplePatterns patterns = SamplePatterns.GRID;
+
     /**
      * Constructs a RayTracerBase object with the given scene.
      * @param s The scene to be rendered.
@@ -19,11 +39,68 @@ public abstract class RayTracerBase {
         scene = s;
     }
 
+    /**
+     * Sets the amount of rays a traced ray may spawn, including itself. When the tree of reflected
+     * and refracted rays of a ray would grow beyond it, the glossy and diffuse circles of the rays of
+     * the least weight in the color get fewer rays, down to a single ray, and the deepest rays are cut off.
+     * @param rayBudget The ray budget.
+     * @return The ray tracer itself.
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public RayTracerBase setRayBudget(int rayBudget) {
+        if (rayBudget < 1) throw new IllegalArgumentException("The ray budget must be positive");
+        this.rayBudget = rayBudget;
+        return this;
+    }
+
+    /**
+     * Gets the amount of rays a traced ray may spawn, including itself.
+     * @return The ray budget.
+     */
+    public int getRayBudget() {
+        return rayBudget;
+    }
+
+    /**
+     * Sets the sampler of the rays of the glossy and diffuse circles. With a sampler, a circle gets
+     * exactly its amount of rays, spread over a disk, instead of the largest square grid that fits.
+     * @param sampler The sampler, or null for a regular grid.
+     * @return The ray tracer itself.
+     */
+    public RayTracerBase setSampler(Sampler sampler) {
+        return setSampler(sampler, 1);
+    }
+
+    /**
+     * Sets the sampler of the rays of the glossy and diffuse circles, with rotated variants of its
+     * patterns. Each hit uses the variant chosen by its position, so the structure of the pattern
+     * doesn't repeat across neighboring hits.
+     * @param sampler  The sampler, or null for a regular grid.
+     * @param variants The amount of rotated variants of a pattern, 1 for no rotation.
+     * @return The ray tracer itself.
+     * @throws IllegalArgumentException if the amount of variants is not positive
+     */
+    public RayTracerBase setSampler(Sampler sampler, int variants) {
+        this.patterns = sampler == null && variants == 1 ? SamplePatterns.GRID : new SamplePatterns(sampler, variants);
+        this.sampler = sampler;
+        return this;
+    }
+
     /**
      * Traces a ray through the scene and calculates the color at the intersection point.
      * @param r The ray to be traced.
      * @return The color at the intersection point of the ray with the scene.
      */
     public abstract Color traceRay(Ray r);
+
+    /**
+     * Traces a batch of rays through the scene. The default traces the rays one by one,
+     * tracers that gain from processing many rays together override it.
+     * @param rays   The rays to be traced.
+     * @param colors The array to fill with the colors of the rays, by the same indices.
+     */
+    public void traceRays(Ray[] rays, Color[] colors) {
+        for (int i = 0; i < rays.length; i++) colors[i] = traceRay(rays[i]);
+    }
 }
 
@@ -0,0 +1,222 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adaptive super sampling of the pixels of a tile, over a lattice of samples. The square of a pixel is
+ * split into quadrants, and a quadrant whose corner differs from the center of its square is split
+ * again, down to the adaptive depth. All the corners and centers of the squares of all the depths fall
+ * on a lattice of subpixels - {@code 2^(depth+1)} per pixel in each direction - and the colors of the
+ * samples are kept by their integer lattice coordinates, so a sample shared by neighboring quadrants
+ * or by neighboring pixels of the tile is traced only once.<br/>
+ * The corners and centers of all the pixels of a tile are always sampled, so they are traced together
+ * as a single batch before the pixels are sampled.
+ */
+final class SampleLattice {
+    /** The ray tracer of the samples */
+    private final RayTracerBase rayTracer;
+    /** The location of the camera, the head of the rays */
+    private final Point location;
+    /** The center of the view plane */
+    private final Point center;
+    /** The axes of the view plane */
+    private final Vector vRight, vUp;
+    /** The resolution of the image */
+    private final int nX, nY;
+    /** The size of a pixel */
+    private final double pixelWidth, pixelHeight;
+    /** The adaptive depth */
+    private final int depth;
+    /** The amount of subpixels in the side of a pixel */
+    private final int scale;
+    /** Whether the squares of neighboring rows meet, so they share samples */
+    private final boolean squarePixels;
+    /** The colors of the traced samples, by their lattice coordinates */
+    private final Map<Long, Color> colors = new HashMap<>();
+
+    /**
+     * Constructs an empty lattice.
+     *
+     * @param rayTracer the ray tracer of the samples
+     * @param location  the location of the camera
+     * @param center    the center of the view plane
+     * @param vRight    the right axis of the view plane
+     * @param vUp       the up axis of the view plane
+     * @param width     the width of the view plane
+     * @param height    the height of the view plane
+     * @param nX        the width of the image, in pixels
+     * @param nY        the height of the image, in pixels
+     * @param depth     the adaptive depth, positive
+     */
+    SampleLattice(RayTracerBase rayTracer, Point location, Point center, Vector vRight, Vector vUp,
+                  double width, double height, int nX, int nY, int depth) {
+        this.rayTracer = rayTracer;
+        this.location = location;
+        this.center = center;
+        this.vRight = vRight;
+        this.vUp = vUp;
+        this.nX = nX;
+        this.nY = nY;
+        this.pixelWidth = width / nX;
+        this.pixelHeight = height / nY;
+        this.depth = depth;
+        this.scale = 2 << depth;
+        // the square of a pixel is as high as the pixel is wide
+        this.squarePixels = pixelWidth == pixelHeight;
+    }
+
+    /**
+     * Traces the corners and the centers of the pixels of a tile, as a single batch.
+     *
+     * @param tile the tile
+     */
+    void trace(PixelManager.Tile tile) {
+        Map<Long, Ray> rays = new LinkedHashMap<>();
+        int half = scale / 2;
+        for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+            for (int j = tile.col(); j < tile.col() + tile.width(); j++) {
+                add(rays, j, i, 0, 0);
+                add(rays, j, i, scale, 0);
+                add(rays, j, i, 0, scale);
+                add(rays, j, i, scale, scale);
+                add(rays, j, i, half, half);
+            }
+
+        Ray[] batch = rays.values().toArray(new Ray[0]);
+        Color[] traced = new Color[batch.length];
+        rayTracer.traceRays(batch, traced);
+        int n = 0;
+        for (Long key : rays.keySet()) colors.put(key, traced[n++]);
+    }
+
+    /**
+     * Adds the ray of a sample to a batch, unless it is already in it.
+     *
+     * @param rays the batch, by the lattice coordinates of the samples
+     * @param j    the column of the pixel
+     * @param i    the row of the pixel
+     * @param u    the horizontal subpixel in the pixel, from its left side
+     * @param v    the vertical subpixel in the pixel, from its top
+     */
+    private void add(Map<Long, Ray> rays, int j, int i, int u, int v) {
+        long key = key(j, i, u, v);
+        if (!rays.containsKey(key)) rays.put(key, ray(j, i, u, v));
+    }
+
+    /**
+     * Calculates the color of a pixel by adaptive super sampling.
+     *
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     * @return the color of the pixel
+     */
+    Color pixel(int j, int i) {
+        int half = scale / 2;
+        return sample(j, i, 0, 0, scale, color(j, i, half, half), depth);
+    }
+
+    /**
+     * Samples a square of a pixel: the average of its quadrants, where a quadrant whose corner has the
+     * color of the center is that color, and any other quadrant is sampled again, one depth lower.
+     *
+     * @param j           the column of the pixel
+     * @param i           the row of the pixel
+     * @param u           the left side of the square, in subpixels of the pixel
+     * @param v           the top of the square, in subpixels of the pixel
+     * @param size        the side of the square, in subpixels
+     * @param centerColor the color of the center of the square
+     * @param depth       the depth left
+     * @return the color of the square
+     */
+    private Color sample(int j, int i, int u, int v, int size, Color centerColor, int depth) {
+        if (depth == 0) return centerColor;
+
+        int half = size / 2, quarter = size / 4;
+        Color color = Color.BLACK;
+        // the quadrants from the top left, row by row, as the corners of the square
+        for (int q = 0; q < 4; q++) {
+            int qu = q & 1, qv = q >> 1;
+            Color corner = color(j, i, u + qu * size, v + qv * size);
+            if (Color.isColorSimilar(centerColor, corner))
+                color = color.add(corner);
+            else {
+                int su = u + qu * half, sv = v + qv * half;
+                color = color.add(sample(j, i, su, sv, half, color(j, i, su + quarter, sv + quarter), depth - 1));
+            }
+        }
+        return color.reduce(4);
+    }
+
+    /**
+     * Gets the color of a sample, tracing it on its first use.
+     *
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     * @param u the horizontal subpixel in the pixel, from its left side
+     * @param v the vertical subpixel in the pixel, from its top
+     * @return the color of the sample
+     */
+    private Color color(int j, int i, int u, int v) {
+        long key = key(j, i, u, v);
+        Color color = colors.get(key);
+        if (color == null) {
+            color = rayTracer.traceRay(ray(j, i, u, v));
+            colors.put(key, color);
+        }
+        return color;
+    }
+
+    /**
+     * Gets the amount of samples traced so far.
+     *
+     * @return the amount of traced samples
+     */
+    int traced() {
+        return colors.size();
+    }
+
+    /**
+     * Calculates the lattice coordinates of a sample, packed into a key. The samples on the sides of
+     * neighboring pixels get the same coordinates, unless the pixels are not square, in which case the
+     * squares of neighboring rows don't meet and each row gets its own coordinates.
+     *
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     * @param u the horizontal subpixel in the pixel, from its left side
+     * @param v the vertical subpixel in the pixel, from its top
+     * @return the key of the sample
+     */
+    private long key(int j, int i, int u, int v) {
+        long x = (long) j * scale + u;
+        long y = squarePixels ? (long) i * scale + v : (long) i * (scale + 1) + v;
+        // the odd multiplier is a bijection that spreads the hash of the key, x ^ y of the plain coordinates
+        // collides along the diagonals of the lattice
+        return (x << 32 | y) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Constructs the ray of a sample.
+     *
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     * @param u the horizontal subpixel in the pixel, from its left side
+     * @param v the vertical subpixel in the pixel, from its top
+     * @return the ray from the camera through the sample
+     */
+    private Ray ray(int j, int i, int u, int v) {
+        double subpixel = pixelWidth / scale;
+        double x = (j - (nX - 1) / 2d) * pixelWidth + (u - scale / 2) * subpixel;
+        double y = -(i - (nY - 1) / 2d) * pixelHeight - (v - scale / 2) * subpixel;
+        return new Ray(location, new Vector(
+                center.getX() + vRight.getX() * x + vUp.getX() * y - location.getX(),
+                center.getY() + vRight.getY() * x + vUp.getY() * y - location.getY(),
+                center.getZ() + vRight.getZ() * x + vUp.getZ() * y - location.getZ()));
+    }
+}
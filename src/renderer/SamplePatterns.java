@@ -0,0 +1,179 @@
+package renderer;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * A cache of the sample patterns of the glossy and diffuse circles. A pattern is generated once for
+ * every amount of samples, as coordinates on the plane of the circle, and aiming the rays of a hit at
+ * the circle only transforms the coordinates into the frame of the circle with a few multiply-adds,
+ * instead of generating a list of points for every hit.<br/>
+ * The coordinates are in units of the radius of the circle. Without a sampler the pattern is the regular
+ * grid of {@link Blackboard#generatePointsCircle(Ray, Point, double, int)}, which covers the square of half
+ * the radius, and with a sampler it is the disk of the sampler, inscribed in that square. A pattern may
+ * have several variants, rotated around the center, and each hit uses the variant chosen by its position,
+ * so neighboring hits don't repeat the same structure.
+ */
+final class SamplePatterns {
+    /** The patterns of the regular grid, with no rotated variants */
+    static final SamplePatterns GRID = new SamplePatterns(null, 1);
+
+    /** The sampler of the patterns, null for the regular grid */
+    private final Sampler sampler;
+    /** The amount of rotated variants of a pattern */
+    private final int variants;
+    /** The variants of the patterns, by their amount of samples */
+    private final ConcurrentHashMap<Integer, double[][]> patterns = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a cache of patterns.
+     *
+     * @param sampler  the sampler of the patterns, null for the regular grid
+     * @param variants the amount of rotated variants of a pattern
+     * @throws IllegalArgumentException if the amount of variants is not positive
+     */
+    SamplePatterns(Sampler sampler, int variants) {
+        if (variants < 1) throw new IllegalArgumentException("The amount of pattern variants must be positive");
+        this.sampler = sampler;
+        this.variants = variants;
+    }
+
+    /**
+     * Gets a pattern, generating it on its first use.
+     *
+     * @param n       the amount of samples
+     * @param variant the index of the rotated variant
+     * @return the coordinates of the samples, x and y of each
+     */
+    double[] pattern(int n, int variant) {
+        return patterns.computeIfAbsent(n, this::generate)[variant];
+    }
+
+    /**
+     * Generates the variants of a pattern.
+     *
+     * @param n the amount of samples
+     * @return the variants
+     */
+    private double[][] generate(int n) {
+        double[] base;
+        if (sampler == null)
+            base = grid(n);
+        else {
+            base = sampler.disk(n);
+            for (int i = 0; i < base.length; i++) base[i] /= 2;
+        }
+
+        double[][] result = new double[variants][];
+        result[0] = base;
+        for (int v = 1; v < variants; v++) {
+            double angle = 2 * Math.PI * v / variants, cos = Math.cos(angle), sin = Math.sin(angle);
+            double[] rotated = new double[base.length];
+            for (int i = 0; i < base.length; i += 2) {
+                rotated[i] = base[i] * cos - base[i + 1] * sin;
+                rotated[i + 1] = base[i] * sin + base[i + 1] * cos;
+            }
+            result[v] = rotated;
+        }
+        return result;
+    }
+
+    /**
+     * Generates the regular grid of a square of half the radius, row by row from the top left corner,
+     * like {@link Blackboard#generatePointsSquare(Point, double, Vector, Vector, int)} does.
+     *
+     * @param n the amount of samples, rounded down to a square
+     * @return the coordinates of the samples
+     */
+    private static double[] grid(int n) {
+        int sqrt = (int) Math.sqrt(Sampler.checkCount(n));
+        if (sqrt == 1) return new double[]{0, 0};
+        double[] samples = new double[2 * sqrt * sqrt];
+        double offset = 1d / (sqrt - 1);
+        for (int i = 0, k = 0; i < sqrt; i++)
+            for (int j = 0; j < sqrt; j++) {
+                samples[k++] = -0.5 + j * offset;
+                samples[k++] = 0.5 - i * offset;
+            }
+        return samples;
+    }
+
+    /**
+     * Aims rays from a hit at the samples of a circle around a ray from it. The rays that leave the
+     * wrong side of the surface - the side other than the side of the ray around which they are aimed -
+     * are dropped.
+     *
+     * @param point     the hit
+     * @param direction the direction of the ray at the center of the circle, a unit vector
+     * @param n         the normal at the hit, towards the side of the ray
+     * @param distance  the distance of the circle from the hit
+     * @param radius    the radius of the circle
+     * @param count     the amount of samples
+     * @param rays      the array to fill with the rays, of at least the amount of samples
+     * @return the amount of rays aimed
+     */
+    int aim(Point point, Vector direction, Vector n, double distance, double radius, int count, Ray[] rays) {
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+
+        // the up axis of the circle, as Vector.findOrthogonal finds it
+        double ux, uy, uz;
+        if (!isZero(dz)) {
+            ux = 1;
+            uy = 1;
+            uz = -(dx + dy) / dz;
+        } else if (!isZero(dy)) {
+            ux = 1;
+            uy = -(dx + dz) / dy;
+            uz = 1;
+        } else {
+            ux = -(dy + dz) / dx;
+            uy = 1;
+            uz = 1;
+        }
+        double length = Math.sqrt(ux * ux + uy * uy + uz * uz);
+        ux /= length;
+        uy /= length;
+        uz /= length;
+
+        // the right axis, perpendicular to the direction and to the up axis
+        double rx = dy * uz - dz * uy, ry = dz * ux - dx * uz, rz = dx * uy - dy * ux;
+        length = Math.sqrt(rx * rx + ry * ry + rz * rz);
+        rx /= length;
+        ry /= length;
+        rz /= length;
+
+        double nx = n.getX(), ny = n.getY(), nz = n.getZ();
+        double nc = alignZero(nx * dx + ny * dy + nz * dz);
+        double cx = dx * distance, cy = dy * distance, cz = dz * distance;
+        double[] pattern = pattern(count, variant(point));
+        int aimed = 0;
+        for (int i = 0; i < pattern.length; i += 2) {
+            double x = pattern[i] * radius, y = pattern[i + 1] * radius;
+            double tx = cx + rx * x + ux * y, ty = cy + ry * x + uy * y, tz = cz + rz * x + uz * y;
+            double nt = (nx * tx + ny * ty + nz * tz) / Math.sqrt(tx * tx + ty * ty + tz * tz);
+            if (alignZero(nt) * nc > 0) rays[aimed++] = new Ray(point, new Vector(tx, ty, tz), n);
+        }
+        return aimed;
+    }
+
+    /**
+     * Chooses the rotated variant of the pattern of a hit, by its position.
+     *
+     * @param point the hit
+     * @return the index of the variant
+     */
+    private int variant(Point point) {
+        if (variants == 1) return 0;
+        long hash = Double.doubleToLongBits(point.getX()) * 31
+                + Double.doubleToLongBits(point.getY()) * 17
+                + Double.doubleToLongBits(point.getZ());
+        hash ^= hash >>> 29;
+        return Math.floorMod(hash * 0x9E3779B97F4A7C15L >>> 32, variants);
+    }
+}
@@ -0,0 +1,71 @@
+package renderer;
+
+/**
+ * A generator of 2D sample patterns, for casting several rays through a pixel or a glossy or diffuse
+ * circle. A sampler generates exactly the requested amount of samples, in a primitive array of their
+ * coordinates - x<sub>0</sub>, y<sub>0</sub>, x<sub>1</sub>, y<sub>1</sub>, ... A sampler always
+ * generates the same pattern for the same amount of samples, so the images are reproducible.
+ */
+public interface Sampler {
+    /**
+     * Generates samples in the unit square [0,1)<sup>2</sup>.
+     *
+     * @param n the amount of samples
+     * @return the coordinates of the samples, 2n numbers
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    double[] square(int n);
+
+    /**
+     * Generates samples in the unit disk, around the origin. The samples of the square are mapped
+     * onto the disk by the concentric mapping of Shirley and Chiu, which keeps their distribution.
+     *
+     * @param n the amount of samples
+     * @return the coordinates of the samples, 2n numbers
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    default double[] disk(int n) {
+        return concentric(square(n));
+    }
+
+    /**
+     * Maps samples of the unit square onto the unit disk, in place, by the concentric mapping:
+     * the square [-1,1]<sup>2</sup> is mapped onto the disk ring by ring, so neighbors stay neighbors
+     * and the area is kept.
+     *
+     * @param samples the coordinates of the samples in the unit square
+     * @return the same array, with the coordinates of the samples in the unit disk
+     */
+    static double[] concentric(double[] samples) {
+        for (int i = 0; i < samples.length; i += 2) {
+            double a = 2 * samples[i] - 1;
+            double b = 2 * samples[i + 1] - 1;
+            double r, phi;
+            if (a == 0 && b == 0) {
+                r = 0;
+                phi = 0;
+            } else if (Math.abs(a) > Math.abs(b)) {
+                r = a;
+                phi = Math.PI / 4 * (b / a);
+            } else {
+                r = b;
+                phi = Math.PI / 2 - Math.PI / 4 * (a / b);
+            }
+            samples[i] = r * Math.cos(phi);
+            samples[i + 1] = r * Math.sin(phi);
+        }
+        return samples;
+    }
+
+    /**
+     * Checks the amount of samples requested from a sampler.
+     *
+     * @param n the amount of samples
+     * @return the amount of samples
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    static int checkCount(int n) {
+        if (n < 1) throw new IllegalArgumentException("The amount of samples must be positive");
+        return n;
+    }
+}
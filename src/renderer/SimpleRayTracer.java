@@ -5,9 +5,10 @@ import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
+import static primitives.RenderStatistics.Counter.*;
 import static primitives.Util.*;
 
 /**
@@ -23,13 +24,24 @@ public class SimpleRayTracer extends RayTracerBase {
     /**
      * The initial value of the transparency factor k.
      */
-    private static final Double3 INITIAL_K = Double3.ONE;
+    static final Double3 INITIAL_K = Double3.ONE;
     /**
      * The maximum level of recursion for calculating the color of a point in the scene.
      */
-    private static final int MAX_CALC_COLOR_LEVEL = 10;
+    static final int MAX_CALC_COLOR_LEVEL = 10;
 
-    private static final int RADIUS = 20;
+    /**
+     * The radius of the circle of the glossy and diffuse ray targets.
+     */
+    static final int RADIUS = 20;
+    /**
+     * The amount of rays of a glossy reflection.
+     */
+    static final int GLOSS_RAYS = 9;
+    /**
+     * The amount of rays of a diffuse refraction.
+     */
+    static final int DIFF_RAYS = 64;
 
     /**
      * Constructs a SimpleRayTracer object with the given scene.
@@ -48,6 +60,7 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     @Override
     public Color traceRay(Ray ray) {
+        RenderStatistics.count(PRIMARY_RAYS);
         GeoPoint closestPoint = findClosestIntersection(ray);
         return closestPoint == null ? scene.background : calcColor(closestPoint, ray);
     }
@@ -59,8 +72,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The closest intersection point of the ray with the geometries in the scene, or {@code null} if no intersection is found.
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        return intersections == null ? null : ray.findClosestGeoPoint(intersections);
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 
     /**
@@ -75,7 +87,10 @@ public class SimpleRayTracer extends RayTracerBase {
     }
 
     /**
-     * Calculates the color of a given point in the scene.
+     * Calculates the color of a given point in the scene, evaluating its tree of reflected and refracted
+     * rays iteratively, with an explicit stack of the hits that wait to spawn their rays. Every hit has a
+     * share of the ray budget for the rays it spawns, which it splits between its rays by their weight
+     * in the color, so the rays that contribute the most get the most samples.
      *
      * @param gp    The point for which to calculate the color.
      * @param ray   The ray that hit the point
@@ -84,8 +99,12 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The color of the specified point in the scene.
      */
     private Color calcColor(GeoPoint gp, Ray ray, int level, Double3 k) {
-        Color color = calcLocalEffects(gp, ray, k);
-        return 1 == level ? color : color.add(calcGlobalEffects(gp, ray, level, k));
+        RayTree tree = new RayTree();
+        // the ray of the point was traced already
+        tree.add(gp, ray, level, k, Double3.ONE, rayBudget - 1);
+        for (Branch branch = tree.branches.poll(); branch != null; branch = tree.branches.poll())
+            calcGlobalEffects(tree, branch);
+        return tree.color;
     }
 
     /**
@@ -139,8 +158,9 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The specular color
      */
     private Double3 calcSpecular(Material material, Vector n, Vector l, double nl, Vector v) {
-        Vector r = l.subtract(n.scale(2 * nl));
-        double vr = alignZero(v.dotProduct(r));
+        // r = l - 2(n·l)n, kept in raw coordinates as only its dot product with v is needed
+        double nl2 = 2 * nl;
+        double vr = alignZero(VectorMath.dot(v, l.getX() - n.getX() * nl2, l.getY() - n.getY() * nl2, l.getZ() - n.getZ() * nl2));
         return material.kS.scale(Math.pow(Math.max(0, -vr), material.nShininess));
     }
 
@@ -158,104 +178,96 @@ public class SimpleRayTracer extends RayTracerBase {
     private boolean unshaded(GeoPoint gp, LightSource light, Vector l, Vector n, double nl) {
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray ray = new Ray(gp.point, lightDirection, n);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        if (intersections == null) return true;
-
-
-        double lightDistance = light.getDistance(gp.point);
-        for (GeoPoint gpoint : intersections) {
-            if (alignZero(gpoint.point.distance(gp.point) - lightDistance) <= 0)
-                return false;
-        }
-        return true;
+        return scene.geometries.findGeoIntersections(ray, light.getDistance(gp.point)) == null;
     }
 
     /**
-     * Calculates the global effects of a point on a geometry.
+     * Calculates the global effects of a point on a geometry: traces its reflected and refracted rays into
+     * the ray tree. When both are traced, the ray budget of the point is split between them by their factors.
      *
-     * @param gp    The point for which to calculate the color
-     * @param ray   The ray that hit the point
-     * @param level The level of recursion
-     * @param k     The transparency factor
-     * @return The color of the point
+     * @param tree   The ray tree
+     * @param branch The point for which to calculate the global effects
      */
-    private Color calcGlobalEffects(GeoPoint gp, Ray ray, int level, Double3 k) {
-        Vector v = ray.getDirection();
+    private void calcGlobalEffects(RayTree tree, Branch branch) {
+        GeoPoint gp = branch.gp();
+        Vector v = branch.ray().getDirection();
         Vector n = gp.geometry.getNormal(gp.point);
         Material material = gp.geometry.getMaterial();
 
         Ray reflectedRay = constructReflectedRay(gp, v, n);
         Ray refractedRay = constructRefractedRay(gp, v, n.scale(-1));
-
-        Color reflectedColor = Color.BLACK;
-        Color refractedColor = Color.BLACK;
-
-        //glossy
-        if (material.gloss == 0){
-            reflectedColor = calcGlobalEffect(reflectedRay, level, k, material.kR);
+        Double3 kkr = material.kR.product(branch.k());
+        Double3 kkt = material.kT.product(branch.k());
+        boolean reflects = reflectedRay != null && !kkr.lowerThan(MIN_CALC_COLOR_K);
+        boolean refracts = !kkt.lowerThan(MIN_CALC_COLOR_K);
+        if (RenderStatistics.ENABLED) {
+            if (reflectedRay != null && !reflects && !material.kR.lowerThan(MIN_CALC_COLOR_K))
+                RenderStatistics.count(CULLED_RAYS);
+            if (!refracts && !material.kT.lowerThan(MIN_CALC_COLOR_K))
+                RenderStatistics.count(CULLED_RAYS);
         }
 
-        else{
-            LinkedList<Point> pointsReflected = Blackboard.generatePointsCircle(reflectedRay, gp.point.add(reflectedRay.getDirection().scale(material.gloss)), RADIUS, 9);
-            int pointsSizeReflected = pointsReflected.size();
-            //1 for loop for reflected rays
-            for (Point p : pointsReflected) {
-                Ray reflectedRay2 = new Ray(gp.point, p.subtract(gp.point), n);
-                //this allows us to check if the reflected ray is in the same direction as the original ray
-                double nr = alignZero(n.dotProduct(reflectedRay2.getDirection()));
-                double nc = alignZero(n.dotProduct(reflectedRay.getDirection()));
-                if (nr * nc > 0)
-                    reflectedColor = reflectedColor.add(calcGlobalEffect(reflectedRay2, level, k, material.kR));
-                else
-                    pointsSizeReflected--;
-            }
-            if (pointsSizeReflected == 0)
-                reflectedColor = calcGlobalEffect(reflectedRay, level, k, material.kR);
-            else
-                reflectedColor = reflectedColor.reduce(pointsSizeReflected);
+        int reflectedShare = branch.budget();
+        if (reflects && refracts) {
+            double kr = max(material.kR), kt = max(material.kT);
+            reflectedShare = (int) (branch.budget() * kr / (kr + kt));
         }
 
+        //glossy
+        if (reflects)
+            RenderStatistics.count(REFLECTED_RAYS, calcGlobalEffect(tree, branch, reflectedRay, n, material.gloss,
+                    GLOSS_RAYS, material.kR, kkr, reflectedShare));
         //diffuse
-        if (material.diff == 0){
-            refractedColor = calcGlobalEffect(refractedRay, level, k, material.kT);
-        }
-        else{
-            LinkedList<Point> pointsRefracted = Blackboard.generatePointsCircle(refractedRay, gp.point.add(refractedRay.getDirection().scale(material.diff)), RADIUS, 64);
-            int pointsSizeRefracted = pointsRefracted.size();
-            //1 for loop for refracted rays
-            for (Point q : pointsRefracted) {
-                Ray refractedRay2 = new Ray(gp.point, q.subtract(gp.point), n.scale(-1));
-                double nrRefracted = alignZero(n.dotProduct(refractedRay2.getDirection()));
-                double ncRefracted = alignZero(n.dotProduct(refractedRay.getDirection()));
-                if (nrRefracted * ncRefracted > 0)
-                    refractedColor = refractedColor.add(calcGlobalEffect(refractedRay2, level, k, material.kT));
-                else
-                    pointsSizeRefracted--;
-            }
-            if (pointsSizeRefracted == 0)
-                refractedColor = calcGlobalEffect(refractedRay, level, k, material.kT);
-            else
-                refractedColor = refractedColor.reduce(pointsSizeRefracted);
-        }
-
-        return reflectedColor.add(refractedColor);
-
+        if (refracts)
+            RenderStatistics.count(REFRACTED_RAYS, calcGlobalEffect(tree, branch, refractedRay, n.scale(-1),
+                    material.diff, DIFF_RAYS, material.kT, kkt,
+                    reflects ? branch.budget() - reflectedShare : branch.budget()));
     }
 
     /**
-     * Calculates the global effect of a ray.
+     * Calculates the global effect of a ray: traces it, or for a glossy or diffuse material traces
+     * rays aimed at a circle around it, into the ray tree. Rays that leave the wrong side of the surface
+     * are dropped, and if none is left the ray itself is traced. When the budget share is too small for
+     * all the rays of the circle, fewer rays are aimed, and when it is used up nothing is traced. What is
+     * left of the share after the traced rays is split evenly between them, for the rays they spawn.
      *
-     * @param ray   The ray to be traced
-     * @param level The level of recursion
-     * @param k     The transparency factor
-     * @param kx    The reflection/refraction factor
-     * @return The color of the ray
+     * @param tree   The ray tree
+     * @param branch The point of the ray
+     * @param ray    The reflected or refracted ray
+     * @param n      The normal, towards the side of the ray
+     * @param spread The distance of the circle from the point, 0 for a single ray
+     * @param count  The amount of rays to aim at the circle
+     * @param kx     The reflection/refraction factor
+     * @param kkx    The transparency factor of the traced rays
+     * @param share  The amount of rays that may be traced
+     * @return The amount of traced rays
      */
-    private Color calcGlobalEffect(Ray ray, int level, Double3 k, Double3 kx) {
-        Double3 kkx = kx.product(k);
-        if (kkx.lowerThan(MIN_CALC_COLOR_K)) return Color.BLACK;
-        GeoPoint gp = findClosestIntersection(ray);
-        return (gp == null ? scene.background : calcColor(gp, ray, level - 1, kkx)).scale(kx);
+    private int calcGlobalEffect(RayTree tree, Branch branch, Ray ray, Vector n, int spread, int count,
+                                  Double3 kx, Double3 kkx, int share) {
+        if (share < 1) return 0;
+        int level = branch.level() - 1;
+        Double3 weight = branch.weight().product(kx);
+        // the grid takes a square amount of rays, a sampler takes any amount
+        int amount = Math.min(count, share);
+        if (sampler == null) {
+            int side = (int) Math.sqrt(amount);
+            amount = side * side;
+        }
+        if (spread == 0 || amount < 2) {
+            tree.trace(ray, level, kkx, weight, share - 1);
+            return 1;
+        }
+
+        Ray[] rays = new Ray[amount];
+        int aimed = patterns.aim(branch.gp().point, ray.getDirection(), n, spread, RADIUS, amount, rays);
+        if (aimed == 0) {
+            tree.trace(ray, level, kkx, weight, share - 1);
+            return 1;
+        }
+        weight = weight.reduce(aimed);
+        int budget = (share - aimed) / aimed;
+        for (int i = 0; i < aimed; i++) tree.trace(rays[i], level, kkx, weight, budget);
+        return aimed;
     }
 
     /**
@@ -287,6 +299,8 @@ public class SimpleRayTracer extends RayTracerBase {
 
     /**
      * Calculates the transparency of a point on a geometry.
+     * The shadow ray is an occlusion query bounded by the distance to the light source,
+     * so it stops at the first fully opaque geometry.
      *
      * @param gp The point for which to calculate the transparency.
      * @param ls The light source
@@ -297,15 +311,74 @@ public class SimpleRayTracer extends RayTracerBase {
     private Double3 transparency(GeoPoint gp, LightSource ls, Vector l, Vector n) {
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray ray = new Ray(gp.point, lightDirection, n);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        if (intersections == null) return Double3.ONE;
+        RenderStatistics.count(SHADOW_RAYS);
+        return scene.geometries.findTransparency(ray, ls.getDistance(gp.point));
+    }
+
+    /**
+     * A hit of the ray tree that waits to spawn its reflected and refracted rays.
+     *
+     * @param gp     The hit
+     * @param ray    The ray that hit it
+     * @param level  The level of recursion
+     * @param k      The transparency factor
+     * @param weight The weight of the hit in the color
+     * @param budget The amount of rays the hit may spawn, including the rays they spawn
+     */
+    private record Branch(GeoPoint gp, Ray ray, int level, Double3 k, Double3 weight, int budget) {
+    }
+
+    /**
+     * Finds the largest number of a triad.
+     *
+     * @param d the triad
+     * @return the largest number
+     */
+    static double max(Double3 d) {
+        return Math.max(d.getD1(), Math.max(d.getD2(), d.getD3()));
+    }
 
-        Double3 ktr = Double3.ONE;
-        double lightDistance = ls.getDistance(gp.point);
-        for (GeoPoint gpoint : intersections)
-            if (alignZero(gpoint.point.distance(gp.point) - lightDistance) <= 0)
-                ktr = ktr.product(gpoint.geometry.getMaterial().kT);
+    /**
+     * The evaluation of the tree of reflected and refracted rays of a ray: the color gathered so far,
+     * and the stack of the hits waiting to spawn their rays.
+     */
+    private final class RayTree {
+        /** The hits waiting to spawn their rays */
+        final Deque<Branch> branches = new ArrayDeque<>();
+        /** The color gathered so far */
+        Color color = Color.BLACK;
+
+        /**
+         * Traces a ray of the tree, and adds its weighted color.
+         *
+         * @param ray    The ray
+         * @param level  The level of recursion
+         * @param k      The transparency factor
+         * @param weight The weight of the ray in the color
+         * @param budget The amount of rays the ray may spawn
+         */
+        void trace(Ray ray, int level, Double3 k, Double3 weight, int budget) {
+            GeoPoint gp = findClosestIntersection(ray);
+            if (gp == null)
+                color = color.add(scene.background.scale(weight));
+            else
+                add(gp, ray, level, k, weight, budget);
+        }
 
-        return ktr;
+        /**
+         * Adds the weighted local effects of a hit, and queues it for its global effects.
+         *
+         * @param gp     The hit
+         * @param ray    The ray that hit it
+         * @param level  The level of recursion
+         * @param k      The transparency factor
+         * @param weight The weight of the hit in the color
+         * @param budget The amount of rays the hit may spawn
+         */
+        void add(GeoPoint gp, Ray ray, int level, Double3 k, Double3 weight, int budget) {
+            RenderStatistics.countDepth(MAX_CALC_COLOR_LEVEL - level);
+            color = color.add(calcLocalEffects(gp, ray, k).scale(weight));
+            if (level > 1 && budget > 0) branches.push(new Branch(gp, ray, level, k, weight, budget));
+        }
     }
 }
@@ -0,0 +1,41 @@
+package renderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * A Sobol sampler: the samples are the points of the first two dimensions of the low discrepancy Sobol
+ * sequence - for any power of 2 samples, every dyadic box of that area holds exactly one sample.
+ * The bits of the points are scrambled by a random digital shift, which keeps this property.
+ */
+public class SobolSampler implements Sampler {
+    /** The bits of the random digital shift */
+    private final int shiftX, shiftY;
+
+    /**
+     * Constructs a Sobol sampler.
+     *
+     * @param seed the seed of the random digital shift
+     */
+    public SobolSampler(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        shiftX = random.nextInt();
+        shiftY = random.nextInt();
+    }
+
+    @Override
+    public double[] square(int n) {
+        Sampler.checkCount(n);
+        double[] samples = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            // the first dimension is the van der Corput sequence, the bits of the index in reverse,
+            // the second one combines the direction numbers of the polynomial x + 1
+            int x = Integer.reverse(i);
+            int y = 0;
+            for (int bits = i, v = 1 << 31; bits != 0; bits >>>= 1, v ^= v >>> 1)
+                if ((bits & 1) != 0) y ^= v;
+            samples[2 * i] = Integer.toUnsignedLong(x ^ shiftX) * 0x1p-32;
+            samples[2 * i + 1] = Integer.toUnsignedLong(y ^ shiftY) * 0x1p-32;
+        }
+        return samples;
+    }
+}
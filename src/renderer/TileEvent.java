@@ -0,0 +1,120 @@
+package renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * A Java Flight Recorder event of the rendering of a tile of the image by a thread, with the rays and
+ * the memory it took, to find the expensive parts of an image and the allocations behind the garbage
+ * collections that stall the rendering.
+ */
+@Name("raytracer.Tile")
+@Label("Tile")
+@Category("Ray Tracer")
+@Description("The rendering of a tile of the image")
+@StackTrace(false)
+final class TileEvent extends Event {
+    /** The threads, to measure the memory they allocate */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    /** Whether the JVM measures the memory the threads allocate, by the extension of the HotSpot JVMs */
+    private static final boolean ALLOCATIONS = allocationsSupported();
+
+    /** The first row of the tile */
+    @Label("Row")
+    int row;
+
+    /** The first column of the tile */
+    @Label("Column")
+    int column;
+
+    /** The amount of pixels of the tile */
+    @Label("Pixels")
+    int pixels;
+
+    /** The rays cast from the camera */
+    @Label("Camera Rays")
+    long rays;
+
+    /** All the rays traced, by the render statistics, 0 when they are off */
+    @Label("Traced Rays")
+    long tracedRays;
+
+    /** The samples of a pixel that a pass of progressive rendering completes, 0 out of progressive rendering */
+    @Label("Pass Samples")
+    int passSamples;
+
+    /** The memory the thread allocated while rendering the tile, 0 when the JVM doesn't measure it */
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    /** The rays and the memory of the thread when the tile started, not recorded */
+    private transient long tracedFrom, allocatedFrom;
+
+    /**
+     * Starts the event of a tile that the current thread renders.
+     *
+     * @return the event
+     */
+    static TileEvent start() {
+        TileEvent event = new TileEvent();
+        if (event.isEnabled()) {
+            event.tracedFrom = PixelCosts.tracedRays();
+            event.allocatedFrom = allocatedBytes();
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event of a tile, and commits it if it is recorded.
+     *
+     * @param tile        the tile
+     * @param rays        the rays cast from the camera
+     * @param passSamples the samples of a pixel that the pass of progressive rendering completes, 0 out
+     *                    of progressive rendering
+     */
+    void commit(PixelManager.Tile tile, long rays, int passSamples) {
+        if (!shouldCommit()) return;
+        row = tile.row();
+        column = tile.col();
+        pixels = tile.width() * tile.height();
+        this.rays = rays;
+        tracedRays = PixelCosts.tracedRays() - tracedFrom;
+        this.passSamples = passSamples;
+        allocated = allocatedBytes() - allocatedFrom;
+        commit();
+    }
+
+    /**
+     * Checks whether the JVM measures the memory the threads allocate. The extension of the thread
+     * bean that measures it is not a part of the standard API, and may be missing or turned off.
+     *
+     * @return true if the memory the threads allocate is measured
+     */
+    private static boolean allocationsSupported() {
+        try {
+            return THREADS instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Measures the memory the current thread allocated so far.
+     *
+     * @return the allocated bytes, 0 when the JVM doesn't measure them
+     */
+    private static long allocatedBytes() {
+        return ALLOCATIONS ? ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes() : 0;
+    }
+}
@@ -0,0 +1,147 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Ray;
+
+/**
+ * Variance driven adaptive sampling of the pixels of a tile. Every pixel starts with a few samples, and
+ * keeps the running mean and variance of the luminance of its samples. In rounds that double the samples
+ * of a pixel, only the pixels whose confidence interval is still wider than the error threshold get more
+ * samples, up to the maximum amount, so the samples go to the edges and the noisy parts of the image,
+ * and flat parts stop early.<br/>
+ * The error is perceptual: the half width of the 95% confidence interval of the luminance, relative to
+ * the luminance, following Weber's law, and an error below half a level of the 8-bit image is never
+ * visible. The channels are clamped before the luminance is taken, as they are in the image, so the
+ * variance of overexposed samples is not chased.<br/>
+ * The samples of a pixel are the prefix of a single pattern of the maximum amount, so a low discrepancy
+ * sampler keeps the samples of every round well spread. The samples of every round of a tile are traced
+ * together as a single batch.
+ */
+final class VarianceSampling {
+    /** The amount of samples every pixel starts with */
+    static final int INITIAL_SAMPLES = 16;
+    /** The factor of the standard error in the half width of the 95% confidence interval */
+    private static final double Z = 1.96;
+    /** The error that is never visible, half a level of the 8-bit image */
+    private static final double INVISIBLE = 0.5;
+    /** The highest level of a channel in the image */
+    private static final double MAX_LEVEL = 255;
+
+    /** The camera of the rays of the samples */
+    private final Camera camera;
+    /** The ray tracer of the samples */
+    private final RayTracerBase rayTracer;
+    /** The resolution of the image */
+    private final int nX, nY;
+    /** The relative error threshold of the luminance of a pixel */
+    private final double threshold;
+    /** The maximum amount of samples of a pixel */
+    private final int maxSamples;
+    /** The positions of the samples in a pixel, x and y of each, in [0,1) */
+    private final double[] pattern;
+
+    /**
+     * Constructs the adaptive sampling of an image.
+     *
+     * @param camera     the camera of the rays of the samples
+     * @param nX         the width of the image, in pixels
+     * @param nY         the height of the image, in pixels
+     * @param sampler    the sampler of the positions of the samples in a pixel
+     * @param threshold  the relative error threshold of the luminance of a pixel, positive
+     * @param maxSamples the maximum amount of samples of a pixel, positive
+     */
+    VarianceSampling(Camera camera, int nX, int nY, Sampler sampler, double threshold, int maxSamples) {
+        this.camera = camera;
+        this.rayTracer = camera.getRayTracer();
+        this.nX = nX;
+        this.nY = nY;
+        this.threshold = threshold;
+        this.maxSamples = maxSamples;
+        this.pattern = sampler.square(maxSamples);
+    }
+
+    /**
+     * Samples the pixels of a tile until each of them converges or reaches the maximum amount of samples.
+     *
+     * @param tile    the tile
+     * @param samples the array to fill with the amount of samples of each pixel, row by row, or null
+     * @return the colors of the pixels, row by row
+     */
+    Color[] render(PixelManager.Tile tile, int[] samples) {
+        int pixels = tile.width() * tile.height();
+        double[] red = new double[pixels], green = new double[pixels], blue = new double[pixels];
+        double[] mean = new double[pixels], m2 = new double[pixels];
+        int[] count = new int[pixels];
+
+        // the pixels that are still sampled
+        int[] active = new int[pixels];
+        for (int p = 0; p < pixels; p++) active[p] = p;
+        int activeCount = pixels;
+
+        int from = 0, to = Math.min(INITIAL_SAMPLES, maxSamples);
+        while (activeCount > 0) {
+            int round = to - from;
+            Ray[] rays = new Ray[activeCount * round];
+            int n = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int p = active[a], j = tile.col() + p % tile.width(), i = tile.row() + p / tile.width();
+                for (int s = from; s < to; s++) rays[n++] = camera.constructRay(nX, nY, j, i, pattern[2 * s], pattern[2 * s + 1]);
+            }
+            Color[] colors = new Color[rays.length];
+            rayTracer.traceRays(rays, colors);
+
+            n = 0;
+            int stillActive = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int p = active[a];
+                for (int s = 0; s < round; s++) {
+                    double r = colors[n].getRgb().getD1(), g = colors[n].getRgb().getD2(), b = colors[n].getRgb().getD3();
+                    n++;
+                    red[p] += r;
+                    green[p] += g;
+                    blue[p] += b;
+                    // Welford's running variance of the luminance
+                    double luminance = luminance(r, g, b);
+                    double delta = luminance - mean[p];
+                    mean[p] += delta / ++count[p];
+                    m2[p] += delta * (luminance - mean[p]);
+                }
+                if (to < maxSamples && !converged(count[p], mean[p], m2[p])) active[stillActive++] = p;
+            }
+            activeCount = stillActive;
+            from = to;
+            to = Math.min(2 * to, maxSamples);
+        }
+
+        Color[] result = new Color[pixels];
+        for (int p = 0; p < pixels; p++)
+            result[p] = new Color(red[p] / count[p], green[p] / count[p], blue[p] / count[p]);
+        if (samples != null) System.arraycopy(count, 0, samples, 0, pixels);
+        return result;
+    }
+
+    /**
+     * Checks whether the confidence interval of the luminance of a pixel is within the error threshold.
+     *
+     * @param n    the amount of samples
+     * @param mean the mean luminance
+     * @param m2   the sum of the squared differences of the luminance from the mean
+     * @return true if the pixel converged
+     */
+    private boolean converged(int n, double mean, double m2) {
+        double halfWidth = Z * Math.sqrt(m2 / (n - 1) / n);
+        return halfWidth <= Math.max(INVISIBLE, threshold * mean);
+    }
+
+    /**
+     * Calculates the luminance of a color as it is displayed, with its channels clamped.
+     *
+     * @param r the red channel
+     * @param g the green channel
+     * @param b the blue channel
+     * @return the luminance, by the weights of Rec. 709
+     */
+    private static double luminance(double r, double g, double b) {
+        return 0.2126 * Math.min(r, MAX_LEVEL) + 0.7152 * Math.min(g, MAX_LEVEL) + 0.0722 * Math.min(b, MAX_LEVEL);
+    }
+}
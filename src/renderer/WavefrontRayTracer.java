@@ -0,0 +1,467 @@
+package renderer;
+
+import geometries.Intersectable.GeoPoint;
+import lighting.LightSource;
+import primitives.*;
+import primitives.RenderStatistics.Counter;
+import scene.Scene;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import static primitives.RenderStatistics.Counter.*;
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+import static renderer.SimpleRayTracer.*;
+
+/**
+ * A ray tracer that processes rays in waves instead of one by one. A wave is a batch of rays whose
+ * state is kept in primitive arrays, and it goes through the tracing in stages: all its rays are
+ * intersected with the scene, then all the hits are shaded, then all the shadow rays of the shading
+ * are traced, and last the reflected and refracted rays of all the hits are spawned into the next waves.
+ * Each stage runs a single kind of work over the whole batch, instead of the deep recursion of
+ * {@link SimpleRayTracer}, which keeps the data of the stage hot in the caches.<br/>
+ * The shading is linear in the colors of the spawned rays, so every ray carries the weight it has in
+ * the color of its pixel (the product of the reflection or refraction factors along its path, each
+ * divided by the amount of rays it was spawned with), and adds its weighted contribution straight to
+ * the color of its pixel. Every ray also carries its share of the ray budget, split between the rays
+ * it spawns the way {@link SimpleRayTracer} splits it, and the glossy and diffuse circles are aimed by
+ * the same sampler and patterns (see {@link #setSampler(Sampler, int)}). The image is the same as the
+ * image of {@link SimpleRayTracer} with the same settings, up to the rounding of the different order
+ * of the additions.<br/>
+ * The waves of spawned rays are traced depth first, a wave at a time, so the amount of rays waiting
+ * to be traced is bounded by the depth of the tracing times the size of a wave, however many rays
+ * a pixel casts.
+ */
+public class WavefrontRayTracer extends RayTracerBase {
+    /** The amount of rays in a wave */
+    static final int WAVE_SIZE = 256;
+    /** The most rays a single hit may spawn */
+    private static final int MAX_SPAWNED = Math.max(1, GLOSS_RAYS) + Math.max(1, DIFF_RAYS);
+
+    /**
+     * Constructs a WavefrontRayTracer object with the given scene.
+     *
+     * @param scene The scene to be rendered.
+     */
+    public WavefrontRayTracer(Scene scene) {
+        super(scene);
+    }
+
+    @Override
+    public Color traceRay(Ray ray) {
+        Color[] colors = new Color[1];
+        traceRays(new Ray[]{ray}, colors);
+        return colors[0];
+    }
+
+    @Override
+    public void traceRays(Ray[] rays, Color[] colors) {
+        double[] rgb = new double[3 * rays.length];
+        Deque<Wave> waves = new ArrayDeque<>();
+        for (int from = 0; from < rays.length; from += WAVE_SIZE) {
+            Wave wave = new Wave(Math.min(WAVE_SIZE, rays.length - from));
+            for (int i = from; i < from + wave.capacity; i++)
+                wave.add(rays[i], i, INITIAL_K.getD1(), INITIAL_K.getD2(), INITIAL_K.getD3(),
+                        INITIAL_K.getD1(), INITIAL_K.getD2(), INITIAL_K.getD3(), MAX_CALC_COLOR_LEVEL, rayBudget - 1);
+            waves.push(wave);
+        }
+
+        // a wave stays queued under the waves of its spawned rays until all its hits have spawned,
+        // so only a couple of waves per level of recursion are ever held, and their arrays are reused
+        Deque<Wave> free = new ArrayDeque<>();
+        while (!waves.isEmpty()) {
+            Wave wave = waves.pop();
+            if (!wave.traced) {
+                intersect(wave);
+                shade(wave, rgb);
+                traceShadows(wave, rgb);
+                wave.traced = true;
+            }
+
+            Wave next = free.isEmpty() ? new Wave(WAVE_SIZE) : free.pop().clear();
+            spawn(wave, next);
+            if (wave.spawned < wave.size) waves.push(wave);
+            else if (wave.capacity == WAVE_SIZE) free.push(wave.clear());
+            if (next.size > 0) waves.push(next);
+            else free.push(next);
+        }
+
+        for (int i = 0; i < rays.length; i++)
+            colors[i] = new Color(rgb[3 * i], rgb[3 * i + 1], rgb[3 * i + 2]);
+    }
+
+    /**
+     * The intersection stage: finds the closest intersections of all the rays of a wave.
+     *
+     * @param wave The wave
+     */
+    private void intersect(Wave wave) {
+        for (int i = 0; i < wave.size; i++) {
+            wave.hits[i] = scene.geometries.findClosestGeoIntersection(wave.rays[i]);
+            if (RenderStatistics.ENABLED) {
+                if (wave.levels[i] == MAX_CALC_COLOR_LEVEL) RenderStatistics.count(PRIMARY_RAYS);
+                if (wave.hits[i] != null) RenderStatistics.countDepth(MAX_CALC_COLOR_LEVEL - wave.levels[i]);
+            }
+        }
+    }
+
+    /**
+     * The shading stage: adds the background of the rays that hit nothing, and the ambient light
+     * and the emission of the hits, and queues the shadow rays of the hits towards the light sources.
+     *
+     * @param wave The wave
+     * @param rgb  The colors of the pixels
+     */
+    private void shade(Wave wave, double[] rgb) {
+        Color ambient = scene.ambientLight.getIntensity();
+        wave.shadows = 0;
+        for (int i = 0; i < wave.size; i++) {
+            GeoPoint gp = wave.hits[i];
+            if (gp == null) {
+                add(wave, i, scene.background.getRgb(), rgb);
+                continue;
+            }
+            // the ambient light is added once, by the rays cast from the camera
+            if (wave.levels[i] == MAX_CALC_COLOR_LEVEL) add(wave, i, ambient.getRgb(), rgb);
+
+            Vector n = gp.geometry.getNormal(gp.point);
+            wave.normals[i] = n;
+            Vector v = wave.rays[i].getDirection();
+            double nv = alignZero(n.dotProduct(v));
+            if (isZero(nv)) continue;
+
+            Material material = gp.geometry.getMaterial();
+            add(wave, i, gp.geometry.getEmission().getRgb(), rgb);
+            for (LightSource light : scene.lights) {
+                Vector l = light.getL(gp.point);
+                double nl = alignZero(n.dotProduct(l));
+                if (nl * nv > 0)    // sign(nl) == sign(nv)
+                    wave.addShadow(i, light, new Ray(gp.point, l.scale(-1), n), light.getDistance(gp.point),
+                            material.kD.scale(Math.abs(nl)).add(specular(material, n, l, nl, v)));
+            }
+        }
+    }
+
+    /**
+     * The shadow stage: traces the shadow rays of a wave, and adds the light of the light sources
+     * that are not fully shaded.
+     *
+     * @param wave The wave
+     * @param rgb  The colors of the pixels
+     */
+    private void traceShadows(Wave wave, double[] rgb) {
+        RenderStatistics.count(SHADOW_RAYS, wave.shadows);
+        for (int s = 0; s < wave.shadows; s++) {
+            int i = wave.shadowOwners[s];
+            Double3 ktr = scene.geometries.findTransparency(wave.shadowRays[s], wave.shadowDistances[s]);
+            if (ktr.getD1() * wave.ks[3 * i] < MIN_CALC_COLOR_K
+                    && ktr.getD2() * wave.ks[3 * i + 1] < MIN_CALC_COLOR_K
+                    && ktr.getD3() * wave.ks[3 * i + 2] < MIN_CALC_COLOR_K)
+                continue;
+            Double3 iL = wave.shadowLights[s].getIntensity(wave.hits[i].point).getRgb();
+            Double3 factor = wave.shadowFactors[s];
+            rgb[3 * wave.pixels[i]] += wave.weights[3 * i] * iL.getD1() * ktr.getD1() * factor.getD1();
+            rgb[3 * wave.pixels[i] + 1] += wave.weights[3 * i + 1] * iL.getD2() * ktr.getD2() * factor.getD2();
+            rgb[3 * wave.pixels[i] + 2] += wave.weights[3 * i + 2] * iL.getD3() * ktr.getD3() * factor.getD3();
+        }
+    }
+
+    /**
+     * The spawning stage: creates the reflected and refracted rays of the hits of a wave, from the
+     * first hit that was not spawned yet, into a new wave - as long as the new wave has room for
+     * all the rays a hit may spawn. When a hit both reflects and refracts, its share of the ray
+     * budget is split between them by their factors.
+     *
+     * @param wave The wave
+     * @param next The empty wave to fill with the spawned rays
+     */
+    private void spawn(Wave wave, Wave next) {
+        for (; wave.spawned < wave.size && next.size + MAX_SPAWNED <= next.capacity; wave.spawned++) {
+            int i = wave.spawned;
+            GeoPoint gp = wave.hits[i];
+            if (gp == null || wave.levels[i] == 1 || wave.budgets[i] < 1) continue;
+            Vector v = wave.rays[i].getDirection();
+            Vector n = wave.normals[i];
+            Material material = gp.geometry.getMaterial();
+
+            double vn = alignZero(v.dotProduct(n));
+            Ray reflectedRay = vn == 0 ? null : new Ray(gp.point, v.subtract(n.scale(2 * vn)), n);
+            Ray refractedRay = new Ray(gp.point, v, n.scale(-1));
+            boolean reflects = reflectedRay != null && !negligible(wave, i, material.kR);
+            boolean refracts = !negligible(wave, i, material.kT);
+            if (reflectedRay != null && !reflects) countCulled(material.kR);
+            if (!refracts) countCulled(material.kT);
+
+            int budget = wave.budgets[i];
+            int reflectedShare = budget;
+            if (reflects && refracts) {
+                double kr = max(material.kR), kt = max(material.kT);
+                reflectedShare = (int) (budget * kr / (kr + kt));
+            }
+
+            if (reflects)
+                spawn(wave, i, reflectedRay, n, material.gloss, GLOSS_RAYS, material.kR, reflectedShare, next,
+                        REFLECTED_RAYS);
+            if (refracts)
+                spawn(wave, i, refractedRay, n.scale(-1), material.diff, DIFF_RAYS, material.kT,
+                        reflects ? budget - reflectedShare : budget, next, REFRACTED_RAYS);
+        }
+    }
+
+    /**
+     * Spawns the rays of a reflection or a refraction of a hit: the main ray, or for a glossy or diffuse
+     * material the rays aimed at a circle around the main ray. The rays that leave the wrong side of the
+     * surface are dropped, and if none is left the main ray is spawned instead. When the budget share is
+     * too small for all the rays of the circle, fewer rays are aimed, and what is left of the share after
+     * the spawned rays is split evenly between them.
+     *
+     * @param wave   The wave of the hit
+     * @param i      The index of the hit in the wave
+     * @param main   The main (mirror) ray
+     * @param n      The normal at the hit, towards the side of the main ray
+     * @param spread The distance of the circle from the hit, 0 for the main ray only
+     * @param count  The amount of rays to aim at the circle
+     * @param kx     The reflection or refraction factor
+     * @param share  The amount of rays that may be spawned
+     * @param next   The wave being filled with spawned rays
+     * @param kind   The kind of the spawned rays, reflected or refracted
+     */
+    private void spawn(Wave wave, int i, Ray main, Vector n, int spread, int count, Double3 kx, int share,
+                       Wave next, Counter kind) {
+        if (share < 1) return;
+        // the grid takes a square amount of rays, a sampler takes any amount
+        int amount = Math.min(count, share);
+        if (sampler == null) {
+            int side = (int) Math.sqrt(amount);
+            amount = side * side;
+        }
+        if (spread == 0 || amount < 2) {
+            spawn(wave, i, main, kx, 1, share - 1, next, kind);
+            return;
+        }
+
+        Ray[] rays = new Ray[amount];
+        int aimed = patterns.aim(wave.hits[i].point, main.getDirection(), n, spread, RADIUS, amount, rays);
+        if (aimed == 0) {
+            spawn(wave, i, main, kx, 1, share - 1, next, kind);
+            return;
+        }
+        int budget = (share - aimed) / aimed;
+        for (int r = 0; r < aimed; r++) spawn(wave, i, rays[r], kx, aimed, budget, next, kind);
+    }
+
+    /**
+     * Spawns a ray of a hit into the next wave.
+     *
+     * @param wave    The wave of the hit
+     * @param i       The index of the hit in the wave
+     * @param ray     The spawned ray
+     * @param kx      The reflection or refraction factor
+     * @param divisor The amount of rays spawned together with this one
+     * @param budget  The amount of rays the spawned ray may spawn
+     * @param next    The wave being filled with spawned rays
+     * @param kind    The kind of the spawned ray, reflected or refracted
+     */
+    private static void spawn(Wave wave, int i, Ray ray, Double3 kx, int divisor, int budget, Wave next,
+                              Counter kind) {
+        RenderStatistics.count(kind);
+        next.add(ray, wave.pixels[i],
+                wave.weights[3 * i] * kx.getD1() / divisor,
+                wave.weights[3 * i + 1] * kx.getD2() / divisor,
+                wave.weights[3 * i + 2] * kx.getD3() / divisor,
+                wave.ks[3 * i] * kx.getD1(), wave.ks[3 * i + 1] * kx.getD2(), wave.ks[3 * i + 2] * kx.getD3(),
+                wave.levels[i] - 1, budget);
+    }
+
+    /**
+     * Checks whether the rays a hit spawns with a factor are too weak to matter.
+     *
+     * @param wave The wave of the hit
+     * @param i    The index of the hit in the wave
+     * @param kx   The reflection or refraction factor
+     * @return true if the transparency factor of the spawned rays is below the minimum
+     */
+    private static boolean negligible(Wave wave, int i, Double3 kx) {
+        return wave.ks[3 * i] * kx.getD1() < MIN_CALC_COLOR_K
+                && wave.ks[3 * i + 1] * kx.getD2() < MIN_CALC_COLOR_K
+                && wave.ks[3 * i + 2] * kx.getD3() < MIN_CALC_COLOR_K;
+    }
+
+    /**
+     * Counts the rays of a hit that are not spawned as they are too weak, unless the material
+     * doesn't reflect or refract at all.
+     *
+     * @param kx The reflection or refraction factor
+     */
+    private static void countCulled(Double3 kx) {
+        if (RenderStatistics.ENABLED && !kx.lowerThan(MIN_CALC_COLOR_K)) RenderStatistics.count(CULLED_RAYS);
+    }
+
+    /**
+     * Adds a weighted color to the color of the pixel of a ray.
+     *
+     * @param wave  The wave of the ray
+     * @param i     The index of the ray in the wave
+     * @param color The color
+     * @param rgb   The colors of the pixels
+     */
+    private static void add(Wave wave, int i, Double3 color, double[] rgb) {
+        int p = 3 * wave.pixels[i];
+        rgb[p] += wave.weights[3 * i] * color.getD1();
+        rgb[p + 1] += wave.weights[3 * i + 1] * color.getD2();
+        rgb[p + 2] += wave.weights[3 * i + 2] * color.getD3();
+    }
+
+    /**
+     * Calculates the specular factor of a point on a geometry, like {@link SimpleRayTracer} does.
+     *
+     * @param material The material of the geometry
+     * @param n        The normal vector
+     * @param l        The light vector
+     * @param nl       The dot product of n and l
+     * @param v        The view vector
+     * @return The specular factor
+     */
+    private static Double3 specular(Material material, Vector n, Vector l, double nl, Vector v) {
+        double nl2 = 2 * nl;
+        double vr = alignZero(VectorMath.dot(v, l.getX() - n.getX() * nl2, l.getY() - n.getY() * nl2, l.getZ() - n.getZ() * nl2));
+        return material.kS.scale(Math.pow(Math.max(0, -vr), material.nShininess));
+    }
+
+    /**
+     * A batch of rays and the state of their tracing, in parallel arrays by the index of the ray.
+     * The colors are kept as triads of doubles, at three times the index.
+     */
+    private static final class Wave {
+        /** The amount of rays the wave can hold */
+        final int capacity;
+        /** The amount of rays in the wave */
+        int size = 0;
+        /** The rays */
+        final Ray[] rays;
+        /** The index of the pixel of each ray */
+        final int[] pixels;
+        /** The weight of each ray in the color of its pixel */
+        final double[] weights;
+        /** The transparency factor of each ray, for cutting off the rays that don't matter */
+        final double[] ks;
+        /** The level of recursion of each ray */
+        final int[] levels;
+        /** The amount of rays each ray may spawn */
+        final int[] budgets;
+        /** The closest intersection of each ray, filled by the intersection stage */
+        final GeoPoint[] hits;
+        /** The normal at the intersection of each ray, filled by the shading stage */
+        final Vector[] normals;
+
+        /** Whether the rays were traced - intersected, shaded and their shadows traced */
+        boolean traced = false;
+        /** The amount of hits that spawned their rays */
+        int spawned = 0;
+
+        /** The amount of shadow rays queued by the shading stage */
+        int shadows = 0;
+        /** The index of the ray of each shadow ray */
+        int[] shadowOwners;
+        /** The shadow rays */
+        Ray[] shadowRays;
+        /** The light source of each shadow ray */
+        LightSource[] shadowLights;
+        /** The distance to the light source of each shadow ray */
+        double[] shadowDistances;
+        /** The diffusive and specular factor of each shadow ray */
+        Double3[] shadowFactors;
+
+        /**
+         * Constructs an empty wave.
+         *
+         * @param capacity the amount of rays the wave can hold
+         */
+        Wave(int capacity) {
+            this.capacity = capacity;
+            rays = new Ray[capacity];
+            pixels = new int[capacity];
+            weights = new double[3 * capacity];
+            ks = new double[3 * capacity];
+            levels = new int[capacity];
+            budgets = new int[capacity];
+            hits = new GeoPoint[capacity];
+            normals = new Vector[capacity];
+            shadowOwners = new int[capacity];
+            shadowRays = new Ray[capacity];
+            shadowLights = new LightSource[capacity];
+            shadowDistances = new double[capacity];
+            shadowFactors = new Double3[capacity];
+        }
+
+        /**
+         * Empties the wave, for reuse.
+         *
+         * @return the wave
+         */
+        Wave clear() {
+            size = 0;
+            shadows = 0;
+            spawned = 0;
+            traced = false;
+            return this;
+        }
+
+        /**
+         * Adds a ray to the wave.
+         *
+         * @param ray    the ray
+         * @param pixel  the index of its pixel
+         * @param w1     the weight of the ray (first component)
+         * @param w2     the weight of the ray (second component)
+         * @param w3     the weight of the ray (third component)
+         * @param k1     the transparency factor of the ray (first component)
+         * @param k2     the transparency factor of the ray (second component)
+         * @param k3     the transparency factor of the ray (third component)
+         * @param level  the level of recursion of the ray
+         * @param budget the amount of rays the ray may spawn
+         */
+        void add(Ray ray, int pixel, double w1, double w2, double w3, double k1, double k2, double k3, int level,
+                 int budget) {
+            rays[size] = ray;
+            pixels[size] = pixel;
+            weights[3 * size] = w1;
+            weights[3 * size + 1] = w2;
+            weights[3 * size + 2] = w3;
+            ks[3 * size] = k1;
+            ks[3 * size + 1] = k2;
+            ks[3 * size + 2] = k3;
+            levels[size] = level;
+            budgets[size] = budget;
+            size++;
+        }
+
+        /**
+         * Queues a shadow ray, growing the shadow arrays when there are more lights than one per ray.
+         *
+         * @param owner    the index of the ray of the shadow ray
+         * @param light    the light source
+         * @param ray      the shadow ray
+         * @param distance the distance to the light source
+         * @param factor   the diffusive and specular factor
+         */
+        void addShadow(int owner, LightSource light, Ray ray, double distance, Double3 factor) {
+            if (shadows == shadowRays.length) {
+                int length = 2 * shadows;
+                shadowOwners = Arrays.copyOf(shadowOwners, length);
+                shadowRays = Arrays.copyOf(shadowRays, length);
+                shadowLights = Arrays.copyOf(shadowLights, length);
+                shadowDistances = Arrays.copyOf(shadowDistances, length);
+                shadowFactors = Arrays.copyOf(shadowFactors, length);
+            }
+            shadowOwners[shadows] = owner;
+            shadowRays[shadows] = ray;
+            shadowLights[shadows] = light;
+            shadowDistances[shadows] = distance;
+            shadowFactors[shadows] = factor;
+            shadows++;
+        }
+    }
+}
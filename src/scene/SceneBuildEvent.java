@@ -0,0 +1,28 @@
+package scene;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event of the build of a scene, parsed from its XML or read from its cache.
+ */
+@Name("raytracer.SceneBuild")
+@Label("Scene Build")
+@Category("Ray Tracer")
+@Description("The build of a scene from its XML or from its cache")
+final class SceneBuildEvent extends Event {
+    /** The name of the scene */
+    @Label("Scene")
+    String scene;
+
+    /** Whether the scene was read from its cache */
+    @Label("Cached")
+    boolean cached;
+
+    /** The amount of XML elements parsed, 0 for a cached scene */
+    @Label("Elements")
+    long elements;
+}
@@ -0,0 +1,310 @@
+package scene;
+
+import geometries.Geometries;
+import geometries.GeometryCodec;
+import lighting.*;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * A binary cache of a compiled scene. The cache holds everything that was computed when the scene
+ * was built - the vertices and the indices of the meshes, the plane normals, the materials, the lights
+ * and the bounding volume hierarchies - so loading it skips the parsing, the validations and the
+ * hierarchy builds of the scene, and just copies the arrays out of a memory mapped file.<br/>
+ * The layout of a cache file: the magic {@code RTSC}, the format version, the hash of the source
+ * of the scene, the name, the background, the ambient light, the lights, the geometries (see
+ * {@link GeometryCodec}), the table of their materials and the offset of the table. A cache written
+ * for another version of the format or for another source is stale, and is ignored when loaded.<br/>
+ * The camera of a scene is not a part of it, and is not cached.
+ */
+public final class SceneCache {
+    /** The magic number of the cache files - "RTSC" */
+    private static final int MAGIC = 0x52545343;
+    /** The version of the format, to be incremented on any change of the layout */
+    private static final int VERSION = 1;
+    /** The extension added to the name of a scene file for its cache */
+    public static final String EXTENSION = ".cache";
+
+    /** The size of the buffer of reading a source file for its hash */
+    private static final int HASH_BUFFER = 1 << 16;
+
+    /** Tags of the light types */
+    private static final byte DIRECTIONAL = 0;
+    private static final byte POINT = 1;
+    private static final byte SPOT = 2;
+
+    /** Logger for reporting stale caches and I/O failures */
+    private static final Logger logger = Logger.getLogger("SceneCache");
+
+    /** Don't let anyone instantiate this class. */
+    private SceneCache() {}
+
+    /**
+     * Loads a scene from an XML file through its cache: the cache ({@code file} + {@link #EXTENSION})
+     * is loaded if it is up to date, otherwise the file is loaded and the cache is written.
+     *
+     * @param file the XML file of the scene
+     * @return the scene
+     * @throws IllegalArgumentException if the file is not a valid scene
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public static Scene load(Path file) {
+        Path cache = file.resolveSibling(file.getFileName() + EXTENSION);
+        long hash = hash(file);
+        Scene scene = load(cache, hash);
+        if (scene != null) return scene;
+
+        scene = SceneLoader.load(file).getScene();
+        try {
+            write(scene, cache, hash);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // the scene is loaded anyway, it will be parsed again next time
+            logger.log(Level.WARNING, "Can't cache the scene " + file, e);
+        }
+        return scene;
+    }
+
+    /**
+     * Computes the hash of the source of a scene, to validate its cache.
+     *
+     * @param file the source file
+     * @return the hash of the content of the file
+     * @throws IllegalStateException if the file cannot be read
+     */
+    public static long hash(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the source is read rather than mapped, so it is not locked while being edited
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER);
+            CRC32C crc = new CRC32C();
+            long size = 0;
+            for (int n; (n = channel.read(buffer.clear())) >= 0; size += n)
+                crc.update(buffer.flip());
+            return size << 32 | crc.getValue();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't read the scene file " + file, e);
+        }
+    }
+
+    /**
+     * Writes the cache of a scene. The cache is written to a temporary file that replaces the
+     * cache file only when complete, so a failed write never leaves a broken cache.
+     *
+     * @param scene the scene
+     * @param file  the cache file
+     * @param hash  the hash of the source of the scene
+     * @throws IllegalArgumentException if the scene has a geometry or a light that can't be cached
+     * @throws IllegalStateException    if the file cannot be written
+     */
+    public static void write(Scene scene, Path file, long hash) {
+        Path temp = null;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(hash);
+                byte[] name = (scene.name == null ? "" : scene.name).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                GeometryCodec.writeDouble3(scene.background.getRgb(), out);
+                GeometryCodec.writeDouble3(scene.ambientLight.getIntensity().getRgb(), out);
+                out.writeInt(scene.lights.size());
+                for (LightSource light : scene.lights) writeLight(light, out);
+
+                // the materials are collected while writing the geometries, and their table follows them
+                Map<Material, Integer> materials = new IdentityHashMap<>();
+                List<Material> table = new ArrayList<>();
+                GeometryCodec.write(scene.geometries, out, material -> materials.computeIfAbsent(material, m -> {
+                    table.add(m);
+                    return table.size() - 1;
+                }));
+                long offset = out.size();
+                out.writeInt(table.size());
+                for (Material material : table) writeMaterial(material, out);
+                out.writeLong(offset);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't write the scene cache " + file, e);
+        } finally {
+            if (temp != null)
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // nothing more to do
+                }
+        }
+    }
+
+    /**
+     * Loads a scene from its cache. The file is memory mapped and read without any validation
+     * of the geometries, since they were valid when the cache was written.
+     *
+     * @param file the cache file
+     * @param hash the hash of the current source of the scene
+     * @return the scene, or {@code null} if there is no cache or it is stale or broken
+     */
+    public static Scene load(Path file, long hash) {
+        if (!Files.isRegularFile(file)) return null;
+        SceneBuildEvent event = new SceneBuildEvent();
+        event.begin();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != hash) {
+                logger.info(() -> "Stale scene cache " + file);
+                return null;
+            }
+            Scene scene = read(in);
+            if (event.shouldCommit()) {
+                event.scene = scene.name;
+                event.cached = true;
+                event.commit();
+            }
+            return scene;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Can't read the scene cache " + file, e);
+            return null;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            logger.log(Level.WARNING, "Broken scene cache " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads a scene after the header of its cache.
+     *
+     * @param in the cache
+     * @return the scene
+     */
+    private static Scene read(ByteBuffer in) {
+        byte[] name = new byte[GeometryCodec.length(in, 1)];
+        in.get(name);
+        Scene scene = new Scene(new String(name, StandardCharsets.UTF_8))
+                .setBackground(new Color(GeometryCodec.readDouble3(in)))
+                .setAmbientLight(new AmbientLight(new Color(GeometryCodec.readDouble3(in)), Double3.ONE));
+        List<LightSource> lights = new LinkedList<>();
+        for (int i = GeometryCodec.length(in, 1); i > 0; i--) lights.add(readLight(in));
+        scene.setLights(lights);
+
+        // the table of materials is at the offset given by the end of the file
+        int geometries = in.position();
+        in.position((int) in.getLong(in.limit() - Long.BYTES));
+        Material[] materials = new Material[GeometryCodec.length(in, 1)];
+        for (int i = 0; i < materials.length; i++) materials[i] = readMaterial(in);
+        in.position(geometries);
+
+        if (!(GeometryCodec.read(in, i -> materials[i]) instanceof Geometries collection))
+            throw new IllegalArgumentException("The geometries of the scene are not a collection");
+        return scene.setGeometries(collection);
+    }
+
+    /**
+     * Writes a material.
+     *
+     * @param material the material
+     * @param out      the output
+     * @throws IOException if the output fails
+     */
+    private static void writeMaterial(Material material, DataOutputStream out) throws IOException {
+        GeometryCodec.writeDouble3(material.kD, out);
+        GeometryCodec.writeDouble3(material.kS, out);
+        GeometryCodec.writeDouble3(material.kT, out);
+        GeometryCodec.writeDouble3(material.kR, out);
+        out.writeInt(material.nShininess);
+        out.writeInt(material.gloss);
+        out.writeInt(material.diff);
+    }
+
+    /**
+     * Reads a material.
+     *
+     * @param in the input
+     * @return the material
+     */
+    private static Material readMaterial(ByteBuffer in) {
+        return new Material()
+                .setKd(GeometryCodec.readDouble3(in))
+                .setKs(GeometryCodec.readDouble3(in))
+                .setKt(GeometryCodec.readDouble3(in))
+                .setKr(GeometryCodec.readDouble3(in))
+                .setShininess(in.getInt())
+                .setGloss(in.getInt())
+                .setDiff(in.getInt());
+    }
+
+    /**
+     * Writes a light.
+     *
+     * @param light the light
+     * @param out   the output
+     * @throws IOException              if the output fails
+     * @throws IllegalArgumentException if the light is of an unsupported type
+     */
+    private static void writeLight(LightSource light, DataOutputStream out) throws IOException {
+        switch (light) {
+            case DirectionalLight d -> {
+                out.writeByte(DIRECTIONAL);
+                GeometryCodec.writeDouble3(d.getIntensity().getRgb(), out);
+                GeometryCodec.writeDouble3(d.getDirection().getXyz(), out);
+            }
+            case PointLight p -> {
+                out.writeByte(p instanceof SpotLight ? SPOT : POINT);
+                GeometryCodec.writeDouble3(p.getIntensity().getRgb(), out);
+                GeometryCodec.writeDouble3(p.position.getXyz(), out);
+                out.writeDouble(p.Kc);
+                out.writeDouble(p.Kl);
+                out.writeDouble(p.Kq);
+                if (p instanceof SpotLight s) {
+                    GeometryCodec.writeDouble3(s.getDirection().getXyz(), out);
+                    out.writeInt(s.getNarrowBeam());
+                }
+            }
+            default -> throw new IllegalArgumentException(
+                    "Light of type " + light.getClass().getName() + " can't be cached");
+        }
+    }
+
+    /**
+     * Reads a light.
+     *
+     * @param in the input
+     * @return the light
+     */
+    private static LightSource readLight(ByteBuffer in) {
+        byte tag = in.get();
+        Color intensity = new Color(GeometryCodec.readDouble3(in));
+        if (tag == DIRECTIONAL) return new DirectionalLight(intensity, GeometryCodec.readVector(in));
+        if (tag != POINT && tag != SPOT) throw new IllegalArgumentException("Unknown light tag " + tag);
+
+        var position = GeometryCodec.readPoint(in);
+        double kC = in.getDouble(), kL = in.getDouble(), kQ = in.getDouble();
+        PointLight light = tag == POINT ? new PointLight(intensity, position)
+                : new SpotLight(intensity, position, GeometryCodec.readVector(in)).setNarrowBeam(in.getInt());
+        return light.setKc(kC).setKl(kL).setKq(kQ);
+    }
+}
@@ -0,0 +1,624 @@
+package scene;
+
+import geometries.*;
+import lighting.*;
+import primitives.*;
+import renderer.*;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads a scene from an XML file. The file is read by a streaming (StAX) parser, element by element,
+ * so no document tree is built and the memory of the loader does not depend on the size of the file -
+ * only the scene itself is kept.<br/>
+ * The format (all the colors, points and vectors are triples of numbers separated by spaces):
+ * <pre>{@code
+ * <scene background-color="r g b">
+ *     <ambient-light color="r g b" k="1 1 1"/>
+ *     <materials>
+ *         <material name="glass" kd="0.5" ks="0.5" kt="0.9" kr="0" shininess="30" gloss="0" diff="0"/>
+ *     </materials>
+ *     <geometries bvh="sah">
+ *         <sphere center="x y z" radius="50" emission="r g b" material="glass"/>
+ *         <triangle p0="x y z" p1="x y z" p2="x y z"/>
+ *         <plane point="x y z" normal="x y z"/>
+ *         <polygon> <vertex p="x y z"/> ... </polygon>
+ *         <mesh watertight="false" bvh="sah"> <vertex p="x y z"/> ... <face v="0 1 2"/> ... </mesh>
+ *     </geometries>
+ *     <lights>
+ *         <directional-light color="r g b" direction="x y z"/>
+ *         <point-light color="r g b" position="x y z" kc="1" kl="0" kq="0"/>
+ *         <spot-light color="r g b" position="x y z" direction="x y z" kc="1" kl="0" kq="0" narrow-beam="1"/>
+ *     </lights>
+ *     <camera location="x y z" direction="x y z" up="x y z" vp-size="w h" vp-distance="d"
+ *             image="name" resolution="nX nY" threads="1" tile-size="16" total-rays="1" adaptive-depth="0"
+ *             print-interval="0" ray-budget="100000" sampler="grid" error-threshold="0" max-samples="256"
+ *             time-budget="0" sample-budget="0"
+ *             streaming="false" cost-map="false"/>
+ * </scene>
+ * }</pre>
+ * A material is either named in {@code <materials>} and referred to by the {@code material} attribute of
+ * a geometry, or given as a {@code <material>} element inside the geometry. The coefficients of a material
+ * are either a single number or a triple. The sampler of the camera is one of {@code grid}, {@code jittered},
+ * {@code halton}, {@code sobol} and {@code poisson}. The bounding volume hierarchy of the geometries and of a
+ * mesh is built by {@code sah}, {@code linear} or {@code linear-treelets} (see {@link BVHConstruction}), and
+ * the geometries have none by default, or by {@code bvh="false"}; {@code bvh="true"} is {@code sah}. All
+ * the attributes that have default values may be omitted.
+ */
+public class SceneLoader {
+    /** The factory of the streaming parsers, with the DTDs and the external entities turned off */
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /** The initial capacity of the vertex and index arrays of a mesh */
+    private static final int INITIAL_CAPACITY = 3 * 1024;
+
+    /** The seed of the samplers, so the images of a scene are reproducible */
+    private static final long SAMPLER_SEED = 0;
+
+    /** Logger for reporting the parse statistics */
+    private static final Logger logger = Logger.getLogger("SceneLoader");
+
+    /** The loaded scene */
+    private final Scene scene;
+    /** The camera of the scene, {@code null} if the file has none */
+    private Camera.Builder camera = null;
+    /** The named materials */
+    private final Map<String, Material> materials = new HashMap<>();
+    /** The amount of elements read */
+    private long elements = 0;
+    /** The time of parsing the file, in milliseconds */
+    private long parseTime = 0;
+
+    /** The parser */
+    private final XMLStreamReader reader;
+    /** Buffer of the numbers of the last attribute read */
+    private final double[] numbers = new double[3];
+
+    /** The geometry element being read, {@code null} outside a geometry */
+    private String geometry = null;
+    /** The attributes of the geometry element being read */
+    private Color emission;
+    private Material material;
+    private Point[] points;
+    private double radius;
+    /** The vertices of the polygon or the mesh being read, released after the parsing */
+    private double[] vertices = new double[INITIAL_CAPACITY];
+    private int vertexCount = 0;
+    /** The vertex indices of the triangles of the mesh being read, released after the parsing */
+    private int[] indices = new int[INITIAL_CAPACITY];
+    private int indexCount = 0;
+    /** Whether the mesh being read is watertight */
+    private boolean watertight;
+    /** The construction of the hierarchy of the mesh being read */
+    private BVHConstruction construction;
+
+    /**
+     * Constructs a loader of a scene.
+     *
+     * @param name   the name of the scene
+     * @param reader the parser of the file
+     */
+    private SceneLoader(String name, XMLStreamReader reader) {
+        this.scene = new Scene(name);
+        this.reader = reader;
+    }
+
+    /**
+     * Loads a scene from an XML file. The scene is named after the file.
+     *
+     * @param file the XML file
+     * @return the loader, holding the scene
+     * @throws IllegalArgumentException if the file is not a valid scene
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public static SceneLoader load(Path file) {
+        String name = file.getFileName().toString().replaceFirst("\\.xml$", "");
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return load(name, in);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't read the scene file " + file, e);
+        }
+    }
+
+    /**
+     * Loads a scene from an XML stream. The stream is not closed.
+     *
+     * @param name the name of the scene
+     * @param in   the XML stream
+     * @return the loader, holding the scene
+     * @throws IllegalArgumentException if the stream is not a valid scene
+     */
+    public static SceneLoader load(String name, InputStream in) {
+        long start = System.nanoTime();
+        SceneBuildEvent event = new SceneBuildEvent();
+        event.begin();
+        XMLStreamReader reader = null;
+        try {
+            reader = FACTORY.createXMLStreamReader(in);
+            SceneLoader loader = new SceneLoader(name, reader);
+            loader.parse();
+            loader.parseTime = (System.nanoTime() - start) / 1_000_000;
+            if (event.shouldCommit()) {
+                event.scene = name;
+                event.elements = loader.elements;
+                event.commit();
+            }
+            logger.info(() -> String.format("Loaded scene %s: %d elements in %d ms",
+                    name, loader.elements, loader.parseTime));
+            return loader;
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Invalid scene XML: " + e.getMessage(), e);
+        } finally {
+            if (reader != null)
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // nothing to release
+                }
+        }
+    }
+
+    /**
+     * Gets the loaded scene.
+     *
+     * @return the scene
+     */
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Gets the camera builder of the scene, with a {@link SimpleRayTracer} of the scene.
+     *
+     * @return the camera builder, {@code null} if the file has no camera
+     */
+    public Camera.Builder getCameraBuilder() {
+        return camera;
+    }
+
+    /**
+     * Gets the amount of the XML elements in the file.
+     *
+     * @return the amount of elements
+     */
+    public long getElements() {
+        return elements;
+    }
+
+    /**
+     * Gets the time it took to parse the file and to build the scene.
+     *
+     * @return the time in milliseconds
+     */
+    public long getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * Reads the file element by element and builds the scene.
+     *
+     * @throws XMLStreamException       if the file is not a well-formed XML
+     * @throws IllegalArgumentException if the file is not a valid scene
+     */
+    private void parse() throws XMLStreamException {
+        reader.nextTag();
+        if (!reader.getLocalName().equals("scene"))
+            throw error("The root element must be <scene>");
+        Color background = color("background-color", null);
+        if (background != null) scene.setBackground(background);
+        elements = 1;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                elements++;
+                startElement(reader.getLocalName());
+            } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals(geometry))
+                endGeometry();
+        }
+        vertices = null;
+        indices = null;
+    }
+
+    /**
+     * Handles the start of an element.
+     *
+     * @param name the name of the element
+     */
+    private void startElement(String name) {
+        switch (name) {
+            case "ambient-light" -> scene.setAmbientLight(
+                    new AmbientLight(color("color", Color.BLACK), coefficient("k", Double3.ONE)));
+            case "materials", "geometries", "lights" -> {
+                BVHConstruction bvh = name.equals("geometries") ? construction(null) : null;
+                if (bvh != null) scene.geometries.setBVH(bvh);
+            }
+            case "material" -> material();
+            case "sphere", "triangle", "plane", "polygon", "mesh" -> startGeometry(name);
+            case "vertex" -> vertex();
+            case "face" -> face();
+            case "directional-light" -> scene.lights.add(
+                    new DirectionalLight(color("color", Color.BLACK), vector("direction")));
+            case "point-light" -> scene.lights.add(attenuation(
+                    new PointLight(color("color", Color.BLACK), point("position"))));
+            case "spot-light" -> scene.lights.add(attenuation(
+                    new SpotLight(color("color", Color.BLACK), point("position"), vector("direction"))
+                            .setNarrowBeam((int) number("narrow-beam", 1))));
+            case "camera" -> camera();
+            default -> throw error("Unknown element <" + name + ">");
+        }
+    }
+
+    /**
+     * Handles a material - a named one, or the material of the geometry being read.
+     */
+    private void material() {
+        Material m = new Material()
+                .setKd(coefficient("kd", Double3.ZERO)).setKs(coefficient("ks", Double3.ZERO))
+                .setKt(coefficient("kt", Double3.ZERO)).setKr(coefficient("kr", Double3.ZERO))
+                .setShininess((int) number("shininess", 1))
+                .setGloss((int) number("gloss", 0))
+                .setDiff((int) number("diff", 0));
+        if (geometry != null)
+            material = m;
+        else
+            materials.put(required("name"), m);
+    }
+
+    /**
+     * Handles the start of a geometry element - reads its attributes. The geometry is built at
+     * the end of the element, after its vertices, faces and material are read.
+     *
+     * @param name the name of the element
+     */
+    private void startGeometry(String name) {
+        if (geometry != null) throw error("A geometry can't be nested in <" + geometry + ">");
+        geometry = name;
+        emission = color("emission", null);
+        String materialName = reader.getAttributeValue(null, "material");
+        if (materialName == null)
+            material = null;
+        else {
+            material = materials.get(materialName);
+            if (material == null) throw error("Unknown material " + materialName);
+        }
+        vertexCount = 0;
+        indexCount = 0;
+
+        switch (name) {
+            case "sphere" -> {
+                points = new Point[]{point("center")};
+                radius = number("radius", Double.NaN);
+            }
+            case "triangle" -> points = new Point[]{point("p0"), point("p1"), point("p2")};
+            case "plane" -> points = new Point[]{point("point"), Point.ZERO.add(vector("normal"))};
+            case "mesh" -> {
+                watertight = bool("watertight", false);
+                construction = construction(BVHConstruction.SAH);
+                if (construction == null) throw error("A mesh always has a bounding volume hierarchy");
+            }
+            default -> points = null;
+        }
+    }
+
+    /**
+     * Handles the end of a geometry element - builds the geometry and adds it to the scene.
+     */
+    private void endGeometry() {
+        Geometry g;
+        try {
+            g = switch (geometry) {
+                case "sphere" -> new Sphere(radius, points[0]);
+                case "triangle" -> new Triangle(points[0], points[1], points[2]);
+                case "plane" -> new Plane(points[0], points[1].subtract(Point.ZERO));
+                case "polygon" -> new Polygon(polygonVertices());
+                default -> new TriangleMesh(Arrays.copyOf(vertices, vertexCount), Arrays.copyOf(indices, indexCount),
+                        construction).setWatertight(watertight);
+            };
+        } catch (IllegalArgumentException e) {
+            throw error("Invalid <" + geometry + ">: " + e.getMessage());
+        }
+        if (emission != null) g.setEmission(emission);
+        if (material != null) g.setMaterial(material);
+        scene.geometries.add(g);
+        geometry = null;
+    }
+
+    /**
+     * Converts the vertices read for a polygon to points.
+     *
+     * @return the vertices of the polygon
+     */
+    private Point[] polygonVertices() {
+        Point[] result = new Point[vertexCount / 3];
+        for (int i = 0; i < result.length; i++)
+            result[i] = new Point(vertices[3 * i], vertices[3 * i + 1], vertices[3 * i + 2]);
+        return result;
+    }
+
+    /**
+     * Handles a vertex of the polygon or the mesh being read.
+     */
+    private void vertex() {
+        if (!"polygon".equals(geometry) && !"mesh".equals(geometry))
+            throw error("<vertex> must be inside <polygon> or <mesh>");
+        triple("p");
+        if (vertexCount + 3 > vertices.length) vertices = Arrays.copyOf(vertices, vertices.length * 2);
+        vertices[vertexCount++] = numbers[0];
+        vertices[vertexCount++] = numbers[1];
+        vertices[vertexCount++] = numbers[2];
+    }
+
+    /**
+     * Handles a triangle of the mesh being read.
+     */
+    private void face() {
+        if (!"mesh".equals(geometry)) throw error("<face> must be inside <mesh>");
+        triple("v");
+        if (indexCount + 3 > indices.length) indices = Arrays.copyOf(indices, indices.length * 2);
+        for (int i = 0; i < 3; i++) {
+            int index = (int) numbers[i];
+            if (index != numbers[i]) throw error("Vertex index " + numbers[i] + " is not an integer");
+            indices[indexCount++] = index;
+        }
+    }
+
+    /**
+     * Reads the attenuation factors of a point light.
+     *
+     * @param light the light
+     * @return the light
+     */
+    private PointLight attenuation(PointLight light) {
+        return light.setKc(number("kc", 1)).setKl(number("kl", 0)).setKq(number("kq", 0));
+    }
+
+    /**
+     * Handles the camera of the scene.
+     */
+    private void camera() {
+        Point location = point("location");
+        Vector direction = vector("direction");
+        Vector up = vector("up");
+        pair("vp-size");
+        double width = numbers[0], height = numbers[1];
+        pair("resolution");
+        int nX = (int) numbers[0], nY = (int) numbers[1];
+        String image = reader.getAttributeValue(null, "image");
+        Sampler sampler = sampler();
+        try {
+            camera = Camera.getBuilder()
+                    .setRayTracer(new SimpleRayTracer(scene)
+                            .setRayBudget((int) number("ray-budget", RayTracerBase.DEFAULT_RAY_BUDGET))
+                            .setSampler(sampler))
+                    .setSampler(sampler)
+                    .setLocation(location)
+                    .setDirection(direction, up)
+                    .setVpSize(width, height)
+                    .setVpDistance(number("vp-distance", Double.NaN))
+                    .setDebugPrint(number("print-interval", 0))
+                    .setImageWriter(new ImageWriter(image == null ? scene.name : image, nX, nY))
+                    .setMultiThreading((int) number("threads", 1))
+                    .setTileSize((int) number("tile-size", 16))
+                    .setTotalRays((int) number("total-rays", 1))
+                    .setAdaptiveDepth((int) number("adaptive-depth", 0))
+                    .setErrorThreshold(number("error-threshold", 0))
+                    .setMaxSamples((int) number("max-samples", Camera.DEFAULT_MAX_SAMPLES))
+                    .setTimeBudget((long) number("time-budget", 0))
+                    .setSampleBudget((long) number("sample-budget", 0))
+                    .setStreaming(bool("streaming", false))
+                    .setCostMap(bool("cost-map", false));
+        } catch (IllegalArgumentException e) {
+            throw error("Invalid <camera>: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the sampler attribute of the camera.
+     *
+     * @return the sampler, null for a regular grid
+     */
+    private Sampler sampler() {
+        String name = reader.getAttributeValue(null, "sampler");
+        if (name == null) return null;
+        return switch (name.trim()) {
+            case "grid" -> null;
+            case "jittered" -> new JitteredSampler(SAMPLER_SEED);
+            case "halton" -> new HaltonSampler(SAMPLER_SEED);
+            case "sobol" -> new SobolSampler(SAMPLER_SEED);
+            case "poisson" -> new PoissonDiskSampler(SAMPLER_SEED);
+            default -> throw error("Unknown sampler " + name);
+        };
+    }
+
+    /**
+     * Reads a required attribute.
+     *
+     * @param name the name of the attribute
+     * @return the value of the attribute
+     */
+    private String required(String name) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) throw error("Missing attribute " + name + " of <" + reader.getLocalName() + ">");
+        return value;
+    }
+
+    /**
+     * Reads a numeric attribute.
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the value of an omitted attribute, {@code NaN} if the attribute is required
+     * @return the number
+     */
+    private double number(String name, double defaultValue) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) {
+            if (Double.isNaN(defaultValue)) throw error("Missing attribute " + name + " of <" + reader.getLocalName() + ">");
+            return defaultValue;
+        }
+        if (parse(name, value, 1) != 1) throw error("Attribute " + name + " must be a single number");
+        return numbers[0];
+    }
+
+    /**
+     * Reads a boolean attribute.
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the value of an omitted attribute
+     * @return the value of the attribute
+     */
+    private boolean bool(String name, boolean defaultValue) {
+        String value = reader.getAttributeValue(null, name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Reads the bvh attribute - the construction of a bounding volume hierarchy.
+     *
+     * @param defaultValue the value of an omitted attribute
+     * @return the construction, null for no hierarchy
+     */
+    private BVHConstruction construction(BVHConstruction defaultValue) {
+        String name = reader.getAttributeValue(null, "bvh");
+        if (name == null) return defaultValue;
+        return switch (name.trim()) {
+            case "false" -> null;
+            case "true", "sah" -> BVHConstruction.SAH;
+            case "linear" -> BVHConstruction.LINEAR;
+            case "linear-treelets" -> BVHConstruction.LINEAR_TREELETS;
+            default -> throw error("Unknown bvh " + name);
+        };
+    }
+
+    /**
+     * Reads a required attribute of two numbers into the buffer.
+     *
+     * @param name the name of the attribute
+     */
+    private void pair(String name) {
+        if (parse(name, required(name), 2) != 2) throw error("Attribute " + name + " must be 2 numbers");
+    }
+
+    /**
+     * Reads a required attribute of three numbers into the buffer.
+     *
+     * @param name the name of the attribute
+     */
+    private void triple(String name) {
+        if (parse(name, required(name), 3) != 3) throw error("Attribute " + name + " must be 3 numbers");
+    }
+
+    /**
+     * Reads a required point attribute.
+     *
+     * @param name the name of the attribute
+     * @return the point
+     */
+    private Point point(String name) {
+        triple(name);
+        return new Point(numbers[0], numbers[1], numbers[2]);
+    }
+
+    /**
+     * Reads a required vector attribute.
+     *
+     * @param name the name of the attribute
+     * @return the vector
+     */
+    private Vector vector(String name) {
+        triple(name);
+        try {
+            return new Vector(numbers[0], numbers[1], numbers[2]);
+        } catch (IllegalArgumentException e) {
+            throw error("Attribute " + name + " is a zero vector");
+        }
+    }
+
+    /**
+     * Reads a color attribute.
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the value of an omitted attribute
+     * @return the color
+     */
+    private Color color(String name, Color defaultValue) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) return defaultValue;
+        if (parse(name, value, 3) != 3) throw error("Attribute " + name + " must be 3 numbers");
+        return new Color(numbers[0], numbers[1], numbers[2]);
+    }
+
+    /**
+     * Reads a coefficient attribute - a single number or a triple.
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the value of an omitted attribute
+     * @return the coefficient
+     */
+    private Double3 coefficient(String name, Double3 defaultValue) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) return defaultValue;
+        return switch (parse(name, value, 3)) {
+            case 1 -> new Double3(numbers[0]);
+            case 3 -> new Double3(numbers[0], numbers[1], numbers[2]);
+            default -> throw error("Attribute " + name + " must be 1 or 3 numbers");
+        };
+    }
+
+    /**
+     * Parses the numbers of an attribute value, separated by white spaces, into the buffer. The value is
+     * scanned in place, so no temporary arrays of substrings are created for the millions of attributes
+     * of a large file.
+     *
+     * @param name  the name of the attribute
+     * @param value the value of the attribute
+     * @param max   the maximal amount of numbers
+     * @return the amount of numbers, or {@code max + 1} if there are more
+     */
+    private int parse(String name, String value, int max) {
+        int count = 0;
+        int length = value.length();
+        int i = 0;
+        while (true) {
+            while (i < length && Character.isWhitespace(value.charAt(i))) i++;
+            if (i == length) return count;
+            if (count == max) return max + 1;
+            int start = i;
+            while (i < length && !Character.isWhitespace(value.charAt(i))) i++;
+            try {
+                numbers[count++] = Double.parseDouble(value.substring(start, i));
+            } catch (NumberFormatException e) {
+                throw error("Attribute " + name + " is not numeric: " + value);
+            }
+        }
+    }
+
+    /**
+     * Creates an exception of an invalid scene, at the current location of the parser.
+     *
+     * @param message the description of the problem
+     * @return the exception
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at line " + reader.getLocation().getLineNumber());
+    }
+}
@@ -3,8 +3,10 @@ package geometries;
 import org.junit.jupiter.api.Test;
 import primitives.*;
 
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,4 +59,148 @@ public class GeometriesTests {
         assertEquals(res3, geometries.findIntersections(ray), "ERROR: Only 1 geometry intersects");
 
     }
+
+    /**
+     * Test method for {@link Geometries#findIntersections(Ray)} with the bounding volume hierarchy.
+     */
+    @Test
+    void testFindIntersectionsBVH() {
+        // ============ Equivalence Partitions Tests ==============
+        Random random = new Random(5784);
+        Geometries list = new Geometries();
+        Geometries bvh = new Geometries().setBVH(true);
+        Geometries linear = new Geometries().setBVH(BVHConstruction.LINEAR);
+        Geometries treelets = new Geometries().setBVH(BVHConstruction.LINEAR_TREELETS);
+        Plane plane = new Plane(new Point(0, -60, 0), new Vector(0, 1, 0));
+        randomScene(random, list, bvh, linear, treelets);
+
+        //TC01: every ray finds the same intersections with and without the hierarchy, by every construction
+        for (int i = 0; i < 500; i++) {
+            Ray ray = randomRay(random);
+            List<Point> expected = sorted(list.findIntersections(ray), ray.getHead());
+            for (Geometries geometries : List.of(bvh, linear, treelets))
+                assertEquals(expected, sorted(geometries.findIntersections(ray), ray.getHead()),
+                        "ERROR: the hierarchy changes the intersections");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Empty Geometries Collection
+        Ray ray = new Ray(new Point(1.5, 2, 1), new Vector(-2, 0, 4));
+        assertNull(new Geometries().buildBVH().findIntersections(ray), "ERROR: empty geometries collection");
+
+        //TC11: Only unbounded geometries
+        ray = new Ray(new Point(0, 0, 0), new Vector(0, -1, 0));
+        assertEquals(List.of(new Point(0, -60, 0)), new Geometries(plane).buildBVH().findIntersections(ray),
+                "ERROR: unbounded geometries must always be tested");
+    }
+
+    /**
+     * Test method for {@link Geometries#findTransparency(Ray, double)}.
+     */
+    @Test
+    void testFindTransparency() {
+        Sphere glass = new Sphere(1, new Point(0, 0, -5));
+        glass.setMaterial(new Material().setKt(0.5));
+        Triangle opaque = new Triangle(new Point(-2, -2, -10), new Point(2, -2, -10), new Point(0, 2, -10));
+        Plane floor = new Plane(new Point(0, 0, -20), new Vector(0, 0, 1));
+        floor.setMaterial(new Material().setKt(0.5));
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+
+        for (Geometries geometries : List.of(new Geometries(glass, opaque, floor), new Geometries(glass, opaque, floor).setBVH(true))) {
+            // ============ Equivalence Partitions Tests ==============
+            //TC01: the segment crosses a transparent sphere twice
+            assertEquals(new Double3(0.25), geometries.findTransparency(ray, 8), "ERROR: wrong transparency through a sphere");
+
+            //TC02: the segment is blocked by an opaque triangle
+            assertEquals(Double3.ZERO, geometries.findTransparency(ray, 30), "ERROR: an opaque geometry must block the segment");
+
+            //TC03: nothing between the head of the ray and the light source
+            assertEquals(Double3.ONE, geometries.findTransparency(ray, 3), "ERROR: geometries beyond the light must be ignored");
+
+            // =============== Boundary Values Tests ==================
+            //TC10: the light source is exactly on the sphere
+            assertEquals(new Double3(0.5), geometries.findTransparency(ray, 4), "ERROR: intersection at the maximal distance");
+        }
+    }
+
+    /**
+     * Test method for {@link Geometries#findClosestGeoIntersection(Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Random random = new Random(4491);
+        Geometries list = new Geometries();
+        Geometries bvh = new Geometries().setBVH(true);
+        Geometries treelets = new Geometries().setBVH(BVHConstruction.LINEAR_TREELETS);
+        randomScene(random, list, bvh, treelets);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the closest intersection is the first one of all the sorted intersections
+        for (int i = 0; i < 500; i++) {
+            Ray ray = randomRay(random);
+            List<Point> all = sorted(list.findIntersections(ray), ray.getHead());
+            Point expected = all == null ? null : all.getFirst();
+            for (Geometries geometries : List.of(list, bvh, treelets)) {
+                Intersectable.GeoPoint closest = geometries.findClosestGeoIntersection(ray);
+                assertEquals(expected, closest == null ? null : closest.point, "ERROR: wrong closest intersection");
+                if (closest != null)
+                    assertEquals(closest.point.distance(ray.getHead()), closest.t, 1e-9, "ERROR: wrong distance of the closest intersection");
+            }
+        }
+
+        //TC02: the closest intersection is beyond the maximal distance
+        Geometries spheres = new Geometries(new Sphere(1, new Point(0, 0, -5)), new Sphere(1, new Point(0, 0, -10)));
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+        assertNull(spheres.findClosestGeoIntersection(ray, 3), "ERROR: intersections beyond the maximal distance");
+
+        //TC03: the ray starts inside the nearer sphere
+        ray = new Ray(new Point(0, 0, -5), new Vector(0, 0, -1));
+        assertEquals(new Point(0, 0, -6), spheres.findClosestGeoIntersection(ray).point, "ERROR: ray starts inside a sphere");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the closest intersection is exactly at the maximal distance
+        ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+        assertEquals(new Point(0, 0, -4), spheres.findClosestGeoIntersection(ray, 4).point, "ERROR: intersection at the maximal distance");
+    }
+
+    /**
+     * Fills collections of geometries with the same random spheres and triangles and a plane
+     *
+     * @param random      the random numbers generator
+     * @param collections the collections to fill
+     */
+    private void randomScene(Random random, Geometries... collections) {
+        for (int i = 0; i < 200; i++) {
+            Point p = new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+            Intersectable geometry = i % 2 == 0
+                    ? new Sphere(random.nextDouble() * 3 + 0.5, p)
+                    : new Triangle(p, p.add(new Vector(random.nextDouble() * 5 + 1, 0, 1)), p.add(new Vector(0, random.nextDouble() * 5 + 1, 2)));
+            for (Geometries geometries : collections) geometries.add(geometry);
+        }
+        Plane plane = new Plane(new Point(0, -60, 0), new Vector(0, 1, 0));
+        for (Geometries geometries : collections) geometries.add(plane);
+    }
+
+    /**
+     * Creates a random ray from above the random scene towards a point inside it
+     *
+     * @param random the random numbers generator
+     * @return the ray
+     */
+    private Ray randomRay(Random random) {
+        Point head = new Point(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100, 150);
+        Point target = new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+        return new Ray(head, target.subtract(head));
+    }
+
+    /**
+     * Sorts intersection points by their distance from a point
+     *
+     * @param points the points, may be null
+     * @param head   the point to measure the distance from
+     * @return the sorted points, or null
+     */
+    private List<Point> sorted(List<Point> points, Point head) {
+        return points == null ? null : points.stream().sorted(Comparator.comparingDouble(p -> p.distance(head))).toList();
+    }
 }
@@ -0,0 +1,121 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the Instance class
+ */
+class InstanceTests {
+    /** The precision of the compared values */
+    private static final double DELTA = 1e-9;
+    /** A unit sphere at the origin, shared by the instances */
+    private final Sphere sphere = new Sphere(1, Point.ZERO);
+
+    /**
+     * Test method for {@link Instance#findGeoIntersections(Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Instance instance = new Instance(sphere, Transform.scaling(2).then(Transform.translation(new Vector(10, 0, 0))));
+        Ray ray = new Ray(Point.ZERO, new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the ray crosses the scaled and moved sphere
+        List<Intersectable.GeoPoint> result = instance.findGeoIntersections(ray);
+        assertNotNull(result, "ERROR: the instance is missed");
+        assertEquals(2, result.size(), "ERROR: wrong amount of intersections");
+        Intersectable.GeoPoint closest = instance.findClosestGeoIntersection(ray);
+        assertEquals(new Point(8, 0, 0), closest.point, "ERROR: wrong closest point");
+        assertEquals(8, closest.t, DELTA, "ERROR: wrong distance of the closest point");
+        assertEquals(new Vector(-1, 0, 0), closest.geometry.getNormal(closest.point), "ERROR: wrong normal");
+
+        //TC02: the ray misses the instance, though it crosses the shared sphere itself
+        assertNull(instance.findGeoIntersections(new Ray(new Point(0, 0, 5), new Vector(0, 0, -1))),
+                "ERROR: the untransformed sphere is hit");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the maximal distance is kept in the scene, not in the space of the sphere
+        assertNull(instance.findClosestGeoIntersection(ray, 7.9), "ERROR: a point beyond the distance is found");
+        assertEquals(1, instance.findGeoIntersections(ray, 10).size(), "ERROR: wrong points within the distance");
+    }
+
+    /**
+     * Test method for {@link Instance.Part#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the normal of a stretched sphere stays orthogonal to its surface
+        Instance instance = new Instance(sphere, Transform.scaling(1, 4, 1));
+        double s = Math.sqrt(0.5);
+        Intersectable.GeoPoint gp = instance.findClosestGeoIntersection(
+                new Ray(new Point(s, 10, 0), new Vector(0, -1, 0)));
+        assertEquals(4 * s, gp.point.getY(), DELTA, "ERROR: wrong point");
+        Vector normal = gp.geometry.getNormal(gp.point);
+        assertEquals(0, normal.dotProduct(new Vector(-s, 4 * s, 0)), DELTA, "ERROR: the normal is not orthogonal");
+        assertEquals(sphere.getMaterial(), gp.geometry.getMaterial(), "ERROR: wrong material");
+    }
+
+    /**
+     * Test method for {@link Instance.Part#setEmission(Color)} and {@link Instance.Part#setMaterial(Material)}.
+     */
+    @Test
+    void testPartSetters() {
+        Sphere shared = new Sphere(1, Point.ZERO);
+        Instance first = new Instance(shared, Transform.translation(new Vector(0, 0, -10)));
+        Instance second = new Instance(shared, Transform.translation(new Vector(5, 0, -10)));
+        Color emission = new Color(10, 20, 30);
+        Material material = new Material().setKd(0.5);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the emission and the material of a part are set on the shared geometry, for all the instances
+        first.findClosestGeoIntersection(new Ray(Point.ZERO, new Vector(0, 0, -1))).geometry
+                .setEmission(emission).setMaterial(material);
+        Geometry part = second.findClosestGeoIntersection(new Ray(new Point(5, 0, 0), new Vector(0, 0, -1))).geometry;
+        assertSame(emission, part.getEmission(), "ERROR: the emission is not shared");
+        assertSame(material, part.getMaterial(), "ERROR: the material is not shared");
+    }
+
+    /**
+     * Test method for {@link Instance#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the box of the rotated box of the object
+        BoundingBox box = new Instance(sphere, Transform.rotation(new Vector(0, 0, 1), 45)).getBoundingBox();
+        assertEquals(Math.sqrt(2), box.getMax(0), DELTA, "ERROR: wrong bounding box");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the instance of an unbounded object is unbounded
+        assertNull(new Instance(new Plane(Point.ZERO, Vector.Y), Transform.IDENTITY).getBoundingBox(),
+                "ERROR: an unbounded instance has a box");
+    }
+
+    /**
+     * Test method for instances in a {@link Geometries} with a bounding volume hierarchy.
+     */
+    @Test
+    void testSharedObject() {
+        TriangleMesh mesh = new TriangleMesh(new double[]{-1, -1, 0, 1, -1, 0, 0, 1, 0}, new int[]{0, 1, 2});
+        Geometries scene = new Geometries().setBVH(true);
+        for (int i = 0; i < 100; i++)
+            scene.add(new Instance(mesh, Transform.translation(new Vector(3 * i, 0, -10))));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the hierarchy over the instances finds the right copy of the shared mesh
+        Intersectable.GeoPoint gp = scene.findClosestGeoIntersection(new Ray(new Point(150, 0, 0), new Vector(0, 0, -1)));
+        assertEquals(new Point(150, 0, -10), gp.point, "ERROR: wrong point");
+        assertSame(mesh, ((TriangleMesh.Face) ((Instance.Part) gp.geometry).getGeometry()).getMesh(),
+                "ERROR: the mesh is not shared");
+
+        //TC02: a shadow ray is blocked by an instance
+        assertEquals(Double3.ZERO, scene.findTransparency(new Ray(new Point(3, 0, 0), new Vector(0, 0, -1)), 20),
+                "ERROR: the shadow ray is not blocked");
+    }
+}
@@ -0,0 +1,140 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the LinearHierarchyBuilder class
+ */
+class LinearHierarchyBuilderTests {
+
+    /**
+     * Creates the bounds of random small boxes
+     *
+     * @param n      the amount of boxes
+     * @param random the random numbers generator
+     * @return the bounds, 6 values per box
+     */
+    private double[] randomBounds(int n, Random random) {
+        double[] bounds = new double[6 * n];
+        for (int i = 0; i < n; i++)
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[6 * i + axis] = random.nextDouble() * 100;
+                bounds[6 * i + 3 + axis] = bounds[6 * i + axis] + random.nextDouble();
+            }
+        return bounds;
+    }
+
+    /**
+     * Checks the structure of a hierarchy: every primitive is in a single leaf, and the box of every
+     * node contains the boxes of its children and of its primitives
+     *
+     * @param tree       the hierarchy
+     * @param primBounds the bounds of the primitives
+     */
+    private void assertValid(BoundingVolumeHierarchy tree, double[] primBounds) {
+        int n = primBounds.length / 6;
+        boolean[] seen = new boolean[n];
+        int leaves = 0;
+        for (int node = 0; node < tree.nodes.length / 2; node++) {
+            int count = tree.nodes[2 * node];
+            if (count == 0) {
+                assertTrue(contains(tree.bounds, 6 * node, tree.bounds, 6 * (node + 1)), "ERROR: a left child is out of its parent");
+                int right = tree.nodes[2 * node + 1];
+                assertTrue(contains(tree.bounds, 6 * node, tree.bounds, 6 * right), "ERROR: a right child is out of its parent");
+                continue;
+            }
+            assertTrue(count <= BoundingVolumeHierarchy.MAX_LEAF_SIZE, "ERROR: a leaf is too large");
+            for (int i = tree.nodes[2 * node + 1]; i < tree.nodes[2 * node + 1] + count; i++) {
+                int p = tree.primitives[i];
+                assertFalse(seen[p], "ERROR: a primitive is in two leaves");
+                seen[p] = true;
+                leaves++;
+                assertTrue(contains(tree.bounds, 6 * node, primBounds, 6 * p), "ERROR: a primitive is out of its leaf");
+            }
+        }
+        assertEquals(n, leaves, "ERROR: a primitive is missing");
+    }
+
+    /**
+     * Checks whether a box contains another one
+     *
+     * @param outer       the array of the outer box
+     * @param offset      the offset of the outer box
+     * @param inner       the array of the inner box
+     * @param innerOffset the offset of the inner box
+     * @return true if the outer box contains the inner box
+     */
+    private boolean contains(double[] outer, int offset, double[] inner, int innerOffset) {
+        for (int axis = 0; axis < 3; axis++)
+            if (inner[innerOffset + axis] < outer[offset + axis] || inner[innerOffset + 3 + axis] > outer[offset + 3 + axis])
+                return false;
+        return true;
+    }
+
+    /**
+     * Calculates the cost of a hierarchy by the surface area heuristic
+     *
+     * @param tree the hierarchy
+     * @return the cost, relatively to the area of the root
+     */
+    private double cost(BoundingVolumeHierarchy tree) {
+        double cost = 0;
+        for (int node = 0; node < tree.nodes.length / 2; node++) {
+            int count = tree.nodes[2 * node];
+            double area = BoundingVolumeHierarchy.area(tree.bounds, 6 * node);
+            cost += count == 0 ? BoundingVolumeHierarchy.TRAVERSAL_COST * area : count * area;
+        }
+        return cost / BoundingVolumeHierarchy.area(tree.bounds, 0);
+    }
+
+    /**
+     * Test method for {@link LinearHierarchyBuilder#build()}.
+     */
+    @Test
+    void testBuild() {
+        // more primitives than a chunk of the radix sort and a parallel subtree
+        double[] bounds = randomBounds(100_000, new Random(7316));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a valid hierarchy
+        BoundingVolumeHierarchy linear = new LinearHierarchyBuilder(bounds, false).build();
+        assertValid(linear, bounds);
+
+        //TC02: the restructured treelets are a valid hierarchy of a lower cost
+        BoundingVolumeHierarchy treelets = new LinearHierarchyBuilder(bounds, true).build();
+        assertValid(treelets, bounds);
+        assertTrue(cost(treelets) < cost(linear), "ERROR: the treelets don't lower the cost");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a single primitive
+        BoundingVolumeHierarchy single = new LinearHierarchyBuilder(new double[]{0, 0, 0, 1, 1, 1}, true).build();
+        assertEquals(1, single.nodes[0], "ERROR: a single primitive is not a leaf");
+
+        //TC11: primitives of the same centroid, whose codes are all the same
+        double[] same = new double[6 * 100];
+        for (int i = 0; i < 100; i++) same[6 * i + 3] = same[6 * i + 4] = same[6 * i + 5] = 1;
+        assertValid(new LinearHierarchyBuilder(same, true).build(), same);
+
+        //TC12: no primitives
+        assertThrows(IllegalArgumentException.class, () -> new LinearHierarchyBuilder(new double[0], false),
+                "ERROR: a hierarchy without primitives");
+    }
+
+    /**
+     * Test method for {@link LinearHierarchyBuilder#spread(long)}.
+     */
+    @Test
+    void testSpread() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the bits are separated by two zero bits
+        assertEquals(0b1001001L, LinearHierarchyBuilder.spread(0b111), "ERROR: wrong spread bits");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the highest bit of a coordinate
+        assertEquals(1L << 60, LinearHierarchyBuilder.spread(1 << 20), "ERROR: wrong spread of the highest bit");
+    }
+}
@@ -0,0 +1,248 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriangleMeshTests {
+
+    /**
+     * Creates a bumpy grid of vertices, two triangles per grid cell
+     *
+     * @param n      the amount of cells along each side
+     * @param random the random numbers generator for the heights of the vertices
+     * @return the vertex coordinates
+     */
+    private double[] gridVertices(int n, Random random) {
+        double[] vertices = new double[3 * (n + 1) * (n + 1)];
+        for (int i = 0; i <= n; i++)
+            for (int j = 0; j <= n; j++) {
+                int v = 3 * (i * (n + 1) + j);
+                vertices[v] = j * 10d / n - 5;
+                vertices[v + 1] = i * 10d / n - 5;
+                vertices[v + 2] = -10 + random.nextDouble();
+            }
+        return vertices;
+    }
+
+    /**
+     * Creates the triangle indices of a grid of vertices
+     *
+     * @param n the amount of cells along each side
+     * @return the vertex indices of the triangles
+     */
+    private int[] gridIndices(int n) {
+        int[] indices = new int[6 * n * n];
+        int k = 0;
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                int v = i * (n + 1) + j;
+                indices[k++] = v;
+                indices[k++] = v + 1;
+                indices[k++] = v + n + 2;
+                indices[k++] = v;
+                indices[k++] = v + n + 2;
+                indices[k++] = v + n + 1;
+            }
+        return indices;
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        double[] vertices = {0, 0, 0, 1, 0, 0, 0, 1, 0};
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a correct mesh
+        assertDoesNotThrow(() -> new TriangleMesh(vertices, new int[]{0, 1, 2}), "ERROR: failed constructing a correct mesh");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: index out of the vertices
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(vertices, new int[]{0, 1, 3}),
+                "ERROR: constructed a mesh with a wrong index");
+        //TC11: indices not in triples
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(vertices, new int[]{0, 1}),
+                "ERROR: constructed a mesh with a partial triangle");
+        //TC12: no triangles
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(vertices, new int[0]),
+                "ERROR: constructed an empty mesh");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        Random random = new Random(2024);
+        TriangleMesh mesh = new TriangleMesh(gridVertices(8, random), gridIndices(8));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a point in a triangle gets the normal of the triangle
+        for (int i = 0; i < 100; i++) {
+            TriangleMesh.Face face = mesh.getFace(random.nextInt(mesh.size()));
+            double u = random.nextDouble() * 0.9 + 0.05, v = random.nextDouble() * (0.95 - u) + 0.025;
+            Point point = vertex(mesh, face.getIndex(), 0).scale(1 - u - v)
+                    .add(vertex(mesh, face.getIndex(), 1).scale(u))
+                    .add(vertex(mesh, face.getIndex(), 2).scale(v));
+            assertEquals(face.getNormal(point), mesh.getNormal(point), "ERROR: wrong normal of a point in a triangle");
+        }
+
+        //TC02: a point off the mesh gets the normal of the nearest triangle
+        TriangleMesh.Face face = mesh.getFace(37);
+        Point center = vertex(mesh, 37, 0).add(vertex(mesh, 37, 1)).add(vertex(mesh, 37, 2)).scale(1d / 3);
+        assertEquals(face.getNormal(center), mesh.getNormal(center.add(face.getNormal(center).scale(0.01))),
+                "ERROR: wrong normal of a point off the mesh");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a single triangle
+        TriangleMesh triangle = new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 2});
+        assertEquals(new Vector(0, 0, 1), triangle.getNormal(new Point(5, 5, 5)), "ERROR: wrong normal of a single triangle");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh.Face#setEmission(Color)} and
+     * {@link TriangleMesh.Face#setMaterial(Material)}.
+     */
+    @Test
+    void testFaceSetters() {
+        TriangleMesh mesh = new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0},
+                new int[]{0, 1, 2, 1, 3, 2});
+        Color emission = new Color(10, 20, 30);
+        Material material = new Material().setKd(0.5);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the emission and the material of a face are set on its mesh, for all its faces
+        mesh.getFace(0).setEmission(emission).setMaterial(material);
+        assertSame(emission, mesh.getEmission(), "ERROR: the emission of the mesh is not set");
+        assertSame(emission, mesh.getFace(1).getEmission(), "ERROR: the emission of a face is not shared");
+        assertSame(material, mesh.getFace(1).getMaterial(), "ERROR: the material of a face is not shared");
+    }
+
+    /**
+     * Gets a vertex of a triangle of a mesh, as a vector from the origin
+     *
+     * @param mesh     the mesh
+     * @param triangle the index of the triangle
+     * @param vertex   the index of the vertex in the triangle, 0 to 2
+     * @return the vertex
+     */
+    private Vector vertex(TriangleMesh mesh, int triangle, int vertex) {
+        int v = 3 * mesh.indices[3 * triangle + vertex];
+        return new Vector(mesh.vertices[v], mesh.vertices[v + 1], mesh.vertices[v + 2]);
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#findClosestGeoIntersection(Ray)} and
+     * {@link TriangleMesh#findGeoIntersections(Ray)}, compared with separate triangles.
+     */
+    @Test
+    void testFindIntersections() {
+        Random random = new Random(1982);
+        int n = 20;
+        double[] vertices = gridVertices(n, random);
+        int[] indices = gridIndices(n);
+        Material material = new Material().setKd(0.5);
+        TriangleMesh mesh = new TriangleMesh(vertices, indices);
+        mesh.setMaterial(material);
+        TriangleMesh linear = new TriangleMesh(vertices, indices, BVHConstruction.LINEAR_TREELETS);
+
+        Triangle[] triangles = new Triangle[indices.length / 3];
+        for (int i = 0; i < triangles.length; i++)
+            triangles[i] = new Triangle(point(vertices, indices[3 * i]), point(vertices, indices[3 * i + 1]),
+                    point(vertices, indices[3 * i + 2]));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: every ray hits the same triangle, at the same point, as with separate triangles
+        Point head = new Point(0.3, -0.15, 10);
+        int hits = 0;
+        for (int k = 0; k < 500; k++) {
+            Point target = new Point(random.nextDouble() * 14 - 7, random.nextDouble() * 14 - 7, -10);
+            Ray ray = new Ray(head, target.subtract(head));
+
+            int expected = -1;
+            Intersectable.GeoPoint expectedPoint = null;
+            for (int i = 0; i < triangles.length; i++) {
+                Intersectable.GeoPoint gp = triangles[i].findClosestGeoIntersection(ray);
+                if (gp != null && (expectedPoint == null || gp.t < expectedPoint.t)) {
+                    expected = i;
+                    expectedPoint = gp;
+                }
+            }
+
+            Intersectable.GeoPoint closest = mesh.findClosestGeoIntersection(ray);
+            if (expectedPoint == null) {
+                assertNull(closest, "ERROR: mesh intersection that does not exist");
+                assertNull(mesh.findGeoIntersections(ray), "ERROR: mesh intersections that do not exist");
+                assertNull(linear.findClosestGeoIntersection(ray), "ERROR: linear hierarchy intersection that does not exist");
+                continue;
+            }
+            hits++;
+            TriangleMesh.Face face = (TriangleMesh.Face) closest.geometry;
+            assertEquals(expected, face.getIndex(), "ERROR: wrong triangle hit");
+            assertEquals(expected, ((TriangleMesh.Face) linear.findClosestGeoIntersection(ray).geometry).getIndex(),
+                    "ERROR: wrong triangle hit through the linear hierarchy");
+            assertEquals(expectedPoint.point, closest.point, "ERROR: wrong intersection point");
+            assertEquals(triangles[expected].getNormal(closest.point), face.getNormal(closest.point), "ERROR: wrong normal");
+            assertSame(material, face.getMaterial(), "ERROR: the face does not share the material of the mesh");
+
+            List<Intersectable.GeoPoint> all = mesh.findGeoIntersections(ray);
+            assertEquals(closest.point, all.stream().min(Comparator.comparingDouble(gp -> gp.t)).orElseThrow().point,
+                    "ERROR: the closest intersection is not in the list of intersections");
+        }
+        assertTrue(hits > 100, "ERROR: too few rays hit the mesh for a meaningful test");
+
+        //TC02: a ray that misses the mesh
+        assertNull(mesh.findClosestGeoIntersection(new Ray(head, new Vector(0, 0, 1))), "ERROR: ray away from the mesh");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the mesh is beyond the maximal distance
+        Ray down = new Ray(head, new Vector(0, 0, -1));
+        assertNull(mesh.findClosestGeoIntersection(down, 15), "ERROR: intersection beyond the maximal distance");
+        assertNotNull(mesh.findClosestGeoIntersection(down, 25), "ERROR: no intersection within the maximal distance");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#findTransparency(Ray, double)}.
+     */
+    @Test
+    void testFindTransparency() {
+        // two parallel layers of a square each
+        double[] vertices = {-1, -1, -5, 1, -1, -5, 1, 1, -5, -1, 1, -5,
+                -1, -1, -8, 1, -1, -8, 1, 1, -8, -1, 1, -8};
+        int[] indices = {0, 1, 2, 0, 2, 3, 4, 5, 6, 4, 6, 7};
+        Ray ray = new Ray(new Point(0.2, 0.1, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: transparent mesh - every crossed layer reduces the transparency
+        TriangleMesh glass = new TriangleMesh(vertices, indices);
+        glass.setMaterial(new Material().setKt(0.5));
+        assertEquals(new Double3(0.5), glass.findTransparency(ray, 6), "ERROR: wrong transparency through one layer");
+        assertEquals(new Double3(0.25), glass.findTransparency(ray, 10), "ERROR: wrong transparency through two layers");
+
+        //TC02: opaque mesh
+        TriangleMesh wall = new TriangleMesh(vertices, indices);
+        assertEquals(Double3.ZERO, wall.findTransparency(ray, 10), "ERROR: opaque mesh is transparent");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the mesh is beyond the light source
+        assertEquals(Double3.ONE, wall.findTransparency(ray, 4), "ERROR: mesh beyond the light blocks it");
+    }
+
+    /**
+     * Gets a vertex of a flat vertex array as a point
+     *
+     * @param vertices the vertex coordinates
+     * @param index    the index of the vertex
+     * @return the vertex
+     */
+    private Point point(double[] vertices, int index) {
+        return new Point(vertices[3 * index], vertices[3 * index + 1], vertices[3 * index + 2]);
+    }
+}
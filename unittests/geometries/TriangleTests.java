@@ -74,4 +74,60 @@ class TriangleTests {
 
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link Triangle#findIntersections(Ray)} with the watertight algorithm.
+     */
+    @Test
+    void testFindIntersectionsWatertight() {
+        // ============ Equivalence Partitions Tests ==============
+        tri = new Triangle(new Point(1,1,0), new Point(1,3,0), new Point(3,2,1)).setWatertight(true);
+
+        //TC01: Ray starts before Triangle and intersects with it
+        Ray ray = new Ray(new Point(1.5,2,1), new Vector(2,0,-4));
+        List<Point> res = tri.findIntersections(ray);
+        assertEquals(1, res.size(), "ERROR: Ray intersects with triangle once");
+        assertEquals(0, new Point(1.8,2,0.4).distance(res.getFirst()), 1e-10, "ERROR: wrong intersection point");
+
+        //TC02: Ray starts before triangle and does not intersect
+        ray = new Ray(new Point(2,1,1), new Vector(0,0,-1));
+        assertNull(tri.findIntersections(ray), "ERROR: ray does not intersect with triangle");
+
+        //TC03: Ray starts after the triangle
+        ray = new Ray(new Point(1.8,2,0.4).add(new Vector(2,0,-4)), new Vector(2,0,-4));
+        assertNull(tri.findIntersections(ray), "ERROR: ray starts after the triangle");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Ray intersects with line the extension of a line from A to B
+        ray = new Ray(new Point(1,4,1), new Vector(0,0,-1));
+        assertNull(tri.findIntersections(ray), "ERROR: ray intersects with extension of a line from A to B");
+
+        //TC11: Ray intersect on edge of triangle - a watertight triangle includes its edges
+        ray = new Ray(new Point(1,2,1), new Vector(0,0,-1));
+        assertEquals(List.of(new Point(1,2,0)), tri.findIntersections(ray), "ERROR: ray does not intersect with edge of triangle");
+
+        //TC12: Ray parallel to the triangle
+        ray = new Ray(new Point(1,2,1), new Vector(0,1,0));
+        assertNull(tri.findIntersections(ray), "ERROR: ray parallel to the triangle");
+    }
+
+    /**
+     * Test that rays through the edge shared by two adjacent watertight triangles never slip between them.
+     */
+    @Test
+    void testWatertightSharedEdge() {
+        Point a = new Point(0.1, 0.3, -7.7), b = new Point(13.3, 7.1, -9.3);
+        Triangle t1 = new Triangle(a, b, new Point(-5.9, 11.3, -8.1)).setWatertight(true);
+        Triangle t2 = new Triangle(b, a, new Point(9.7, -4.3, -8.9)).setWatertight(true);
+        Point head = new Point(1.7, 2.9, 5);
+        Vector edge = b.subtract(a);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: rays towards points along the shared edge hit at least one of the triangles
+        for (int i = 1; i < 1000; i++) {
+            Ray ray = new Ray(head, a.add(edge.scale(i / 1000d)).subtract(head));
+            assertTrue(t1.findIntersections(ray) != null || t2.findIntersections(ray) != null,
+                    "ERROR: ray slips between adjacent triangles");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static primitives.RenderStatistics.Counter.*;
+
+class RenderStatisticsTests {
+
+    /**
+     * Test method for {@link RenderStatistics#merge(RenderStatistics)}.
+     */
+    @Test
+    void testMerge() {
+        RenderStatistics first = new RenderStatistics(null), second = new RenderStatistics(null);
+        first.counters[PRIMARY_RAYS.ordinal()] = 3;
+        first.addDepth(0, 3);
+        first.addIntersections(0, 5);
+        second.counters[PRIMARY_RAYS.ordinal()] = 4;
+        second.counters[SHADOW_RAYS.ordinal()] = 2;
+        second.addDepth(40, 1);
+        second.addIntersections(100, 7);
+        second.phases.put(RenderStatistics.RENDER_PHASE, 2_000_000_000L);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        //TC01: the counts of the collectors are summed
+        first.merge(second);
+        assertEquals(7, first.get(PRIMARY_RAYS), "ERROR: wrong merged count");
+        assertEquals(9, first.getRays(), "ERROR: wrong total amount of rays");
+        assertEquals(4.5, first.getRaysPerSecond(), 1e-9, "ERROR: wrong rays per second");
+
+        // =============== Boundary Values Tests ==================
+
+        //TC10: depths and types beyond the arrays of the collector
+        assertEquals(41, first.getDepths().length, "ERROR: wrong deepest depth");
+        assertEquals(1, first.getDepths()[40], "ERROR: wrong count of the deepest depth");
+        assertEquals(7, first.intersections[100], "ERROR: wrong count of a new type");
+    }
+
+    /**
+     * Test method for {@link RenderStatistics#collect()}.
+     */
+    @Test
+    void testCollect() throws InterruptedException {
+        RenderStatistics.collect();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        for (int t = 0; t < 3; t++)
+            pool.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    RenderStatistics.count(SHADOW_RAYS);
+                    RenderStatistics.countIntersection(Double3.class);
+                }
+                RenderStatistics.countDepth(2);
+            });
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS), "ERROR: the counting threads are stuck");
+        RenderStatistics.end(RenderStatistics.RENDER_PHASE, RenderStatistics.start());
+
+        // ============ Equivalence Partitions Tests ==============
+
+        //TC01: the counts of all the threads are merged, only when the statistics are on
+        RenderStatistics statistics = RenderStatistics.collect();
+        long expected = RenderStatistics.ENABLED ? 3000 : 0;
+        assertEquals(expected, statistics.get(SHADOW_RAYS), "ERROR: wrong count of the threads");
+        assertEquals(expected == 0 ? null : expected, statistics.getIntersections().get("Double3"),
+                "ERROR: wrong count of intersection tests");
+        long[] depths = statistics.getDepths();
+        assertEquals(RenderStatistics.ENABLED ? 3 : 0, depths.length, "ERROR: wrong deepest recursion depth");
+        if (RenderStatistics.ENABLED) assertEquals(3, depths[2], "ERROR: wrong count of a recursion depth");
+        assertEquals(RenderStatistics.ENABLED, statistics.getPhases().containsKey(RenderStatistics.RENDER_PHASE),
+                "ERROR: wrong timing of a phase");
+        assertTrue(statistics.toString().contains("shadow " + expected), "ERROR: the report misses the shadow rays");
+
+        // =============== Boundary Values Tests ==================
+
+        //TC10: a collection starts the next one
+        assertEquals(0, RenderStatistics.collect().getRays(), "ERROR: the counts are not cleared");
+    }
+}
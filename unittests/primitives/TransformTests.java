@@ -0,0 +1,67 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the Transform class
+ */
+class TransformTests {
+    /** The precision of the compared coordinates */
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Asserts that two points are equal up to the precision of the calculation
+     *
+     * @param expected the expected point
+     * @param actual   the actual point
+     * @param message  the message of a failure
+     */
+    private static void assertPoint(Point expected, Point actual, String message) {
+        assertEquals(expected.getX(), actual.getX(), DELTA, message);
+        assertEquals(expected.getY(), actual.getY(), DELTA, message);
+        assertEquals(expected.getZ(), actual.getZ(), DELTA, message);
+    }
+
+    /**
+     * Test method for {@link Transform#then(Transform)}.
+     */
+    @Test
+    void testThen() {
+        Transform transform = Transform.scaling(2).then(Transform.rotation(new Vector(0, 0, 1), 90))
+                .then(Transform.translation(new Vector(1, 2, 3)));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the transforms are applied in their order
+        assertPoint(new Point(1, 4, 3), transform.applyToPoint(new Point(1, 0, 0)), "ERROR: wrong transformed point");
+        assertPoint(new Vector(0, 2, 0), transform.applyToVector(new Vector(1, 0, 0)),
+                "ERROR: a direction is moved by the translation");
+
+        //TC02: the inverse takes a point back to its place
+        Point p = new Point(-3, 5, 7);
+        assertPoint(p, transform.inverse().applyToPoint(transform.applyToPoint(p)), "ERROR: wrong inverse");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the identity transform
+        assertPoint(p, Transform.IDENTITY.applyToPoint(p), "ERROR: the identity moves a point");
+
+        //TC11: a scaling can't have a zero scale
+        assertThrows(IllegalArgumentException.class, () -> Transform.scaling(1, 0, 1),
+                "ERROR: a zero scale is accepted");
+    }
+
+    /**
+     * Test method for {@link Transform#applyToNormal(Vector)}.
+     */
+    @Test
+    void testApplyToNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a non-uniform scaling keeps the normal of a slanted plane orthogonal to it
+        Transform scaling = Transform.scaling(4, 1, 1);
+        Vector normal = scaling.applyToNormal(new Vector(1, 1, 0));
+        Vector inPlane = scaling.applyToVector(new Vector(1, -1, 0));
+        assertEquals(0, normal.dotProduct(inPlane), DELTA, "ERROR: the normal is not orthogonal");
+        assertEquals(1, normal.length(), DELTA, "ERROR: the normal is not normalized");
+    }
+}
@@ -0,0 +1,70 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorMathTests {
+
+    /**
+     * Test method for {@link VectorMath#dot(double, double, double, double, double, double)}.
+     */
+    @Test
+    void testDot() {
+        Vector v1 = new Vector(1, 2, 3);
+        Vector v2 = new Vector(-2, 4, 0.5);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        //TC01: the raw dot product equals the dot product of the vectors
+        assertEquals(v1.dotProduct(v2), VectorMath.dot(1, 2, 3, -2, 4, 0.5), 0, "ERROR: raw dot product is wrong");
+        assertEquals(v1.dotProduct(v2), VectorMath.dot(v1, -2, 4, 0.5), 0, "ERROR: vector dot raw coordinates is wrong");
+
+        // =============== Boundary Values Tests ==================
+
+        //TC02: orthogonal vectors
+        assertEquals(0, VectorMath.dot(1, 0, 0, 0, 5, 0), 0, "ERROR: dot product of orthogonal vectors is not zero");
+    }
+
+    /**
+     * Test method for {@link VectorMath#triple(double, double, double, double, double, double, double, double, double)}.
+     */
+    @Test
+    void testTriple() {
+        Vector a = new Vector(1, 2, 3);
+        Vector b = new Vector(-2, 4, 0.5);
+        Vector c = new Vector(3, -1, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        //TC01: the triple product equals a·(b×c)
+        assertEquals(a.dotProduct(b.crossProduct(c)), VectorMath.triple(1, 2, 3, -2, 4, 0.5, 3, -1, 2), 1e-12,
+                "ERROR: triple product is wrong");
+
+        //TC02: swapping two vectors flips the sign
+        assertEquals(-VectorMath.triple(1, 2, 3, -2, 4, 0.5, 3, -1, 2), VectorMath.triple(1, 2, 3, 3, -1, 2, -2, 4, 0.5), 1e-12,
+                "ERROR: triple product does not flip its sign");
+
+        // =============== Boundary Values Tests ==================
+
+        //TC03: a vector in the plane of the other two
+        assertEquals(0, VectorMath.triple(1, 1, 0, 1, 0, 0, 0, 1, 0), 0, "ERROR: triple product of coplanar vectors is not zero");
+    }
+
+    /**
+     * Test method for {@link VectorMath#isZero(double, double, double)}.
+     */
+    @Test
+    void testIsZero() {
+        // ============ Equivalence Partitions Tests ==============
+
+        //TC01: non-zero coordinates
+        assertFalse(VectorMath.isZero(0, 0, 1), "ERROR: non-zero coordinates are zero");
+
+        // =============== Boundary Values Tests ==================
+
+        //TC02: zero and almost zero coordinates
+        assertTrue(VectorMath.isZero(0, 0, 0), "ERROR: zero coordinates are not zero");
+        assertTrue(VectorMath.isZero(1e-13, -1e-13, 0), "ERROR: almost zero coordinates are not zero");
+    }
+}
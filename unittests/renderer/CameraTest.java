@@ -1,6 +1,8 @@
 package renderer;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.locks.LockSupport;
 
 import org.junit.jupiter.api.Test;
 
@@ -65,4 +67,27 @@ class CameraTest {
                 camera2.constructRay(3, 3, 0, 0), badRay);
 
     }
+
+    /**
+     * Test method for {@link Camera#renderImage()}.
+     */
+    @Test
+    void testRenderImageInterrupted() {
+        // a tracer whose rays wait until their thread is interrupted
+        RayTracerBase waiting = new RayTracerBase(null) {
+            @Override
+            public Color traceRay(Ray ray) {
+                while (!Thread.currentThread().isInterrupted()) LockSupport.park();
+                return Color.BLACK;
+            }
+        };
+        Camera camera = cameraBuilder.setVpSize(8, 8).setRayTracer(waiting)
+                .setImageWriter(new ImageWriter("Test", 16, 16)).setMultiThreading(2).build();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: an interrupted rendering fails instead of returning a partly rendered image
+        Thread.currentThread().interrupt();
+        assertThrows(RuntimeException.class, camera::renderImage, "ERROR: the interrupted rendering returned");
+        assertTrue(Thread.interrupted(), "ERROR: the interrupt flag is not restored");
+    }
 }
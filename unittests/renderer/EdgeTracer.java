@@ -0,0 +1,70 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * A test fixture of the sampling of the camera: a tracer of white to the right of a vertical edge and
+ * black elsewhere, counting its rays, and the camera of a 4X4 image over a 4X4 view plane that it traces.
+ * The tracer keeps a deterministic clock of its work, on which the rays of the white side take longer.
+ */
+class EdgeTracer extends RayTracerBase {
+    /** The time a ray of the white side takes on the clock, a ray of the black side takes 1 */
+    static final long WHITE_COST = 10;
+
+    /** The x-coordinate of the directions of the rays through the edge */
+    private final double edge;
+    /** The amount of rays traced */
+    int calls = 0;
+    /** The time each ray takes, in milliseconds */
+    long delay = 0;
+    /** The clock of the work of the tracer */
+    private long clock = 0;
+
+    /**
+     * Constructs a tracer of an edge.
+     *
+     * @param edge the x-coordinate of the directions of the rays through the edge, e.g. 0 for the center
+     *             of the view plane of the camera of the fixture, and 0.03 for the third column of pixels
+     */
+    EdgeTracer(double edge) {
+        super(null);
+        this.edge = edge;
+    }
+
+    @Override
+    public Color traceRay(Ray r) {
+        calls++;
+        if (delay > 0) try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean white = r.getDirection().getX() > edge;
+        clock += white ? WHITE_COST : 1;
+        return white ? new Color(255, 255, 255) : Color.BLACK;
+    }
+
+    /**
+     * Reads the clock of the work of the tracer.
+     *
+     * @return the time of the rays traced so far
+     */
+    long clock() {
+        return clock;
+    }
+
+    /**
+     * Constructs the builder of a camera of a 4X4 image over a 4X4 view plane, traced by this tracer.
+     *
+     * @param image the name of the image
+     * @return the builder
+     */
+    Camera.Builder camera(String image) {
+        return Camera.getBuilder().setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(10).setVpSize(4, 4).setImageWriter(new ImageWriter(image, 4, 4))
+                .setRayTracer(this);
+    }
+}
@@ -3,6 +3,18 @@ package renderer;
 import org.junit.jupiter.api.Test;
 import primitives.Color;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 public class ImageWriterTest {
 
     /**
@@ -26,4 +38,137 @@ public class ImageWriterTest {
         }
         iw.writeToImage();
     }
+
+    /**
+     * Testing the high dynamic range frame buffer of ImageWriter and its pfm file
+     */
+    @Test
+    void writePfmTest() throws IOException {
+        ImageWriter iw = new ImageWriter("Test pfm", 3, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the colors are kept unclamped, and accumulated
+        iw.writePixel(0, 0, new Color(510, 0.25, 0));
+        iw.addToPixel(0, 0, new Color(0, 0.25, 1));
+        Color pixel = iw.getPixel(0, 0);
+        assertEquals(510, pixel.getRgb().getD1(), 1e-4, "ERROR: a pixel clamped");
+        assertEquals(0.5, pixel.getRgb().getD2(), 1e-6, "ERROR: a pixel not accumulated");
+
+        //TC02: the pfm file holds the floats of the pixels, from the bottom row up
+        iw.writePixel(2, 1, new Color(255, 127.5, 0));
+        iw.writeToPfm();
+        byte[] file = Files.readAllBytes(Path.of(System.getProperty("user.dir"), "images", "Test pfm.pfm"));
+        String header = "PF\n3 2\n-1.0\n";
+        assertEquals(header, new String(file, 0, header.length()), "ERROR: wrong pfm header");
+        assertEquals(header.length() + 2 * 3 * 12, file.length, "ERROR: wrong pfm size");
+        ByteBuffer data = ByteBuffer.wrap(file, header.length(), file.length - header.length())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(1, data.getFloat(header.length() + 2 * 12), 1e-6, "ERROR: wrong pfm pixel");
+        assertEquals(0.5, data.getFloat(header.length() + 2 * 12 + 4), 1e-6, "ERROR: wrong pfm pixel");
+        assertEquals(2, data.getFloat(header.length() + 3 * 12), 1e-6, "ERROR: wrong pfm row order");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a channel just below a level is rounded down the same when accumulated as when written
+        iw.writePixel(0, 1, Color.BLACK);
+        iw.addToPixel(0, 1, new Color(254.99999999, 0, 0));
+        iw.writePixel(1, 1, new Color(254.99999999, 0, 0));
+        assertEquals(iw.getPixel(1, 1).getRgb().getD1(), iw.getPixel(0, 1).getRgb().getD1(),
+                "ERROR: an accumulated pixel rounded differently from a written one");
+        assertTrue(iw.getPixel(0, 1).getRgb().getD1() < 255, "ERROR: an accumulated pixel rounded up to a level");
+    }
+
+    /**
+     * Testing the png file of ImageWriter, encoded in parallel bands and streamed
+     */
+    @Test
+    void writeStreamedTest() throws IOException {
+        // an image of three bands, the last of them partial, with noise that the filters can't predict
+        int nX = 37, nY = 70;
+        int[] levels = new int[nX * nY];
+        Random random = new Random(1);
+        for (int p = 0; p < levels.length; p++) levels[p] = random.nextInt(1 << 24);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the bands encoded in parallel after the rendering
+        ImageWriter iw = new ImageWriter("Test bands", nX, nY);
+        for (int p = 0; p < levels.length; p++) iw.writePixel(p % nX, p / nX, color(levels[p]));
+        iw.writeToImage();
+        assertPng("Test bands", levels, nX, nY);
+
+        //TC02: the bands streamed while the pixels are written, the last rows first
+        iw = new ImageWriter("Test streamed", nX, nY);
+        iw.streamToImage();
+        for (int p = levels.length - 1; p >= 0; p--) iw.writePixel(p % nX, p / nX, color(levels[p]));
+        iw.writeToImage();
+        assertPng("Test streamed", levels, nX, nY);
+
+        //TC03: the bands that are not complete when the streaming ends are encoded at its end
+        iw = new ImageWriter("Test partial", nX, nY);
+        iw.streamToImage();
+        for (int p = 0; p < levels.length; p++)
+            if (p != nX) iw.writePixel(p % nX, p / nX, color(levels[p]));
+        iw.writeToImage();
+        levels[nX] = 0;
+        assertPng("Test partial", levels, nX, nY);
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the checksums of the bands combine to the checksum of the whole stream
+        byte[] data = new byte[100_000];
+        random.nextBytes(data);
+        Adler32 whole = new Adler32(), first = new Adler32(), second = new Adler32();
+        whole.update(data);
+        first.update(data, 0, 70_000);
+        second.update(data, 70_000, 30_000);
+        assertEquals(whole.getValue(), PngEncoder.combine(first.getValue(), second.getValue(), 30_000),
+                "ERROR: wrong combined checksum");
+        assertEquals(first.getValue(), PngEncoder.combine(1, first.getValue(), 70_000),
+                "ERROR: wrong checksum combined with an empty stream");
+    }
+
+    /**
+     * Testing the png file of a streamed rendering that pixels are written over after it
+     */
+    @Test
+    void writeStreamedGridTest() throws IOException {
+        // an image of three bands, black to the left of its center and white to its right
+        int nX = 40, nY = 70;
+        int[] levels = new int[nX * nY];
+        for (int p = 0; p < levels.length; p++)
+            levels[p] = p % nX % 10 == 0 || p / nX % 10 == 0 ? 0xFFFF00 : p % nX < nX / 2 ? 0 : 0xFFFFFF;
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a grid printed over the bands streamed by the rendering
+        new EdgeTracer(0).camera("Test streamed grid").setImageWriter(new ImageWriter("Test streamed grid", nX, nY))
+                .setStreaming(true).build()
+                .renderImage().printGrid(10, new Color(255, 255, 0)).writeToImage();
+        assertPng("Test streamed grid", levels, nX, nY);
+    }
+
+    /**
+     * Constructs the color of a pixel of 8-bit levels.
+     *
+     * @param rgb the levels, packed as in a BufferedImage
+     * @return the color
+     */
+    private static Color color(int rgb) {
+        return new Color(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF);
+    }
+
+    /**
+     * Asserts the pixels of a png file in the images folder.
+     *
+     * @param name   the name of the image
+     * @param levels the expected levels of the pixels, packed as in a BufferedImage, row by row
+     * @param nX     the width of the image
+     * @param nY     the height of the image
+     */
+    private static void assertPng(String name, int[] levels, int nX, int nY) throws IOException {
+        BufferedImage image = ImageIO.read(Path.of(System.getProperty("user.dir"), "images",
+                name + ".png").toFile());
+        assertNotNull(image, "ERROR: an invalid png file");
+        assertEquals(nX, image.getWidth(), "ERROR: wrong png width");
+        assertEquals(nY, image.getHeight(), "ERROR: wrong png height");
+        for (int p = 0; p < levels.length; p++)
+            assertEquals(levels[p], image.getRGB(p % nX, p / nX) & 0xFFFFFF, "ERROR: wrong png pixel " + p);
+    }
 }
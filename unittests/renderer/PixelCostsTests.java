@@ -0,0 +1,67 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the PixelCosts class and the cost map of the Camera class
+ */
+class PixelCostsTests {
+    /** A tracer that is slower to the right of the view plane center, by its own clock */
+    private final EdgeTracer tracer = new EdgeTracer(0);
+
+    /**
+     * Test method for {@link PixelCosts#split(PixelManager.Tile, long, long, long, int[])}.
+     */
+    @Test
+    void testSplit() {
+        PixelCosts costs = new PixelCosts(3, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the rays are split by the weights of the pixels, and add up exactly
+        costs.split(new PixelManager.Tile(0, 0, 3, 1), System.nanoTime(), 10, PixelCosts.tracedRays(), new int[]{1, 1, 1});
+        assertEquals(10, costs.rays()[0] + costs.rays()[1] + costs.rays()[2], "ERROR: the rays don't add up");
+        assertTrue(costs.rays()[0] >= 3 && costs.rays()[0] <= 4, "ERROR: wrong share of the rays");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a pixel of no weight gets nothing
+        costs.split(new PixelManager.Tile(0, 1, 3, 1), System.nanoTime(), 6, PixelCosts.tracedRays(), new int[]{0, 2, 1});
+        assertEquals(0, costs.rays()[3], "ERROR: a pixel of no weight has rays");
+        assertEquals(0, costs.nanos()[3], "ERROR: a pixel of no weight has time");
+        assertEquals(4, costs.rays()[4], "ERROR: wrong share of the rays");
+    }
+
+    /**
+     * Test method for {@link Camera.Builder#setCostMap(boolean)}.
+     */
+    @Test
+    void testCostMap() throws IOException {
+        Camera camera = tracer.camera("cost map").setTotalRays(4).setCostMap(true).setCostClock(tracer::clock).build();
+        camera.renderImage().writeToImage();
+        PixelCosts costs = camera.getPixelCosts();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the pixels of the slow half cost more, by the time of their rays
+        assertEquals(4, costs.nanos()[0], "ERROR: wrong time of a fast pixel");
+        assertEquals(4 * EdgeTracer.WHITE_COST, costs.nanos()[3], "ERROR: wrong time of a slow pixel");
+        assertTrue(costs.rays()[0] >= 4, "ERROR: the rays of a pixel are not counted");
+
+        //TC02: the heatmap and the csv dump of the costs
+        Path folder = Path.of(System.getProperty("user.dir"), "images");
+        BufferedImage heatmap = ImageIO.read(folder.resolve("cost map-cost.png").toFile());
+        assertEquals(4, heatmap.getWidth(), "ERROR: wrong width of the heatmap");
+        assertTrue((heatmap.getRGB(3, 0) & 0xFF00) > (heatmap.getRGB(0, 0) & 0xFF00),
+                "ERROR: the slow pixels are not hotter");
+        List<String> csv = Files.readAllLines(folder.resolve("cost map-cost.csv"));
+        assertEquals(17, csv.size(), "ERROR: wrong amount of csv lines");
+        assertEquals("3,0," + costs.nanos()[3] + "," + costs.rays()[3], csv.get(4), "ERROR: wrong csv line");
+    }
+}
@@ -0,0 +1,101 @@
+package renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testing PixelManager Class
+ */
+class PixelManagerTests {
+
+    /**
+     * Test method for {@link PixelManager#spiralOrder(int, int)}.
+     */
+    @Test
+    void testSpiralOrder() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: 3X3 grid spirals out of the center tile
+        assertArrayEquals(new int[]{4, 5, 8, 7, 6, 3, 0, 1, 2}, PixelManager.spiralOrder(3, 3),
+                "ERROR: wrong spiral order");
+
+        //TC02: wide grid - every tile appears exactly once
+        int[] order = PixelManager.spiralOrder(7, 2);
+        boolean[] seen = new boolean[14];
+        for (int index : order) {
+            assertFalse(seen[index], "ERROR: tile allocated twice");
+            seen[index] = true;
+        }
+        assertEquals(14, order.length, "ERROR: wrong amount of tiles");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a single tile
+        assertArrayEquals(new int[]{0}, PixelManager.spiralOrder(1, 1), "ERROR: wrong order of a single tile");
+
+        //TC11: no tiles
+        assertEquals(0, PixelManager.spiralOrder(0, 5).length, "ERROR: tiles in an empty grid");
+    }
+
+    /**
+     * Test method for {@link PixelManager#nextTile()}.
+     */
+    @Test
+    void testNextTile() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the tiles cover every pixel exactly once, including the partial tiles at the edges
+        PixelManager pixelManager = new PixelManager(10, 13, 4, 0);
+        int[][] covered = new int[10][13];
+        for (PixelManager.Tile tile = pixelManager.nextTile(); tile != null; tile = pixelManager.nextTile()) {
+            assertTrue(tile.width() > 0 && tile.width() <= 4 && tile.height() > 0 && tile.height() <= 4,
+                    "ERROR: wrong tile size");
+            for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+                for (int j = tile.col(); j < tile.col() + tile.width(); j++)
+                    covered[i][j]++;
+        }
+        for (int[] row : covered)
+            for (int count : row)
+                assertEquals(1, count, "ERROR: pixel is not covered exactly once");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: tile larger than the image
+        pixelManager = new PixelManager(3, 2, 16, 0);
+        assertEquals(new PixelManager.Tile(0, 0, 2, 3), pixelManager.nextTile(), "ERROR: wrong single tile");
+        assertNull(pixelManager.nextTile(), "ERROR: tile allocated after the image is done");
+    }
+
+    /**
+     * Test method for {@link PixelManager#nextPixel()}.
+     */
+    @Test
+    void testNextPixel() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the pixels are allocated row by row
+        PixelManager pixelManager = new PixelManager(2, 3, 0);
+        for (int row = 0; row < 2; row++)
+            for (int col = 0; col < 3; col++)
+                assertEquals(new PixelManager.Pixel(col, row), pixelManager.nextPixel(), "ERROR: wrong pixel allocated");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: no pixel is allocated after the last one
+        assertNull(pixelManager.nextPixel(), "ERROR: pixel allocated after the image is done");
+    }
+
+    /**
+     * Test method for {@link PixelManager#pixelDone()}.
+     */
+    @Test
+    void testPixelDone() throws InterruptedException {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: concurrent threads count every pixel exactly once
+        PixelManager pixelManager = new PixelManager(100, 100, 0);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                while (pixelManager.nextPixel() != null) pixelManager.pixelDone();
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(10000L, pixelManager.getPixelsDone(), "ERROR: wrong amount of processed pixels");
+    }
+}
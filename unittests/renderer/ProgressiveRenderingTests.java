@@ -0,0 +1,53 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.MissingResourceException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the progressive rendering of the Camera class
+ */
+class ProgressiveRenderingTests {
+    /** A tracer of white to the right of the view plane center and black elsewhere */
+    private final EdgeTracer tracer = new EdgeTracer(0);
+
+    /**
+     * Constructs the builder of a camera of a 4X4 image in tiles of 2X2.
+     *
+     * @return the builder
+     */
+    private Camera.Builder builder() {
+        return tracer.camera("progressive").setTileSize(2).setMaxSamples(8);
+    }
+
+    /**
+     * Test method for {@link Camera#renderImage()} with a budget.
+     */
+    @Test
+    void testRenderImage() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a sample budget stops the rendering between tiles
+        builder().setSampleBudget(40).build().renderImage();
+        assertEquals(40, tracer.calls, "ERROR: the sample budget is not kept");
+
+        //TC02: without using up the budget, the passes go up to the maximum amount of samples
+        tracer.calls = 0;
+        builder().setSampleBudget(1000).build().renderImage();
+        assertEquals(16 * 8, tracer.calls, "ERROR: wrong amount of samples of the passes");
+
+        //TC03: a time budget stops the rendering, but the first pass is completed
+        tracer.calls = 0;
+        tracer.delay = 1;
+        builder().setTimeBudget(1).build().renderImage();
+        assertEquals(16, tracer.calls, "ERROR: the time budget is not kept, or the first pass not completed");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a negative budget
+        assertThrows(MissingResourceException.class, () -> builder().setTimeBudget(-1).build(),
+                "ERROR: a negative time budget accepted");
+        assertThrows(MissingResourceException.class, () -> builder().setSampleBudget(-1).build(),
+                "ERROR: a negative sample budget accepted");
+    }
+}
@@ -0,0 +1,91 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Sphere;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+import scene.Scene;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the Java Flight Recorder events of the rendering
+ */
+class RenderEventsTests {
+
+    /**
+     * Records the events of an action.
+     *
+     * @param action the recorded action
+     * @param names  the names of the recorded events
+     * @return the recorded events
+     */
+    private static List<RecordedEvent> record(Runnable action, String... names) throws IOException {
+        Path file = Files.createTempFile("render", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : names) recording.enable(name).withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test method for {@link TileEvent} and {@link ImageEncodeEvent}.
+     */
+    @Test
+    void testRenderEvents() throws IOException {
+        Scene scene = new Scene("Events");
+        scene.geometries.add(new Sphere(50, new Point(0, 0, -100)));
+        Camera camera = Camera.getBuilder().setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(100).setVpSize(200, 200).setImageWriter(new ImageWriter("render events", 4, 4))
+                .setRayTracer(new SimpleRayTracer(scene)).setTileSize(2).build();
+        List<RecordedEvent> events = record(() -> camera.renderImage().writeToImage(),
+                "raytracer.Tile", "raytracer.ImageEncode");
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: an event of each tile, with the rays cast through its pixels
+        List<RecordedEvent> tiles = events.stream().filter(e -> e.getEventType().getName().equals("raytracer.Tile"))
+                .toList();
+        assertEquals(4, tiles.size(), "ERROR: wrong amount of tile events");
+        assertEquals(16, tiles.stream().mapToLong(e -> e.getLong("rays")).sum(), "ERROR: wrong amount of rays");
+        assertEquals(4, tiles.get(0).getInt("pixels"), "ERROR: wrong amount of pixels of a tile");
+
+        //TC02: an event of the encoding of the image, with the size of the file
+        RecordedEvent encode = events.stream()
+                .filter(e -> e.getEventType().getName().equals("raytracer.ImageEncode")).findFirst().orElseThrow();
+        assertEquals("render events", encode.getString("image"), "ERROR: wrong image of the encoding");
+        assertEquals(16, encode.getLong("pixels"), "ERROR: wrong amount of pixels of the encoding");
+        assertEquals(Files.size(Path.of(System.getProperty("user.dir"), "images", "render events.png")),
+                encode.getLong("size"), "ERROR: wrong size of the file");
+    }
+
+    /**
+     * Test method for {@code geometries.AccelerationBuildEvent}.
+     */
+    @Test
+    void testAccelerationBuildEvent() throws IOException {
+        List<RecordedEvent> events = record(() -> new Geometries(new Sphere(1, new Point(0, 0, 0)),
+                new Sphere(1, new Point(5, 0, 0)), new Sphere(1, new Point(10, 0, 0))).buildBVH(),
+                "raytracer.AccelerationBuild");
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the hierarchy of three spheres
+        assertEquals(1, events.size(), "ERROR: wrong amount of build events");
+        assertEquals(3, events.get(0).getInt("primitives"), "ERROR: wrong amount of primitives");
+        assertTrue(events.get(0).getInt("nodes") >= 1, "ERROR: the hierarchy has no nodes");
+    }
+}
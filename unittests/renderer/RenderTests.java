@@ -9,6 +9,9 @@ import geometries.Triangle;
 import lighting.AmbientLight;
 import primitives.*;
 import scene.Scene;
+import scene.SceneLoader;
+
+import java.nio.file.Path;
 
 /**
  * Test rendering a basic image
@@ -83,20 +86,19 @@ public class RenderTests {
                 .writeToImage();
     }
 
-//    /** Test for XML based scene - for bonus */
-//    @Test
-//    public void basicRenderXml() {
-//        // enter XML file name and parse from XML file into scene object
-//        // using the code you added in appropriate packages
-//        // ...
-//        // NB: unit tests is not the correct place to put XML parsing code
-//
-//        camera
-//                .setImageWriter(new ImageWriter("xml render test", 1000, 1000))
-//                .build()
-//                .renderImage()
-//                .printGrid(100, new Color(YELLOW))
-//                .writeToImage();
-//    }
+    /** Test for XML based scene - for bonus */
+    @Test
+    public void basicRenderXml() {
+        // parse the XML file into a scene object
+        Scene xmlScene = SceneLoader.load(Path.of("unittests/renderTestTwoColors.xml")).getScene();
+
+        camera
+                .setRayTracer(new SimpleRayTracer(xmlScene))
+                .setImageWriter(new ImageWriter("xml render test", 1000, 1000))
+                .build()
+                .renderImage()
+                .printGrid(100, new Color(YELLOW))
+                .writeToImage();
+    }
 
 }
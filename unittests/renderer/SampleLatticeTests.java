@@ -0,0 +1,58 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the SampleLattice class
+ */
+class SampleLatticeTests {
+    /** A tracer of white to the right of a vertical edge through the third column of pixels */
+    private final EdgeTracer tracer = new EdgeTracer(0.03);
+
+    /**
+     * Constructs a lattice of a 4X4 image over a 4X4 view plane.
+     *
+     * @param depth the adaptive depth
+     * @return the lattice
+     */
+    private SampleLattice lattice(int depth) {
+        return new SampleLattice(tracer, Point.ZERO, new Point(0, 0, -10), new Vector(1, 0, 0), Vector.Y,
+                4, 4, 4, 4, depth);
+    }
+
+    /**
+     * Test method for {@link SampleLattice#pixel(int, int)}.
+     */
+    @Test
+    void testPixel() {
+        SampleLattice lattice = lattice(3);
+        lattice.trace(new PixelManager.Tile(0, 0, 4, 4));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the corners of the pixels of a tile are shared
+        assertEquals(25 + 16, lattice.traced(), "ERROR: wrong amount of corners and centers traced");
+
+        //TC02: a pixel of a single color is not split
+        assertEquals(Color.BLACK.getColor(), lattice.pixel(0, 0).getColor(), "ERROR: wrong color of a black pixel");
+        assertEquals(new Color(255, 255, 255).getColor(), lattice.pixel(3, 1).getColor(),
+                "ERROR: wrong color of a white pixel");
+        assertEquals(25 + 16, lattice.traced(), "ERROR: a pixel of a single color was split");
+
+        //TC03: a pixel across an edge is split, and no sample is traced twice
+        int blue = lattice.pixel(2, 1).getColor().getBlue();
+        assertTrue(blue > 0 && blue < 255, "ERROR: wrong color of a pixel across an edge");
+        assertEquals(tracer.calls, lattice.traced(), "ERROR: a sample traced twice");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the samples of neighboring pixels are shared
+        int traced = lattice.traced();
+        lattice.pixel(2, 2);
+        assertTrue(lattice.traced() - traced < traced - 41, "ERROR: the samples of the pixel above are not shared");
+        assertEquals(tracer.calls, lattice.traced(), "ERROR: a sample of a neighbor traced twice");
+    }
+}
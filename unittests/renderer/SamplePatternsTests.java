@@ -0,0 +1,75 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.LinkedList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the SamplePatterns class
+ */
+class SamplePatternsTests {
+    /**
+     * Test method for {@link SamplePatterns#aim(Point, Vector, Vector, double, double, int, Ray[])}.
+     */
+    @Test
+    void testAim() {
+        Point point = new Point(1, 2, 3);
+        Vector n = new Vector(0, 0, 1);
+        Ray main = new Ray(point, new Vector(1, 2, 5));
+        Ray[] rays = new Ray[9];
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the rays of the grid are aimed at the points of the circle of the blackboard
+        LinkedList<Point> targets = Blackboard.generatePointsCircle(main,
+                point.add(main.getDirection().scale(10)), 20, 9);
+        assertEquals(9, SamplePatterns.GRID.aim(point, main.getDirection(), n, 10, 20, 9, rays),
+                "ERROR: wrong amount of rays aimed");
+        for (int i = 0; i < 9; i++) {
+            Vector expected = targets.get(i).subtract(point).normalize();
+            assertEquals(1, rays[i].getDirection().dotProduct(expected), 1e-10,
+                    "ERROR: a ray aimed at the wrong point");
+        }
+
+        //TC02: the rays that leave the other side of the surface are dropped
+        Ray grazing = new Ray(point, new Vector(1, 0, 0.01));
+        int aimed = SamplePatterns.GRID.aim(point, grazing.getDirection(), n, 10, 20, 9, rays);
+        assertTrue(aimed > 0 && aimed < 9, "ERROR: the rays below the surface are not dropped");
+        for (int i = 0; i < aimed; i++)
+            assertTrue(rays[i].getDirection().dotProduct(n) > 0, "ERROR: a ray aimed below the surface");
+    }
+
+    /**
+     * Test method for {@link SamplePatterns#pattern(int, int)}.
+     */
+    @Test
+    void testPattern() {
+        SamplePatterns patterns = new SamplePatterns(new SobolSampler(1), 4);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a pattern is generated once
+        assertSame(patterns.pattern(16, 1), patterns.pattern(16, 1), "ERROR: a pattern generated again");
+
+        //TC02: the variants are rotations of the pattern
+        double[] base = patterns.pattern(16, 0), rotated = patterns.pattern(16, 1);
+        assertEquals(base.length, rotated.length, "ERROR: wrong amount of samples of a variant");
+        for (int i = 0; i < base.length; i += 2) {
+            assertEquals(Math.hypot(base[i], base[i + 1]), Math.hypot(rotated[i], rotated[i + 1]), 1e-12,
+                    "ERROR: a sample of a variant at a wrong distance from the center");
+            assertTrue(Math.hypot(base[i], base[i + 1]) <= 0.5, "ERROR: a sample out of the disk");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a grid of a single sample is the center
+        assertArrayEquals(new double[]{0, 0}, SamplePatterns.GRID.pattern(3, 0), 0,
+                "ERROR: a grid of a single sample is not the center");
+
+        //TC11: no variants
+        assertThrows(IllegalArgumentException.class, () -> new SamplePatterns(null, 0),
+                "ERROR: no variants accepted");
+    }
+}
@@ -0,0 +1,97 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the Sampler implementations
+ */
+class SamplerTests {
+    /** The samplers under test */
+    private final Sampler[] samplers = {
+            new JitteredSampler(1), new HaltonSampler(1), new SobolSampler(1), new PoissonDiskSampler(1)};
+
+    /**
+     * Test method for {@link Sampler#square(int)}.
+     */
+    @Test
+    void testSquare() {
+        for (Sampler sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            // ============ Equivalence Partitions Tests ==============
+            //TC01: exactly the requested amount of samples, all in the unit square
+            double[] samples = sampler.square(10);
+            assertEquals(20, samples.length, "ERROR: wrong amount of samples of " + name);
+            for (double d : samples)
+                assertTrue(d >= 0 && d < 1, "ERROR: a sample out of the square of " + name);
+
+            //TC02: the same pattern every time
+            assertArrayEquals(samples, sampler.square(10), "ERROR: a different pattern of " + name);
+
+            //TC03: a sample in each cell of a 4X4 grid, for 16 samples - of the stratified samplers
+            if (sampler instanceof JitteredSampler || sampler instanceof SobolSampler) {
+                samples = sampler.square(16);
+                boolean[] cells = new boolean[16];
+                for (int i = 0; i < 16; i++)
+                    cells[(int) (samples[2 * i + 1] * 4) * 4 + (int) (samples[2 * i] * 4)] = true;
+                for (boolean cell : cells) assertTrue(cell, "ERROR: an empty cell of " + name);
+            }
+
+            // =============== Boundary Values Tests ==================
+            //TC10: a single sample
+            assertEquals(2, sampler.square(1).length, "ERROR: wrong amount of a single sample of " + name);
+
+            //TC11: no samples
+            assertThrows(IllegalArgumentException.class, () -> sampler.square(0),
+                    "ERROR: no samples accepted by " + name);
+        }
+    }
+
+    /**
+     * Test method for {@link Sampler#disk(int)}.
+     */
+    @Test
+    void testDisk() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: all the samples in the unit disk
+        for (Sampler sampler : samplers) {
+            double[] samples = sampler.disk(50);
+            assertEquals(100, samples.length, "ERROR: wrong amount of samples");
+            for (int i = 0; i < 50; i++)
+                assertTrue(samples[2 * i] * samples[2 * i] + samples[2 * i + 1] * samples[2 * i + 1] <= 1,
+                        "ERROR: a sample out of the disk of " + sampler.getClass().getSimpleName());
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: the center and the edges of the square
+        assertArrayEquals(new double[]{0, 0, 1, 0, 0, 1, -1, 0}, Sampler.concentric(new double[]{0.5, 0.5, 1, 0.5, 0.5, 1, 0, 0.5}),
+                1e-12, "ERROR: wrong concentric mapping");
+    }
+
+    /**
+     * Test method for {@link Blackboard#generatePointsCircle(Ray, Point, double, int, Sampler)}
+     * and {@link Blackboard#generatePointsSquare(Point, double, Vector, Vector, int)}.
+     */
+    @Test
+    void testBlackboard() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the points of a circle are on it, on the plane perpendicular to the ray
+        Point center = new Point(0, 0, -10);
+        Point[] points = Blackboard.generatePointsCircle(new Ray(Point.ZERO, new Vector(0, 0, -1)), center, 2, 7,
+                new SobolSampler(1));
+        assertEquals(7, points.length, "ERROR: wrong amount of points");
+        for (Point p : points) {
+            assertEquals(-10, p.getZ(), 1e-10, "ERROR: a point out of the plane of the circle");
+            assertTrue(p.distance(center) <= 2 + 1e-10, "ERROR: a point out of the circle");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a grid of less than 4 points is the center
+        assertEquals(center, Blackboard.generatePointsSquare(center, 1, Vector.Y, new Vector(1, 0, 0), 3).getFirst(),
+                "ERROR: a grid of a single point is not the center");
+    }
+}
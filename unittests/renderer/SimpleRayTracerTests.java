@@ -0,0 +1,72 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SimpleRayTracer Class
+ */
+class SimpleRayTracerTests {
+
+    /**
+     * Builds a scene of a diffuse transparent sphere in front of a plane - a ray through the sphere
+     * spawns 64 rays at each of its two hits of the sphere, 4161 rays together
+     *
+     * @return the scene
+     */
+    private Scene scene() {
+        Scene scene = new Scene("budget");
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.05))
+                .setBackground(new Color(20, 30, 40));
+        scene.geometries.add(
+                new Sphere(50d, new Point(0, 0, -100)).setEmission(new Color(60, 10, 10))
+                        .setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(30).setKt(0.8).setDiff(100)),
+                new Plane(new Point(0, 0, -300), new Vector(0, 0, 1)).setEmission(new Color(10, 10, 60))
+                        .setMaterial(new Material().setKd(0.3)));
+        scene.lights.add(new PointLight(new Color(150, 150, 150), new Point(50, 50, 0)).setKl(0.001));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link SimpleRayTracer#setRayBudget(int)}.
+     */
+    @Test
+    void testRayBudget() {
+        Scene scene = scene();
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+        Color unlimited = new SimpleRayTracer(scene).setRayBudget(Integer.MAX_VALUE).traceRay(ray);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a budget larger than the ray tree doesn't change the color
+        assertEquals(unlimited.getColor(), new SimpleRayTracer(scene).traceRay(ray).getColor(),
+                "ERROR: the default budget changed the color");
+
+        //TC02: a small budget gives fewer samples, not a darker color
+        Double3 full = unlimited.getRgb();
+        Double3 reduced = new SimpleRayTracer(scene).setRayBudget(500).traceRay(ray).getRgb();
+        assertEquals(full.getD1(), reduced.getD1(), full.getD1() * 0.1, "ERROR: a small budget lost the light");
+        assertEquals(full.getD2(), reduced.getD2(), full.getD2() * 0.1, "ERROR: a small budget lost the light");
+        assertEquals(full.getD3(), reduced.getD3(), full.getD3() * 0.1, "ERROR: a small budget lost the light");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a budget of the ray alone gives the local effects only
+        Scene opaque = scene().setGeometries(new Geometries(
+                new Sphere(50d, new Point(0, 0, -100)).setEmission(new Color(60, 10, 10))
+                        .setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(30))));
+        assertEquals(new SimpleRayTracer(opaque).traceRay(ray).getColor(),
+                new SimpleRayTracer(scene).setRayBudget(1).traceRay(ray).getColor(),
+                "ERROR: a budget of one ray traced more rays");
+
+        //TC11: a budget that is not positive
+        assertThrows(IllegalArgumentException.class, () -> new SimpleRayTracer(scene).setRayBudget(0),
+                "ERROR: a budget of no rays accepted");
+    }
+}
@@ -0,0 +1,48 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the VarianceSampling class
+ */
+class VarianceSamplingTests {
+    /** A tracer of white to the right of a vertical edge through the third column of pixels */
+    private final EdgeTracer tracer = new EdgeTracer(0.03);
+
+    /**
+     * Constructs the adaptive sampling of a 4X4 image over a 4X4 view plane.
+     *
+     * @param maxSamples the maximum amount of samples of a pixel
+     * @return the adaptive sampling
+     */
+    private VarianceSampling sampling(int maxSamples) {
+        return new VarianceSampling(tracer.camera("variance").build(), 4, 4, new SobolSampler(0), 0.02, maxSamples);
+    }
+
+    /**
+     * Test method for {@link VarianceSampling#render(PixelManager.Tile, int[])}.
+     */
+    @Test
+    void testRender() {
+        int[] samples = new int[16];
+        Color[] colors = sampling(256).render(new PixelManager.Tile(0, 0, 4, 4), samples);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a flat pixel stops at the initial samples
+        assertEquals(VarianceSampling.INITIAL_SAMPLES, samples[0], "ERROR: a flat pixel sampled again");
+        assertEquals(Color.BLACK.getColor(), colors[0].getColor(), "ERROR: wrong color of a black pixel");
+        assertEquals(new Color(255, 255, 255).getColor(), colors[7].getColor(), "ERROR: wrong color of a white pixel");
+
+        //TC02: a pixel across the edge gets more samples, and its color is the covered fraction
+        assertTrue(samples[6] > VarianceSampling.INITIAL_SAMPLES, "ERROR: a pixel across an edge not sampled again");
+        assertEquals(0.7 * 255, colors[6].getRgb().getD1(), 255 * 0.05, "ERROR: wrong color of a pixel across an edge");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: fewer samples than the initial ones
+        sampling(3).render(new PixelManager.Tile(1, 1, 2, 2), samples);
+        for (int p = 0; p < 4; p++) assertEquals(3, samples[p], "ERROR: wrong amount of samples below the initial");
+    }
+}
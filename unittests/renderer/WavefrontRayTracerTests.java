@@ -0,0 +1,108 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing WavefrontRayTracer Class
+ */
+class WavefrontRayTracerTests {
+
+    /** The resolution of the compared images */
+    private static final int RESOLUTION = 40;
+
+    /**
+     * Builds a scene with reflections, refractions, glossy and diffuse materials and shadows
+     *
+     * @return the scene
+     */
+    private Scene scene() {
+        Scene scene = new Scene("wavefront");
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1))
+                .setBackground(new Color(20, 30, 40));
+        scene.geometries.add(
+                new Sphere(50d, new Point(0, 0, -100)).setEmission(new Color(100, 20, 20))
+                        .setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(30).setKt(0.6)),
+                new Sphere(25d, new Point(0, 0, -100)).setEmission(new Color(20, 100, 20))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100)),
+                new Triangle(new Point(-150, -150, -150), new Point(150, -150, -150), new Point(75, 75, -150))
+                        .setMaterial(new Material().setKr(0.6).setGloss(200)),
+                new Triangle(new Point(-150, 150, -60), new Point(-20, 150, -60), new Point(-150, 40, -60))
+                        .setEmission(new Color(20, 20, 100))
+                        .setMaterial(new Material().setKd(0.2).setKt(0.8).setDiff(150)),
+                new Plane(new Point(0, -60, 0), new Vector(0, 1, 0))
+                        .setMaterial(new Material().setKd(0.3).setKs(0.2).setKr(0.3)));
+        scene.lights.add(new SpotLight(new Color(700, 400, 400), new Point(60, 50, 0), new Vector(-1, -1, -2))
+                .setKl(0.0004).setKq(0.0000006));
+        scene.lights.add(new PointLight(new Color(200, 200, 200), new Point(-80, 80, 40)).setKl(0.001));
+        scene.lights.add(new DirectionalLight(new Color(50, 50, 50), new Vector(1, -1, -1)));
+        return scene;
+    }
+
+    /**
+     * Checks that the wavefront ray tracer gives the same colors as the simple ray tracer
+     *
+     * @param simple    the simple ray tracer
+     * @param wavefront the wavefront ray tracer, with the same scene and settings
+     * @param rays      the rays
+     */
+    private void assertSameColors(RayTracerBase simple, RayTracerBase wavefront, Ray[] rays) {
+        Color[] colors = new Color[rays.length];
+        wavefront.traceRays(rays, colors);
+        for (int i = 0; i < rays.length; i++)
+            assertEquals(simple.traceRay(rays[i]).getColor(), colors[i].getColor(),
+                    "ERROR: wrong color of ray " + i);
+    }
+
+    /**
+     * Test method for {@link WavefrontRayTracer#traceRays(Ray[], Color[])}.
+     */
+    @Test
+    void testTraceRays() {
+        Scene scene = scene();
+        Camera camera = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 300)).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpSize(300, 300).setVpDistance(300)
+                .setImageWriter(new ImageWriter("wavefront", RESOLUTION, RESOLUTION))
+                .setRayTracer(new SimpleRayTracer(scene))
+                .build();
+        Ray[] rays = new Ray[RESOLUTION * RESOLUTION];
+        for (int i = 0; i < RESOLUTION; i++)
+            for (int j = 0; j < RESOLUTION; j++)
+                rays[i * RESOLUTION + j] = camera.constructRay(RESOLUTION, RESOLUTION, j, i);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the same colors as the simple ray tracer, for more rays than a wave holds
+        WavefrontRayTracer wavefront = new WavefrontRayTracer(scene);
+        SimpleRayTracer simple = new SimpleRayTracer(scene);
+        assertSameColors(simple, wavefront, rays);
+
+        //TC02: the same colors as the simple ray tracer with a sampler, rotated patterns and a ray
+        //budget that cuts the glossy and diffuse circles
+        assertSameColors(new SimpleRayTracer(scene).setSampler(new SobolSampler(0), 3).setRayBudget(40),
+                new WavefrontRayTracer(scene).setSampler(new SobolSampler(0), 3).setRayBudget(40), rays);
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a single ray
+        assertEquals(simple.traceRay(rays[RESOLUTION * RESOLUTION / 2]).getColor(),
+                wavefront.traceRay(rays[RESOLUTION * RESOLUTION / 2]).getColor(), "ERROR: wrong color of a single ray");
+
+        //TC11: a ray that hits nothing
+        assertEquals(scene.background.getColor(),
+                wavefront.traceRay(new Ray(Point.ZERO, new Vector(0, 1, 0))).getColor(),
+                "ERROR: wrong color of a ray that misses");
+
+        //TC12: no rays
+        wavefront.traceRays(new Ray[0], new Color[0]);
+    }
+}
@@ -0,0 +1,167 @@
+package scene;
+
+import geometries.*;
+import geometries.Intersectable.GeoPoint;
+import lighting.*;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SceneCache Class
+ */
+class SceneCacheTests {
+
+    /**
+     * Builds a scene with all the kinds of cached geometries and lights
+     *
+     * @return the scene
+     */
+    private Scene scene() {
+        Material shiny = new Material().setKd(0.5).setKs(new Double3(0.2, 0.3, 0.4)).setShininess(30).setGloss(10);
+        TriangleMesh mesh = new TriangleMesh(
+                new double[]{-1, -1, -5, 1, -1, -5, 1, 1, -5, -1, 1, -5}, new int[]{0, 1, 2, 0, 2, 3});
+        mesh.setMaterial(shiny);
+        Scene scene = new Scene("cached")
+                .setBackground(new Color(75, 127, 190))
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 0.5));
+        scene.geometries.add(
+                new Sphere(50d, new Point(0, 0, -100)).setEmission(new Color(10, 20, 30)).setMaterial(shiny),
+                new Triangle(new Point(-100, 0, -200), new Point(0, 100, -200), new Point(-100, 100, -200))
+                        .setMaterial(new Material().setKt(0.9)),
+                new Plane(new Point(0, 0, -300), new Vector(0, 0, 1)),
+                new Polygon(new Point(100, 0, -200), new Point(200, 0, -200),
+                        new Point(200, 100, -200), new Point(100, 100, -200)),
+                new Geometries(mesh));
+        scene.geometries.setBVH(true);
+        scene.lights.add(new DirectionalLight(new Color(100, 100, 100), new Vector(1, 0, 0)));
+        scene.lights.add(new PointLight(new Color(200, 0, 0), new Point(0, 50, 0)).setKl(0.001));
+        scene.lights.add(new SpotLight(new Color(0, 200, 0), new Point(0, -50, 0), new Vector(0, 0, -1))
+                .setKq(0.0001).setNarrowBeam(5));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link SceneCache#write(Scene, Path, long)} and {@link SceneCache#load(Path, long)}.
+     *
+     * @throws IOException if the temporary directory fails
+     */
+    @Test
+    void testWriteLoad() throws IOException {
+        Path dir = Files.createTempDirectory("scene-cache");
+        Path file = dir.resolve("scene.cache");
+        Scene scene = scene();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the loaded scene is the written one
+        SceneCache.write(scene, file, 42);
+        Scene loaded = SceneCache.load(file, 42);
+        assertNotNull(loaded, "ERROR: the cache was not loaded");
+        assertEquals("cached", loaded.name, "ERROR: wrong scene name");
+        assertEquals(scene.background.getColor(), loaded.background.getColor(), "ERROR: wrong background");
+        assertEquals(scene.ambientLight.getIntensity().getColor(), loaded.ambientLight.getIntensity().getColor(),
+                "ERROR: wrong ambient light");
+
+        // the same intersections of random rays, with the same geometry attributes
+        Random random = new Random(19824491L);
+        for (int i = 0; i < 1000; i++) {
+            Point head = new Point(random.nextDouble() * 400 - 200, random.nextDouble() * 400 - 200, 0);
+            Vector direction = new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1);
+            Ray ray = new Ray(head, direction);
+            List<GeoPoint> expected = scene.geometries.findGeoIntersections(ray);
+            List<GeoPoint> actual = loaded.geometries.findGeoIntersections(ray);
+            if (expected == null) {
+                assertNull(actual, "ERROR: intersections of a cached scene where there are none");
+                continue;
+            }
+            assertNotNull(actual, "ERROR: no intersections of a cached scene");
+            assertEquals(expected.size(), actual.size(), "ERROR: wrong amount of intersections");
+            GeoPoint closest = scene.geometries.findClosestGeoIntersection(ray);
+            GeoPoint cached = loaded.geometries.findClosestGeoIntersection(ray);
+            assertEquals(closest.point, cached.point, "ERROR: wrong intersection point");
+            assertEquals(closest.geometry.getClass(), cached.geometry.getClass(), "ERROR: wrong geometry");
+            assertEquals(closest.geometry.getNormal(closest.point), cached.geometry.getNormal(cached.point),
+                    "ERROR: wrong normal");
+            assertEquals(closest.geometry.getEmission().getColor(), cached.geometry.getEmission().getColor(),
+                    "ERROR: wrong emission");
+            assertEquals(closest.geometry.getMaterial().kS, cached.geometry.getMaterial().kS, "ERROR: wrong material");
+            assertEquals(closest.geometry.getMaterial().kT, cached.geometry.getMaterial().kT, "ERROR: wrong material");
+        }
+
+        // the lights
+        assertEquals(3, loaded.lights.size(), "ERROR: wrong amount of lights");
+        Point point = new Point(10, 20, -30);
+        for (int i = 0; i < 3; i++) {
+            LightSource expected = scene.lights.get(i);
+            LightSource actual = loaded.lights.get(i);
+            assertEquals(expected.getClass(), actual.getClass(), "ERROR: wrong light type");
+            assertEquals(expected.getIntensity(point).getColor(), actual.getIntensity(point).getColor(),
+                    "ERROR: wrong light intensity");
+            assertEquals(expected.getL(point), actual.getL(point), "ERROR: wrong light direction");
+        }
+
+        //TC02: a stale cache is not loaded
+        assertNull(SceneCache.load(file, 43), "ERROR: a stale cache was loaded");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: no cache
+        assertNull(SceneCache.load(dir.resolve("missing.cache"), 42), "ERROR: a missing cache was loaded");
+
+        //TC11: a truncated cache
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(SceneCache.load(file, 42), "ERROR: a truncated cache was loaded");
+
+        //TC12: an empty scene
+        SceneCache.write(new Scene("empty"), file, 42);
+        loaded = SceneCache.load(file, 42);
+        assertNull(loaded.geometries.findGeoIntersections(new Ray(Point.ZERO, Vector.Y)),
+                "ERROR: geometries in an empty cached scene");
+        assertTrue(loaded.lights.isEmpty(), "ERROR: lights in an empty cached scene");
+
+        Files.delete(file);
+        Files.delete(dir);
+    }
+
+    /**
+     * Test method for {@link SceneCache#load(Path)}.
+     *
+     * @throws IOException if the temporary directory fails
+     */
+    @Test
+    void testLoadXml() throws IOException {
+        Path dir = Files.createTempDirectory("scene-cache");
+        Path xml = dir.resolve("scene.xml");
+        Path cache = dir.resolve("scene.xml" + SceneCache.EXTENSION);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the first load writes the cache, the second one reads it
+        Files.writeString(xml, """
+                <scene><geometries><sphere center="0 0 -100" radius="50"/></geometries></scene>""");
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+        assertEquals(new Point(0, 0, -50), SceneCache.load(xml).geometries.findClosestGeoIntersection(ray).point,
+                "ERROR: wrong scene");
+        assertTrue(Files.exists(cache), "ERROR: the cache was not written");
+        assertNotNull(SceneCache.load(cache, SceneCache.hash(xml)), "ERROR: the cache is not up to date");
+        assertEquals(new Point(0, 0, -50), SceneCache.load(xml).geometries.findClosestGeoIntersection(ray).point,
+                "ERROR: wrong cached scene");
+
+        //TC02: a changed source invalidates the cache
+        Files.writeString(xml, """
+                <scene><geometries><sphere center="0 0 -100" radius="25"/></geometries></scene>""");
+        assertNull(SceneCache.load(cache, SceneCache.hash(xml)), "ERROR: a stale cache is up to date");
+        assertEquals(new Point(0, 0, -75), SceneCache.load(xml).geometries.findClosestGeoIntersection(ray).point,
+                "ERROR: the stale cache was used");
+
+        Files.delete(cache);
+        Files.delete(xml);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,189 @@
+package scene;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.TriangleMesh;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import renderer.Camera;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SceneLoader Class
+ */
+class SceneLoaderTests {
+
+    /**
+     * Loads a scene from an XML string
+     *
+     * @param xml the XML of the scene
+     * @return the loader
+     */
+    private SceneLoader load(String xml) {
+        return SceneLoader.load("test", new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Test method for {@link SceneLoader#load(String, java.io.InputStream)}.
+     */
+    @Test
+    void testLoad() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a scene with all kinds of elements
+        SceneLoader loader = load("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <scene background-color="75 127 190">
+                    <ambient-light color="255 191 191" k="0.5"/>
+                    <materials>
+                        <material name="shiny" kd="0.5" ks="0.2 0.3 0.4" shininess="30" gloss="10"/>
+                    </materials>
+                    <geometries bvh="true">
+                        <sphere center="0 0 -100" radius="50" emission="10 20 30" material="shiny"/>
+                        <triangle p0="-100 0 -200" p1="0 100 -200" p2="-100 100 -200">
+                            <material kt="0.9"/>
+                        </triangle>
+                        <plane point="0 0 -300" normal="0 0 1"/>
+                        <polygon>
+                            <vertex p="100 0 -200"/> <vertex p="200 0 -200"/>
+                            <vertex p="200 100 -200"/> <vertex p="100 100 -200"/>
+                        </polygon>
+                    </geometries>
+                    <lights>
+                        <directional-light color="100 100 100" direction="1 0 0"/>
+                        <point-light color="200 0 0" position="0 50 0" kl="0.001"/>
+                        <spot-light color="0 200 0" position="0 -50 0" direction="0 0 -1" kq="0.0001"/>
+                    </lights>
+                    <camera location="0 0 0" direction="0 0 -1" up="0 1 0" vp-size="500 500" vp-distance="100"
+                            image="xml test" resolution="20 10" threads="2"/>
+                </scene>
+                """);
+        Scene scene = loader.getScene();
+        assertEquals("test", scene.name, "ERROR: wrong scene name");
+        assertEquals(new Color(75, 127, 190).getColor(), scene.background.getColor(), "ERROR: wrong background");
+        assertEquals(new Color(127.5, 95.5, 95.5).getColor(), scene.ambientLight.getIntensity().getColor(),
+                "ERROR: wrong ambient light");
+        assertEquals(19, loader.getElements(), "ERROR: wrong amount of elements");
+
+        // the sphere, with its emission and its named material
+        GeoPoint sphere = scene.geometries.findClosestGeoIntersection(new Ray(Point.ZERO, new Vector(0, 0, -1)));
+        assertEquals(new Point(0, 0, -50), sphere.point, "ERROR: wrong sphere");
+        assertEquals(new Color(10, 20, 30).getColor(), sphere.geometry.getEmission().getColor(),
+                "ERROR: wrong emission");
+        assertEquals(new Double3(0.2, 0.3, 0.4), sphere.geometry.getMaterial().kS, "ERROR: wrong named material");
+        assertEquals(10, sphere.geometry.getMaterial().gloss, "ERROR: wrong named material");
+
+        // the triangle, with its own material
+        GeoPoint triangle = scene.geometries.findClosestGeoIntersection(new Ray(new Point(-80, 80, 0), new Vector(0, 0, -1)));
+        assertEquals(new Point(-80, 80, -200), triangle.point, "ERROR: wrong triangle");
+        assertEquals(new Double3(0.9), triangle.geometry.getMaterial().kT, "ERROR: wrong nested material");
+
+        // the polygon, in front of the plane
+        List<GeoPoint> polygon = scene.geometries.findGeoIntersections(new Ray(new Point(150, 50, 0), new Vector(0, 0, -1)));
+        assertEquals(2, polygon.size(), "ERROR: wrong polygon or plane");
+
+        assertEquals(3, scene.lights.size(), "ERROR: wrong amount of lights");
+        assertInstanceOf(DirectionalLight.class, scene.lights.get(0), "ERROR: wrong directional light");
+        assertEquals(0.001, ((PointLight) scene.lights.get(1)).Kl, "ERROR: wrong point light");
+        assertInstanceOf(SpotLight.class, scene.lights.get(2), "ERROR: wrong spot light");
+
+        Camera camera = loader.getCameraBuilder().build();
+        assertEquals(2, camera.getThreads(), "ERROR: wrong camera threads");
+        assertEquals(Point.ZERO, camera.getLocation(), "ERROR: wrong camera location");
+        assertEquals(new Vector(0, 0, -1), camera.getVTo(), "ERROR: wrong camera direction");
+
+        //TC02: a mesh
+        loader = load("""
+                <scene>
+                    <geometries bvh="linear">
+                        <mesh watertight="true" bvh="linear-treelets">
+                            <vertex p="-1 -1 -5"/> <vertex p="1 -1 -5"/> <vertex p="1 1 -5"/> <vertex p="-1 1 -5"/>
+                            <face v="0 1 2"/> <face v="0 2 3"/>
+                        </mesh>
+                    </geometries>
+                </scene>
+                """);
+        GeoPoint face = loader.getScene().geometries
+                .findClosestGeoIntersection(new Ray(new Point(-0.5, 0.5, 0), new Vector(0, 0, -1)));
+        assertEquals(new Point(-0.5, 0.5, -5), face.point, "ERROR: wrong mesh");
+        assertEquals(2, ((TriangleMesh.Face) face.geometry).getMesh().size(), "ERROR: wrong amount of mesh faces");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: an empty scene
+        loader = load("<scene/>");
+        assertNull(loader.getScene().geometries.findGeoIntersections(new Ray(Point.ZERO, Vector.Y)),
+                "ERROR: geometries in an empty scene");
+        assertTrue(loader.getScene().lights.isEmpty(), "ERROR: lights in an empty scene");
+        assertNull(loader.getCameraBuilder(), "ERROR: camera in a scene without a camera");
+
+        //TC11: a mesh larger than the initial capacity of the loader
+        StringBuilder xml = new StringBuilder("<scene><geometries><mesh>");
+        int n = 2000;
+        for (int i = 0; i <= n; i++)
+            xml.append("<vertex p=\"").append(i).append(" 0 -5\"/><vertex p=\"").append(i).append(" 1 -5\"/>");
+        for (int i = 0; i < n; i++)
+            xml.append("<face v=\"").append(2 * i).append(' ').append(2 * i + 2).append(' ').append(2 * i + 1)
+                    .append("\"/>");
+        xml.append("</mesh></geometries></scene>");
+        face = load(xml.toString()).getScene().geometries
+                .findClosestGeoIntersection(new Ray(new Point(1999.2, 0.1, 0), new Vector(0, 0, -1)));
+        assertEquals(n, ((TriangleMesh.Face) face.geometry).getMesh().size(), "ERROR: wrong amount of mesh faces");
+    }
+
+    /**
+     * Test method for {@link SceneLoader#load(String, java.io.InputStream)} with invalid scenes.
+     */
+    @Test
+    void testLoadInvalid() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: not a well-formed XML
+        assertThrows(IllegalArgumentException.class, () -> load("<scene><geometries></scene>"),
+                "ERROR: malformed XML accepted");
+
+        //TC02: unknown element
+        assertThrows(IllegalArgumentException.class, () -> load("<scene><cube/></scene>"),
+                "ERROR: unknown element accepted");
+
+        //TC03: missing attribute
+        assertThrows(IllegalArgumentException.class,
+                () -> load("<scene><geometries><sphere center=\"0 0 0\"/></geometries></scene>"),
+                "ERROR: sphere without a radius accepted");
+
+        //TC04: unknown material
+        assertThrows(IllegalArgumentException.class,
+                () -> load("<scene><geometries><sphere center=\"0 0 0\" radius=\"1\" material=\"x\"/></geometries></scene>"),
+                "ERROR: unknown material accepted");
+
+        //TC05: invalid geometry
+        assertThrows(IllegalArgumentException.class,
+                () -> load("<scene><geometries><triangle p0=\"0 0 0\" p1=\"0 0 0\" p2=\"1 1 1\"/></geometries></scene>"),
+                "ERROR: degenerate triangle accepted");
+
+        //TC06: unknown construction of a hierarchy
+        assertThrows(IllegalArgumentException.class,
+                () -> load("<scene><geometries bvh=\"octree\"></geometries></scene>"),
+                "ERROR: unknown bvh accepted");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: a point with two coordinates
+        assertThrows(IllegalArgumentException.class,
+                () -> load("<scene><geometries><sphere center=\"0 0\" radius=\"1\"/></geometries></scene>"),
+                "ERROR: point of two coordinates accepted");
+
+        //TC11: a point with four coordinates
+        assertThrows(IllegalArgumentException.class,
+                () -> load("<scene><geometries><sphere center=\"0 0 0 0\" radius=\"1\"/></geometries></scene>"),
+                "ERROR: point of four coordinates accepted");
+
+        //TC12: a face index that is not of a vertex
+        assertThrows(IllegalArgumentException.class,
+                () -> load("<scene><geometries><mesh><vertex p=\"0 0 0\"/><face v=\"0 0 1\"/></mesh></geometries></scene>"),
+                "ERROR: face of a missing vertex accepted");
+    }
+}
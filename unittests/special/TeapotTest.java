@@ -4,6 +4,7 @@ import static java.awt.Color.YELLOW;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Geometry;
 import geometries.Triangle;
 import lighting.PointLight;
 import primitives.Color;
@@ -573,7 +574,29 @@ public class TeapotTest {
      */
     @Test
     public void teapot() {
-        scene.geometries.add( //
+        scene.geometries.add(triangles());
+        scene.geometries.setBVH(true);
+        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(100, 0, -100)).setKq(0.000001));
+
+        cameraBuilder
+                .setMultiThreading(3)
+                .setDebugPrint(0.1)
+                //.setAdaptiveDepth(1)
+                //.setTotalRays(81)
+                .build()
+                .renderImage()
+                .printGrid(50, new Color(YELLOW))
+                .writeToImage();
+    }
+
+    /**
+     * Builds the triangles of the teapot model. The model is shared with the benchmarks,
+     * so they measure exactly the scene that is rendered here.
+     *
+     * @return the triangles of the teapot
+     */
+    public static Geometry[] triangles() {
+        return new Geometry[] { //
                 new Triangle(pnts[7], pnts[6], pnts[1]).setEmission(color).setMaterial(mat), //
                 new Triangle(pnts[1], pnts[2], pnts[7]).setEmission(color).setMaterial(mat), //
                 new Triangle(pnts[8], pnts[7], pnts[2]).setEmission(color).setMaterial(mat), //
@@ -1566,18 +1589,7 @@ public class TeapotTest {
                 new Triangle(pnts[528], pnts[529], pnts[469]).setEmission(color).setMaterial(mat), //
                 new Triangle(pnts[470], pnts[469], pnts[529]).setEmission(color).setMaterial(mat), //
                 new Triangle(pnts[529], pnts[530], pnts[470]).setEmission(color).setMaterial(mat) //
-        );
-        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(100, 0, -100)).setKq(0.000001));
-
-        cameraBuilder
-                .setMultiThreading(3)
-                .setDebugPrint(0.1)
-                //.setAdaptiveDepth(1)
-                //.setTotalRays(81)
-                .build()
-                .renderImage()
-                .printGrid(50, new Color(YELLOW))
-                .writeToImage();
+        };
     }
 
 }
\ No newline at end of file